@@ -117,6 +117,20 @@ public interface ILispDAO {
      */
     Set<Eid> getSubtree(Eid key);
 
+    /**
+     * Get the IPv4 or IPv6 prefix key which follows the given one. Prefix keys are ordered IPv4 first, then IPv6, and
+     * within each family by address and then by prefix length, so that all more specific prefixes of a key follow it
+     * directly. Allows walking the DAO incrementally, without materializing it.
+     *
+     * @param key
+     *            The eid prefix, IPv4 or IPv6, after which to look, which doesn't need to be present in the DAO.
+     *            Key must be normalized. If null, the first prefix key is returned.
+     * @param inclusive
+     *            Return the key itself if present in the DAO.
+     * @return The next prefix key, or null if there are no more.
+     */
+    Eid getNextPrefix(Eid key, boolean inclusive);
+
     /**
      * Enumerate all the entries from the DAO.
      *
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.lispflowmapping.interfaces.lisp;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import org.apache.commons.lang3.tuple.Pair;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapNotify;
@@ -37,6 +38,19 @@ public interface IFlowMapping {
      */
     MapReply handleMapRequest(MapRequest mr);
 
+    /**
+     * Handle southbound map-request, returning the mapping records of the map-reply which are already serialized.
+     *
+     * @param mr
+     *            The map-request messages
+     * @return a map-reply message and the serialized form of the mapping record at the same index, or null for
+     *         records which need to be encoded, or null if there is no map-reply
+     */
+    default Pair<MapReply, List<ByteBuffer>> handleMapRequestSerialized(MapRequest mr) {
+        final MapReply mapReply = handleMapRequest(mr);
+        return mapReply != null ? Pair.of(mapReply, List.of()) : null;
+    }
+
     /**
      * Configure LISP mapping service to track and notify of changes mapping requesters.
      *
@@ -9,9 +9,8 @@ package org.opendaylight.lispflowmapping.interfaces.lisp;
 
 import java.util.List;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapNotify;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
 
 /**
  * An interface for dealing with a map notify message.
@@ -29,13 +28,11 @@ public interface IMapNotifyHandler {
     void handleMapNotify(MapNotify mapNotify, List<TransportAddress> rlocs);
 
     /**
-     * Handle Solicit Map Request message.
+     * Handle Solicit Map Request messages to several subscribers.
      *
-     * @param mapRequest
-     *            the SMR message
-     *
-     * @param subscriber
-     *            The address of the subscriber that should be SMRed
+     * @param smrs
+     *            the SMR message, without EID records, and the subscribers that should be SMRed. Each subscriber
+     *            gets it with its source EID as EID record.
      */
-    void handleSMR(MapRequest mapRequest, Rloc subscriber);
+    void handleSmrs(SendSmrsInput smrs);
 }
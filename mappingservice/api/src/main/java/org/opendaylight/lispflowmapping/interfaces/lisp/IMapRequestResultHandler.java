@@ -7,6 +7,8 @@
  */
 package org.opendaylight.lispflowmapping.interfaces.lisp;
 
+import java.nio.ByteBuffer;
+import java.util.List;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
@@ -23,6 +25,19 @@ public interface IMapRequestResultHandler {
      */
     void handleMapReply(MapReply mapReply);
 
+    /**
+     * Handle return map-reply message, some of whose mapping records are already serialized.
+     *
+     * @param mapReply
+     *            The map-reply message
+     * @param serializedRecords
+     *            The serialized form of the mapping record at the same index in the map-reply, or null for records
+     *            which need to be encoded
+     */
+    default void handleMapReply(MapReply mapReply, List<ByteBuffer> serializedRecords) {
+        handleMapReply(mapReply);
+    }
+
     /**
      * Handle map-request to be forwarded to authoritative ETR.
      *
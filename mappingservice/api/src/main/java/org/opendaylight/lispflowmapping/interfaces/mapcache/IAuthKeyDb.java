@@ -8,6 +8,7 @@
 
 package org.opendaylight.lispflowmapping.interfaces.mapcache;
 
+import java.util.function.BiPredicate;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 
@@ -46,6 +47,21 @@ public interface IAuthKeyDb {
      */
     void removeAuthenticationKey(Eid key);
 
+    /**
+     * Visit the authentication keys of IP prefixes in order, see
+     * {@link IMapCache#walkMappings(Long, Eid, Eid, BiPredicate)}.
+     *
+     * @param vni
+     *            Only visit this virtual network, or all of them if null. Ignored when prefix is set.
+     * @param prefix
+     *            Only visit keys of prefixes covered by this one, or all of them if null
+     * @param after
+     *            Start after this prefix, or from the beginning if null
+     * @param visitor
+     *            Called with each prefix and its key, the walk stops when it returns false
+     */
+    void walkAuthenticationKeys(Long vni, Eid prefix, Eid after, BiPredicate<Eid, MappingAuthkey> visitor);
+
     /**
      * Print authentication keys in database. Used for testing, debugging and the karaf shell.
      *
@@ -9,6 +9,7 @@
 package org.opendaylight.lispflowmapping.interfaces.mapcache;
 
 import java.util.Set;
+import java.util.function.BiPredicate;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
 
 /**
@@ -99,6 +100,24 @@ public interface IMapCache {
      */
     void removeData(Eid key, String subKey);
 
+    /**
+     * Visit the mappings of IP prefixes in order, looking up one prefix at a time. Virtual networks are visited in
+     * increasing order of their instance ID, and within one virtual network IPv4 prefixes come before IPv6 ones, each
+     * ordered by address and then by prefix length. Other address types are not visited.
+     *
+     * @param vni
+     *            Only visit this virtual network, or all of them if null. Ignored when prefix is set.
+     * @param prefix
+     *            Only visit mappings of prefixes covered by this one, or all of them if null
+     * @param after
+     *            Start after this prefix, or from the beginning if null
+     * @param visitor
+     *            Called with each prefix and its mapping, the walk stops when it returns false
+     * @throws UnsupportedOperationException
+     *            If the map-cache does not keep its prefixes ordered
+     */
+    void walkMappings(Long vni, Eid prefix, Eid after, BiPredicate<Eid, Object> visitor);
+
     /**
      * Print mappings in cache. Used for testing, debugging and the karaf shell.
      *
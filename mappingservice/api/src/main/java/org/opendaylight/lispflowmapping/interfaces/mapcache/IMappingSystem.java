@@ -9,6 +9,7 @@
 package org.opendaylight.lispflowmapping.interfaces.mapcache;
 
 import java.util.Set;
+import java.util.function.BiPredicate;
 import org.opendaylight.lispflowmapping.interfaces.dao.Subscriber;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
@@ -121,6 +122,23 @@ public interface IMappingSystem {
      */
     Set<Eid> getSubtree(MappingOrigin origin, Eid key);
 
+    /**
+     * Visit the IP prefix mappings of a table in order, see
+     * {@link IMapCache#walkMappings(Long, Eid, Eid, BiPredicate)}.
+     *
+     * @param origin
+     *            Table to be walked
+     * @param vni
+     *            Only visit this virtual network, or all of them if null. Ignored when prefix is set.
+     * @param prefix
+     *            Only visit mappings of prefixes covered by this one, or all of them if null
+     * @param after
+     *            Start after this prefix, or from the beginning if null
+     * @param visitor
+     *            Called with each prefix and its mapping, the walk stops when it returns false
+     */
+    void walkMappings(MappingOrigin origin, Long vni, Eid prefix, Eid after, BiPredicate<Eid, MappingData> visitor);
+
     /**
      * Refresh southbound mapping registration timestamp.
      *
@@ -191,6 +209,21 @@ public interface IMappingSystem {
      */
     void removeAuthenticationKey(Eid key);
 
+    /**
+     * Visit the authentication keys of IP prefixes in order, see
+     * {@link IAuthKeyDb#walkAuthenticationKeys(Long, Eid, Eid, BiPredicate)}.
+     *
+     * @param vni
+     *            Only visit this virtual network, or all of them if null. Ignored when prefix is set.
+     * @param prefix
+     *            Only visit keys of prefixes covered by this one, or all of them if null
+     * @param after
+     *            Start after this prefix, or from the beginning if null
+     * @param visitor
+     *            Called with each prefix and its key, the walk stops when it returns false
+     */
+    void walkAuthenticationKeys(Long vni, Eid prefix, Eid after, BiPredicate<Eid, MappingAuthkey> visitor);
+
 
     /**
      * Add data for key.
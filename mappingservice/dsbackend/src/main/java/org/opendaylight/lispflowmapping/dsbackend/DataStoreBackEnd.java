@@ -15,8 +15,11 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
@@ -44,6 +47,10 @@ import org.slf4j.LoggerFactory;
 /**
  * Stores data coming from the mapping database RPCs into the MD-SAL datastore.
  *
+ * <p>By default every write is committed in its own transaction. When a write-behind window is configured, writes
+ * are queued instead, and coalesced per path into batches which are committed as a single transaction for each
+ * datastore, trading a bounded delay in persisting them for fewer commits.
+ *
  * @author Lorand Jakab
  */
 public class DataStoreBackEnd {
@@ -55,9 +62,22 @@ public class DataStoreBackEnd {
 
     private final TransactionChain configTxChain;
     private final TransactionChain operTxChain;
+    private final WriteBehindQueue writeBehindQueue;
 
-    @SuppressFBWarnings(value = "MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR", justification = "Non-final for mocking")
     public DataStoreBackEnd(DataBroker broker) {
+        this(broker, 0, 0);
+    }
+
+    /**
+     * Create a back end which optionally coalesces writes.
+     *
+     * @param broker the data broker
+     * @param writeBehindWindowMillis maximum time in milliseconds a write is queued before being committed, 0 to
+     *     commit every write immediately
+     * @param maxBatchSize number of queued writes which triggers a commit before the window elapsed
+     */
+    @SuppressFBWarnings(value = "MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR", justification = "Non-final for mocking")
+    public DataStoreBackEnd(DataBroker broker, long writeBehindWindowMillis, int maxBatchSize) {
         LOG.debug("Creating DataStoreBackEnd transaction chain...");
         configTxChain = broker.createMergingTransactionChain();
         operTxChain = broker.createMergingTransactionChain();
@@ -83,6 +103,13 @@ public class DataStoreBackEnd {
                 onTransactionChainFailed(operTxChain, cause);
             }
         });
+        if (writeBehindWindowMillis > 0) {
+            LOG.debug("Committing datastore writes in batches of up to {} every {}ms", maxBatchSize,
+                    writeBehindWindowMillis);
+            writeBehindQueue = new WriteBehindQueue(this::getChain, writeBehindWindowMillis, maxBatchSize);
+        } else {
+            writeBehindQueue = null;
+        }
     }
 
     public void addAuthenticationKey(AuthenticationKey authenticationKey) {
@@ -200,6 +227,112 @@ public class DataStoreBackEnd {
                 "Updating mapping in MD-SAL datastore failed");
     }
 
+    /**
+     * Add a list of authentication keys to the config datastore in a single transaction.
+     *
+     * @param authenticationKeys the keys to be added
+     */
+    public void addAuthenticationKeys(Collection<AuthenticationKey> authenticationKeys) {
+        LOG.debug("MD-SAL: Adding {} authentication keys", authenticationKeys.size());
+        putAuthenticationKeys(authenticationKeys, "Adding authentication keys to MD-SAL datastore failed");
+    }
+
+    /**
+     * Update a list of authentication keys in the config datastore in a single transaction.
+     *
+     * @param authenticationKeys the keys to be updated
+     */
+    public void updateAuthenticationKeys(Collection<AuthenticationKey> authenticationKeys) {
+        LOG.debug("MD-SAL: Updating {} authentication keys", authenticationKeys.size());
+        putAuthenticationKeys(authenticationKeys, "Updating authentication keys in MD-SAL datastore failed");
+    }
+
+    /**
+     * Remove a list of authentication keys from the config datastore in a single transaction.
+     *
+     * @param authenticationKeys the keys to be removed, only the EIDs are used
+     */
+    public void removeAuthenticationKeys(Collection<AuthenticationKey> authenticationKeys) {
+        LOG.debug("MD-SAL: Removing {} authentication keys", authenticationKeys.size());
+        final List<DataObjectIdentifier<AuthenticationKey>> paths = new ArrayList<>(authenticationKeys.size());
+        for (AuthenticationKey authenticationKey : authenticationKeys) {
+            paths.add(InstanceIdentifierUtil.createAuthenticationKeyIid(authenticationKey.getEid()));
+        }
+        deleteTransaction(paths, LogicalDatastoreType.CONFIGURATION,
+                "Deleting authentication keys from MD-SAL datastore failed");
+    }
+
+    /**
+     * Add a list of mappings to the datastore. One transaction is used for each of the config and operational
+     * datastores, depending on the origin of the mappings.
+     *
+     * @param mappings the mappings to be added
+     */
+    public void addMappings(Collection<Mapping> mappings) {
+        LOG.debug("MD-SAL: Adding {} mappings", mappings.size());
+        putMappings(mappings, "Adding mappings to MD-SAL datastore failed");
+    }
+
+    /**
+     * Update a list of mappings in the datastore. One transaction is used for each of the config and operational
+     * datastores, depending on the origin of the mappings.
+     *
+     * @param mappings the mappings to be updated
+     */
+    public void updateMappings(Collection<Mapping> mappings) {
+        LOG.debug("MD-SAL: Updating {} mappings", mappings.size());
+        putMappings(mappings, "Updating mappings in MD-SAL datastore failed");
+    }
+
+    /**
+     * Remove a list of mappings from the datastore. One transaction is used for each of the config and operational
+     * datastores, depending on the origin of the mappings.
+     *
+     * @param mappings the mappings to be removed, only the EIDs and origins are used
+     */
+    public void removeMappings(Collection<Mapping> mappings) {
+        LOG.debug("MD-SAL: Removing {} mappings", mappings.size());
+        final List<DataObjectIdentifier<Mapping>> configPaths = new ArrayList<>();
+        final List<DataObjectIdentifier<Mapping>> operPaths = new ArrayList<>();
+        for (Mapping mapping : mappings) {
+            final var path = InstanceIdentifierUtil
+                    .createMappingIid(mapping.getMappingRecord().getEid(), mapping.getOrigin());
+            if (getDestinationDatastore(mapping) == LogicalDatastoreType.CONFIGURATION) {
+                configPaths.add(path);
+            } else {
+                operPaths.add(path);
+            }
+        }
+        deleteTransaction(configPaths, LogicalDatastoreType.CONFIGURATION,
+                "Deleting mappings from MD-SAL datastore failed");
+        deleteTransaction(operPaths, LogicalDatastoreType.OPERATIONAL,
+                "Deleting mappings from MD-SAL datastore failed");
+    }
+
+    private void putAuthenticationKeys(Collection<AuthenticationKey> authenticationKeys, String errMsg) {
+        final Map<DataObjectIdentifier<AuthenticationKey>, AuthenticationKey> data = new LinkedHashMap<>();
+        for (AuthenticationKey authenticationKey : authenticationKeys) {
+            data.put(InstanceIdentifierUtil.createAuthenticationKeyIid(authenticationKey.getEid()), authenticationKey);
+        }
+        writePutTransaction(data, LogicalDatastoreType.CONFIGURATION, errMsg);
+    }
+
+    private void putMappings(Collection<Mapping> mappings, String errMsg) {
+        final Map<DataObjectIdentifier<Mapping>, Mapping> configData = new LinkedHashMap<>();
+        final Map<DataObjectIdentifier<Mapping>, Mapping> operData = new LinkedHashMap<>();
+        for (Mapping mapping : mappings) {
+            final var path = InstanceIdentifierUtil
+                    .createMappingIid(mapping.getMappingRecord().getEid(), mapping.getOrigin());
+            if (getDestinationDatastore(mapping) == LogicalDatastoreType.CONFIGURATION) {
+                configData.put(path, mapping);
+            } else {
+                operData.put(path, mapping);
+            }
+        }
+        writePutTransaction(configData, LogicalDatastoreType.CONFIGURATION, errMsg);
+        writePutTransaction(operData, LogicalDatastoreType.OPERATIONAL, errMsg);
+    }
+
     public List<Mapping> getAllMappings() {
         List<Mapping> mappings = getAllMappings(LogicalDatastoreType.CONFIGURATION);
         mappings.addAll(getAllMappings(LogicalDatastoreType.OPERATIONAL));
@@ -224,6 +357,21 @@ public class DataStoreBackEnd {
         return mappings;
     }
 
+    /**
+     * Read the per virtual network subtrees of the mapping database. Unlike {@link #getAllMappings()}, nothing is
+     * copied: the mappings and keys of a virtual network are only decoded when its subtree is accessed, so the
+     * subtrees can be processed one by one, or in parallel.
+     *
+     * @param logicalDataStore the datastore to read from
+     * @return the virtual network subtrees, empty if the database does not exist
+     */
+    public Collection<VirtualNetworkIdentifier> getAllVirtualNetworks(LogicalDatastoreType logicalDataStore) {
+        LOG.debug("MD-SAL: Get all virtual networks from {} datastore",
+                logicalDataStore == LogicalDatastoreType.CONFIGURATION ? "config" : "operational");
+        MappingDatabase mdb = readTransaction(DATABASE_ROOT, logicalDataStore);
+        return mdb == null ? List.of() : mdb.nonnullVirtualNetworkIdentifier().values();
+    }
+
     public List<AuthenticationKey> getAllAuthenticationKeys() {
         LOG.debug("MD-SAL: Get all authentication keys from datastore");
         List<AuthenticationKey> authKeys = new ArrayList<>();
@@ -281,6 +429,10 @@ public class DataStoreBackEnd {
 
     private <U extends DataObject> void writePutTransaction(DataObjectIdentifier<U> addIID, U data,
             LogicalDatastoreType logicalDatastoreType, String errMsg) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.put(logicalDatastoreType, addIID, data);
+            return;
+        }
         WriteTransaction writeTx = getChain(logicalDatastoreType).newWriteOnlyTransaction();
         // TODO: is is a utility method, hence we do not have enough lifecycle knowledge to use plain put()
         writeTx.mergeParentStructurePut(logicalDatastoreType, addIID, data);
@@ -297,6 +449,34 @@ public class DataStoreBackEnd {
         }, MoreExecutors.directExecutor());
     }
 
+    private <U extends DataObject> void writePutTransaction(Map<DataObjectIdentifier<U>, U> data,
+            LogicalDatastoreType logicalDatastoreType, String errMsg) {
+        if (data.isEmpty()) {
+            return;
+        }
+        if (writeBehindQueue != null) {
+            for (Map.Entry<DataObjectIdentifier<U>, U> entry : data.entrySet()) {
+                writeBehindQueue.put(logicalDatastoreType, entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        WriteTransaction writeTx = getChain(logicalDatastoreType).newWriteOnlyTransaction();
+        for (Map.Entry<DataObjectIdentifier<U>, U> entry : data.entrySet()) {
+            writeTx.mergeParentStructurePut(logicalDatastoreType, entry.getKey(), entry.getValue());
+        }
+        writeTx.commit().addCallback(new FutureCallback<CommitInfo>() {
+            @Override
+            public void onSuccess(CommitInfo result) {
+                // No-op
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                LOG.error("{}:", errMsg, throwable);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
     private <U extends DataObject> U readTransaction(DataObjectIdentifier<U> readIID,
             LogicalDatastoreType logicalDatastoreType) {
         final ListenableFuture<Optional<U>> readFuture;
@@ -318,11 +498,16 @@ public class DataStoreBackEnd {
 
     private <U extends DataObject> void deleteTransaction(DataObjectIdentifier<U> deleteIID,
             LogicalDatastoreType logicalDatastoreType, String errMsg) {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.delete(logicalDatastoreType, deleteIID);
+            return;
+        }
         WriteTransaction writeTx = getChain(logicalDatastoreType).newWriteOnlyTransaction();
         writeTx.delete(logicalDatastoreType, deleteIID);
         writeTx.commit().addCallback(new FutureCallback<CommitInfo>() {
             @Override
             public void onSuccess(CommitInfo result) {
+                // No-op
             }
 
             @Override
@@ -332,6 +517,34 @@ public class DataStoreBackEnd {
         }, MoreExecutors.directExecutor());
     }
 
+    private <U extends DataObject> void deleteTransaction(Collection<DataObjectIdentifier<U>> deleteIIDs,
+            LogicalDatastoreType logicalDatastoreType, String errMsg) {
+        if (deleteIIDs.isEmpty()) {
+            return;
+        }
+        if (writeBehindQueue != null) {
+            for (DataObjectIdentifier<U> deleteIID : deleteIIDs) {
+                writeBehindQueue.delete(logicalDatastoreType, deleteIID);
+            }
+            return;
+        }
+        WriteTransaction writeTx = getChain(logicalDatastoreType).newWriteOnlyTransaction();
+        for (DataObjectIdentifier<U> deleteIID : deleteIIDs) {
+            writeTx.delete(logicalDatastoreType, deleteIID);
+        }
+        writeTx.commit().addCallback(new FutureCallback<CommitInfo>() {
+            @Override
+            public void onSuccess(CommitInfo result) {
+                // No-op
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                LOG.error("{}:", errMsg, throwable);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
     @VisibleForTesting
     void onTransactionChainFailed(TransactionChain chain, Throwable cause) {
         LOG.error("Broken chain {} in DataStoreBackEnd, cause {}", chain, cause.getMessage());
@@ -342,7 +555,76 @@ public class DataStoreBackEnd {
         LOG.info("DataStoreBackEnd closed successfully, chain {}", chain);
     }
 
+    /**
+     * Commit all queued writes without waiting for the write-behind window to elapse. Does nothing if write-behind
+     * is disabled.
+     */
+    public void flush() {
+        if (writeBehindQueue != null) {
+            writeBehindQueue.flush();
+        }
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindQueue != null;
+    }
+
+    /**
+     * Number of writes queued and not yet committed.
+     *
+     * @return the queue depth, 0 if write-behind is disabled
+     */
+    public int getPendingWriteCount() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getPendingCount();
+    }
+
+    /**
+     * Number of queued writes which were replaced by a later write to the same path before being committed.
+     *
+     * @return the coalesced write count, 0 if write-behind is disabled
+     */
+    public long getCoalescedWriteCount() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getCoalescedWrites();
+    }
+
+    /**
+     * Number of writes which were dropped because they were made after the transaction chains were closed.
+     *
+     * @return the dropped write count, 0 if write-behind is disabled
+     */
+    public long getDroppedWriteCount() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getDroppedWrites();
+    }
+
+    public long getCommittedBatchCount() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getCommittedBatches();
+    }
+
+    public long getFailedBatchCount() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getFailedBatches();
+    }
+
+    public long getLastBatchSize() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getLastBatchSize();
+    }
+
+    public long getLargestBatchSize() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getLargestBatchSize();
+    }
+
+    public long getLastCommitLatencyNanos() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getLastCommitLatencyNanos();
+    }
+
+    public long getAverageCommitLatencyNanos() {
+        return writeBehindQueue == null ? 0 : writeBehindQueue.getAverageCommitLatencyNanos();
+    }
+
     public void closeTransactionChain() {
+        if (writeBehindQueue != null) {
+            LOG.debug("Committing {} queued DataStoreBackEnd writes...", writeBehindQueue.getPendingCount());
+            writeBehindQueue.close();
+        }
         LOG.debug("Closing DataStoreBackEnd transaction chain...");
         configTxChain.close();
         operTxChain.close();
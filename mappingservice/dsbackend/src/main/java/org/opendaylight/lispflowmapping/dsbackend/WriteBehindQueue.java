@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.dsbackend;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.eclipse.jdt.annotation.Nullable;
+import org.opendaylight.mdsal.binding.api.TransactionChain;
+import org.opendaylight.mdsal.binding.api.WriteTransaction;
+import org.opendaylight.mdsal.common.api.CommitInfo;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
+import org.opendaylight.yangtools.binding.DataObject;
+import org.opendaylight.yangtools.binding.DataObjectIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces datastore writes and commits them in batches.
+ *
+ * <p>Pending writes are kept per datastore, keyed by path, so only the last put or delete for a path survives until
+ * the next commit. A superseded write is moved to the end of the batch, which keeps the order of the surviving
+ * writes the same as if they had been committed one by one (e.g. a put after a delete of a parent). A batch is
+ * committed as one transaction per datastore on the existing transaction chains, either when the write-behind window
+ * elapsed since its first write, or as soon as it reaches the maximum batch size.
+ */
+final class WriteBehindQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindQueue.class);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final Function<LogicalDatastoreType, TransactionChain> chains;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+    private final Object commitLock = new Object();
+
+    // Guarded by this. A null value means the path is to be deleted.
+    private Map<LogicalDatastoreType, Map<DataObjectIdentifier<?>, DataObject>> pending = newPending();
+    private int pendingCount;
+    private boolean flushScheduled;
+    private boolean flushRequested;
+    private boolean closed;
+
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder totalCommitLatencyNanos = new LongAdder();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong largestBatchSize = new AtomicLong();
+    private final AtomicLong lastCommitLatencyNanos = new AtomicLong();
+
+    WriteBehindQueue(Function<LogicalDatastoreType, TransactionChain> chains, long windowMillis, int maxBatchSize) {
+        this.chains = chains;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("lfm-dsbe-write-behind-%d").setDaemon(true).build());
+    }
+
+    void put(LogicalDatastoreType datastore, DataObjectIdentifier<?> path, DataObject data) {
+        enqueue(datastore, path, data);
+    }
+
+    void delete(LogicalDatastoreType datastore, DataObjectIdentifier<?> path) {
+        enqueue(datastore, path, null);
+    }
+
+    private synchronized void enqueue(LogicalDatastoreType datastore, DataObjectIdentifier<?> path,
+            @Nullable DataObject data) {
+        if (closed) {
+            // The executor is shut down and the transaction chains are about to be closed, so there is no one left
+            // to commit the write
+            droppedWrites.increment();
+            LOG.warn("Write-behind queue is closed, dropping {} of {} in {} datastore", data == null ? "delete" : "put",
+                    path, datastore);
+            return;
+        }
+        final Map<DataObjectIdentifier<?>, DataObject> writes = pending.get(datastore);
+        if (writes.containsKey(path)) {
+            writes.remove(path);
+            coalescedWrites.increment();
+        } else {
+            pendingCount++;
+        }
+        writes.put(path, data);
+
+        if (pendingCount >= maxBatchSize) {
+            if (!flushRequested) {
+                flushRequested = true;
+                executor.execute(this::flush);
+            }
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commit all pending writes.
+     */
+    void flush() {
+        // Transactions have to be allocated and committed in the same order as the batches were taken
+        synchronized (commitLock) {
+            final Map<LogicalDatastoreType, Map<DataObjectIdentifier<?>, DataObject>> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = newPending();
+                pendingCount = 0;
+                flushScheduled = false;
+                flushRequested = false;
+            }
+            for (Map.Entry<LogicalDatastoreType, Map<DataObjectIdentifier<?>, DataObject>> entry : batch.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    commit(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Commit all pending writes and stop accepting new ones. Writes enqueued afterwards are dropped with a warning.
+     */
+    void close() {
+        // Set under the same lock as enqueue(), so no write schedules a flush after the shutdown below
+        synchronized (this) {
+            closed = true;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Write-behind queue did not finish its scheduled commits in {}ms", CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("Interrupted while waiting for the write-behind queue to finish", e);
+            Thread.currentThread().interrupt();
+        }
+        // Delayed flushes are still run after shutdown, this one only picks up what they did not
+        flush();
+    }
+
+    private void commit(LogicalDatastoreType datastore, Map<DataObjectIdentifier<?>, DataObject> writes) {
+        final int size = writes.size();
+        final WriteTransaction writeTx = chains.apply(datastore).newWriteOnlyTransaction();
+        for (Map.Entry<DataObjectIdentifier<?>, DataObject> entry : writes.entrySet()) {
+            if (entry.getValue() == null) {
+                writeTx.delete(datastore, entry.getKey());
+            } else {
+                put(writeTx, datastore, entry.getKey(), entry.getValue());
+            }
+        }
+
+        lastBatchSize.set(size);
+        largestBatchSize.accumulateAndGet(size, Math::max);
+        final long start = System.nanoTime();
+        writeTx.commit().addCallback(new FutureCallback<CommitInfo>() {
+            @Override
+            public void onSuccess(CommitInfo result) {
+                final long latency = System.nanoTime() - start;
+                committedBatches.increment();
+                totalCommitLatencyNanos.add(latency);
+                lastCommitLatencyNanos.set(latency);
+                LOG.debug("Committed batch of {} writes to {} datastore in {}us", size, datastore,
+                        TimeUnit.NANOSECONDS.toMicros(latency));
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                failedBatches.increment();
+                LOG.error("Committing batch of {} writes to {} datastore failed:", size, datastore, throwable);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends DataObject> void put(WriteTransaction writeTx, LogicalDatastoreType datastore,
+            DataObjectIdentifier<?> path, DataObject data) {
+        writeTx.mergeParentStructurePut(datastore, (DataObjectIdentifier<T>) path, (T) data);
+    }
+
+    private static Map<LogicalDatastoreType, Map<DataObjectIdentifier<?>, DataObject>> newPending() {
+        final Map<LogicalDatastoreType, Map<DataObjectIdentifier<?>, DataObject>> map =
+                new EnumMap<>(LogicalDatastoreType.class);
+        for (LogicalDatastoreType datastore : LogicalDatastoreType.values()) {
+            map.put(datastore, new LinkedHashMap<>());
+        }
+        return map;
+    }
+
+    synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    long getCoalescedWrites() {
+        return coalescedWrites.sum();
+    }
+
+    long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+
+    long getCommittedBatches() {
+        return committedBatches.sum();
+    }
+
+    long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    long getLastBatchSize() {
+        return lastBatchSize.get();
+    }
+
+    long getLargestBatchSize() {
+        return largestBatchSize.get();
+    }
+
+    long getLastCommitLatencyNanos() {
+        return lastCommitLatencyNanos.get();
+    }
+
+    long getAverageCommitLatencyNanos() {
+        final long batches = committedBatches.sum();
+        return batches == 0 ? 0 : totalCommitLatencyNanos.sum() / batches;
+    }
+}
@@ -13,6 +13,7 @@ import com.google.common.util.concurrent.FluentFuture;
 import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.junit.Before;
@@ -144,6 +145,105 @@ public class DataStoreBackEndTest {
         assertEquals(MappingOrigin.Northbound, result.getOrigin());
     }
 
+    /**
+     * Tests {@link DataStoreBackEnd#addMappings} method.
+     */
+    @Test
+    public void addMappingsTest() {
+        final Mapping mapping1 = new MappingBuilder()
+                .withKey(new MappingKey(new EidUri(LispAddressStringifier.getURIString(EID_IPV4_1)),
+                        MappingOrigin.Northbound))
+                .setMappingRecord(getDefaultMappingRecordBuilder().build())
+                .setOrigin(MappingOrigin.Northbound).build();
+        final Mapping mapping2 = new MappingBuilder()
+                .withKey(new MappingKey(new EidUri(LispAddressStringifier.getURIString(EID_IPV4_2)),
+                        MappingOrigin.Northbound))
+                .setMappingRecord(getDefaultMappingRecordBuilder().setEid(EID_IPV4_2).build())
+                .setOrigin(MappingOrigin.Northbound).build();
+
+        dataStoreBackEnd.addMappings(List.of(mapping1, mapping2));
+        Mockito.verify(wTxMock, Mockito.times(2)).mergeParentStructurePut(
+                Mockito.eq(LogicalDatastoreType.CONFIGURATION), iidCaptorMapping.capture(), Mockito.any(Mapping.class));
+        Mockito.verify(wTxMock).commit();
+
+        // result
+        assertEquals("ipv4:" + IPV4_STRING_1,
+                iidCaptorMapping.getAllValues().get(0).firstKeyOf(Mapping.class).getEidUri().getValue());
+        assertEquals("ipv4:" + IPV4_STRING_2,
+                iidCaptorMapping.getAllValues().get(1).firstKeyOf(Mapping.class).getEidUri().getValue());
+    }
+
+    /**
+     * Tests that writes to the same path are coalesced and committed in one transaction when write-behind is enabled.
+     */
+    @Test
+    public void writeBehindTest() {
+        final DataBroker brokerMock = Mockito.mock(DataBroker.class);
+        Mockito.when(brokerMock.createMergingTransactionChain()).thenReturn(txChainMock);
+        final DataStoreBackEnd writeBehindBackEnd = new DataStoreBackEnd(brokerMock, 60000, 1000);
+
+        final Mapping mapping1 = new MappingBuilder()
+                .withKey(new MappingKey(new EidUri(LispAddressStringifier.getURIString(EID_IPV4_1)),
+                        MappingOrigin.Northbound))
+                .setMappingRecord(getDefaultMappingRecordBuilder().build())
+                .setOrigin(MappingOrigin.Northbound).build();
+        final Mapping mapping1Updated = new MappingBuilder(mapping1)
+                .setMappingRecord(getDefaultMappingRecordBuilder().setRecordTtl(10).build()).build();
+        final Mapping mapping2 = new MappingBuilder()
+                .withKey(new MappingKey(new EidUri(LispAddressStringifier.getURIString(EID_IPV4_2)),
+                        MappingOrigin.Northbound))
+                .setMappingRecord(getDefaultMappingRecordBuilder().setEid(EID_IPV4_2).build())
+                .setOrigin(MappingOrigin.Northbound).build();
+
+        writeBehindBackEnd.addMapping(mapping1);
+        writeBehindBackEnd.addMapping(mapping2);
+        writeBehindBackEnd.updateMapping(mapping1Updated);
+        writeBehindBackEnd.removeMapping(mapping2);
+        Mockito.verify(txChainMock, Mockito.never()).newWriteOnlyTransaction();
+        assertEquals(2, writeBehindBackEnd.getPendingWriteCount());
+        assertEquals(2, writeBehindBackEnd.getCoalescedWriteCount());
+
+        writeBehindBackEnd.flush();
+        Mockito.verify(txChainMock).newWriteOnlyTransaction();
+        Mockito.verify(wTxMock).mergeParentStructurePut(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                iidCaptorMapping.capture(), Mockito.eq(mapping1Updated));
+        Mockito.verify(wTxMock).delete(Mockito.eq(LogicalDatastoreType.CONFIGURATION),
+                Mockito.any(DataObjectIdentifier.class));
+        Mockito.verify(wTxMock).commit();
+        Mockito.verifyNoMoreInteractions(wTxMock);
+
+        // result
+        assertEquals("ipv4:" + IPV4_STRING_1,
+                iidCaptorMapping.getValue().firstKeyOf(Mapping.class).getEidUri().getValue());
+        assertEquals(0, writeBehindBackEnd.getPendingWriteCount());
+        assertEquals(2, writeBehindBackEnd.getLastBatchSize());
+        assertEquals(1, writeBehindBackEnd.getCommittedBatchCount());
+        writeBehindBackEnd.closeTransactionChain();
+    }
+
+    /**
+     * Tests that writes made after the back end was closed are dropped instead of failing.
+     */
+    @Test
+    public void writeBehindTest_afterClose() {
+        final DataBroker brokerMock = Mockito.mock(DataBroker.class);
+        Mockito.when(brokerMock.createMergingTransactionChain()).thenReturn(txChainMock);
+        final DataStoreBackEnd writeBehindBackEnd = new DataStoreBackEnd(brokerMock, 60000, 1000);
+        writeBehindBackEnd.closeTransactionChain();
+
+        final Mapping mapping = new MappingBuilder()
+                .withKey(new MappingKey(new EidUri(LispAddressStringifier.getURIString(EID_IPV4_1)),
+                        MappingOrigin.Northbound))
+                .setMappingRecord(getDefaultMappingRecordBuilder().build())
+                .setOrigin(MappingOrigin.Northbound).build();
+        writeBehindBackEnd.addMapping(mapping);
+        writeBehindBackEnd.removeMapping(mapping);
+
+        Mockito.verify(txChainMock, Mockito.never()).newWriteOnlyTransaction();
+        assertEquals(0, writeBehindBackEnd.getPendingWriteCount());
+        assertEquals(2, writeBehindBackEnd.getDroppedWriteCount());
+    }
+
     /**
      * Tests {@link DataStoreBackEnd#addXtrIdMapping} method.
      */
@@ -181,6 +281,26 @@ public class DataStoreBackEndTest {
         assertEquals("ipv4:" + IPV4_STRING_1, result.getEidUri().getValue());
     }
 
+    /**
+     * Tests {@link DataStoreBackEnd#removeAuthenticationKeys} method.
+     */
+    @Test
+    public void removeAuthenticationKeysTest() {
+        final AuthenticationKey authenticationKey1 = getDefaultAuthenticationKeyBuilder().build();
+        final AuthenticationKey authenticationKey2 = getDefaultAuthenticationKeyBuilder().setEid(EID_IPV4_2).build();
+
+        dataStoreBackEnd.removeAuthenticationKeys(List.of(authenticationKey1, authenticationKey2));
+        Mockito.verify(wTxMock, Mockito.times(2))
+                .delete(Mockito.eq(LogicalDatastoreType.CONFIGURATION), iidCaptorAuthKey.capture());
+        Mockito.verify(wTxMock).commit();
+
+        // result
+        assertEquals("ipv4:" + IPV4_STRING_1,
+                iidCaptorAuthKey.getAllValues().get(0).firstKeyOf(AuthenticationKey.class).getEidUri().getValue());
+        assertEquals("ipv4:" + IPV4_STRING_2,
+                iidCaptorAuthKey.getAllValues().get(1).firstKeyOf(AuthenticationKey.class).getEidUri().getValue());
+    }
+
     /**
      * Tests {@link DataStoreBackEnd#removeMapping} method.
      */
@@ -290,6 +410,25 @@ public class DataStoreBackEndTest {
         assertEquals(4, dataStoreBackEnd.getAllAuthenticationKeys().size());
     }
 
+    /**
+     * Tests {@link DataStoreBackEnd#getAllVirtualNetworks} method.
+     */
+    @Test
+    public void getAllVirtualNetworksTest() {
+        final ReadTransaction rTxMock = Mockito.mock(ReadTransaction.class);
+        final FluentFuture<Optional<MappingDatabase>> readFutureMock = FluentFutures.immediateFluentFuture(
+            Optional.of(getDefaultMappingDatabase().build()));
+        final FluentFuture<Optional<MappingDatabase>> emptyFutureMock = FluentFutures.immediateFluentFuture(
+            Optional.empty());
+
+        Mockito.when(txChainMock.newReadOnlyTransaction()).thenReturn(rTxMock);
+        Mockito.when(rTxMock.read(LogicalDatastoreType.CONFIGURATION, DATABASE_ROOT)).thenReturn(readFutureMock);
+        Mockito.when(rTxMock.read(LogicalDatastoreType.OPERATIONAL, DATABASE_ROOT)).thenReturn(emptyFutureMock);
+
+        assertEquals(2, dataStoreBackEnd.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION).size());
+        assertEquals(0, dataStoreBackEnd.getAllVirtualNetworks(LogicalDatastoreType.OPERATIONAL).size());
+    }
+
     /**
      * Tests {@link DataStoreBackEnd#removeAllDatastoreContent} method.
      */
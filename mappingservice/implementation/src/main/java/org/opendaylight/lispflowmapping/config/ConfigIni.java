@@ -9,6 +9,10 @@ package org.opendaylight.lispflowmapping.config;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.net.InetAddresses;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.eclipse.jdt.annotation.NonNull;
@@ -36,6 +40,11 @@ public final class ConfigIni {
     private long smrTimeout;
     private int smrRetryCount;
     private int negativeMappingTTL;
+    private long dsbeWriteBehindWindow;
+    private int dsbeMaxBatchSize = DEFAULT_DSBE_MAX_BATCH_SIZE;
+    private String sbMapCacheDirectory;
+    private InetAddress smrSourceIpv4Address;
+    private InetAddress smrSourceIpv6Address;
 
     /*
      * XXX  When configuration options are added or removed, they should also be added/removed in the karaf
@@ -55,12 +64,20 @@ public final class ConfigIni {
     private static final String LISP_SMR_RETRY_COUNT = "lisp.smrRetryCount";
     private static final String LISP_SMR_TIMEOUT = "lisp.smrTimeout";
     private static final String LISP_NEGATIVE_MAPPING_TTL = "lisp.negativeMappingTTL";
+    private static final String LISP_DSBE_WRITE_BEHIND_WINDOW = "lisp.dsbeWriteBehindWindow";
+    private static final String LISP_DSBE_MAX_BATCH_SIZE = "lisp.dsbeMaxBatchSize";
+    private static final String LISP_SB_MAP_CACHE_DIRECTORY = "lisp.sbMapCacheDirectory";
+    private static final String LISP_SMR_SOURCE_IPV4_ADDRESS = "lisp.smrSourceIpv4Address";
+    private static final String LISP_SMR_SOURCE_IPV6_ADDRESS = "lisp.smrSourceIpv6Address";
 
     // SB Map Register validity period in milliseconds. Default is 3.3 minutes.
     private static final long MIN_REGISTRATION_VALIDITY_SB = 200000L;
     private static final long DEFAULT_SMR_TIMEOUT = 3000L;
     private static final int DEFAULT_SMR_RETRY_COUNT = 5;
     private static final int DEFAULT_NEGATIVE_MAPPING_TTL = 15;
+    // Datastore writes are committed immediately by default
+    private static final long DEFAULT_DSBE_WRITE_BEHIND_WINDOW = 0L;
+    private static final int DEFAULT_DSBE_MAX_BATCH_SIZE = 1000;
 
     public ConfigIni(boolean mappingMerge, boolean smr, ExplicitLocatorPathPolicy elpPolicy,
             LookupPolicy lookupPolicy, long registrationValidityMillis, int smrRetryCount, long smrTimeoutMillis,
@@ -93,13 +110,21 @@ public final class ConfigIni {
     }
 
     private ConfigIni(String mappingMerge, String smr, String elpPolicy, String lookupPolicy,
-           String registrationValidity, String smrRetryCount, String smrTimeout, String negativeMappingTtl) {
+           String registrationValidity, String smrRetryCount, String smrTimeout, String negativeMappingTtl,
+           String dsbeWriteBehindWindow, String dsbeMaxBatchSize, String sbMapCacheDirectory,
+           String smrSourceIpv4Address, String smrSourceIpv6Address) {
         this(
             mappingMerge != null && mappingMerge.trim().equalsIgnoreCase("true"),
             smr == null || !smr.trim().equalsIgnoreCase("false"),
             parseElpPolicy(elpPolicy), parseLookupPolicy(lookupPolicy),
             parseRegistrationValidity(registrationValidity), parseSmrRetryCount(smrRetryCount),
             parseSmrTimeout(smrTimeout), parseNegativeMappingTtl(negativeMappingTtl));
+        setDsbeWriteBehindWindow(parseDsbeWriteBehindWindow(dsbeWriteBehindWindow));
+        setDsbeMaxBatchSize(parseDsbeMaxBatchSize(dsbeMaxBatchSize));
+        setSbMapCacheDirectory(sbMapCacheDirectory != null && !sbMapCacheDirectory.isBlank()
+            ? sbMapCacheDirectory.trim() : null);
+        setSmrSourceIpv4Address(parseAddress(LISP_SMR_SOURCE_IPV4_ADDRESS, smrSourceIpv4Address, Inet4Address.class));
+        setSmrSourceIpv6Address(parseAddress(LISP_SMR_SOURCE_IPV6_ADDRESS, smrSourceIpv6Address, Inet6Address.class));
     }
 
     @Inject
@@ -107,7 +132,10 @@ public final class ConfigIni {
         this(System.getProperty(LISP_MAPPING_MERGE), System.getProperty(LISP_SMR),
             System.getProperty(LISP_ELP_POLICY), System.getProperty(LISP_LOOKUP_POLICY),
             System.getProperty(LISP_REGISTER_VALIDITY_SB), System.getProperty(LISP_SMR_RETRY_COUNT),
-            System.getProperty(LISP_SMR_TIMEOUT), System.getProperty(LISP_NEGATIVE_MAPPING_TTL));
+            System.getProperty(LISP_SMR_TIMEOUT), System.getProperty(LISP_NEGATIVE_MAPPING_TTL),
+            System.getProperty(LISP_DSBE_WRITE_BEHIND_WINDOW), System.getProperty(LISP_DSBE_MAX_BATCH_SIZE),
+            System.getProperty(LISP_SB_MAP_CACHE_DIRECTORY), System.getProperty(LISP_SMR_SOURCE_IPV4_ADDRESS),
+            System.getProperty(LISP_SMR_SOURCE_IPV6_ADDRESS));
     }
 
     @Activate
@@ -115,7 +143,10 @@ public final class ConfigIni {
         this(context.getProperty(LISP_MAPPING_MERGE), context.getProperty(LISP_SMR),
             context.getProperty(LISP_ELP_POLICY), context.getProperty(LISP_LOOKUP_POLICY),
             context.getProperty(LISP_REGISTER_VALIDITY_SB), context.getProperty(LISP_SMR_RETRY_COUNT),
-            context.getProperty(LISP_SMR_TIMEOUT), context.getProperty(LISP_NEGATIVE_MAPPING_TTL));
+            context.getProperty(LISP_SMR_TIMEOUT), context.getProperty(LISP_NEGATIVE_MAPPING_TTL),
+            context.getProperty(LISP_DSBE_WRITE_BEHIND_WINDOW), context.getProperty(LISP_DSBE_MAX_BATCH_SIZE),
+            context.getProperty(LISP_SB_MAP_CACHE_DIRECTORY), context.getProperty(LISP_SMR_SOURCE_IPV4_ADDRESS),
+            context.getProperty(LISP_SMR_SOURCE_IPV6_ADDRESS));
     }
 
     private static @NonNull ExplicitLocatorPathPolicy parseElpPolicy(@Nullable String str) {
@@ -184,6 +215,46 @@ public final class ConfigIni {
         return DEFAULT_SMR_TIMEOUT;
     }
 
+    private static long parseDsbeWriteBehindWindow(@Nullable String str) {
+        if (str != null) {
+            try {
+                return Long.parseLong(str.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Configuration variable '{}' was not set correctly, using default value of {}",
+                    LISP_DSBE_WRITE_BEHIND_WINDOW, DEFAULT_DSBE_WRITE_BEHIND_WINDOW, e);
+            }
+        }
+        return DEFAULT_DSBE_WRITE_BEHIND_WINDOW;
+    }
+
+    private static int parseDsbeMaxBatchSize(@Nullable String str) {
+        if (str != null) {
+            try {
+                return Integer.parseInt(str.trim());
+            } catch (NumberFormatException e) {
+                LOG.warn("Configuration variable '{}' was not set correctly, using default value of {}",
+                    LISP_DSBE_MAX_BATCH_SIZE, DEFAULT_DSBE_MAX_BATCH_SIZE, e);
+            }
+        }
+        return DEFAULT_DSBE_MAX_BATCH_SIZE;
+    }
+
+    private static @Nullable InetAddress parseAddress(String variable, @Nullable String str,
+            Class<? extends InetAddress> family) {
+        if (str != null && !str.isBlank()) {
+            try {
+                final InetAddress address = InetAddresses.forString(str.trim());
+                if (family.isInstance(address)) {
+                    return address;
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Failed to parse '{}'", str, e);
+            }
+            LOG.warn("Configuration variable '{}' was not set correctly, the address will be discovered", variable);
+        }
+        return null;
+    }
+
     public boolean mappingMergeIsSet() {
         return mappingMerge;
     }
@@ -255,4 +326,77 @@ public final class ConfigIni {
     public int getNegativeMappingTTL() {
         return this.negativeMappingTTL;
     }
+
+    public void setDsbeWriteBehindWindow(long dsbeWriteBehindWindow) {
+        LOG.debug("Setting configuration variable '{}' to {}ms", LISP_DSBE_WRITE_BEHIND_WINDOW, dsbeWriteBehindWindow);
+        this.dsbeWriteBehindWindow = dsbeWriteBehindWindow;
+    }
+
+    /**
+     * Maximum time datastore writes are queued to be coalesced and committed in a batch. Only read when the
+     * datastore back end is created.
+     *
+     * @return the window in milliseconds, 0 if writes are committed immediately
+     */
+    public long getDsbeWriteBehindWindow() {
+        return dsbeWriteBehindWindow;
+    }
+
+    public void setDsbeMaxBatchSize(int dsbeMaxBatchSize) {
+        LOG.debug("Setting configuration variable '{}' to '{}'", LISP_DSBE_MAX_BATCH_SIZE, dsbeMaxBatchSize);
+        this.dsbeMaxBatchSize = dsbeMaxBatchSize;
+    }
+
+    public int getDsbeMaxBatchSize() {
+        return dsbeMaxBatchSize;
+    }
+
+    public void setSbMapCacheDirectory(String sbMapCacheDirectory) {
+        LOG.debug("Setting configuration variable '{}' to '{}'", LISP_SB_MAP_CACHE_DIRECTORY, sbMapCacheDirectory);
+        this.sbMapCacheDirectory = sbMapCacheDirectory;
+    }
+
+    /**
+     * Directory of the memory-mapped files keeping the southbound map-cache off-heap, across restarts. Only read
+     * when the map-caches are created.
+     *
+     * @return the directory, null if the southbound map-cache is kept on-heap
+     */
+    public String getSbMapCacheDirectory() {
+        return sbMapCacheDirectory;
+    }
+
+    public void setSmrSourceIpv4Address(InetAddress smrSourceIpv4Address) {
+        LOG.debug("Setting configuration variable '{}' to '{}'", LISP_SMR_SOURCE_IPV4_ADDRESS, smrSourceIpv4Address);
+        this.smrSourceIpv4Address = smrSourceIpv4Address;
+    }
+
+    /**
+     * IPv4 address used as ITR-RLOC of the SMRs. The ITR-RLOCs of the SMRs are chosen in this order:
+     * <ol>
+     *   <li>the configured IPv4 and IPv6 addresses, one ITR-RLOC for each of them which is set</li>
+     *   <li>the address the southbound socket is bound to, if it isn't bound to the wildcard address</li>
+     *   <li>an address discovered from the network interfaces</li>
+     * </ol>
+     *
+     * @return the address, null if the address is discovered from the network interfaces
+     */
+    public InetAddress getSmrSourceIpv4Address() {
+        return smrSourceIpv4Address;
+    }
+
+    public void setSmrSourceIpv6Address(InetAddress smrSourceIpv6Address) {
+        LOG.debug("Setting configuration variable '{}' to '{}'", LISP_SMR_SOURCE_IPV6_ADDRESS, smrSourceIpv6Address);
+        this.smrSourceIpv6Address = smrSourceIpv6Address;
+    }
+
+    /**
+     * IPv6 address used as ITR-RLOC of the SMRs, in addition to the IPv4 address if that is set too. See
+     * {@link #getSmrSourceIpv4Address()} for how the ITR-RLOCs are chosen.
+     *
+     * @return the address, null if the address is discovered from the network interfaces
+     */
+    public InetAddress getSmrSourceIpv6Address() {
+        return smrSourceIpv6Address;
+    }
 }
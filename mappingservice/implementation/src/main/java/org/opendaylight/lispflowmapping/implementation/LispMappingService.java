@@ -12,6 +12,7 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.PreDestroy;
@@ -23,7 +24,6 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.opendaylight.lispflowmapping.config.ConfigIni;
 import org.opendaylight.lispflowmapping.implementation.lisp.MapResolver;
 import org.opendaylight.lispflowmapping.implementation.lisp.MapServer;
-import org.opendaylight.lispflowmapping.implementation.util.LispNotificationHelper;
 import org.opendaylight.lispflowmapping.interfaces.lisp.IFlowMapping;
 import org.opendaylight.lispflowmapping.interfaces.lisp.IGenericMapResolver.ExplicitLocatorPathPolicy;
 import org.opendaylight.lispflowmapping.interfaces.lisp.IMapNotifyHandler;
@@ -57,7 +57,6 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapnotifymessage.MapNotifyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapreplymessage.MapReplyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestmessage.MapRequestBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddressBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapNotify;
@@ -66,6 +65,8 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendM
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapReplyInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrs;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
 import org.opendaylight.yangtools.concepts.Registration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -90,6 +91,7 @@ public class LispMappingService implements IFlowMapping, IMapRequestResultHandle
 
     // These are non-final for testing
     private ThreadLocal<MapReply> tlsMapReply = new ThreadLocal<>();
+    private ThreadLocal<List<ByteBuffer>> tlsSerializedRecords = new ThreadLocal<>();
     private ThreadLocal<Pair<MapNotify, List<TransportAddress>>> tlsMapNotify = new ThreadLocal<>();
     private ThreadLocal<Pair<MapRequest, TransportAddress>> tlsMapRequest = new ThreadLocal<>();
     private IMapResolverAsync mapResolver;
@@ -97,6 +99,7 @@ public class LispMappingService implements IFlowMapping, IMapRequestResultHandle
     private SendMapRequest sendMapRequest;
     private SendMapReply sendMapReply;
     private SendMapNotify sendMapNotify;
+    private SendSmrs sendSmrs;
 
     private final Registration listenerRegistration;
     private final Registration cssRegistration;
@@ -119,6 +122,7 @@ public class LispMappingService implements IFlowMapping, IMapRequestResultHandle
         sendMapRequest = rpcService.getRpc(SendMapRequest.class);
         sendMapReply = rpcService.getRpc(SendMapReply.class);
         sendMapNotify = rpcService.getRpc(SendMapNotify.class);
+        sendSmrs = rpcService.getRpc(SendSmrs.class);
 
         // initialize
         listenerRegistration = notificationService.registerCompositeListener(new CompositeListener(Set.of(
@@ -179,6 +183,17 @@ public class LispMappingService implements IFlowMapping, IMapRequestResultHandle
         }
     }
 
+    @Override
+    public Pair<MapReply, List<ByteBuffer>> handleMapRequestSerialized(MapRequest request) {
+        tlsSerializedRecords.set(null);
+        final MapReply mapReply = handleMapRequest(request);
+        if (mapReply == null) {
+            return null;
+        }
+        final List<ByteBuffer> serializedRecords = tlsSerializedRecords.get();
+        return Pair.of(mapReply, serializedRecords != null ? serializedRecords : List.of());
+    }
+
     @Override
     public Pair<MapNotify, List<TransportAddress>> handleMapRegister(MapRegister mapRegister) {
         if (LOG.isDebugEnabled()) {
@@ -273,7 +288,13 @@ public class LispMappingService implements IFlowMapping, IMapRequestResultHandle
 
     @Override
     public void handleMapReply(MapReply reply) {
+        handleMapReply(reply, List.of());
+    }
+
+    @Override
+    public void handleMapReply(MapReply reply, List<ByteBuffer> serializedRecords) {
         tlsMapReply.set(reply);
+        tlsSerializedRecords.set(serializedRecords);
     }
 
     @Override
@@ -282,17 +303,13 @@ public class LispMappingService implements IFlowMapping, IMapRequestResultHandle
     }
 
     @Override
-    public void handleSMR(MapRequest smrMapRequest, Rloc subscriber) {
+    public void handleSmrs(SendSmrsInput smrs) {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Sending SMR Map-Request to {} with Source-EID {} and EID Record {} (reversed)",
-                    LispAddressStringifier.getString(subscriber),
-                    LispAddressStringifier.getString(smrMapRequest.getSourceEid().getEid()),
-                    LispAddressStringifier.getString(smrMapRequest.getEidItem().get(0).getEid()));
+            LOG.debug("Sending SMR Map-Request to {} subscribers with Source-EID {}",
+                    smrs.nonnullSmrSubscriber().size(),
+                    LispAddressStringifier.getString(smrs.getMapRequest().getSourceEid().getEid()));
         }
-        SendMapRequestInputBuilder smrib = new SendMapRequestInputBuilder();
-        smrib.setMapRequest(new MapRequestBuilder(smrMapRequest).build());
-        smrib.setTransportAddress(LispNotificationHelper.getTransportAddressFromRloc(subscriber));
-        sendMapRequest.invoke(smrib.build());
+        sendSmrs.invoke(smrs);
     }
 
     @Override
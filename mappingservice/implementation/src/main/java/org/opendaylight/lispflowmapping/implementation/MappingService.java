@@ -12,6 +12,8 @@ import static java.util.Objects.requireNonNull;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.PreDestroy;
@@ -22,23 +24,29 @@ import org.opendaylight.lispflowmapping.config.ConfigIni;
 import org.opendaylight.lispflowmapping.dsbackend.DataStoreBackEnd;
 import org.opendaylight.lispflowmapping.implementation.mdsal.AuthenticationKeyDataListener;
 import org.opendaylight.lispflowmapping.implementation.mdsal.MappingDataListener;
+import org.opendaylight.lispflowmapping.implementation.util.ContinuationToken;
 import org.opendaylight.lispflowmapping.implementation.util.DSBEInputUtil;
 import org.opendaylight.lispflowmapping.implementation.util.RPCInputConvertorUtil;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.Subscriber;
 import org.opendaylight.lispflowmapping.interfaces.mappingservice.IMappingService;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
 import org.opendaylight.mdsal.binding.api.DataBroker;
 import org.opendaylight.mdsal.binding.api.NotificationPublishService;
 import org.opendaylight.mdsal.binding.api.RpcProviderService;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecordBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeyInput;
@@ -47,6 +55,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeys;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeysInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeysOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeysOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingOutput;
@@ -54,12 +63,15 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappings;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeys;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeysInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeysOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeysOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappings;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappingsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappingsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeyOutput;
@@ -67,6 +79,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeys;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeysInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeysOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeysOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingOutput;
@@ -78,6 +91,11 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappings;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingsOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetStatsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetStatsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetStatsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingOrigin;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveAllKeys;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveAllKeysInput;
@@ -96,6 +114,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeys;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeysInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeysOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeysOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingOutput;
@@ -103,6 +122,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappings;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeyOutput;
@@ -110,6 +130,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeys;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeysInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeysOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeysOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingOutput;
@@ -117,11 +138,22 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappings;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingsOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.Mapping;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.eid.authkey.list.EidAuthkeyItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.eid.authkey.list.EidAuthkeyItemBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.get.stats.output.DatastoreWriteStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.get.stats.output.DatastoreWriteStatsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.get.stats.output.MappingSystemStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.get.stats.output.MappingSystemStatsBuilder;
+import org.opendaylight.yangtools.binding.util.BindingMap;
 import org.opendaylight.yangtools.concepts.Registration;
 import org.opendaylight.yangtools.yang.common.ErrorTag;
 import org.opendaylight.yangtools.yang.common.ErrorType;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
+import org.opendaylight.yangtools.yang.common.Uint32;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -136,6 +168,9 @@ import org.slf4j.LoggerFactory;
  *  - monitoring md-sal datastore mapping updates and pushing them to the in memory mapping-system
  *  - in memory mapping-system
  *
+ * <p>The in memory mapping-system uses the "type=default" DAO. Another one, e.g. "type=packed", can be selected with
+ * the "dao.target" property in the configuration of this component.
+ *
  * @author Lorand Jakab
  * @author Florin Coras
  */
@@ -161,7 +196,8 @@ public class MappingService implements IMappingService, AutoCloseable {
                 ILispDAO dao, ConfigIni config) {
             LOG.info("Mapping Service initializing...");
 
-            final var dsbe = new DataStoreBackEnd(dataBroker);
+            final var dsbe = new DataStoreBackEnd(dataBroker, config.getDsbeWriteBehindWindow(),
+                config.getDsbeMaxBatchSize());
             final var mappingSystem = new MappingSystem(dao, true, notificationPublishService, config);
             mappingSystem.setDataStoreBackEnd(dsbe);
             mappingSystem.initialize();
@@ -173,6 +209,12 @@ public class MappingService implements IMappingService, AutoCloseable {
     }
 
     private static final Logger LOG = LoggerFactory.getLogger(MappingService.class);
+    private static final long DEFAULT_PAGE_SIZE = 1000;
+    private static final String KEYS_TABLE = "authentication";
+    private static final List<MappingOrigin> PAGED_ORIGINS = List.of(MappingOrigin.Northbound,
+            MappingOrigin.Southbound);
+    private static final List<String> PAGED_TABLES = List.of(MappingOrigin.Northbound.getName(),
+            MappingOrigin.Southbound.getName());
 
     private final MappingSystem mappingSystem;
     private final DataStoreBackEnd dsbe;
@@ -187,8 +229,8 @@ public class MappingService implements IMappingService, AutoCloseable {
     @Inject
     @Activate
     public MappingService(@Reference DataBroker dataBroker, @Reference RpcProviderService rpcProviderService,
-            @Reference NotificationPublishService notificationPublishService, @Reference ILispDAO dao,
-            @Reference ConfigIni config) {
+            @Reference NotificationPublishService notificationPublishService,
+            @Reference(name = "dao", target = "(type=default)") ILispDAO dao, @Reference ConfigIni config) {
         this(requireNonNull(rpcProviderService), Intermediate.of(
             requireNonNull(dataBroker), requireNonNull(notificationPublishService), requireNonNull(dao),
             requireNonNull(config)));
@@ -232,7 +274,8 @@ public class MappingService implements IMappingService, AutoCloseable {
             (GetAllMappings) this::getAllMappings,
             (RemoveAllKeys) this::removeAllKeys,
             (RemoveAllMappings) this::removeAllMappings,
-            (RemoveAllOperationalContent) this::removeAllOperationalContent);
+            (RemoveAllOperationalContent) this::removeAllOperationalContent,
+            (GetStats) this::getStats);
 
         LOG.info("Mapping Service loaded.");
     }
@@ -282,6 +325,8 @@ public class MappingService implements IMappingService, AutoCloseable {
         keyListener.closeDataChangeListener();
         mappingListener.closeDataChangeListener();
         mappingSystem.destroy();
+        // Commits any writes still queued for write-behind
+        dsbe.closeTransactionChain();
     }
 
     ListenableFuture<RpcResult<AddMappingOutput>> addMapping(AddMappingInput input) {
@@ -479,28 +524,127 @@ public class MappingService implements IMappingService, AutoCloseable {
     }
 
     ListenableFuture<RpcResult<RemoveKeysOutput>> removeKeys(RemoveKeysInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "remove-keys RPC input must be not null!");
+        LOG.trace("RPC received to remove the following keys: {}", input);
+
+        final List<EidItem> items = input.nonnullEidItem();
+        final List<AuthenticationKey> keys = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        final Set<Eid> eids = new HashSet<>();
+        for (EidItem item : items) {
+            if (item.getEid() == null) {
+                errors.add(ItemError.missingEid(item.getEidItemId()));
+                continue;
+            }
+            if (!addBatchEid(eids, item.getEid(), item.getEidItemId(), errors)) {
+                continue;
+            }
+            keys.add(RPCInputConvertorUtil.toAuthenticationKey(item));
+        }
+
+        if (!keys.isEmpty()) {
+            dsbe.removeAuthenticationKeys(keys);
+        }
+        return buildBatchResult(new RemoveKeysOutputBuilder().build(), items.size(), errors);
     }
 
     ListenableFuture<RpcResult<RemoveMappingsOutput>> removeMappings(RemoveMappingsInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "remove-mappings RPC input must be not null!");
+        LOG.trace("RPC received to remove the following mappings: {}", input);
+
+        final List<EidItem> items = input.nonnullEidItem();
+        final List<Mapping> mappings = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        final Set<Eid> eids = new HashSet<>();
+        for (EidItem item : items) {
+            if (item.getEid() == null) {
+                errors.add(ItemError.missingEid(item.getEidItemId()));
+                continue;
+            }
+            if (!addBatchEid(eids, item.getEid(), item.getEidItemId(), errors)) {
+                continue;
+            }
+            mappings.add(RPCInputConvertorUtil.toMapping(item));
+        }
+
+        if (!mappings.isEmpty()) {
+            dsbe.removeMappings(mappings);
+        }
+        return buildBatchResult(new RemoveMappingsOutputBuilder().build(), items.size(), errors);
     }
 
     ListenableFuture<RpcResult<GetKeysOutput>> getKeys(GetKeysInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "get-keys RPC input must be not null!");
+        LOG.trace("RPC received to get the following keys: {}", input);
+
+        final List<EidItem> items = input.nonnullEidItem();
+        final List<EidAuthkeyItem> keys = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        for (EidItem item : items) {
+            if (item.getEid() == null) {
+                errors.add(ItemError.missingEid(item.getEidItemId()));
+                continue;
+            }
+            MappingAuthkey key = mappingSystem.getAuthenticationKey(convertToBinaryIfNecessary(item.getEid()));
+            if (key == null) {
+                errors.add(new ItemError(item.getEidItemId(), ErrorType.APPLICATION, ErrorTag.DATA_MISSING,
+                        "Key was not found in the mapping database"));
+                continue;
+            }
+            keys.add(new EidAuthkeyItemBuilder()
+                    .setEidAuthkeyItemId(item.getEidItemId())
+                    .setEid(item.getEid())
+                    .setMappingAuthkey(key)
+                    .build());
+        }
+
+        return buildBatchResult(new GetKeysOutputBuilder().setEidAuthkeyItem(BindingMap.ordered(keys)).build(),
+                items.size(), errors);
     }
 
     ListenableFuture<RpcResult<AddMappingsOutput>> addMappings(AddMappingsInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "add-mappings RPC input must be not null!");
+        LOG.trace("RPC received to add the following mappings: {}", input);
+
+        final List<MappingRecordItem> items = input.nonnullMappingRecordItem();
+        final List<Mapping> mappings = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        convertMappingRecordItems(items, mappings, errors);
+
+        if (!mappings.isEmpty()) {
+            dsbe.addMappings(mappings);
+        }
+        return buildBatchResult(new AddMappingsOutputBuilder().build(), items.size(), errors);
     }
 
     ListenableFuture<RpcResult<UpdateKeysOutput>> updateKeys(UpdateKeysInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "update-keys RPC input must be not null!");
+        LOG.trace("RPC received to update the following keys: {}", input);
+
+        final Collection<EidAuthkeyItem> items = input.nonnullEidAuthkeyItem().values();
+        final List<AuthenticationKey> keys = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        final Set<Eid> eids = new HashSet<>();
+        for (EidAuthkeyItem item : items) {
+            if (item.getEid() == null || item.getMappingAuthkey() == null) {
+                errors.add(ItemError.missingEidOrKey(item.getEidAuthkeyItemId()));
+                continue;
+            }
+            if (!addBatchEid(eids, item.getEid(), item.getEidAuthkeyItemId(), errors)) {
+                continue;
+            }
+            if (mappingSystem.getAuthenticationKey(convertToBinaryIfNecessary(item.getEid())) == null) {
+                errors.add(new ItemError(item.getEidAuthkeyItemId(), ErrorType.PROTOCOL, ErrorTag.DATA_MISSING,
+                        "Key doesn't exist! Please use add-keys if you want to create a new authentication key."));
+                continue;
+            }
+            keys.add(RPCInputConvertorUtil.toAuthenticationKey(item));
+        }
+
+        if (!keys.isEmpty()) {
+            dsbe.updateAuthenticationKeys(keys);
+        }
+        return buildBatchResult(new UpdateKeysOutputBuilder().build(), items.size(), errors);
     }
 
     ListenableFuture<RpcResult<RemoveAllMappingsOutput>> removeAllMappings(RemoveAllMappingsInput input) {
@@ -514,29 +658,220 @@ public class MappingService implements IMappingService, AutoCloseable {
     }
 
     ListenableFuture<RpcResult<GetAllKeysOutput>> getAllKeys(GetAllKeysInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "get-all-keys RPC input must be not null!");
+        LOG.trace("RPC received to get all keys: {}", input);
+
+        final ContinuationToken token;
+        try {
+            token = parseContinuationToken(input.getContinuationToken(), List.of(KEYS_TABLE));
+        } catch (IllegalArgumentException e) {
+            return RpcResultBuilder.<GetAllKeysOutput>failed()
+                    .withError(ErrorType.PROTOCOL, ErrorTag.INVALID_VALUE, e.getMessage()).buildFuture();
+        }
+
+        final Page<EidAuthkeyItem> page = new Page<>(getPageSize(input.getLimit()));
+        mappingSystem.walkAuthenticationKeys(getVniFilter(input.getVni()),
+                getPrefixFilter(input.getEidPrefix() == null ? null : input.getEidPrefix().getEid()),
+                token == null ? null : token.eid(), (eid, key) -> {
+                    return page.add(KEYS_TABLE, eid, new EidAuthkeyItemBuilder()
+                            .setEidAuthkeyItemId(getItemId(eid))
+                            .setEid(LispAddressUtil.convertFromBinary(eid))
+                            .setMappingAuthkey(key)
+                            .build());
+                });
+
+        return RpcResultBuilder.success(new GetAllKeysOutputBuilder()
+                .setEidAuthkeyItem(BindingMap.ordered(page.items()))
+                .setContinuationToken(page.continuationToken())
+                .build()).buildFuture();
     }
 
     ListenableFuture<RpcResult<UpdateMappingsOutput>> updateMappings(UpdateMappingsInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "update-mappings RPC input must be not null!");
+        LOG.trace("RPC received to update the following mappings: {}", input);
+
+        final List<MappingRecordItem> items = input.nonnullMappingRecordItem();
+        final List<Mapping> mappings = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        convertMappingRecordItems(items, mappings, errors);
+
+        if (!mappings.isEmpty()) {
+            dsbe.updateMappings(mappings);
+        }
+        return buildBatchResult(new UpdateMappingsOutputBuilder().build(), items.size(), errors);
     }
 
     ListenableFuture<RpcResult<AddKeysOutput>> addKeys(AddKeysInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "add-keys RPC input must be not null!");
+        LOG.trace("RPC received to add the following keys: {}", input);
+
+        final Collection<EidAuthkeyItem> items = input.nonnullEidAuthkeyItem().values();
+        final List<AuthenticationKey> keys = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        final Set<Eid> eids = new HashSet<>();
+        for (EidAuthkeyItem item : items) {
+            if (item.getEid() == null || item.getMappingAuthkey() == null) {
+                errors.add(ItemError.missingEidOrKey(item.getEidAuthkeyItemId()));
+                continue;
+            }
+            if (!addBatchEid(eids, item.getEid(), item.getEidAuthkeyItemId(), errors)) {
+                continue;
+            }
+            if (mappingSystem.getAuthenticationKey(convertToBinaryIfNecessary(item.getEid())) != null) {
+                errors.add(new ItemError(item.getEidAuthkeyItemId(), ErrorType.PROTOCOL, ErrorTag.DATA_EXISTS,
+                        "Key already exists! Please use update-keys if you want to change it."));
+                continue;
+            }
+            keys.add(RPCInputConvertorUtil.toAuthenticationKey(item));
+        }
+
+        if (!keys.isEmpty()) {
+            dsbe.addAuthenticationKeys(keys);
+        }
+        return buildBatchResult(new AddKeysOutputBuilder().build(), items.size(), errors);
     }
 
     ListenableFuture<RpcResult<GetAllMappingsOutput>> getAllMappings(GetAllMappingsInput input) {
-        // TODO Auto-generated method stub
-        return null;
+        requireNonNull(input, "get-all-mappings RPC input must be not null!");
+        LOG.trace("RPC received to get all mappings: {}", input);
+
+        final ContinuationToken token;
+        try {
+            token = parseContinuationToken(input.getContinuationToken(), PAGED_TABLES);
+        } catch (IllegalArgumentException e) {
+            return RpcResultBuilder.<GetAllMappingsOutput>failed()
+                    .withError(ErrorType.PROTOCOL, ErrorTag.INVALID_VALUE, e.getMessage()).buildFuture();
+        }
+
+        final Long vni = getVniFilter(input.getVni());
+        final Eid prefix = getPrefixFilter(input.getEidPrefix() == null ? null : input.getEidPrefix().getEid());
+        final Page<MappingRecordItem> page = new Page<>(getPageSize(input.getLimit()));
+        // Tables are walked in order, the token tells which table the previous page ended in
+        final int first = token == null ? 0 : PAGED_TABLES.indexOf(token.table());
+        for (int i = first; i < PAGED_ORIGINS.size() && !page.hasMore(); i++) {
+            final String table = PAGED_TABLES.get(i);
+            final Eid after = i == first && token != null ? token.eid() : null;
+            mappingSystem.walkMappings(PAGED_ORIGINS.get(i), vni, prefix, after, (eid, mapping) -> {
+                return page.add(table, eid, new MappingRecordItemBuilder()
+                        .setMappingRecordItemId(table + "/" + getItemId(eid))
+                        .setMappingRecord(convertFromBinaryIfNecessary(mapping.getRecord()))
+                        .build());
+            });
+        }
+
+        return RpcResultBuilder.success(new GetAllMappingsOutputBuilder()
+                .setMappingRecordItem(page.items())
+                .setContinuationToken(page.continuationToken())
+                .build()).buildFuture();
     }
 
-    private ListenableFuture<RpcResult<GetMappingsOutput>> getMappings(
-            GetMappingsInput input) {
-        // TODO Auto-generated method stub
-        return null;
+    private static ContinuationToken parseContinuationToken(String encoded, List<String> tables) {
+        if (encoded == null) {
+            return null;
+        }
+        final ContinuationToken token = ContinuationToken.parse(encoded);
+        if (!tables.contains(token.table())) {
+            throw new IllegalArgumentException("Continuation token does not belong to this RPC: " + encoded);
+        }
+        return token;
+    }
+
+    // Same "<vni>/<eid-uri>" layout as the keys of the mapping database, unique across virtual networks
+    private static String getItemId(Eid eid) {
+        final long vni = eid.getVirtualNetworkId() == null ? 0 : eid.getVirtualNetworkId().getValue().toJava();
+        return vni + "/" + LispAddressStringifier.getURIString(LispAddressUtil.convertFromBinary(eid));
+    }
+
+    private static long getPageSize(Uint32 limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : limit.toJava();
+    }
+
+    private static Long getVniFilter(Uint32 vni) {
+        return vni == null ? null : vni.toJava();
+    }
+
+    private static Eid getPrefixFilter(Eid eid) {
+        return eid == null ? null : MaskUtil.normalize(convertToBinaryIfNecessary(eid));
+    }
+
+    ListenableFuture<RpcResult<GetMappingsOutput>> getMappings(GetMappingsInput input) {
+        requireNonNull(input, "get-mappings RPC input must be not null!");
+        LOG.trace("RPC received to get the following mappings: {}", input);
+
+        final List<EidItem> items = input.nonnullEidItem();
+        final List<MappingRecordItem> records = new ArrayList<>(items.size());
+        final List<ItemError> errors = new ArrayList<>();
+        for (EidItem item : items) {
+            if (item.getEid() == null) {
+                errors.add(ItemError.missingEid(item.getEidItemId()));
+                continue;
+            }
+            MappingData reply = mappingSystem.getMapping(convertToBinaryIfNecessary(item.getEid()));
+            if (reply == null) {
+                errors.add(new ItemError(item.getEidItemId(), ErrorType.APPLICATION, ErrorTag.DATA_MISSING,
+                        "No mapping was found in the mapping database"));
+                continue;
+            }
+            records.add(new MappingRecordItemBuilder()
+                    .setMappingRecordItemId(item.getEidItemId())
+                    .setMappingRecord(convertFromBinaryIfNecessary(reply.getRecord()))
+                    .build());
+        }
+
+        return buildBatchResult(new GetMappingsOutputBuilder().setMappingRecordItem(records).build(), items.size(),
+                errors);
+    }
+
+    private static void convertMappingRecordItems(List<MappingRecordItem> items, List<Mapping> mappings,
+            List<ItemError> errors) {
+        final Set<Eid> eids = new HashSet<>();
+        for (MappingRecordItem item : items) {
+            if (item.getMappingRecord() == null || item.getMappingRecord().getEid() == null) {
+                errors.add(ItemError.missingEid(item.getMappingRecordItemId()));
+                continue;
+            }
+            if (!addBatchEid(eids, item.getMappingRecord().getEid(), item.getMappingRecordItemId(), errors)) {
+                continue;
+            }
+            mappings.add(RPCInputConvertorUtil.toMapping(item));
+        }
+    }
+
+    /*
+     * Returns false and reports the item if an earlier item of the same batch has the same EID, once normalized.
+     * Only one of the changes to the EID would take effect, so the later items are rejected instead of silently
+     * overriding the first one.
+     */
+    private static boolean addBatchEid(Set<Eid> eids, Eid eid, String itemId, List<ItemError> errors) {
+        if (eids.add(MaskUtil.normalize(convertToBinaryIfNecessary(eid)))) {
+            return true;
+        }
+        errors.add(ItemError.duplicateEid(itemId));
+        return false;
+    }
+
+    /*
+     * Batch RPCs apply all valid items of the input in one go and report each invalid item separately. If at least
+     * one item was processed, the call succeeds and the invalid items are reported as warnings, otherwise it fails
+     * with one error per item.
+     */
+    private static <T> ListenableFuture<RpcResult<T>> buildBatchResult(T output, int itemCount,
+            List<ItemError> errors) {
+        if (errors.isEmpty()) {
+            return RpcResultBuilder.success(output).buildFuture();
+        }
+        if (errors.size() == itemCount) {
+            final RpcResultBuilder<T> rpcResultBuilder = RpcResultBuilder.failed();
+            for (ItemError error : errors) {
+                rpcResultBuilder.withError(error.type(), error.tag(), error.message());
+            }
+            return rpcResultBuilder.buildFuture();
+        }
+        final RpcResultBuilder<T> rpcResultBuilder = RpcResultBuilder.success(output);
+        for (ItemError error : errors) {
+            rpcResultBuilder.withWarning(error.type(), error.tag(), error.message());
+        }
+        return rpcResultBuilder.buildFuture();
     }
 
     private ListenableFuture<RpcResult<RemoveAllOperationalContentOutput>> removeAllOperationalContent(
@@ -557,6 +892,30 @@ public class MappingService implements IMappingService, AutoCloseable {
         return rpcResultBuilder.buildFuture();
     }
 
+    ListenableFuture<RpcResult<GetStatsOutput>> getStats(GetStatsInput input) {
+        final DatastoreWriteStats datastoreWriteStats = new DatastoreWriteStatsBuilder()
+                .setWriteBehindEnabled(dsbe.isWriteBehindEnabled())
+                .setPendingWrites((long) dsbe.getPendingWriteCount())
+                .setCoalescedWrites(dsbe.getCoalescedWriteCount())
+                .setDroppedWrites(dsbe.getDroppedWriteCount())
+                .setCommittedBatches(dsbe.getCommittedBatchCount())
+                .setFailedBatches(dsbe.getFailedBatchCount())
+                .setLastBatchSize(dsbe.getLastBatchSize())
+                .setLargestBatchSize(dsbe.getLargestBatchSize())
+                .setLastCommitLatency(dsbe.getLastCommitLatencyNanos())
+                .setAverageCommitLatency(dsbe.getAverageCommitLatencyNanos())
+                .build();
+        final MappingSystemStats mappingSystemStats = new MappingSystemStatsBuilder()
+                .setExpiryBacklog(mappingSystem.getExpiryBacklog())
+                .setExpiryLag(mappingSystem.getExpiryLag())
+                .setExpiredMappings(mappingSystem.getExpiredCount())
+                .setEidLockContention(mappingSystem.getEidLockContentionCount())
+                .build();
+        return RpcResultBuilder.success(new GetStatsOutputBuilder()
+                .setDatastoreWriteStats(datastoreWriteStats)
+                .setMappingSystemStats(mappingSystemStats).build()).buildFuture();
+    }
+
     @Override
     public Eid getWidestNegativePrefix(Eid key) {
         return mappingSystem.getWidestNegativePrefix(key);
@@ -684,4 +1043,62 @@ public class MappingService implements IMappingService, AutoCloseable {
     public boolean isMaster() {
         return isMaster;
     }
+
+    private record ItemError(ErrorType type, ErrorTag tag, String message) {
+        ItemError(String itemId, ErrorType type, ErrorTag tag, String message) {
+            this(type, tag, "Item '" + itemId + "': " + message);
+        }
+
+        static ItemError missingEid(String itemId) {
+            return new ItemError(itemId, ErrorType.PROTOCOL, ErrorTag.MISSING_ELEMENT, "EID is missing");
+        }
+
+        static ItemError missingEidOrKey(String itemId) {
+            return new ItemError(itemId, ErrorType.PROTOCOL, ErrorTag.MISSING_ELEMENT, "EID or key is missing");
+        }
+
+        static ItemError duplicateEid(String itemId) {
+            return new ItemError(itemId, ErrorType.PROTOCOL, ErrorTag.INVALID_VALUE,
+                    "EID is already used by an earlier item of the batch");
+        }
+    }
+
+    /*
+     * Collects one page of a walk over one or more tables. One entry past the limit is visited, to know whether a
+     * continuation token needs to be returned.
+     */
+    private static final class Page<T> {
+        private final List<T> items = new ArrayList<>();
+        private final long limit;
+        private String lastTable;
+        private Eid lastEid;
+        private boolean hasMore;
+
+        Page(long limit) {
+            this.limit = limit;
+        }
+
+        boolean add(String table, Eid eid, T item) {
+            if (items.size() >= limit) {
+                hasMore = true;
+                return false;
+            }
+            items.add(item);
+            lastTable = table;
+            lastEid = eid;
+            return true;
+        }
+
+        List<T> items() {
+            return items;
+        }
+
+        boolean hasMore() {
+            return hasMore;
+        }
+
+        String continuationToken() {
+            return hasMore ? new ContinuationToken(lastTable, lastEid).encode() : null;
+        }
+    }
 }
@@ -9,17 +9,31 @@ package org.opendaylight.lispflowmapping.implementation;
 
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiPredicate;
 import org.opendaylight.lispflowmapping.config.ConfigIni;
 import org.opendaylight.lispflowmapping.dsbackend.DataStoreBackEnd;
 import org.opendaylight.lispflowmapping.implementation.timebucket.implementation.TimeBucketMappingTimeoutService;
@@ -28,6 +42,7 @@ import org.opendaylight.lispflowmapping.implementation.util.DSBEInputUtil;
 import org.opendaylight.lispflowmapping.implementation.util.LoggingUtil;
 import org.opendaylight.lispflowmapping.implementation.util.MSNotificationInputUtil;
 import org.opendaylight.lispflowmapping.implementation.util.MappingMergeUtil;
+import org.opendaylight.lispflowmapping.implementation.util.MergedLocatorIndex;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
 import org.opendaylight.lispflowmapping.interfaces.dao.Subscriber;
@@ -43,6 +58,7 @@ import org.opendaylight.lispflowmapping.lisp.util.MappingRecordUtil;
 import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
 import org.opendaylight.lispflowmapping.lisp.util.SourceDestKeyHelper;
 import org.opendaylight.lispflowmapping.mapcache.AuthKeyDb;
+import org.opendaylight.lispflowmapping.mapcache.MappedMapCache;
 import org.opendaylight.lispflowmapping.mapcache.MultiTableMapCache;
 import org.opendaylight.lispflowmapping.mapcache.SimpleMapCache;
 import org.opendaylight.lispflowmapping.mapcache.lisp.LispMapCacheStringifier;
@@ -70,8 +86,10 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingChange;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingOrigin;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.VniUri;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.Mapping;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.mapping.database.VirtualNetworkIdentifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -85,6 +103,7 @@ import org.slf4j.LoggerFactory;
  */
 public class MappingSystem implements IMappingSystem {
     private static final Logger LOG = LoggerFactory.getLogger(MappingSystem.class);
+    private static final int EID_LOCK_STRIPES = 1024;
 
     private final ConcurrentHashMap<Eid, Set<Subscriber>> subscriberdb = new ConcurrentHashMap<>();
     private final EnumMap<MappingOrigin, IMapCache> tableMap = new EnumMap<>(MappingOrigin.class);
@@ -92,6 +111,13 @@ public class MappingSystem implements IMappingSystem {
     private final NotificationPublishService notificationPublishService;
     private final ISouthBoundMappingTimeoutService sbMappingTimeoutService;
     private final ConfigIni config;
+    // Changes to the same EID are serialized, while different EIDs are changed in parallel. None of the methods
+    // holding one of these locks may take another, to avoid deadlocks. Locks are reentrant, so taking the lock of
+    // the same EID again is fine.
+    private final Striped<Lock> eidLocks = Striped.lock(EID_LOCK_STRIPES);
+    private final LongAdder eidLockContention = new LongAdder();
+    // Merged locator sets of the southbound EIDs with xTR-ID specific mappings, built on the first merge
+    private final ConcurrentHashMap<Eid, MergedLocatorIndex> mergedLocatorIndexes = new ConcurrentHashMap<>();
 
     private boolean mappingMerge;
     private ILispDAO sdao;
@@ -100,6 +126,7 @@ public class MappingSystem implements IMappingSystem {
     private IAuthKeyDb akdb;
     private DataStoreBackEnd dsbe;
     private boolean isMaster = false;
+    private int restoreParallelism = Runtime.getRuntime().availableProcessors();
 
     public MappingSystem(ILispDAO dao, boolean iterateMask, NotificationPublishService nps, ConfigIni config) {
         this.dao = dao;
@@ -126,7 +153,13 @@ public class MappingSystem implements IMappingSystem {
         LOG.error("Non-longest prefix match lookups are not properly supported, variable is set to true");
     }
 
+    @VisibleForTesting
+    void setRestoreParallelism(int restoreParallelism) {
+        this.restoreParallelism = restoreParallelism;
+    }
+
     public void initialize() {
+        restoreMappedSbMappingTimeouts();
         restoreDaoFromDatastore();
     }
 
@@ -141,12 +174,54 @@ public class MappingSystem implements IMappingSystem {
          */
         sdao = dao.putTable(MappingOrigin.Southbound.toString());
         pmc = new MultiTableMapCache(dao.putTable(MappingOrigin.Northbound.toString()));
-        smc = new SimpleMapCache(sdao);
+        smc = buildSbMapCache();
         akdb = new AuthKeyDb(dao.putTable("authentication"));
         tableMap.put(MappingOrigin.Northbound, pmc);
         tableMap.put(MappingOrigin.Southbound, smc);
     }
 
+    private ILispMapCache buildSbMapCache() {
+        final String directory = config.getSbMapCacheDirectory();
+        if (directory == null) {
+            return new SimpleMapCache(sdao);
+        }
+        LOG.info("Keeping southbound mappings off-heap in {}", directory);
+        return new MappedMapCache(sdao, Path.of(directory));
+    }
+
+    // The memory-mapped southbound map-cache would restore the removed mappings from its files, so those are cleared
+    private void clearMappedSbMapCache() {
+        if (smc instanceof MappedMapCache mappedMapCache) {
+            mappedMapCache.removeAll();
+            mappedMapCache.close();
+        }
+    }
+
+    /*
+     * Mappings kept in the memory-mapped southbound map-cache survive restarts, but the timeout service does not, so
+     * they are added to it again. Mappings which expired while we were down are handled the same way as when they are
+     * looked up. Only IP prefixes can be walked, other expired mappings are removed when they are looked up.
+     */
+    private void restoreMappedSbMappingTimeouts() {
+        if (!(smc instanceof MappedMapCache)) {
+            return;
+        }
+        final List<Eid> expired = new ArrayList<>();
+        smc.walkMappings(null, null, null, (eid, value) -> {
+            final MappingData mappingData = (MappingData) value;
+            if (MappingMergeUtil.mappingIsExpired(mappingData, config.getRegistrationValiditySb())) {
+                expired.add(eid);
+            } else if (mappingData.getTimestamp() != null) {
+                addOrRefreshMappingInTimeoutService(eid, mappingData);
+            }
+            return true;
+        });
+        for (Eid eid : expired) {
+            getSbMappingWithExpiration(null, eid, null);
+        }
+        LOG.info("Removed {} southbound mappings which expired since they were last saved", expired.size());
+    }
+
     @Override
     public void updateMapping(MappingOrigin origin, Eid key, MappingData mappingData) {
         addMapping(origin, key, mappingData, MappingChange.Updated);
@@ -158,14 +233,32 @@ public class MappingSystem implements IMappingSystem {
     }
 
     private void addMapping(MappingOrigin origin, Eid key, MappingData mappingData, MappingChange changeType) {
-
-        sbMappingTimeoutService.removeExpiredMappings();
-
         if (mappingData == null) {
             LOG.warn("addMapping() called with null mapping, ignoring");
             return;
         }
 
+        final boolean positive;
+        final Lock lock = lockEid(key);
+        try {
+            positive = addMappingLocked(origin, key, mappingData, changeType);
+        } finally {
+            lock.unlock();
+        }
+
+        // We need to check if the newly added mapping is covering negatives in SB, and remove those (with
+        // notification). These are other EIDs, so this is done after releasing the lock of the key, under their own.
+        if (positive) {
+            handleSbNegativeMappings(key);
+        }
+    }
+
+    /*
+     * Returns true if negative southbound mappings covered by or covering the added mapping need to be removed.
+     */
+    private boolean addMappingLocked(MappingOrigin origin, Eid key, MappingData mappingData,
+                                     MappingChange changeType) {
+
         if (LOG.isDebugEnabled()) {
             LOG.debug("DAO: Adding {} mapping for EID {}", origin, LispAddressStringifier.getString(key));
         }
@@ -181,13 +274,13 @@ public class MappingSystem implements IMappingSystem {
             XtrId xtrId = mappingData.getXtrId();
             if (xtrId == null && mappingMerge && mappingData.isMergeEnabled()) {
                 LOG.warn("addMapping() called will null xTR-ID in MappingRecord, while merge is set, ignoring");
-                return;
+                return false;
             }
             if (xtrId != null && mappingMerge) {
                 if (mappingData.isMergeEnabled()) {
                     smc.addMapping(key, xtrId, mappingData);
-                    handleMergedMapping(key);
-                    return;
+                    handleMergedMapping(key, xtrId, mappingData);
+                    return false;
                 } else {
                     clearPresentXtrIdMappings(key);
                     smc.addMapping(key, xtrId, mappingData);
@@ -198,14 +291,56 @@ public class MappingSystem implements IMappingSystem {
 
         tableMap.get(origin).addMapping(key, mappingData);
 
-        // We need to check if the newly added mapping is covering negatives in SB, and remove those (with notification)
-        if (mappingData.isPositive().orElse(true)) {
-            handleSbNegativeMappings(key);
-        }
-
         MappingRecord newMapping = getMappingRecord(getMapping(key));
 
         handleAddMappingNotifications(origin, key, mappingData, oldMapping, newMapping, changeType);
+        return mappingData.isPositive().orElse(true);
+    }
+
+    private Lock lockEid(Eid key) {
+        final Lock lock = eidLocks.get(key);
+        if (!lock.tryLock()) {
+            eidLockContention.increment();
+            lock.lock();
+        }
+        return lock;
+    }
+
+    /**
+     * Get the number of times a change to an EID had to wait for another change to the same EID, or to an EID
+     * sharing the same lock.
+     *
+     * @return The EID lock contention count
+     */
+    public long getEidLockContentionCount() {
+        return eidLockContention.sum();
+    }
+
+    /**
+     * Get the number of expired southbound mappings waiting to be removed.
+     *
+     * @return The expiry backlog
+     */
+    public long getExpiryBacklog() {
+        return sbMappingTimeoutService.getExpiryBacklog();
+    }
+
+    /**
+     * Get how late the removal of the oldest expired southbound mapping is.
+     *
+     * @return The expiry lag in milliseconds
+     */
+    public long getExpiryLag() {
+        return sbMappingTimeoutService.getExpiryLag();
+    }
+
+    /**
+     * Get the number of southbound mappings removed so far because their registration expired.
+     *
+     * @return The expired mapping count
+     */
+    public long getExpiredCount() {
+        return sbMappingTimeoutService.getExpiredCount();
     }
 
     private static MappingRecord getMappingRecord(MappingData mappingData) {
@@ -223,6 +358,8 @@ public class MappingSystem implements IMappingSystem {
         for (MappingData mappingData : allXtrMappingList) {
             removeSbXtrIdSpecificMapping(key, mappingData.getXtrId(), mappingData);
         }
+        // The mapping isn't merged anymore, so the now empty index is dropped as well
+        mergedLocatorIndexes.remove(key);
     }
 
     private void addOrRefreshMappingInTimeoutService(Eid key, MappingData mappingData) {
@@ -258,9 +395,28 @@ public class MappingSystem implements IMappingSystem {
     }
 
     private void handleSbNegativeMapping(Eid key) {
+        if (key == null) {
+            return;
+        }
         MappingData mappingData = getSbMappingWithExpiration(null, key, null);
-        if (mappingData != null && mappingData.isNegative().orElse(false)) {
-            removeSbMapping(mappingData.getRecord().getEid(), mappingData);
+        if (mappingData == null || !mappingData.isNegative().orElse(false)) {
+            return;
+        }
+        removeSbNegativeMapping(mappingData.getRecord().getEid());
+    }
+
+    private boolean removeSbNegativeMapping(Eid negativeKey) {
+        final Lock lock = lockEid(negativeKey);
+        try {
+            // The negative mapping may have been replaced or removed since it was looked up
+            MappingData mappingData = (MappingData) smc.getData(negativeKey, SubKeys.RECORD);
+            if (mappingData != null && mappingData.isNegative().orElse(false)) {
+                removeSbMapping(negativeKey, mappingData);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -296,10 +452,21 @@ public class MappingSystem implements IMappingSystem {
     public MappingData addNegativeMapping(Eid key) {
         MappingRecord mapping = buildNegativeMapping(key);
         MappingData mappingData = new MappingData(mapping);
-        LOG.debug("Adding negative mapping for EID {}", LispAddressStringifier.getString(mapping.getEid()));
-        LOG.trace(mappingData.getString());
-        smc.addMapping(mapping.getEid(), mappingData);
-        dsbe.addMapping(DSBEInputUtil.toMapping(MappingOrigin.Southbound, mapping.getEid(), null, mappingData));
+        final Eid negativeKey = mapping.getEid();
+        final Lock lock = lockEid(negativeKey);
+        try {
+            // A Map-Register may have been accepted for the EID since the negative prefix was computed
+            MappingData current = (MappingData) smc.getData(negativeKey, SubKeys.RECORD);
+            if (current != null && current.isPositive().orElse(false)) {
+                return current;
+            }
+            LOG.debug("Adding negative mapping for EID {}", LispAddressStringifier.getString(negativeKey));
+            LOG.trace(mappingData.getString());
+            smc.addMapping(negativeKey, mappingData);
+            dsbe.addMapping(DSBEInputUtil.toMapping(MappingOrigin.Southbound, negativeKey, null, mappingData));
+        } finally {
+            lock.unlock();
+        }
         return mappingData;
     }
 
@@ -330,12 +497,18 @@ public class MappingSystem implements IMappingSystem {
      */
     @Override
     public void refreshMappingRegistration(Eid key, XtrId xtrId, Long timestamp) {
-
-        sbMappingTimeoutService.removeExpiredMappings();
-
         if (timestamp == null) {
             timestamp = System.currentTimeMillis();
         }
+        final Lock lock = lockEid(key);
+        try {
+            refreshMappingRegistrationLocked(key, xtrId, timestamp);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refreshMappingRegistrationLocked(Eid key, XtrId xtrId, long timestamp) {
         MappingData mappingData = (MappingData) smc.getMapping(null, key);
         if (mappingData != null) {
             mappingData.setTimestamp(new Date(timestamp));
@@ -347,6 +520,10 @@ public class MappingSystem implements IMappingSystem {
             MappingData xtrIdMappingData = (MappingData) smc.getMapping(key, xtrId);
             if (xtrIdMappingData != null) {
                 xtrIdMappingData.setTimestamp(new Date(timestamp));
+                final MergedLocatorIndex index = mergedLocatorIndexes.get(key);
+                if (index != null) {
+                    index.update(xtrId, xtrIdMappingData);
+                }
             } else {
                 LOG.warn("Could not update timestamp for EID {} xTR-ID {}, no mapping found",
                         LispAddressStringifier.getString(key), LispAddressStringifier.getString(xtrId));
@@ -395,12 +572,28 @@ public class MappingSystem implements IMappingSystem {
     }
 
     private MappingData handleMergedMapping(Eid key) {
+        // Rebuild the merged locator set from all xTR-ID specific mappings
+        final MergedLocatorIndex index = MergedLocatorIndex.of(smc.getAllXtrIdMappings(key));
+        mergedLocatorIndexes.put(key, index);
+        return handleMergedMapping(key, index);
+    }
+
+    private MappingData handleMergedMapping(Eid key, XtrId xtrId, MappingData mappingData) {
+        final MergedLocatorIndex index = mergedLocatorIndexes.get(key);
+        if (index == null) {
+            return handleMergedMapping(key);
+        }
+        index.update(xtrId, mappingData);
+        return handleMergedMapping(key, index);
+    }
+
+    private MappingData handleMergedMapping(Eid key, MergedLocatorIndex index) {
         LOG.trace("Merging mappings for EID {}", LispAddressStringifier.getString(key));
         List<MappingData> expiredMappingDataList = new ArrayList<>();
         Set<IpAddressBinary> sourceRlocs = new HashSet<>();
 
-        MappingData mergedMappingData = MappingMergeUtil.mergeXtrIdMappings(smc.getAllXtrIdMappings(key),
-                expiredMappingDataList, sourceRlocs, config.getRegistrationValiditySb());
+        MappingData mergedMappingData = index.merge(expiredMappingDataList, sourceRlocs,
+                config.getRegistrationValiditySb());
 
         for (MappingData mappingData : expiredMappingDataList) {
             removeSbXtrIdSpecificMapping(key, mappingData.getXtrId(), mappingData);
@@ -497,11 +690,22 @@ public class MappingSystem implements IMappingSystem {
         MappingData mappingData = (MappingData) smc.getMapping(dst, xtrId);
         while (mappingData != null
             && MappingMergeUtil.mappingIsExpired(mappingData, config.getRegistrationValiditySb())) {
-            // If the mappingData is expired, handleSbExpiredMapping() will run merge for it if merge is enabled,
-            // otherwise it will remove the expired mapping, returning null.
-            MappingData mergedMappingData = handleSbExpiredMapping(dst, xtrId, mappingData);
-            if (mergedMappingData != null) {
-                return mergedMappingData;
+            final Lock lock = lockEid(dst);
+            try {
+                // The mapping may have been refreshed or removed since it was looked up
+                mappingData = (MappingData) smc.getMapping(dst, xtrId);
+                if (mappingData == null
+                        || !MappingMergeUtil.mappingIsExpired(mappingData, config.getRegistrationValiditySb())) {
+                    return mappingData;
+                }
+                // If the mappingData is expired, handleSbExpiredMapping() will run merge for it if merge is enabled,
+                // otherwise it will remove the expired mapping, returning null.
+                MappingData mergedMappingData = handleSbExpiredMapping(dst, xtrId, mappingData);
+                if (mergedMappingData != null) {
+                    return mergedMappingData;
+                }
+            } finally {
+                lock.unlock();
             }
             // If the expired mapping was removed, we look up the original query again
             mappingData = (MappingData) smc.getMapping(dst, xtrId);
@@ -522,6 +726,30 @@ public class MappingSystem implements IMappingSystem {
         return null;
     }
 
+    /**
+     * Remove a southbound mapping whose time bucket expired, unless it was refreshed or removed in the meantime.
+     *
+     * @param key
+     *            The key of the expired mapping
+     */
+    public void expireSbMapping(Eid key) {
+        final Lock lock = lockEid(key);
+        try {
+            final MappingData mappingData = (MappingData) smc.getData(key, SubKeys.RECORD);
+            if (mappingData == null) {
+                return;
+            }
+            // A refreshed mapping was added to a newer time bucket, which expires it later
+            if (mappingData.getTimestamp() != null
+                    && !MappingMergeUtil.mappingIsExpired(mappingData, config.getRegistrationValiditySb())) {
+                return;
+            }
+            handleSbExpiredMapping(key, null, mappingData);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private void removeSbXtrIdSpecificMapping(Eid key, XtrId xtrId, MappingData mappingData) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("DAO: Removing southbound mapping for EID {}, xTR-ID {}",
@@ -529,6 +757,10 @@ public class MappingSystem implements IMappingSystem {
                     LispAddressStringifier.getString(xtrId));
         }
         smc.removeMapping(key, xtrId);
+        final MergedLocatorIndex index = mergedLocatorIndexes.get(key);
+        if (index != null) {
+            index.remove(xtrId);
+        }
         dsbe.removeXtrIdMapping(DSBEInputUtil.toXtrIdMapping(mappingData));
     }
 
@@ -543,6 +775,7 @@ public class MappingSystem implements IMappingSystem {
             LOG.debug("DAO: Removing southbound mapping for EID {}", LispAddressStringifier.getString(key));
         }
         smc.removeMapping(key);
+        mergedLocatorIndexes.remove(key);
         dsbe.removeMapping(DSBEInputUtil.toMapping(MappingOrigin.Southbound, key, mappingData));
         publishNotification(mappingData.getRecord(), null, subscribers, null, MappingChange.Removed);
         removeSubscribersConditionally(MappingOrigin.Southbound, key);
@@ -600,8 +833,39 @@ public class MappingSystem implements IMappingSystem {
         return tableMap.get(origin).getSubtree(key);
     }
 
+    @Override
+    public void walkMappings(MappingOrigin origin, Long vni, Eid prefix, Eid after,
+            BiPredicate<Eid, MappingData> visitor) {
+        final boolean checkExpiration = origin.equals(MappingOrigin.Southbound);
+        tableMap.get(origin).walkMappings(vni, prefix, after, (eid, value) -> {
+            MappingData mappingData = (MappingData) value;
+            // Expired southbound mappings are skipped here, they are cleaned up by lookups and the timeout service
+            if (checkExpiration
+                    && MappingMergeUtil.mappingIsExpired(mappingData, config.getRegistrationValiditySb())) {
+                return true;
+            }
+            return visitor.test(eid, mappingData);
+        });
+    }
+
     @Override
     public void removeMapping(MappingOrigin origin, Eid key) {
+        final List<Eid> negativePrefixes;
+        final Lock lock = lockEid(key);
+        try {
+            negativePrefixes = removeMappingLocked(origin, key);
+        } finally {
+            lock.unlock();
+        }
+        // The adjacent negative prefixes are other EIDs, so they are merged under their own locks
+        mergeNegativePrefixes(negativePrefixes);
+    }
+
+    /*
+     * Returns the negative prefixes adjacent to a removed positive southbound mapping, to be merged once the lock on
+     * the removed EID is released.
+     */
+    private List<Eid> removeMappingLocked(MappingOrigin origin, Eid key) {
         Eid dstAddr = null;
         Set<Subscriber> subscribers = null;
         Set<Subscriber> dstSubscribers = null;
@@ -631,14 +895,16 @@ public class MappingSystem implements IMappingSystem {
 
         if (origin == MappingOrigin.Southbound) {
             removeFromSbTimeoutService(key);
+            mergedLocatorIndexes.remove(key);
         }
 
+        List<Eid> negativePrefixes = Collections.emptyList();
         if (origin == MappingOrigin.Southbound && mapping != null && mapping.isPositive().orElse(false)) {
-            mergeNegativePrefixes(key);
-        } else {
-            // mergeNegativePrefixes() above removes the mapping, so addNegativeMapping() will work correctly
-            tableMap.get(origin).removeMapping(key);
+            // Must be collected before the removal, which rearranges the relationships in the radix trie
+            negativePrefixes = getMergeableNegativePrefixes(key);
         }
+        // The mapping is removed before merging, so addNegativeMapping() will work correctly
+        tableMap.get(origin).removeMapping(key);
 
         if (notificationMapping != null) {
             publishNotification(notificationMapping, key, subscribers, dstSubscribers, MappingChange.Removed);
@@ -647,6 +913,7 @@ public class MappingSystem implements IMappingSystem {
                 notifyChildren(dstAddr, notificationMapping, MappingChange.Removed);
             }
         }
+        return negativePrefixes;
     }
 
     public void notifyChange(Eid eid, MappingRecord mapping, MappingChange mappingChange) {
@@ -702,42 +969,39 @@ public class MappingSystem implements IMappingSystem {
     }
 
     /*
-     * Merges adjacent negative prefixes and notifies their subscribers.
+     * Collects the negative prefixes adjacent to the EID, walking up the radix trie. If we delete nodes while we walk
+     * up the trie the algorithm will give incorrect results, because removals rearrange relationships in the trie.
      */
-    private void mergeNegativePrefixes(Eid eid) {
-        LOG.debug("Merging negative prefixes starting from EID {}", LispAddressStringifier.getString(eid));
-
-        // If we delete nodes while we walk up the radix trie the algorithm will give incorrect results, because
-        // removals rearrange relationships in the trie. So we save prefixes to be removed into a HashMap.
-        Map<Eid, MappingData> mergedMappings = new HashMap<>();
-
+    private List<Eid> getMergeableNegativePrefixes(Eid eid) {
+        List<Eid> negativePrefixes = new ArrayList<>();
         Eid currentNode = smc.getSiblingPrefix(eid);
-        MappingData mapping = (MappingData) smc.getMapping(null, currentNode);
-        if (mapping != null && mapping.isNegative().orElse(false)) {
-            mergedMappings.put(currentNode, mapping);
-        } else {
-            return;
-        }
-
-        Eid previousNode = currentNode;
-        currentNode = smc.getVirtualParentSiblingPrefix(currentNode);
         while (currentNode != null) {
-            mapping = (MappingData) smc.getMapping(null, currentNode);
-            if (mapping != null && mapping.isNegative().orElse(false)) {
-                mergedMappings.put(currentNode, mapping);
-            } else {
+            MappingData mapping = (MappingData) smc.getMapping(null, currentNode);
+            if (mapping == null || !mapping.isNegative().orElse(false)) {
                 break;
             }
-            previousNode = currentNode;
-            currentNode = smc.getVirtualParentSiblingPrefix(previousNode);
+            negativePrefixes.add(currentNode);
+            currentNode = smc.getVirtualParentSiblingPrefix(currentNode);
         }
+        return negativePrefixes;
+    }
 
-        for (Eid key : mergedMappings.keySet()) {
-            removeSbMapping(key, mergedMappings.get(key));
+    /*
+     * Merges adjacent negative prefixes and notifies their subscribers. Each prefix is checked again under its own
+     * lock, and merging stops at the first one that is no longer negative.
+     */
+    private void mergeNegativePrefixes(List<Eid> negativePrefixes) {
+        Eid lastMerged = null;
+        for (Eid prefix : negativePrefixes) {
+            if (!removeSbNegativeMapping(prefix)) {
+                break;
+            }
+            lastMerged = prefix;
+        }
+        if (lastMerged != null) {
+            LOG.debug("Merged negative prefixes up to EID {}", LispAddressStringifier.getString(lastMerged));
+            addNegativeMapping(getVirtualParent(lastMerged));
         }
-        smc.removeMapping(eid);
-
-        addNegativeMapping(getVirtualParent(previousNode));
     }
 
     private static Eid getVirtualParent(Eid eid) {
@@ -837,6 +1101,11 @@ public class MappingSystem implements IMappingSystem {
         akdb.removeAuthenticationKey(key);
     }
 
+    @Override
+    public void walkAuthenticationKeys(Long vni, Eid prefix, Eid after, BiPredicate<Eid, MappingAuthkey> visitor) {
+        akdb.walkAuthenticationKeys(vni, prefix, after, visitor);
+    }
+
     @Override
     public void addData(MappingOrigin origin, Eid key, String subKey, Object data) {
         if (LOG.isDebugEnabled()) {
@@ -870,16 +1139,20 @@ public class MappingSystem implements IMappingSystem {
 
     /**
      * Restore all mappings and keys from mdsal datastore.
+     *
+     * @throws IllegalStateException if a virtual network could not be restored, since the DAO would be missing its
+     *         mappings and keys
      */
     private void restoreDaoFromDatastore() {
-        List<AuthenticationKey> authKeys = dsbe.getAllAuthenticationKeys();
-        List<Mapping> mappings = dsbe.getAllMappings(LogicalDatastoreType.CONFIGURATION);
+        final long startTime = System.nanoTime();
+        final Map<VniUri, List<VirtualNetworkIdentifier>> vnis = new LinkedHashMap<>();
+        addVirtualNetworks(vnis, dsbe.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION));
 
         /*
          * XXX By default, the operational datastore is not persisted to disk, either at run-time, or on shutdown,
          * so the following will have no effect (getLastUpdateTimestamp() will fail, since it's reading from
-         * the operational datastore, and even if it didn't getAllMappings() will fail anyway). According to rovarga it
-         * should be possible to turn on persistence for the operational datastore editing
+         * the operational datastore, and even if it didn't getAllVirtualNetworks() will fail anyway). According to
+         * rovarga it should be possible to turn on persistence for the operational datastore editing
          * etc/opendaylight/karaf/05-clustering.xml, by setting <persistence>true</persistence>. At the time of writing
          * the below code block that didn't seem to work though.
          */
@@ -888,31 +1161,186 @@ public class MappingSystem implements IMappingSystem {
             && System.currentTimeMillis() - lastUpdateTimestamp > config.getRegistrationValiditySb()) {
             LOG.warn("Restore threshold passed, not restoring operational datastore into DAO");
         } else {
-            mappings.addAll(dsbe.getAllMappings(LogicalDatastoreType.OPERATIONAL));
+            addVirtualNetworks(vnis, dsbe.getAllVirtualNetworks(LogicalDatastoreType.OPERATIONAL));
         }
         dsbe.removeLastUpdateTimestamp();
 
-        LOG.info("Restoring {} mappings and {} keys from datastore into DAO", mappings.size(), authKeys.size());
+        long mappingCount = 0;
+        long keyCount = 0;
+        for (List<VirtualNetworkIdentifier> subtrees : vnis.values()) {
+            for (VirtualNetworkIdentifier subtree : subtrees) {
+                mappingCount += subtree.nonnullMapping().size();
+                keyCount += subtree.nonnullAuthenticationKey().size();
+            }
+        }
+        LOG.info("Restoring {} mappings and {} keys in {} virtual networks from datastore into DAO", mappingCount,
+                keyCount, vnis.size());
+
+        /*
+         * Each virtual network has its own tables in the map-caches and the key database, so they can be loaded in
+         * parallel. Nothing can be subscribed yet, so the mappings are added directly to the tables, without the
+         * notifications, SMRs and negative mapping checks of addMapping(). The only exception are southbound
+         * mappings to be merged, which depend on the other xTR-IDs registered for the same prefix. The negative
+         * mapping checks are done afterwards, for the virtual networks where they can find something.
+         */
+        final RestoreProgress progress = new RestoreProgress(mappingCount);
+        final List<Mapping> mergedMappings = Collections.synchronizedList(new ArrayList<>());
+        final List<List<VirtualNetworkIdentifier>> negativeVnis = new ArrayList<>();
+        final int parallelism = Math.min(vnis.size(), restoreParallelism);
+        if (parallelism > 1) {
+            restoreVirtualNetworks(vnis, parallelism, mergedMappings, negativeVnis, progress);
+        } else {
+            for (List<VirtualNetworkIdentifier> subtrees : vnis.values()) {
+                if (restoreVirtualNetwork(subtrees, mergedMappings, progress)) {
+                    negativeVnis.add(subtrees);
+                }
+            }
+        }
 
-        for (Mapping mapping : mappings) {
+        for (Mapping mapping : mergedMappings) {
             addMapping(mapping.getOrigin(), mapping.getMappingRecord().getEid(),
                     new MappingData(mapping.getMappingRecord()));
         }
 
-        for (AuthenticationKey authKey : authKeys) {
-            addAuthenticationKey(authKey.getEid(), authKey.getMappingAuthkey());
+        for (List<VirtualNetworkIdentifier> subtrees : negativeVnis) {
+            removeOverlappedNegativeMappings(subtrees);
+        }
+
+        LOG.info("Restored {} mappings and {} keys from datastore into DAO in {}ms", progress.restored(), keyCount,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    private static void addVirtualNetworks(Map<VniUri, List<VirtualNetworkIdentifier>> vnis,
+            Collection<VirtualNetworkIdentifier> subtrees) {
+        for (VirtualNetworkIdentifier subtree : subtrees) {
+            vnis.computeIfAbsent(subtree.getVni(), vni -> new ArrayList<>(2)).add(subtree);
+        }
+    }
+
+    /*
+     * Restores each virtual network on its own thread. A virtual network which fails to restore does not stop the
+     * others, but fails the whole restore once they are done.
+     */
+    private void restoreVirtualNetworks(Map<VniUri, List<VirtualNetworkIdentifier>> vnis, int parallelism,
+            List<Mapping> mergedMappings, List<List<VirtualNetworkIdentifier>> negativeVnis,
+            RestoreProgress progress) {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("lfm-restore-%d").setDaemon(true).build());
+        try {
+            final Map<VniUri, Future<Boolean>> futures = new LinkedHashMap<>();
+            vnis.forEach((vni, subtrees) -> futures.put(vni,
+                    executor.submit(() -> restoreVirtualNetwork(subtrees, mergedMappings, progress))));
+
+            IllegalStateException failure = null;
+            for (Map.Entry<VniUri, Future<Boolean>> entry : futures.entrySet()) {
+                try {
+                    if (entry.getValue().get()) {
+                        negativeVnis.add(vnis.get(entry.getKey()));
+                    }
+                } catch (ExecutionException e) {
+                    LOG.error("Restoring virtual network {} from datastore into DAO failed",
+                            entry.getKey().getValue(), e.getCause());
+                    if (failure == null) {
+                        failure = new IllegalStateException("Failed to restore virtual networks into DAO");
+                    }
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while restoring datastore into DAO", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Returns true if a negative southbound mapping was restored into the tables of the virtual network.
+     */
+    private boolean restoreVirtualNetwork(List<VirtualNetworkIdentifier> subtrees, List<Mapping> mergedMappings,
+            RestoreProgress progress) {
+        boolean negative = false;
+        for (VirtualNetworkIdentifier subtree : subtrees) {
+            for (Mapping mapping : subtree.nonnullMapping().values()) {
+                negative |= restoreMapping(mapping, mergedMappings);
+                progress.mappingRestored();
+            }
+            for (AuthenticationKey authKey : subtree.nonnullAuthenticationKey().values()) {
+                akdb.addAuthenticationKey(authKey.getEid(), authKey.getMappingAuthkey());
+            }
+        }
+        return negative;
+    }
+
+    private boolean restoreMapping(Mapping mapping, List<Mapping> mergedMappings) {
+        final MappingOrigin origin = mapping.getOrigin();
+        final Eid key = mapping.getMappingRecord().getEid();
+        final MappingData mappingData = new MappingData(mapping.getMappingRecord());
+        if (origin == MappingOrigin.Southbound) {
+            if (mappingMerge && mappingData.getXtrId() != null) {
+                mergedMappings.add(mapping);
+                return false;
+            }
+            addOrRefreshMappingInTimeoutService(key, mappingData);
+        }
+        tableMap.get(origin).addMapping(key, mappingData);
+        return origin == MappingOrigin.Southbound && mappingData.isNegative().orElse(false);
+    }
+
+    /*
+     * Negative mappings are persisted like other southbound mappings, so the datastore may hold one overlapping a
+     * positive mapping, e.g. when its removal was not written before a shutdown. addMapping() would remove it, so
+     * the same check is run for every positive mapping of a virtual network which had negative mappings restored.
+     */
+    private void removeOverlappedNegativeMappings(List<VirtualNetworkIdentifier> subtrees) {
+        for (VirtualNetworkIdentifier subtree : subtrees) {
+            for (Mapping mapping : subtree.nonnullMapping().values()) {
+                if (MappingRecordUtil.isPositiveMapping(mapping.getMappingRecord())) {
+                    handleSbNegativeMappings(mapping.getMappingRecord().getEid());
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the mappings restored by all threads, and logs the progress every {@value #INTERVAL} mappings.
+     */
+    private static final class RestoreProgress {
+        private static final long INTERVAL = 100000;
+
+        private final AtomicLong restored = new AtomicLong();
+        private final long total;
+
+        RestoreProgress(long total) {
+            this.total = total;
+        }
+
+        void mappingRestored() {
+            final long count = restored.incrementAndGet();
+            if (count % INTERVAL == 0) {
+                LOG.info("Restored {} of {} mappings from datastore into DAO", count, total);
+            }
+        }
+
+        long restored() {
+            return restored.get();
         }
     }
 
     public void destroy() {
         LOG.info("Mapping System is being destroyed!");
+        sbMappingTimeoutService.close();
         dsbe.saveLastUpdateTimestamp();
+        if (smc instanceof MappedMapCache mappedMapCache) {
+            mappedMapCache.close();
+        }
     }
 
     @Override
     public String printMappings() {
-        sbMappingTimeoutService.removeExpiredMappings();
-
         final StringBuilder sb = new StringBuilder();
         sb.append("Policy map-cache\n----------------\n");
         sb.append(pmc.printMappings());
@@ -923,8 +1351,6 @@ public class MappingSystem implements IMappingSystem {
 
     @Override
     public String prettyPrintMappings() {
-        sbMappingTimeoutService.removeExpiredMappings();
-
         final StringBuilder sb = new StringBuilder();
         sb.append("Policy map-cache\n----------------\n");
         sb.append(pmc.prettyPrintMappings());
@@ -960,11 +1386,15 @@ public class MappingSystem implements IMappingSystem {
     public void cleanCaches() {
         dao.removeAll();
         subscriberdb.clear();
+        mergedLocatorIndexes.clear();
+        clearMappedSbMapCache();
         buildMapCaches();
     }
 
     public void cleanSBMappings() {
-        smc = new SimpleMapCache(sdao);
+        mergedLocatorIndexes.clear();
+        clearMappedSbMapCache();
+        smc = buildSbMapCache();
     }
 
     @Override
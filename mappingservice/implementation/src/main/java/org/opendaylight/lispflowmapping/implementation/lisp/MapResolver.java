@@ -11,6 +11,7 @@ import static java.util.Objects.requireNonNull;
 import static org.opendaylight.yangtools.yang.common.UintConversions.fromJava;
 
 import com.google.common.collect.ImmutableSet;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -113,17 +114,17 @@ public class MapResolver implements IMapResolverAsync {
         replyBuilder.setSecurityEnabled(false);
         replyBuilder.setNonce(request.getNonce());
         replyBuilder.setMappingRecordItem(new ArrayList<>());
+        final List<ByteBuffer> serializedRecords = new ArrayList<>();
         List<ItrRloc> itrRlocs = request.getItrRloc();
         final IpAddressBinary sourceRloc = request.getSourceRloc();
 
         for (EidItem eidRecord : request.getEidItem()) {
             MappingData mappingData = mapService.getMapping(srcEid, eidRecord.getEid());
-            MappingRecord mapping;
             if (mappingData == null) {
-                mapping = mapService.addNegativeMapping(eidRecord.getEid()).getRecord();
-            } else {
-                mapping = mappingData.getRecord();
+                mappingData = mapService.addNegativeMapping(eidRecord.getEid());
             }
+            final MappingRecord storedMapping = mappingData.getRecord();
+            MappingRecord mapping = storedMapping;
 
             if (itrRlocs != null && itrRlocs.size() != 0) {
                 if (subscriptionService && isValidSourceEidForSubscriber(srcEid)) {
@@ -135,11 +136,13 @@ public class MapResolver implements IMapResolverAsync {
             }
             mapping = fixIfNotSDRequest(mapping, eidRecord.getEid());
             mapping = fixTtlIfSmrInvoked(request, mapping);
+            // Unmodified records are sent with the bytes cached for the stored record, the rest are encoded
+            serializedRecords.add(mapping == storedMapping ? mappingData.getSerializedRecord() : null);
             replyBuilder.getMappingRecordItem().add(new MappingRecordItemBuilder()
                     .withKey(new MappingRecordItemKey(LispAddressStringifier.getString(mapping.getEid())))
                     .setMappingRecord(mapping).build());
         }
-        requestHandler.handleMapReply(replyBuilder.build());
+        requestHandler.handleMapReply(replyBuilder.build(), serializedRecords);
     }
 
     private static boolean isEqualIpVersion(IpAddressBinary srcRloc, Rloc rloc) {
@@ -30,6 +30,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.BooleanUtils;
 import org.opendaylight.lispflowmapping.config.ConfigIni;
+import org.opendaylight.lispflowmapping.implementation.util.LispNotificationHelper;
 import org.opendaylight.lispflowmapping.implementation.util.LoggingUtil;
 import org.opendaylight.lispflowmapping.implementation.util.MSNotificationInputUtil;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
@@ -60,10 +61,10 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.typ
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6PrefixBinary;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6PrefixBinaryBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRegister;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.EidBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapnotifymessage.MapNotifyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItem;
@@ -71,8 +72,13 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItemKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestnotification.MapRequestBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddressBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input.SmrSubscriber;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input.SmrSubscriberBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingChanged;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingOrigin;
 import org.opendaylight.yangtools.concepts.Registration;
@@ -82,12 +88,16 @@ import org.slf4j.LoggerFactory;
 public class MapServer implements IMapServerAsync, ISmrNotificationListener, Listener<MappingChanged>, AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(MapServer.class);
     private static final byte[] ALL_ZEROES_XTR_ID = new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 ,0};
+    // Interval in which the ITR-RLOCs of the SMRs are read from the configuration or discovered again
+    private static final long SMR_SOURCE_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
 
     private final SmrScheduler scheduler = new SmrScheduler();
     private final IMappingService mapService;
     private final IMapNotifyHandler notifyHandler;
     private final Registration listenerRegistration;
     private final ConfigIni config;
+    private final ScheduledFuture<?> smrSourceRefresh;
+    private volatile SmrSource smrSource;
 
     private boolean subscriptionService;
 
@@ -97,12 +107,16 @@ public class MapServer implements IMapServerAsync, ISmrNotificationListener, Lis
         this.config = requireNonNull(config);
         this.subscriptionService = config.smrIsSet();
         this.notifyHandler = notifyHandler;
+        refreshSmrSource();
+        smrSourceRefresh = scheduler.executor.scheduleWithFixedDelay(this::refreshSmrSource,
+                SMR_SOURCE_REFRESH_INTERVAL, SMR_SOURCE_REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
         listenerRegistration = notificationService.registerListener(MappingChanged.class, this);
     }
 
     @Override
     public void close() {
         listenerRegistration.close();
+        smrSourceRefresh.cancel(false);
     }
 
     @Override
@@ -242,10 +256,39 @@ public class MapServer implements IMapServerAsync, ISmrNotificationListener, Lis
         if (subscribers == null) {
             return;
         }
-        final MapRequestBuilder mrb = MapRequestUtil.prepareSMR(eid, LispAddressUtil.toRloc(getLocalAddress()));
+        final SmrSource source = smrSource;
+        final MapRequestBuilder mrb = MapRequestUtil.prepareSMR(eid, source.itrRlocs());
         LOG.trace("Built SMR packet template (EID field will be set later): {}", mrb.build());
 
-        scheduler.scheduleSmrs(mrb, subscribers.iterator());
+        scheduler.scheduleSmrs(mrb, source.configured(), subscribers.iterator());
+    }
+
+    /*
+     * The configured addresses are used as ITR-RLOCs of the SMRs, one for each configured address family. If none
+     * are configured, the southbound uses the address its socket is bound to, so the address discovered from the
+     * network interfaces here is only used if the socket is bound to the wildcard address.
+     */
+    private void refreshSmrSource() {
+        final List<InetAddress> addresses = new ArrayList<>(2);
+        if (config.getSmrSourceIpv4Address() != null) {
+            addresses.add(config.getSmrSourceIpv4Address());
+        }
+        if (config.getSmrSourceIpv6Address() != null) {
+            addresses.add(config.getSmrSourceIpv6Address());
+        }
+        final boolean configured = !addresses.isEmpty();
+        if (!configured) {
+            addresses.add(getLocalAddress());
+        }
+        final List<Rloc> itrRlocs = new ArrayList<>(addresses.size());
+        for (InetAddress address : addresses) {
+            itrRlocs.add(LispAddressUtil.toRloc(address));
+        }
+        final SmrSource source = new SmrSource(List.copyOf(itrRlocs), configured);
+        if (!source.equals(smrSource)) {
+            LOG.info("Using {} as ITR-RLOC of SMRs{}", addresses, configured ? "" : " if the socket isn't bound");
+            smrSource = source;
+        }
     }
 
     private static InetAddress getLocalAddress() {
@@ -279,23 +322,25 @@ public class MapServer implements IMapServerAsync, ISmrNotificationListener, Lis
         scheduler.smrReceived(event);
     }
 
+    private record SmrSource(List<Rloc> itrRlocs, boolean configured) {
+    }
+
     /**
-     * Task scheduler is responsible for resending SMR messages to a subscriber (xTR)
+     * Task scheduler is responsible for resending SMR messages to the subscribers (xTRs) of an EID
      * {@value ConfigIni#LISP_SMR_RETRY_COUNT} times, or until {@link ISmrNotificationListener#onSmrInvokedReceived}
-     * is triggered.
+     * is triggered for a subscriber. There is a single task per EID change, which sends the SMRs to all subscribers
+     * still pending at each attempt in bulk, with the SMR template serialized only once by the southbound.
      */
     private final class SmrScheduler {
         final int cpuCores = Runtime.getRuntime().availableProcessors();
         private final ThreadFactory threadFactory = new ThreadFactoryBuilder()
                 .setNameFormat("smr-executor-%d").build();
         private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(cpuCores * 2, threadFactory);
-        private final Map<Eid, Map<Subscriber, ScheduledFuture<?>>> eidFutureMap = new ConcurrentHashMap<>();
+        private final Map<Eid, SmrTask> eidTaskMap = new ConcurrentHashMap<>();
 
-        void scheduleSmrs(MapRequestBuilder mrb, Iterator<Subscriber> subscribers) {
+        void scheduleSmrs(MapRequestBuilder mrb, boolean keepItrRloc, Iterator<Subscriber> subscribers) {
             final Eid srcEid = fixSrcEidMask(mrb.getSourceEid().getEid());
-            cancelExistingFuturesForEid(srcEid);
-
-            final Map<Subscriber, ScheduledFuture<?>> subscriberFutureMap = new ConcurrentHashMap<>();
+            final Map<Subscriber, SmrSubscriber> pendingSubscribers = new ConcurrentHashMap<>();
 
             // Using Iterator ensures that we don't get a ConcurrentModificationException when removing a Subscriber
             // from a Set.
@@ -305,69 +350,52 @@ public class MapServer implements IMapServerAsync, ISmrNotificationListener, Lis
                     LOG.debug("Lazy removing expired subscriber entry {}", subscriber.getString());
                     subscribers.remove();
                 } else {
-                    subscriberFutureMap.put(subscriber, executor.scheduleAtFixedRate(new CancellableRunnable(
-                        mrb, subscriber), 0L, config.getSmrTimeout(), TimeUnit.MILLISECONDS));
+                    // The address stored in the SMR's EID record is used as Source EID in the SMR-invoked
+                    // Map-Request. To ensure consistent behavior it is set by the southbound to the value used by
+                    // each subscriber to originally request a given mapping.
+                    pendingSubscribers.put(subscriber, new SmrSubscriberBuilder()
+                            .setEid(subscriber.getSrcEid())
+                            .setTransportAddress(LispNotificationHelper.getTransportAddressFromRloc(
+                                    subscriber.getSrcRloc()))
+                            .build());
                 }
             }
 
-            if (subscriberFutureMap.isEmpty()) {
-                return;
+            synchronized (eidTaskMap) {
+                final SmrTask newTask = pendingSubscribers.isEmpty() ? null
+                        : new SmrTask(srcEid, mrb.build(), keepItrRloc, pendingSubscribers);
+                final SmrTask oldTask = newTask == null ? eidTaskMap.remove(srcEid) : eidTaskMap.put(srcEid, newTask);
+                if (oldTask != null) {
+                    oldTask.cancel();
+                }
+                if (newTask != null) {
+                    newTask.start();
+                }
             }
-            eidFutureMap.put(srcEid, subscriberFutureMap);
         }
 
         void smrReceived(SmrEvent event) {
-            final List<Subscriber> subscriberList = event.getSubscriberList();
-            for (Subscriber subscriber : subscriberList) {
+            final SmrTask task = eidTaskMap.get(event.getEid());
+            if (task == null) {
                 if (LOG.isTraceEnabled()) {
-                    LOG.trace("SMR-invoked event, EID {}, subscriber {}",
-                            LispAddressStringifier.getString(event.getEid()),
-                            subscriber.getString());
-                    LOG.trace("eidFutureMap: {}", eidFutureMap);
+                    LOG.trace("No outstanding SMR tasks for EID {}", LispAddressStringifier.getString(event.getEid()));
                 }
-                final Map<Subscriber, ScheduledFuture<?>> subscriberFutureMap = eidFutureMap.get(event.getEid());
-                if (subscriberFutureMap != null) {
-                    final ScheduledFuture<?> future = subscriberFutureMap.get(subscriber);
-                    if (future != null && !future.isCancelled()) {
-                        future.cancel(true);
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("SMR-invoked MapRequest received, scheduled task for subscriber {}, EID {} with"
-                                    + " nonce {} has been cancelled", subscriber.getString(),
-                                    LispAddressStringifier.getString(event.getEid()), event.getNonce());
-                        }
-                        subscriberFutureMap.remove(subscriber);
-                    } else {
-                        if (future == null) {
-                            LOG.trace("No outstanding SMR tasks for EID {}, subscriber {}",
-                                    LispAddressStringifier.getString(event.getEid()), subscriber.getString());
-                        } else {
-                            LOG.trace("Future {} is cancelled", future);
-                        }
-                    }
-                    if (subscriberFutureMap.isEmpty()) {
-                        eidFutureMap.remove(event.getEid());
+                return;
+            }
+            for (Subscriber subscriber : event.getSubscriberList()) {
+                if (task.removeSubscriber(subscriber)) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("SMR-invoked MapRequest received, SMRs to subscriber {}, EID {} with nonce {} have"
+                                + " been cancelled", subscriber.getString(),
+                                LispAddressStringifier.getString(event.getEid()), event.getNonce());
                     }
                 } else {
-                    if (LOG.isTraceEnabled()) {
-                        LOG.trace("No outstanding SMR tasks for EID {}",
-                                LispAddressStringifier.getString(event.getEid()));
-                    }
+                    LOG.trace("No outstanding SMR tasks for EID {}, subscriber {}",
+                            LispAddressStringifier.getString(event.getEid()), subscriber.getString());
                 }
             }
-        }
-
-        private void cancelExistingFuturesForEid(Eid eid) {
-            synchronized (eidFutureMap) {
-                if (eidFutureMap.containsKey(eid)) {
-                    final Map<Subscriber, ScheduledFuture<?>> subscriberFutureMap = eidFutureMap.get(eid);
-                    Iterator<Subscriber> oldSubscribers = subscriberFutureMap.keySet().iterator();
-                    while (oldSubscribers.hasNext()) {
-                        Subscriber subscriber = oldSubscribers.next();
-                        ScheduledFuture<?> subscriberFuture = subscriberFutureMap.get(subscriber);
-                        subscriberFuture.cancel(true);
-                    }
-                    eidFutureMap.remove(eid);
-                }
+            if (!task.hasPendingSubscribers()) {
+                task.cancelAndRemove();
             }
         }
 
@@ -391,66 +419,99 @@ public class MapServer implements IMapServerAsync, ISmrNotificationListener, Lis
             return eid;
         }
 
-        private final class CancellableRunnable implements Runnable {
-            private final MapRequestBuilder mrb;
-            private final Subscriber subscriber;
+        /**
+         * Sends the SMRs of an EID change to all pending subscribers, every {@link ConfigIni#getSmrTimeout()}
+         * milliseconds, until all of them answered or the retry count is reached.
+         */
+        private final class SmrTask implements Runnable {
+            private final Eid eid;
+            private final SendSmrsInput smrTemplate;
+            private final Map<Subscriber, SmrSubscriber> pendingSubscribers;
+            private volatile ScheduledFuture<?> future;
+            private volatile boolean cancelled = false;
+            private volatile boolean subscribersChanged = false;
+            private SendSmrsInput smrs;
             private int executionCount = 1;
 
-            CancellableRunnable(MapRequestBuilder mrb, Subscriber subscriber) {
-                this.mrb = mrb;
-                this.subscriber = subscriber;
+            SmrTask(Eid eid, MapRequest smr, boolean keepItrRloc, Map<Subscriber, SmrSubscriber> pendingSubscribers) {
+                this.eid = eid;
+                this.smrTemplate = new SendSmrsInputBuilder()
+                        .setMapRequest(new org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send
+                                .smrs.input.MapRequestBuilder(smr).build())
+                        .setKeepItrRloc(keepItrRloc)
+                        .build();
+                this.pendingSubscribers = pendingSubscribers;
+            }
+
+            boolean removeSubscriber(Subscriber subscriber) {
+                if (pendingSubscribers.remove(subscriber) == null) {
+                    return false;
+                }
+                subscribersChanged = true;
+                return true;
+            }
+
+            boolean hasPendingSubscribers() {
+                return !pendingSubscribers.isEmpty();
+            }
+
+            void start() {
+                future = executor.scheduleAtFixedRate(this, 0L, config.getSmrTimeout(), TimeUnit.MILLISECONDS);
+                // Cancelled before the future was set
+                if (cancelled) {
+                    future.cancel(false);
+                }
             }
 
             @SuppressWarnings("checkstyle:IllegalCatch")
             @Override
             public void run() {
-                final Eid srcEid = mrb.getSourceEid().getEid();
-
+                if (cancelled) {
+                    return;
+                }
                 try {
-                    // The address stored in the SMR's EID record is used as Source EID in the SMR-invoked
-                    // Map-Request. To ensure consistent behavior it is set to the value used to originally request
-                    // a given mapping.
                     if (executionCount > config.getSmrRetryCount()) {
-                        LOG.trace("Cancelling execution of a SMR Map-Request after {} failed attempts.",
-                            executionCount - 1);
-                        cancelAndRemove(subscriber, srcEid);
+                        LOG.trace("Cancelling execution of SMR Map-Requests to {} subscribers after {} failed"
+                                + " attempts.", pendingSubscribers.size(), executionCount - 1);
+                        cancelAndRemove();
                         return;
                     }
 
-                    synchronized (mrb) {
-                        mrb.setEidItem(new ArrayList<>());
-                        mrb.getEidItem().add(new EidItemBuilder()
-                            .setEidItemId(LispAddressStringifier.getString(subscriber.getSrcEid()))
-                            .setEid(subscriber.getSrcEid()).build());
-                        notifyHandler.handleSMR(mrb.build(), subscriber.getSrcRloc());
-                        if (LOG.isTraceEnabled()) {
-                            LOG.trace("Attempt #{} to send SMR to subscriber {} for EID {}", executionCount,
-                                subscriber, LispAddressStringifier.getString(mrb.getSourceEid().getEid()));
-                        }
+                    if (pendingSubscribers.isEmpty()) {
+                        cancelAndRemove();
+                        return;
+                    }
+                    // The input is only built again if some subscribers answered since the last attempt
+                    if (smrs == null || subscribersChanged) {
+                        subscribersChanged = false;
+                        smrs = new SendSmrsInputBuilder(smrTemplate)
+                                .setSmrSubscriber(List.copyOf(pendingSubscribers.values()))
+                                .build();
+                    }
+                    notifyHandler.handleSmrs(smrs);
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("Attempt #{} to send SMR to {} subscribers for EID {}", executionCount,
+                                smrs.nonnullSmrSubscriber().size(), LispAddressStringifier.getString(eid));
                     }
                 } catch (Exception e) {
                     LOG.error("Errors encountered while handling SMR:", e);
-                    cancelAndRemove(subscriber, srcEid);
+                    cancelAndRemove();
                     return;
                 }
                 executionCount++;
             }
 
-            private void cancelAndRemove(Subscriber sub, Eid eid) {
-                final Map<Subscriber, ScheduledFuture<?>> subscriberFutureMap = eidFutureMap.get(eid);
-                if (subscriberFutureMap == null) {
-                    LOG.warn("Couldn't find subscriber {} in SMR scheduler internal list", sub);
-                    return;
+            void cancel() {
+                cancelled = true;
+                final ScheduledFuture<?> currentFuture = future;
+                if (currentFuture != null) {
+                    currentFuture.cancel(false);
                 }
+            }
 
-                if (subscriberFutureMap.containsKey(sub)) {
-                    ScheduledFuture<?> eidFuture = subscriberFutureMap.get(sub);
-                    subscriberFutureMap.remove(sub);
-                    eidFuture.cancel(false);
-                }
-                if (subscriberFutureMap.isEmpty()) {
-                    eidFutureMap.remove(eid);
-                }
+            void cancelAndRemove() {
+                cancel();
+                eidTaskMap.remove(eid, this);
             }
         }
     }
@@ -7,43 +7,34 @@
  */
 package org.opendaylight.lispflowmapping.implementation.timebucket.containers;
 
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import org.opendaylight.lispflowmapping.implementation.MappingSystem;
-import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * Created by Shakib Ahmed on 12/1/16.
+ *
+ * <p>Only the keys of the mappings are kept, the mappings themselves are looked up in the map-cache when they expire.
  */
 public class TimeBucket {
-    private static final Logger LOG = LoggerFactory.getLogger(TimeBucket.class);
-
-    private final ConcurrentHashMap<Eid, MappingData> bucketElements;
-
-    private final MappingSystem mappingSystem;
+    private volatile Set<Eid> bucketElements = ConcurrentHashMap.newKeySet();
 
-    public TimeBucket(MappingSystem mappingSystem) {
-        bucketElements = new ConcurrentHashMap<>();
-        this.mappingSystem = mappingSystem;
-    }
-
-    public void add(Eid key, MappingData mappingData) {
-        bucketElements.put(key, mappingData);
+    public void add(Eid key) {
+        bucketElements.add(key);
     }
 
     public void removeFromBucketOnly(Eid key) {
-        MappingData mappingData = bucketElements.get(key);
-
-        if (mappingData != null) {
-            bucketElements.remove(key);
-        }
+        bucketElements.remove(key);
     }
 
-    public void clearBucket() {
-        bucketElements.forEach((key, mappingData) -> {
-            mappingSystem.handleSbExpiredMapping(key, null, mappingData);
-        });
+    /**
+     * Empty the bucket, the caller must make sure that no mappings are added at the same time.
+     *
+     * @return the keys of the mappings which were in the bucket
+     */
+    public Set<Eid> detach() {
+        final Set<Eid> elements = bucketElements;
+        bucketElements = ConcurrentHashMap.newKeySet();
+        return elements;
     }
 }
@@ -8,27 +8,44 @@
 package org.opendaylight.lispflowmapping.implementation.timebucket.containers;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.opendaylight.lispflowmapping.implementation.MappingSystem;
-import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Created by Shakib Ahmed on 12/1/16.
+ *
+ * <p>The wheel is thread safe. Adding, refreshing and removing mappings only takes a shared lock, while rotating it
+ * takes an exclusive one. Rotation doesn't expire anything, it just detaches the mappings of the expired bucket into
+ * a backlog, which is expired in batches by {@link #expireMappings(int)}.
  */
 public class TimeBucketWheel {
     private static final Logger LOG = LoggerFactory.getLogger(TimeBucketWheel.class);
 
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final MappingSystem mappingSystem;
+
     private int currentBucketId;
     private int numberOfBuckets;
-    private long lastRotationTimestamp;
+    private volatile long lastRotationTimestamp;
 
     private List<TimeBucket> bucketList;
 
     private long timeFrame;
 
+    private final Queue<ExpiredBucket> expiredBuckets = new ConcurrentLinkedQueue<>();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
     public TimeBucketWheel(int numberOfBuckets, long mappingRecordValidityInMilis, MappingSystem mappingSystem) {
 
         if (numberOfBuckets <= 1) {
@@ -37,38 +54,48 @@ public class TimeBucketWheel {
         }
 
         this.numberOfBuckets = numberOfBuckets;
+        this.mappingSystem = mappingSystem;
 
-        initializeBucketList(mappingSystem);
+        initializeBucketList();
         timeFrame = (long) Math.ceil(1.0 * mappingRecordValidityInMilis / (numberOfBuckets - 1));
         lastRotationTimestamp = System.currentTimeMillis();
         currentBucketId = 0;
     }
 
-    private void initializeBucketList(MappingSystem mappingSystem) {
+    private void initializeBucketList() {
         bucketList = new ArrayList<>();
         for (int i = 0; i < numberOfBuckets; i++) {
-            bucketList.add(new TimeBucket(mappingSystem));
+            bucketList.add(new TimeBucket());
         }
     }
 
-    public int add(Eid key, MappingData mappingData, long timestamp) {
-        clearExpiredMappingAndRotate(timestamp);
-        int timeBucketId = getProperBucketId(timestamp);
-
-        TimeBucket properTimeBucket = getBucket(timeBucketId);
-        properTimeBucket.add(key, mappingData);
-        return timeBucketId;
+    public int add(Eid key, long timestamp) {
+        rotate(timestamp);
+        lock.readLock().lock();
+        try {
+            int timeBucketId = getProperBucketId(timestamp);
+
+            TimeBucket properTimeBucket = getBucket(timeBucketId);
+            properTimeBucket.add(key);
+            return timeBucketId;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
-    public int refreshMappping(Eid key, MappingData newMappingData, long timestamp, int bucketId) {
-        TimeBucket timeBucket = getBucket(bucketId);
-        timeBucket.removeFromBucketOnly(key);
-        return add(key, newMappingData, timestamp);
+    public int refreshMappping(Eid key, long timestamp, int bucketId) {
+        removeMapping(key, bucketId);
+        return add(key, timestamp);
     }
 
     public void removeMapping(Eid key, int bucketId) {
-        TimeBucket timeBucket = getBucket(bucketId);
-        timeBucket.removeFromBucketOnly(key);
+        lock.readLock().lock();
+        try {
+            TimeBucket timeBucket = getBucket(bucketId);
+            timeBucket.removeFromBucketOnly(key);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     private int getLastBucketId() {
@@ -100,18 +127,38 @@ public class TimeBucketWheel {
     }
 
     public void clearExpiredMappingAndRotate(long currentStamp) {
-        int numberOfRotationToPerform = getNumberOfRotationsToPerform(currentStamp);
-
-        long timeForwarded = 0;
+        rotate(currentStamp);
+        expireMappings(Integer.MAX_VALUE);
+    }
 
-        while (numberOfRotationToPerform > 0) {
-            clearExpiredBucket();
-            rotate();
-            numberOfRotationToPerform--;
-            timeForwarded += timeFrame;
+    /**
+     * Rotate the wheel up to the given time, moving the mappings of the expired buckets to the backlog.
+     *
+     * @param currentStamp
+     *            The current time in milliseconds
+     */
+    public void rotate(long currentStamp) {
+        if (getNumberOfRotationsToPerform(currentStamp) == 0) {
+            return;
         }
 
-        lastRotationTimestamp = lastRotationTimestamp + timeForwarded;
+        lock.writeLock().lock();
+        try {
+            int numberOfRotationToPerform = getNumberOfRotationsToPerform(currentStamp);
+
+            long timeForwarded = 0;
+
+            while (numberOfRotationToPerform > 0) {
+                timeForwarded += timeFrame;
+                detachExpiredBucket(lastRotationTimestamp + timeForwarded);
+                currentBucketId = getLastBucketId();
+                numberOfRotationToPerform--;
+            }
+
+            lastRotationTimestamp = lastRotationTimestamp + timeForwarded;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     private int getNumberOfRotationsToPerform(long currentStamp) {
@@ -127,17 +174,80 @@ public class TimeBucketWheel {
         return numberOfRotationToPerform;
     }
 
-    private void clearExpiredBucket() {
-        int timeoutBucketId = getLastBucketId();
-        clearSpecificBucket(timeoutBucketId);
+    private void detachExpiredBucket(long expiryTimestamp) {
+        Set<Eid> elements = getBucket(getLastBucketId()).detach();
+        if (!elements.isEmpty()) {
+            backlog.addAndGet(elements.size());
+            expiredBuckets.add(new ExpiredBucket(elements.iterator(), expiryTimestamp));
+        }
+    }
+
+    /**
+     * Expire mappings from the backlog, oldest first.
+     *
+     * @param maxMappings
+     *            The maximum number of mappings to expire
+     * @return The number of mappings expired
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    public synchronized int expireMappings(int maxMappings) {
+        int count = 0;
+        ExpiredBucket expiredBucket;
+        while (count < maxMappings && (expiredBucket = expiredBuckets.peek()) != null) {
+            if (!expiredBucket.iterator.hasNext()) {
+                expiredBuckets.poll();
+                continue;
+            }
+            Eid key = expiredBucket.iterator.next();
+            backlog.decrementAndGet();
+            count++;
+            try {
+                mappingSystem.expireSbMapping(key);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to expire mapping for EID {}", key, e);
+            }
+        }
+        expiredCount.addAndGet(count);
+        return count;
     }
 
-    private void clearSpecificBucket(int bucketId) {
-        TimeBucket bucket = getBucket(bucketId);
-        bucket.clearBucket();
+    /**
+     * Get the number of mappings waiting to be expired.
+     *
+     * @return The backlog size
+     */
+    public long getBacklog() {
+        return backlog.get();
     }
 
-    private void rotate() {
-        currentBucketId = getLastBucketId();
+    /**
+     * Get how late the oldest mapping in the backlog is expired.
+     *
+     * @param currentStamp
+     *            The current time in milliseconds
+     * @return The lag in milliseconds, 0 if the backlog is empty
+     */
+    public long getLag(long currentStamp) {
+        ExpiredBucket expiredBucket = expiredBuckets.peek();
+        return expiredBucket != null ? Math.max(currentStamp - expiredBucket.expiryTimestamp, 0) : 0;
+    }
+
+    /**
+     * Get the number of mappings expired since the wheel was created.
+     *
+     * @return The expired mapping count
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private static final class ExpiredBucket {
+        private final Iterator<Eid> iterator;
+        private final long expiryTimestamp;
+
+        ExpiredBucket(Iterator<Eid> iterator, long expiryTimestamp) {
+            this.iterator = iterator;
+            this.expiryTimestamp = expiryTimestamp;
+        }
     }
 }
@@ -7,35 +7,54 @@
  */
 package org.opendaylight.lispflowmapping.implementation.timebucket.implementation;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.opendaylight.lispflowmapping.implementation.MappingSystem;
 import org.opendaylight.lispflowmapping.implementation.timebucket.containers.TimeBucketWheel;
 import org.opendaylight.lispflowmapping.implementation.timebucket.interfaces.ISouthBoundMappingTimeoutService;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Created by Shakib Ahmed on 12/1/16.
  */
 public class TimeBucketMappingTimeoutService implements ISouthBoundMappingTimeoutService {
+    private static final Logger LOG = LoggerFactory.getLogger(TimeBucketMappingTimeoutService.class);
+    // Expired mappings are removed every EXPIRY_INTERVAL_MILLIS, at most MAX_EXPIRIES_PER_RUN at a time, so that
+    // a large number of mappings expiring together doesn't starve the registration path of the map-cache
+    private static final long EXPIRY_INTERVAL_MILLIS = 100;
+    private static final int MAX_EXPIRIES_PER_RUN = 1000;
+
     private final TimeBucketWheel timeBucketWheel;
+    private final ScheduledExecutorService expiryExecutor;
+    private final long maxExpiryLag;
+    private boolean lagging = false;
 
     public TimeBucketMappingTimeoutService(long mappingRecordValidityInMillis, MappingSystem mappingSystem) {
         // one bucket should contain mapping of approximate 1 min time frame, but we need at least two buckets
         final var numberOfBuckets = (int) (TimeUnit.MILLISECONDS.toMinutes(mappingRecordValidityInMillis) + 1);
         timeBucketWheel = new TimeBucketWheel(Math.max(numberOfBuckets, 2), mappingRecordValidityInMillis,
             mappingSystem);
+        maxExpiryLag = mappingRecordValidityInMillis / Math.max(numberOfBuckets - 1, 1);
+        expiryExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("lfm-sb-expiry-%d").setDaemon(true).build());
+        expiryExecutor.scheduleWithFixedDelay(this::expireMappings, EXPIRY_INTERVAL_MILLIS, EXPIRY_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
     }
 
     @Override
     public int addMapping(Eid key, MappingData mappingData) {
-        return timeBucketWheel.add(key, mappingData, getTimestamp(mappingData));
+        return timeBucketWheel.add(key, getTimestamp(mappingData));
     }
 
     @Override
     public int refreshMapping(Eid key, MappingData newMappingData, int presentBucketId) {
-        return timeBucketWheel.refreshMappping(key, newMappingData, getTimestamp(newMappingData), presentBucketId);
+        return timeBucketWheel.refreshMappping(key, getTimestamp(newMappingData), presentBucketId);
     }
 
     @Override
@@ -48,6 +67,48 @@ public class TimeBucketMappingTimeoutService implements ISouthBoundMappingTimeou
         timeBucketWheel.clearExpiredMappingAndRotate();
     }
 
+    @Override
+    public long getExpiryBacklog() {
+        return timeBucketWheel.getBacklog();
+    }
+
+    @Override
+    public long getExpiryLag() {
+        return timeBucketWheel.getLag(System.currentTimeMillis());
+    }
+
+    @Override
+    public long getExpiredCount() {
+        return timeBucketWheel.getExpiredCount();
+    }
+
+    @Override
+    public void close() {
+        expiryExecutor.shutdownNow();
+    }
+
+    // Runs on the expiry thread only, an exception would cancel all further runs
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    private void expireMappings() {
+        try {
+            final long now = System.currentTimeMillis();
+            timeBucketWheel.rotate(now);
+            timeBucketWheel.expireMappings(MAX_EXPIRIES_PER_RUN);
+
+            final long lag = timeBucketWheel.getLag(now);
+            if (lag > maxExpiryLag && !lagging) {
+                LOG.warn("Expiry of southbound mappings is {} ms late, {} mappings waiting", lag,
+                        timeBucketWheel.getBacklog());
+                lagging = true;
+            } else if (lag <= maxExpiryLag && lagging) {
+                LOG.info("Expiry of southbound mappings caught up");
+                lagging = false;
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Failed to expire southbound mappings", e);
+        }
+    }
+
     private static long getTimestamp(MappingData mappingData) {
         final Date stamp = mappingData.getTimestamp();
         return stamp != null ? stamp.getTime() : System.currentTimeMillis();
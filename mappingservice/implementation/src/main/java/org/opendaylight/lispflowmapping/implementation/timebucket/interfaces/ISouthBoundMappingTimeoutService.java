@@ -23,7 +23,7 @@ public interface ISouthBoundMappingTimeoutService {
      * @param key
      *            The key for the mapping
      * @param mappingData
-     *            Mapping to be stored
+     *            Mapping whose timestamp decides when it expires, only the key is kept
      * @return The id of the bucket the mapping was added to
      */
     int addMapping(Eid key, MappingData mappingData);
@@ -37,7 +37,7 @@ public interface ISouthBoundMappingTimeoutService {
      * @param key
      *            The key for the mapping
      * @param newMappingData
-     *            New Mapping Data for the key
+     *            New Mapping Data for the key, only its timestamp is used
      * @param presentBucketId
      *            The id of the bucket the previous mapping is in
      * @return The new id of the bucket the mapping was added to
@@ -57,6 +57,34 @@ public interface ISouthBoundMappingTimeoutService {
     /**
      * Remove the expired mappings from the Time Bucket Wheel. This
      * should remove mapping from both SimpleMapCache and DataStoreBackEnd.
+     * Expired mappings are normally removed in the background, this is
+     * only needed when they must be removed right away.
      */
     void removeExpiredMappings();
+
+    /**
+     * Get the number of expired mappings waiting to be removed.
+     *
+     * @return The expiry backlog
+     */
+    long getExpiryBacklog();
+
+    /**
+     * Get how late the oldest expired mapping waiting to be removed is.
+     *
+     * @return The expiry lag in milliseconds
+     */
+    long getExpiryLag();
+
+    /**
+     * Get the number of expired mappings removed so far.
+     *
+     * @return The expired mapping count
+     */
+    long getExpiredCount();
+
+    /**
+     * Stop removing expired mappings in the background.
+     */
+    void close();
 }
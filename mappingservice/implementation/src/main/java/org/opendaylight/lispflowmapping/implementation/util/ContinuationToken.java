@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.implementation.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.HexFormat;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv4PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+
+/**
+ * Position of a paged walk over a mapping or key table: the name of the table and the last prefix returned from it.
+ * The encoded form is opaque to clients, but kept human readable for troubleshooting.
+ *
+ * @param table name of the table being walked
+ * @param eid last binary IPv4 or IPv6 prefix returned
+ */
+public record ContinuationToken(String table, Eid eid) {
+    private static final char SEPARATOR = ';';
+    private static final String IPV4 = "ipv4";
+    private static final String IPV6 = "ipv6";
+    private static final HexFormat HEX = HexFormat.of();
+
+    public ContinuationToken {
+        requireNonNull(table);
+        requireNonNull(eid);
+    }
+
+    /**
+     * Decode a token previously returned by {@link #encode()}.
+     *
+     * @param token the encoded token
+     * @return the decoded token
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ContinuationToken parse(String token) {
+        final String[] fields = token.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed continuation token: " + token);
+        }
+        final long vni;
+        final byte[] address;
+        final short mask;
+        try {
+            vni = Long.parseLong(fields[1]);
+            address = HEX.parseHex(fields[3]);
+            mask = Short.parseShort(fields[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed continuation token: " + token, e);
+        }
+
+        if (IPV4.equals(fields[2]) && address.length == 4 && mask >= 0 && mask <= 32) {
+            return new ContinuationToken(fields[0], LispAddressUtil.asIpv4PrefixBinaryEid(vni, address, mask));
+        } else if (IPV6.equals(fields[2]) && address.length == 16 && mask >= 0 && mask <= 128) {
+            return new ContinuationToken(fields[0], LispAddressUtil.asIpv6PrefixBinaryEid(vni, address, mask));
+        }
+        throw new IllegalArgumentException("Malformed continuation token: " + token);
+    }
+
+    /**
+     * Encode the token to be returned to the client.
+     *
+     * @return the encoded token
+     */
+    public String encode() {
+        final StringBuilder sb = new StringBuilder(table).append(SEPARATOR);
+        sb.append(eid.getVirtualNetworkId() == null ? 0 : eid.getVirtualNetworkId().getValue().toJava());
+        sb.append(SEPARATOR);
+        if (eid.getAddress() instanceof Ipv4PrefixBinary prefix) {
+            sb.append(IPV4).append(SEPARATOR).append(HEX.formatHex(prefix.getIpv4AddressBinary().getValue()))
+                    .append(SEPARATOR).append(prefix.getIpv4MaskLength().toJava());
+        } else if (eid.getAddress() instanceof Ipv6PrefixBinary prefix) {
+            sb.append(IPV6).append(SEPARATOR).append(HEX.formatHex(prefix.getIpv6AddressBinary().getValue()))
+                    .append(SEPARATOR).append(prefix.getIpv6MaskLength().toJava());
+        } else {
+            throw new IllegalStateException("Unsupported continuation token address: " + eid.getAddress());
+        }
+        return sb.toString();
+    }
+}
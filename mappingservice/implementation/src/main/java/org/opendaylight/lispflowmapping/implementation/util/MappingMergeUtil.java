@@ -10,6 +10,7 @@ package org.opendaylight.lispflowmapping.implementation.util;
 import static java.util.Objects.requireNonNull;
 import static org.opendaylight.yangtools.yang.common.UintConversions.fromJava;
 
+import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -18,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
 import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
 import org.opendaylight.lispflowmapping.lisp.util.SourceDestKeyHelper;
@@ -51,7 +53,7 @@ public final class MappingMergeUtil {
     private MappingMergeUtil() {
     }
 
-    private static void mergeCommonMappingRecordFields(MappingRecordBuilder mrb, MappingRecord record) {
+    static void mergeCommonMappingRecordFields(MappingRecordBuilder mrb, MappingRecord record) {
         // Set xTR-ID and site-ID from the current mapping, it help with determining the timestamp
         mrb.setXtrId(record.getXtrId());
         mrb.setSiteId(record.getSiteId());
@@ -68,7 +70,7 @@ public final class MappingMergeUtil {
         }
     }
 
-    private static LocatorRecord mergeLocators(LocatorRecord existingLocator, LocatorRecord newLocator) {
+    static LocatorRecord mergeLocators(LocatorRecord existingLocator, LocatorRecord newLocator) {
         if (existingLocator.getLocalLocator()) {
             return existingLocator;
         }
@@ -76,14 +78,29 @@ public final class MappingMergeUtil {
     }
 
     private static int compareLocators(LocatorRecord one, LocatorRecord two) {
-        byte[] oneIp = LispAddressUtil.ipAddressToByteArray(one.getRloc().getAddress());
-        byte[] twoIp = LispAddressUtil.ipAddressToByteArray(two.getRloc().getAddress());
+        return compareRlocs(one.getRloc(), two.getRloc());
+    }
+
+    static int compareRlocs(Rloc one, Rloc two) {
+        byte[] oneIp = LispAddressUtil.ipAddressToByteArray(one.getAddress());
+        byte[] twoIp = LispAddressUtil.ipAddressToByteArray(two.getAddress());
+        if (oneIp == null || twoIp == null) {
+            // Non-IP locators are sorted after IP ones, by their string representation
+            if (oneIp != null) {
+                return -1;
+            } else if (twoIp != null) {
+                return 1;
+            }
+            return LispAddressStringifier.getString(one).compareTo(LispAddressStringifier.getString(two));
+        }
         return LispAddressUtil.compareIpAddressByteArrays(oneIp, twoIp);
     }
 
     private static void mergeLocatorRecords(MappingRecordBuilder mrb, MappingRecord newRecord) {
-        List<LocatorRecord> locators = mrb.getLocatorRecord();
+        mrb.setLocatorRecord(mergeLocatorRecords(mrb.getLocatorRecord(), newRecord.getLocatorRecord()));
+    }
 
+    static List<LocatorRecord> mergeLocatorRecords(List<LocatorRecord> locators, List<LocatorRecord> newLocators) {
         // We assume locators are unique and sorted and don't show up several times (with different or identical
         // p/w/mp/mw), so we create a LinkedHashMap (which preserves order) of the locators from the existing merged
         // record, keyed by the Rloc
@@ -95,7 +112,7 @@ public final class MappingMergeUtil {
         for (LocatorRecord locator : locators) {
             locatorMap.put(locator.getRloc(), locator);
         }
-        for (LocatorRecord newLocator : newRecord.getLocatorRecord()) {
+        for (LocatorRecord newLocator : newLocators) {
             Rloc newRloc = newLocator.getRloc();
             if (locatorMap.containsKey(newRloc)) {
                 // overlapping locator
@@ -110,36 +127,37 @@ public final class MappingMergeUtil {
         }
 
         // Build new merged and sorted locator set if need be
-        if (!newLocatorList.isEmpty()) {
-            List<LocatorRecord> mergedLocators = new ArrayList<>();
-
-            int mlocIt = 0;
-            int locIt = 0;
-            while (mlocIt < newLocatorList.size() && locIt < locators.size()) {
-                int cmp = compareLocators(locators.get(locIt), newLocatorList.get(mlocIt));
-                if (cmp < 0) {
-                    mergedLocators.add(locators.get(locIt));
-                    locIt++;
-                } else if (cmp > 0) {
-                    mergedLocators.add(newLocatorList.get(mlocIt));
-                    mlocIt++;
-                } else {
-                    // when a locator appears in both lists, keep the new (merged) one and skip the old
-                    mergedLocators.add(newLocatorList.get(mlocIt));
-                    mlocIt++;
-                    locIt++;
-                }
-            }
-            while (locIt < locators.size()) {
+        if (newLocatorList.isEmpty()) {
+            return locators;
+        }
+        List<LocatorRecord> mergedLocators = new ArrayList<>();
+
+        int mlocIt = 0;
+        int locIt = 0;
+        while (mlocIt < newLocatorList.size() && locIt < locators.size()) {
+            int cmp = compareLocators(locators.get(locIt), newLocatorList.get(mlocIt));
+            if (cmp < 0) {
                 mergedLocators.add(locators.get(locIt));
                 locIt++;
-            }
-            while (mlocIt < newLocatorList.size()) {
+            } else if (cmp > 0) {
+                mergedLocators.add(newLocatorList.get(mlocIt));
+                mlocIt++;
+            } else {
+                // when a locator appears in both lists, keep the new (merged) one and skip the old
                 mergedLocators.add(newLocatorList.get(mlocIt));
                 mlocIt++;
+                locIt++;
             }
-            mrb.setLocatorRecord(mergedLocators);
         }
+        while (locIt < locators.size()) {
+            mergedLocators.add(locators.get(locIt));
+            locIt++;
+        }
+        while (mlocIt < newLocatorList.size()) {
+            mergedLocators.add(newLocatorList.get(mlocIt));
+            mlocIt++;
+        }
+        return mergedLocators;
     }
 
     public static MappingRecord mergeMappings(MappingRecord currentMergedMapping, MappingRecord newMapping,
@@ -160,6 +178,7 @@ public final class MappingMergeUtil {
         return mrb.build();
     }
 
+    @VisibleForTesting
     public static MappingData mergeXtrIdMappings(List<Object> mappingDataList, List<MappingData> expiredMappingDataList,
             Set<IpAddressBinary> sourceRlocs, long registrationValidityMillis) {
         MappingRecordBuilder mrb = null;
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.implementation.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merged locator set of all xTR-ID specific mappings of an EID, cached between registrations. The locator sets are
+ * merged the same way as {@link MappingMergeUtil#mergeXtrIdMappings} does, so the merged mapping is the same as the
+ * one returned by the latter for the mappings in the order of the index. The locators are only merged again when the
+ * locator set of an xTR-ID changed, so refreshes with an unchanged locator set reuse the merged locators.
+ *
+ * <p>An xTR-ID whose locator set changed is moved last, so that its locator records take precedence over the ones of
+ * other xTR-IDs for the same RLOC, unless those are local locators. The full merge uses the order of the map-cache
+ * instead, which is unspecified, so the two only agree on conflicting records and unsorted locator sets when that
+ * order is the order of the index.
+ */
+public final class MergedLocatorIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(MergedLocatorIndex.class);
+
+    // Mappings in merge order
+    private final Map<XtrId, MappingData> mappings = new LinkedHashMap<>();
+    // Built on demand, null if the locators changed since
+    private List<LocatorRecord> mergedLocators;
+
+    /**
+     * Create an index from all the xTR-ID specific mappings of an EID.
+     *
+     * @param mappingDataList
+     *            The mappings, as returned by the map-cache, may be null
+     * @return The index
+     */
+    public static MergedLocatorIndex of(List<Object> mappingDataList) {
+        final MergedLocatorIndex index = new MergedLocatorIndex();
+        if (mappingDataList != null) {
+            for (Object element : mappingDataList) {
+                final MappingData mappingData = (MappingData) element;
+                index.update(mappingData.getXtrId(), mappingData);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Add or replace the mapping of an xTR-ID. The locators are merged again only if the locator set of the xTR-ID
+     * changed since its last registration.
+     *
+     * @param xtrId
+     *            The xTR-ID
+     * @param mappingData
+     *            The new mapping of the xTR-ID
+     */
+    public synchronized void update(XtrId xtrId, MappingData mappingData) {
+        final MappingData previous = mappings.get(xtrId);
+        if (previous != null && previous.getRecord().nonnullLocatorRecord()
+                .equals(mappingData.getRecord().nonnullLocatorRecord())) {
+            mappings.put(xtrId, mappingData);
+            return;
+        }
+        mappings.remove(xtrId);
+        mappings.put(xtrId, mappingData);
+        mergedLocators = null;
+    }
+
+    /**
+     * Remove the mapping of an xTR-ID.
+     *
+     * @param xtrId
+     *            The xTR-ID
+     */
+    public synchronized void remove(XtrId xtrId) {
+        if (mappings.remove(xtrId) != null) {
+            mergedLocators = null;
+        }
+    }
+
+    /**
+     * Merge the mappings of all xTR-IDs, the same way as {@link MappingMergeUtil#mergeXtrIdMappings}. Expired
+     * mappings are removed from the index.
+     *
+     * @param expiredMappingDataList
+     *            The list the expired mappings are added to
+     * @param sourceRlocs
+     *            The set the source RLOCs of the merged mappings are added to
+     * @param registrationValidityMillis
+     *            The validity of registrations
+     * @return The merged mapping, null if there are no mappings left
+     */
+    public synchronized MappingData merge(List<MappingData> expiredMappingDataList, Set<IpAddressBinary> sourceRlocs,
+            long registrationValidityMillis) {
+        final List<XtrId> expiredXtrIds = new ArrayList<>();
+        for (Map.Entry<XtrId, MappingData> entry : mappings.entrySet()) {
+            if (MappingMergeUtil.timestampIsExpired(entry.getValue().getTimestamp(), registrationValidityMillis)) {
+                expiredMappingDataList.add(entry.getValue());
+                expiredXtrIds.add(entry.getKey());
+            }
+        }
+        for (XtrId expiredXtrId : expiredXtrIds) {
+            remove(expiredXtrId);
+        }
+
+        MappingRecordBuilder mrb = null;
+        XtrId xtrId = null;
+        long timestamp = Long.MAX_VALUE;
+
+        for (MappingData mappingData : mappings.values()) {
+            MappingRecord record = mappingData.getRecord();
+            if (mrb == null) {
+                mrb = new MappingRecordBuilder(record);
+            }
+
+            // Save the oldest valid timestamp
+            if (mappingData.getTimestamp().getTime() < timestamp) {
+                timestamp = mappingData.getTimestamp().getTime();
+                xtrId = mappingData.getXtrId();
+            }
+
+            MappingMergeUtil.mergeCommonMappingRecordFields(mrb, record);
+            sourceRlocs.add(record.getSourceRloc());
+        }
+
+        if (mrb == null) {
+            LOG.warn("All mappings expired when merging! Unexpected!");
+            return null;
+        }
+        mrb.setLocatorRecord(getMergedLocators());
+        mrb.setXtrId(xtrId);
+
+        return new MappingData(mrb.build(), new Date(timestamp));
+    }
+
+    private List<LocatorRecord> getMergedLocators() {
+        if (mergedLocators == null) {
+            List<LocatorRecord> merged = null;
+            for (MappingData mappingData : mappings.values()) {
+                final List<LocatorRecord> locators = mappingData.getRecord().getLocatorRecord();
+                merged = MappingMergeUtil.mergeLocatorRecords(merged == null ? locators : merged, locators);
+            }
+            mergedLocators = Collections.unmodifiableList(merged);
+        }
+        return mergedLocators;
+    }
+}
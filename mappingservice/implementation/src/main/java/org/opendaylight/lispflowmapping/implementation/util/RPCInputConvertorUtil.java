@@ -9,8 +9,10 @@ package org.opendaylight.lispflowmapping.implementation.util;
 
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingInput;
@@ -24,6 +26,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKeyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.Mapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.MappingBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.eid.authkey.list.EidAuthkeyItem;
 
 /**
  * Converts RPC *Input object to other object types.
@@ -48,6 +51,14 @@ public final class RPCInputConvertorUtil {
         return toAuthenticationKey(input.getEid(), null);
     }
 
+    public static AuthenticationKey toAuthenticationKey(EidAuthkeyItem item) {
+        return toAuthenticationKey(item.getEid(), item.getMappingAuthkey());
+    }
+
+    public static AuthenticationKey toAuthenticationKey(EidItem item) {
+        return toAuthenticationKey(item.getEid(), null);
+    }
+
     private static AuthenticationKey toAuthenticationKey(Eid address, MappingAuthkey key) {
         AuthenticationKeyBuilder akb = new AuthenticationKeyBuilder();
         akb.setEidUri(new EidUri(LispAddressStringifier.getURIString(address)));
@@ -70,6 +81,14 @@ public final class RPCInputConvertorUtil {
         return toMapping(input.getEid());
     }
 
+    public static Mapping toMapping(MappingRecordItem item) {
+        return toMapping(item.getMappingRecord());
+    }
+
+    public static Mapping toMapping(EidItem item) {
+        return toMapping(item.getEid());
+    }
+
     private static Mapping toMapping(MappingRecord mapping) {
         MappingBuilder mb = new MappingBuilder();
         mb.setEidUri(new EidUri(LispAddressStringifier.getURIString(mapping.getEid())));
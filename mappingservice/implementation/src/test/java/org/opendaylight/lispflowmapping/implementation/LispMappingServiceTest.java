@@ -29,6 +29,7 @@ import org.opendaylight.lispflowmapping.interfaces.lisp.IMapResolverAsync;
 import org.opendaylight.lispflowmapping.interfaces.mappingservice.IMappingService;
 import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.lispflowmapping.lisp.util.MapRequestUtil;
 import org.opendaylight.mdsal.binding.api.NotificationService;
 import org.opendaylight.mdsal.binding.api.RpcService;
 import org.opendaylight.mdsal.singleton.api.ClusterSingletonServiceProvider;
@@ -55,10 +56,8 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapreplymessage.MapReplyBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.SourceEidBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestmessage.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestmessage.MapRequestBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddressBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapNotify;
@@ -68,6 +67,10 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendM
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapReplyInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequestInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrs;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input.SmrSubscriberBuilder;
 import org.opendaylight.yangtools.binding.util.BindingMap;
 import org.opendaylight.yangtools.concepts.Registration;
 import org.opendaylight.yangtools.yang.common.Uint16;
@@ -85,6 +88,7 @@ public class LispMappingServiceTest {
     @Mock(name = "sendMapRequest") private static SendMapRequest sendMapRequest;
     @Mock(name = "sendMapReply") private static SendMapReply sendMapReply;
     @Mock(name = "sendMapNotify") private static SendMapNotify sendMapNotify;
+    @Mock(name = "sendSmrs") private static SendSmrs sendSmrs;
 
     private final NotificationService notificationService = Mockito.mock(NotificationService.class);
     private final RpcService rpcService = Mockito.mock(RpcService.class);
@@ -107,7 +111,6 @@ public class LispMappingServiceTest {
     private static final long TIMESTAMP = 1L;
 
     private static final Eid IPV4_PREFIX_EID_1 = LispAddressUtil.asIpv4PrefixEid(IPV4_STRING_1 + IPV4_PREFIX_STRING);
-    private static final Eid IPV4_SOURCE_EID = LispAddressUtil.asIpv4Eid(IPV4_SOURCE_STRING);
     private static final Eid IPV4_EID_1 = LispAddressUtil.asIpv4Eid(IPV4_STRING_1);
     private static final Eid IPV4_EID_2 = LispAddressUtil.asIpv4Eid(IPV4_STRING_2);
     private static final EidItemBuilder EID_ITEM_BUILDER = new EidItemBuilder()
@@ -277,23 +280,22 @@ public class LispMappingServiceTest {
     }
 
     /**
-     * Tests {@link LispMappingService#handleSMR} method.
+     * Tests {@link LispMappingService#handleSmrs} method.
      */
     @Test
-    public void handleSmrTest() {
-        final MapRequest mapRequest = Mockito.mock(MapRequest.class);
-        final Rloc subscriber = LispAddressUtil.asIpv4Rloc(IPV4_STRING_1);
-
-        Mockito.when(mapRequest.getSourceEid()).thenReturn(new SourceEidBuilder().setEid(IPV4_SOURCE_EID).build());
-        Mockito.when(mapRequest.getEidItem()).thenReturn(List.of(EID_ITEM_BUILDER.build()));
-
-        // result
-        final SendMapRequestInputBuilder smrib = new SendMapRequestInputBuilder()
-                .setMapRequest(new MapRequestBuilder(mapRequest).build())
-                .setTransportAddress(TRANSPORT_ADDRESS);
-
-        lispMappingService.handleSMR(mapRequest, subscriber);
-        Mockito.verify(sendMapRequest).invoke(smrib.build());
+    public void handleSmrsTest() {
+        final org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest smrTemplate =
+                MapRequestUtil.prepareSMR(IPV4_PREFIX_EID_1, LispAddressUtil.asIpv4Rloc(IPV4_SOURCE_STRING)).build();
+        final SendSmrsInput smrs = new SendSmrsInputBuilder()
+                .setMapRequest(new org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs
+                        .input.MapRequestBuilder(smrTemplate).build())
+                .setSmrSubscriber(List.of(
+                        new SmrSubscriberBuilder().setEid(IPV4_EID_1).setTransportAddress(TRANSPORT_ADDRESS).build(),
+                        new SmrSubscriberBuilder().setEid(IPV4_EID_2).setTransportAddress(TRANSPORT_ADDRESS).build()))
+                .build();
+
+        lispMappingService.handleSmrs(smrs);
+        Mockito.verify(sendSmrs).invoke(smrs);
     }
 
     /**
@@ -8,11 +8,16 @@
 package org.opendaylight.lispflowmapping.implementation;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.BiPredicate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,8 +39,12 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkeyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeyInput;
@@ -43,57 +52,81 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev15090
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeyOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeyOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeysInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeysInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddKeysOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsInput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeysInput;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappingsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.AddMappingsOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeysInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllKeysOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappingsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetAllMappingsOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeyInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeyOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeyOutputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetKeysInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetStatsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.GetStatsOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingOrigin;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveAllMappingsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeyInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeyOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeyOutputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeysInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeysInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveKeysOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingOutputBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.RemoveMappingsInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeyInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeyOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeyOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeysInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeysInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateKeysOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingsInputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.UpdateMappingsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.eid.authkey.list.EidAuthkeyItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.eid.authkey.list.EidAuthkeyItemBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.get.stats.output.DatastoreWriteStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.get.stats.output.MappingSystemStats;
 import org.opendaylight.yangtools.binding.Rpc;
+import org.opendaylight.yangtools.binding.util.BindingMap;
 import org.opendaylight.yangtools.concepts.Registration;
+import org.opendaylight.yangtools.yang.common.ErrorSeverity;
 import org.opendaylight.yangtools.yang.common.ErrorTag;
 import org.opendaylight.yangtools.yang.common.ErrorType;
 import org.opendaylight.yangtools.yang.common.RpcError;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
 import org.opendaylight.yangtools.yang.common.Uint16;
+import org.opendaylight.yangtools.yang.common.Uint32;
 
 @RunWith(MockitoJUnitRunner.class)
 public class MappingServiceTest {
     private static final String IPV4_STRING = "1.2.3.0";
     private static final Eid IPV4_EID = LispAddressUtil.asIpv4Eid(IPV4_STRING);
+    private static final Eid IPV4_EID_2 = LispAddressUtil.asIpv4Eid("1.2.3.1");
 
     private static final RpcResult<Object> RPC_RESULT_SUCCESS = RpcResultBuilder.success().build();
     private static final MappingAuthkey MAPPING_AUTHKEY = new MappingAuthkeyBuilder()
@@ -533,6 +566,7 @@ public class MappingServiceTest {
         Mockito.verify(rpcRegistration).close();
         Mockito.verify(keyListener).closeDataChangeListener();
         Mockito.verify(mappingListener).closeDataChangeListener();
+        Mockito.verify(dsbe).closeTransactionChain();
     }
 
     /**
@@ -545,21 +579,264 @@ public class MappingServiceTest {
         Mockito.verify(dsbe).removeAllDatastoreContent();
     }
 
+    /**
+     * Tests {@link MappingService#getStats} method.
+     */
+    @Test
+    public void getStatsTest() throws ExecutionException, InterruptedException {
+        Mockito.when(dsbe.isWriteBehindEnabled()).thenReturn(true);
+        Mockito.when(dsbe.getPendingWriteCount()).thenReturn(2);
+        Mockito.when(dsbe.getCommittedBatchCount()).thenReturn(5L);
+        Mockito.when(dsbe.getDroppedWriteCount()).thenReturn(1L);
+        Mockito.when(mappingSystem.getExpiryBacklog()).thenReturn(3L);
+        Mockito.when(mappingSystem.getExpiredCount()).thenReturn(7L);
+        Mockito.when(mappingSystem.getEidLockContentionCount()).thenReturn(4L);
+
+        final GetStatsOutput output = mappingService.getStats(new GetStatsInputBuilder().build()).get().getResult();
+        final DatastoreWriteStats stats = output.getDatastoreWriteStats();
+        assertEquals(Boolean.TRUE, stats.getWriteBehindEnabled());
+        assertEquals(Long.valueOf(2), stats.getPendingWrites());
+        assertEquals(Long.valueOf(5), stats.getCommittedBatches());
+        assertEquals(Long.valueOf(1), stats.getDroppedWrites());
+        assertEquals(Long.valueOf(0), stats.getFailedBatches());
+
+        final MappingSystemStats mappingSystemStats = output.getMappingSystemStats();
+        assertEquals(Long.valueOf(3), mappingSystemStats.getExpiryBacklog());
+        assertEquals(Long.valueOf(0), mappingSystemStats.getExpiryLag());
+        assertEquals(Long.valueOf(7), mappingSystemStats.getExpiredMappings());
+        assertEquals(Long.valueOf(4), mappingSystemStats.getEidLockContention());
+    }
+
     /**
      * Tests {@link MappingService} not implemented methods.
      */
     @Test
     public void nullReturnMethodTest() throws ExecutionException, InterruptedException {
-        assertNull(mappingService.removeKeys(Mockito.mock(RemoveKeysInput.class)));
-        assertNull(mappingService.removeMappings(Mockito.mock(RemoveMappingsInput.class)));
-        assertNull(mappingService.getKeys(Mockito.mock(GetKeysInput.class)));
-        assertNull(mappingService.addMappings(Mockito.mock(AddMappingsInput.class)));
-        assertNull(mappingService.updateKeys(Mockito.mock(UpdateKeysInput.class)));
         assertNull(mappingService.removeAllMappings(Mockito.mock(RemoveAllMappingsInput.class)));
-        assertNull(mappingService.getAllKeys(Mockito.mock(GetAllKeysInput.class)));
-        assertNull(mappingService.updateMappings(Mockito.mock(UpdateMappingsInput.class)));
-        assertNull(mappingService.addKeys(Mockito.mock(AddKeysInput.class)));
-        assertNull(mappingService.getAllMappings(Mockito.mock(GetAllMappingsInput.class)));
+    }
+
+    /**
+     * Tests {@link MappingService#getAllMappings} method, paging through the mappings with a continuation token.
+     */
+    @Test
+    public void getAllMappingsTest_withContinuationToken() throws ExecutionException, InterruptedException {
+        final Eid prefix1 = LispAddressUtil.asIpv4PrefixBinaryEid(0, "1.2.3.0/24");
+        final Eid prefix2 = LispAddressUtil.asIpv4PrefixBinaryEid(0, "1.2.4.0/24");
+        Mockito.doAnswer(invocation -> {
+            final Eid after = invocation.getArgument(3);
+            final BiPredicate<Eid, MappingData> visitor = invocation.getArgument(4);
+            if (after == null && !visitor.test(prefix1, getDefaultMappingData())) {
+                return null;
+            }
+            visitor.test(prefix2, getDefaultMappingData());
+            return null;
+        }).when(mappingSystem).walkMappings(Mockito.eq(MappingOrigin.Northbound), Mockito.isNull(), Mockito.isNull(),
+                Mockito.any(), Mockito.any());
+
+        final RpcResult<GetAllMappingsOutput> firstPage = mappingService.getAllMappings(
+                new GetAllMappingsInputBuilder().setLimit(Uint32.ONE).build()).get();
+        assertTrue(firstPage.isSuccessful());
+        assertEquals(1, firstPage.getResult().getMappingRecordItem().size());
+        assertEquals("northbound/0/ipv4:1.2.3.0/24",
+                firstPage.getResult().getMappingRecordItem().get(0).getMappingRecordItemId());
+        assertNotNull(firstPage.getResult().getContinuationToken());
+
+        final RpcResult<GetAllMappingsOutput> secondPage = mappingService.getAllMappings(
+                new GetAllMappingsInputBuilder().setLimit(Uint32.ONE)
+                        .setContinuationToken(firstPage.getResult().getContinuationToken()).build()).get();
+        assertTrue(secondPage.isSuccessful());
+        assertEquals("northbound/0/ipv4:1.2.4.0/24",
+                secondPage.getResult().getMappingRecordItem().get(0).getMappingRecordItemId());
+        assertNull(secondPage.getResult().getContinuationToken());
+        Mockito.verify(mappingSystem).walkMappings(Mockito.eq(MappingOrigin.Northbound), Mockito.isNull(),
+                Mockito.isNull(), Mockito.eq(prefix1), Mockito.any());
+        Mockito.verify(mappingSystem).walkMappings(Mockito.eq(MappingOrigin.Southbound), Mockito.isNull(),
+                Mockito.isNull(), Mockito.isNull(), Mockito.any());
+    }
+
+    /**
+     * Tests {@link MappingService#getAllKeys} method with a malformed continuation token.
+     */
+    @Test
+    public void getAllKeysTest_withInvalidContinuationToken() throws ExecutionException, InterruptedException {
+        final RpcResult<GetAllKeysOutput> result = mappingService.getAllKeys(new GetAllKeysInputBuilder()
+                .setContinuationToken("northbound;0;ipv4;01020300;24").build()).get();
+
+        assertFalse(result.isSuccessful());
+        assertEquals(ErrorTag.INVALID_VALUE, result.getErrors().iterator().next().getTag());
+        Mockito.verify(mappingSystem, Mockito.never()).walkAuthenticationKeys(Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Tests {@link MappingService#addMappings} method, all mappings are written with a single call.
+     */
+    @Test
+    public void addMappingsTest() throws ExecutionException, InterruptedException {
+        final MappingRecordItem item1 = getMappingRecordItem("1", IPV4_EID);
+        final MappingRecordItem item2 = getMappingRecordItem("2", IPV4_EID_2);
+        final AddMappingsInput input = new AddMappingsInputBuilder()
+                .setMappingRecordItem(List.of(item1, item2)).build();
+
+        final Future<RpcResult<AddMappingsOutput>> result = mappingService.addMappings(input);
+        Mockito.verify(dsbe).addMappings(
+                List.of(RPCInputConvertorUtil.toMapping(item1), RPCInputConvertorUtil.toMapping(item2)));
+        Mockito.verify(dsbe, Mockito.never()).addMapping(Mockito.any());
+
+        assertTrue(result.get().getErrors().isEmpty());
+        assertTrue(result.get().isSuccessful());
+        assertEquals(new AddMappingsOutputBuilder().build(), result.get().getResult());
+    }
+
+    /**
+     * Tests {@link MappingService#updateMappings} method with an invalid item.
+     */
+    @Test
+    public void updateMappingsTest_withMissingEid() throws ExecutionException, InterruptedException {
+        final MappingRecordItem item1 = getMappingRecordItem("1", IPV4_EID);
+        final MappingRecordItem item2 = new MappingRecordItemBuilder().setMappingRecordItemId("2").build();
+        final UpdateMappingsInput input = new UpdateMappingsInputBuilder()
+                .setMappingRecordItem(List.of(item1, item2)).build();
+
+        final Future<RpcResult<UpdateMappingsOutput>> result = mappingService.updateMappings(input);
+        Mockito.verify(dsbe).updateMappings(List.of(RPCInputConvertorUtil.toMapping(item1)));
+
+        assertTrue(result.get().isSuccessful());
+        assertEquals(1, result.get().getErrors().size());
+        final RpcError warning = result.get().getErrors().iterator().next();
+        assertEquals(ErrorSeverity.WARNING, warning.getSeverity());
+        assertEquals(ErrorTag.MISSING_ELEMENT, warning.getTag());
+        assertEquals("Item '2': EID is missing", warning.getMessage());
+    }
+
+    /**
+     * Tests {@link MappingService#getMappings} method with one EID not found.
+     */
+    @Test
+    public void getMappingsTest() throws ExecutionException, InterruptedException {
+        final GetMappingsInput input = new GetMappingsInputBuilder().setEidItem(List.of(
+                new EidItemBuilder().setEidItemId("1").setEid(IPV4_EID).build(),
+                new EidItemBuilder().setEidItemId("2").setEid(IPV4_EID_2).build())).build();
+        final MappingRecord nonBinaryMappingRecord = getDefaultMappingRecordBuilder()
+                .setEid(LispAddressUtil.toEid(new Ipv4Address(IPV4_STRING), null)).build();
+        Mockito.when(mappingSystem.getMapping(IPV4_EID)).thenReturn(getDefaultMappingData());
+        Mockito.when(mappingSystem.getMapping(IPV4_EID_2)).thenReturn(null);
+
+        final Future<RpcResult<GetMappingsOutput>> result = mappingService.getMappings(input);
+
+        assertTrue(result.get().isSuccessful());
+        assertEquals(List.of(new MappingRecordItemBuilder()
+                        .setMappingRecordItemId("1")
+                        .setMappingRecord(nonBinaryMappingRecord).build()),
+                result.get().getResult().getMappingRecordItem());
+        assertEquals(1, result.get().getErrors().size());
+        assertEquals(ErrorTag.DATA_MISSING, result.get().getErrors().iterator().next().getTag());
+    }
+
+    /**
+     * Tests {@link MappingService#addKeys} method with a key that already exists.
+     */
+    @Test
+    public void addKeysTest_withExistingKey() throws ExecutionException, InterruptedException {
+        final EidAuthkeyItem item1 = getEidAuthkeyItem("1", IPV4_EID);
+        final EidAuthkeyItem item2 = getEidAuthkeyItem("2", IPV4_EID_2);
+        final AddKeysInput input = new AddKeysInputBuilder().setEidAuthkeyItem(BindingMap.ordered(item1, item2))
+                .build();
+        Mockito.when(mappingSystem.getAuthenticationKey(IPV4_EID)).thenReturn(MAPPING_AUTHKEY);
+        Mockito.when(mappingSystem.getAuthenticationKey(IPV4_EID_2)).thenReturn(null);
+
+        final Future<RpcResult<AddKeysOutput>> result = mappingService.addKeys(input);
+        Mockito.verify(dsbe).addAuthenticationKeys(List.of(RPCInputConvertorUtil.toAuthenticationKey(item2)));
+
+        assertTrue(result.get().isSuccessful());
+        assertEquals(1, result.get().getErrors().size());
+        assertEquals(ErrorTag.DATA_EXISTS, result.get().getErrors().iterator().next().getTag());
+    }
+
+    /**
+     * Tests {@link MappingService#updateKeys} method when none of the keys exist.
+     */
+    @Test
+    public void updateKeysTest_withNoExistingKey() throws ExecutionException, InterruptedException {
+        final UpdateKeysInput input = new UpdateKeysInputBuilder()
+                .setEidAuthkeyItem(BindingMap.of(getEidAuthkeyItem("1", IPV4_EID))).build();
+        Mockito.when(mappingSystem.getAuthenticationKey(IPV4_EID)).thenReturn(null);
+
+        final Future<RpcResult<UpdateKeysOutput>> result = mappingService.updateKeys(input);
+        Mockito.verifyNoInteractions(dsbe);
+
+        assertFalse(result.get().isSuccessful());
+        assertEquals(1, result.get().getErrors().size());
+        final RpcError error = result.get().getErrors().iterator().next();
+        assertEquals(ErrorSeverity.ERROR, error.getSeverity());
+        assertEquals(ErrorTag.DATA_MISSING, error.getTag());
+    }
+
+    /**
+     * Tests {@link MappingService#removeKeys} and {@link MappingService#removeMappings} methods.
+     */
+    @Test
+    public void removeKeysAndMappingsTest() throws ExecutionException, InterruptedException {
+        final EidItem item = new EidItemBuilder().setEidItemId("1").setEid(IPV4_EID).build();
+
+        assertTrue(mappingService.removeKeys(new RemoveKeysInputBuilder().setEidItem(List.of(item)).build())
+                .get().isSuccessful());
+        assertTrue(mappingService.removeMappings(new RemoveMappingsInputBuilder().setEidItem(List.of(item)).build())
+                .get().isSuccessful());
+        Mockito.verify(dsbe).removeAuthenticationKeys(List.of(RPCInputConvertorUtil.toAuthenticationKey(item)));
+        Mockito.verify(dsbe).removeMappings(List.of(RPCInputConvertorUtil.toMapping(item)));
+    }
+
+    /**
+     * Tests {@link MappingService#addMappings} method with two items for the same EID, the later one is rejected.
+     */
+    @Test
+    public void addMappingsTest_withDuplicateEid() throws ExecutionException, InterruptedException {
+        final MappingRecordItem item1 = getMappingRecordItem("1", IPV4_EID);
+        final MappingRecordItem item2 = getMappingRecordItem("2", IPV4_EID);
+        final AddMappingsInput input = new AddMappingsInputBuilder()
+                .setMappingRecordItem(List.of(item1, item2)).build();
+
+        final Future<RpcResult<AddMappingsOutput>> result = mappingService.addMappings(input);
+        Mockito.verify(dsbe).addMappings(List.of(RPCInputConvertorUtil.toMapping(item1)));
+
+        assertTrue(result.get().isSuccessful());
+        assertEquals(1, result.get().getErrors().size());
+        final RpcError warning = result.get().getErrors().iterator().next();
+        assertEquals(ErrorTag.INVALID_VALUE, warning.getTag());
+        assertEquals("Item '2': EID is already used by an earlier item of the batch", warning.getMessage());
+    }
+
+    /**
+     * Tests {@link MappingService#removeKeys} method with two items for the same EID, the later one is rejected.
+     */
+    @Test
+    public void removeKeysTest_withDuplicateEid() throws ExecutionException, InterruptedException {
+        final EidItem item1 = new EidItemBuilder().setEidItemId("1").setEid(IPV4_EID).build();
+        final EidItem item2 = new EidItemBuilder().setEidItemId("2").setEid(IPV4_EID).build();
+
+        final Future<RpcResult<RemoveKeysOutput>> result = mappingService.removeKeys(new RemoveKeysInputBuilder()
+                .setEidItem(List.of(item1, item2)).build());
+        Mockito.verify(dsbe).removeAuthenticationKeys(List.of(RPCInputConvertorUtil.toAuthenticationKey(item1)));
+
+        assertTrue(result.get().isSuccessful());
+        assertEquals(1, result.get().getErrors().size());
+        assertEquals(ErrorTag.INVALID_VALUE, result.get().getErrors().iterator().next().getTag());
+    }
+
+    private static MappingRecordItem getMappingRecordItem(String id, Eid eid) {
+        return new MappingRecordItemBuilder()
+                .setMappingRecordItemId(id)
+                .setMappingRecord(getDefaultMappingRecordBuilder().setEid(eid).build())
+                .build();
+    }
+
+    private static EidAuthkeyItem getEidAuthkeyItem(String id, Eid eid) {
+        return new EidAuthkeyItemBuilder()
+                .setEidAuthkeyItemId(id)
+                .setEid(eid)
+                .setMappingAuthkey(MAPPING_AUTHKEY)
+                .build();
     }
 
     private static MappingData getDefaultMappingData() {
@@ -7,19 +7,24 @@
  */
 package org.opendaylight.lispflowmapping.implementation;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,6 +43,7 @@ import org.opendaylight.lispflowmapping.interfaces.mapcache.IAuthKeyDb;
 import org.opendaylight.lispflowmapping.interfaces.mapcache.ILispMapCache;
 import org.opendaylight.lispflowmapping.interfaces.mapcache.IMapCache;
 import org.opendaylight.lispflowmapping.interfaces.mappingservice.IMappingService;
+import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
@@ -71,12 +77,15 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rl
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.RlocBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.EidUri;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingOrigin;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.VniUri;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKeyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKeyKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.Mapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.MappingBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.MappingKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.mapping.database.VirtualNetworkIdentifier;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.mapping.database.VirtualNetworkIdentifierBuilder;
 import org.opendaylight.yangtools.yang.common.Uint16;
 import org.opendaylight.yangtools.yang.common.Uint32;
 import org.opendaylight.yangtools.yang.common.Uint8;
@@ -436,6 +445,131 @@ public class MappingSystemTest {
         Mockito.verify(smcMock).removeMapping(EID_IPV4_1);
     }
 
+    /**
+     * Tests that {@link MappingSystem#removeMapping} merges the negative sibling of a removed positive southbound
+     * mapping into a negative mapping for their parent prefix.
+     */
+    @Test
+    public void removeMappingTest_sbMergeNegativePrefixes() throws NoSuchFieldException, IllegalAccessException {
+        final Eid positiveEid = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.0.0/24");
+        final Eid negativeEid = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.1.0/24");
+        final Eid parentEid = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.0.0/23");
+        final MappingData negativeMappingData = prepareNegativeSibling(positiveEid, negativeEid);
+        Mockito.when(smcMock.getData(negativeEid, SubKeys.RECORD)).thenReturn(negativeMappingData);
+
+        mappingSystem.removeMapping(MappingOrigin.Southbound, positiveEid);
+        Mockito.verify(smcMock).removeMapping(positiveEid);
+        Mockito.verify(smcMock).removeMapping(negativeEid);
+        Mockito.verify(smcMock).addMapping(Mockito.eq(parentEid), Mockito.any(MappingData.class));
+    }
+
+    /**
+     * Tests that {@link MappingSystem#removeMapping} doesn't merge a sibling prefix that became positive after the
+     * negative prefixes were collected.
+     */
+    @Test
+    public void removeMappingTest_sbSiblingNoLongerNegative() throws NoSuchFieldException, IllegalAccessException {
+        final Eid positiveEid = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.0.0/24");
+        final Eid negativeEid = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.1.0/24");
+        prepareNegativeSibling(positiveEid, negativeEid);
+        // a Map-Register for the sibling was accepted in the meantime
+        Mockito.when(smcMock.getData(negativeEid, SubKeys.RECORD)).thenReturn(new MappingData(
+                getDefaultMappingRecordBuilder().setEid(negativeEid)
+                        .setLocatorRecord(List.of(getDefaultLocatorRecordBuilder().build())).build()));
+
+        mappingSystem.removeMapping(MappingOrigin.Southbound, positiveEid);
+        Mockito.verify(smcMock).removeMapping(positiveEid);
+        Mockito.verify(smcMock, Mockito.never()).removeMapping(negativeEid);
+        Mockito.verify(smcMock, Mockito.never()).addMapping(Mockito.any(Eid.class), Mockito.any(MappingData.class));
+    }
+
+    private MappingData prepareNegativeSibling(Eid positiveEid, Eid negativeEid) throws NoSuchFieldException,
+            IllegalAccessException {
+        mappingSystem = new MappingSystem(dao, false, npsMock, config);
+        injectMocks();
+        mappingSystem.setDataStoreBackEnd(dsbeMock);
+        Mockito.when(tableMapMock.get(MappingOrigin.Southbound)).thenReturn(smcMock);
+
+        final MappingData negativeMappingData = new MappingData(getDefaultMappingRecordBuilder()
+                .setEid(negativeEid)
+                .setAction(LispMessage.NEGATIVE_MAPPING_ACTION).build());
+        Mockito.when(smcMock.getMapping(null, positiveEid)).thenReturn(new MappingData(
+                getDefaultMappingRecordBuilder().setEid(positiveEid)
+                        .setLocatorRecord(List.of(getDefaultLocatorRecordBuilder().build())).build()));
+        Mockito.when(smcMock.getSiblingPrefix(positiveEid)).thenReturn(negativeEid);
+        Mockito.when(smcMock.getMapping(null, negativeEid)).thenReturn(negativeMappingData);
+        return negativeMappingData;
+    }
+
+    /**
+     * Tests that {@link MappingSystem#removeMapping} waits for another thread changing the same EID, and counts the
+     * contention.
+     */
+    @Test(timeout = 10000)
+    public void removeMappingTest_contendedEid() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return null;
+        }).doNothing().when(pmcMock).removeMapping(EID_IPV4_1);
+        final long contention = mappingSystem.getEidLockContentionCount();
+
+        final Thread first = new Thread(() -> mappingSystem.removeMapping(MappingOrigin.Northbound, EID_IPV4_1));
+        first.start();
+        entered.await();
+        final Thread second = new Thread(() -> mappingSystem.removeMapping(MappingOrigin.Northbound, EID_IPV4_1));
+        second.start();
+        while (mappingSystem.getEidLockContentionCount() == contention) {
+            Thread.sleep(10);
+        }
+        // the second thread can't remove the mapping before the first one is done
+        Mockito.verify(pmcMock, Mockito.times(1)).removeMapping(EID_IPV4_1);
+
+        release.countDown();
+        first.join();
+        second.join();
+        Mockito.verify(pmcMock, Mockito.times(2)).removeMapping(EID_IPV4_1);
+    }
+
+    /**
+     * Tests that a lookup finding an expired southbound mapping doesn't remove it while another thread refreshes it.
+     */
+    @Test(timeout = 10000)
+    public void getMappingTest_expiryRacesWithRefresh() throws Exception {
+        final MappingData mappingData = getDefaultMappingData();
+        mappingData.setTimestamp(new Date(System.currentTimeMillis() - config.getRegistrationValiditySb() - 1));
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(smcMock.getMapping((Eid) null, EID_IPV4_DST)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return mappingData;
+        });
+        Mockito.when(smcMock.getMapping(EID_IPV4_DST, (XtrId) null)).thenReturn(mappingData);
+        final long contention = mappingSystem.getEidLockContentionCount();
+
+        final Thread refresh = new Thread(() -> mappingSystem.refreshMappingRegistration(EID_IPV4_DST, null, null));
+        refresh.start();
+        entered.await();
+        final AtomicReference<MappingData> result = new AtomicReference<>();
+        final Thread lookup = new Thread(() -> result.set(
+                mappingSystem.getMapping(MappingOrigin.Southbound, EID_IPV4_DST)));
+        lookup.start();
+        while (mappingSystem.getEidLockContentionCount() == contention) {
+            Thread.sleep(10);
+        }
+
+        release.countDown();
+        refresh.join();
+        lookup.join();
+        // the lookup waited for the refresh, and found the mapping not expired anymore
+        assertEquals(mappingData, result.get());
+        Mockito.verify(smcMock, Mockito.never()).removeMapping(EID_IPV4_DST);
+        Mockito.verify(dsbeMock, Mockito.never()).removeMapping(Mockito.any());
+    }
+
     /**
      * Tests {@link MappingSystem#restoreDaoFromDatastore} method.
      */
@@ -466,12 +600,19 @@ public class MappingSystemTest {
                 .setMappingAuthkey(mappingAuthkey_2)
                 .setEid(EID_IPV4_2).build();
 
-        final List<Mapping> mappings = new ArrayList<>(Arrays.asList(mapping_1, mapping_2));
-        final List<AuthenticationKey> authenticationKeys = List.of(authenticationKey_1, authenticationKey_2);
+        final Map<MappingKey, Mapping> mappings = new LinkedHashMap<>();
+        mappings.put(mapping_1.key(), mapping_1);
+        mappings.put(mapping_2.key(), mapping_2);
+        final Map<AuthenticationKeyKey, AuthenticationKey> authenticationKeys = new LinkedHashMap<>();
+        authenticationKeys.put(authenticationKey_1.key(), authenticationKey_1);
+        authenticationKeys.put(authenticationKey_2.key(), authenticationKey_2);
+        final VirtualNetworkIdentifier vni = new VirtualNetworkIdentifierBuilder()
+                .setVni(new VniUri("0"))
+                .setMapping(mappings)
+                .setAuthenticationKey(authenticationKeys).build();
 
         Mockito.when(dsbeMock.getLastUpdateTimestamp()).thenReturn(System.currentTimeMillis());
-        Mockito.when(dsbeMock.getAllMappings(LogicalDatastoreType.CONFIGURATION)).thenReturn(mappings);
-        Mockito.when(dsbeMock.getAllAuthenticationKeys()).thenReturn(authenticationKeys);
+        Mockito.when(dsbeMock.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION)).thenReturn(List.of(vni));
         Mockito.when(tableMapMock.get(MappingOrigin.Northbound)).thenReturn(pmcMock);
 
         mappingSystem.initialize();
@@ -485,6 +626,89 @@ public class MappingSystemTest {
         Mockito.verify(akdbMock).addAuthenticationKey(EID_IPV4_2, mappingAuthkey_2);
     }
 
+    /**
+     * Tests that {@link MappingSystem#restoreDaoFromDatastore} restores every virtual network when they are restored
+     * in parallel.
+     */
+    @Test
+    public void restoreDaoFromDatastoreTest_parallel() {
+        final List<VirtualNetworkIdentifier> vnis = new ArrayList<>();
+        for (long vni = 1; vni <= 3; vni++) {
+            final Eid eid = LispAddressUtil.asIpv4Eid(IPV4_STRING_1, vni);
+            vnis.add(getVirtualNetwork(vni, getMapping(MappingOrigin.Northbound, getDefaultMappingRecordBuilder()
+                    .setEid(eid).build())));
+        }
+        Mockito.when(dsbeMock.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION)).thenReturn(vnis);
+
+        mappingSystem.setRestoreParallelism(3);
+        mappingSystem.initialize();
+
+        for (long vni = 1; vni <= 3; vni++) {
+            final Eid eid = LispAddressUtil.asIpv4Eid(IPV4_STRING_1, vni);
+            Mockito.verify(pmcMock).addMapping(Mockito.eq(eid), Mockito.any(MappingData.class));
+            Mockito.verify(akdbMock).addAuthenticationKey(eid, MAPPING_AUTHKEY_BUILDER.build());
+        }
+    }
+
+    /**
+     * Tests that {@link MappingSystem#restoreDaoFromDatastore} fails when a virtual network restored in parallel
+     * fails, after restoring the other ones.
+     */
+    @Test
+    public void restoreDaoFromDatastoreTest_parallelFailure() {
+        final Eid eid1 = LispAddressUtil.asIpv4Eid(IPV4_STRING_1, 1L);
+        final Eid eid2 = LispAddressUtil.asIpv4Eid(IPV4_STRING_1, 2L);
+        Mockito.when(dsbeMock.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION)).thenReturn(List.of(
+                getVirtualNetwork(1, getMapping(MappingOrigin.Northbound,
+                        getDefaultMappingRecordBuilder().setEid(eid1).build())),
+                getVirtualNetwork(2, getMapping(MappingOrigin.Northbound,
+                        getDefaultMappingRecordBuilder().setEid(eid2).build()))));
+        final RuntimeException cause = new RuntimeException("test");
+        Mockito.doThrow(cause).when(akdbMock).addAuthenticationKey(eid2, MAPPING_AUTHKEY_BUILDER.build());
+
+        mappingSystem.setRestoreParallelism(2);
+        final IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> mappingSystem.initialize());
+
+        assertArrayEquals(new Throwable[] {cause}, exception.getSuppressed());
+        Mockito.verify(pmcMock).addMapping(Mockito.eq(eid1), Mockito.any(MappingData.class));
+        Mockito.verify(akdbMock).addAuthenticationKey(eid1, MAPPING_AUTHKEY_BUILDER.build());
+    }
+
+    /**
+     * Tests that {@link MappingSystem#restoreDaoFromDatastore} removes a restored negative mapping covering a
+     * restored positive mapping, like {@link MappingSystem#addMapping} does.
+     */
+    @Test
+    public void restoreDaoFromDatastoreTest_overlappedNegativeMapping() throws NoSuchFieldException,
+            IllegalAccessException {
+        mappingSystem = new MappingSystem(dao, false, npsMock, config);
+        injectMocks();
+        mappingSystem.setDataStoreBackEnd(dsbeMock);
+
+        final Eid negativeEid = LispAddressUtil.asIpv4PrefixBinaryEid(IPV4_STRING_1 + "/16");
+        final Eid positiveEid = LispAddressUtil.asIpv4PrefixBinaryEid(IPV4_STRING_1 + MASK);
+        final MappingRecord negativeRecord = getDefaultMappingRecordBuilder()
+                .setEid(negativeEid)
+                .setAction(LispMessage.NEGATIVE_MAPPING_ACTION).build();
+        final MappingData negativeMappingData = new MappingData(negativeRecord);
+        Mockito.when(dsbeMock.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION)).thenReturn(List.of(
+                getVirtualNetwork(0, getMapping(MappingOrigin.Northbound,
+                        getDefaultMappingRecordBuilder().setEid(positiveEid).build()))));
+        Mockito.when(dsbeMock.getAllVirtualNetworks(LogicalDatastoreType.OPERATIONAL)).thenReturn(List.of(
+                getVirtualNetwork(0, getMapping(MappingOrigin.Southbound, negativeRecord))));
+        Mockito.when(smcMock.getCoveringLessSpecific(positiveEid)).thenReturn(negativeEid);
+        Mockito.when(smcMock.getMapping(negativeEid, (XtrId) null)).thenReturn(negativeMappingData);
+        Mockito.when(smcMock.getData(negativeEid, SubKeys.RECORD)).thenReturn(negativeMappingData);
+
+        mappingSystem.initialize();
+
+        Mockito.verify(smcMock).addMapping(Mockito.eq(negativeEid), Mockito.any(MappingData.class));
+        Mockito.verify(pmcMock).addMapping(Mockito.eq(positiveEid), Mockito.any(MappingData.class));
+        Mockito.verify(smcMock).removeMapping(negativeEid);
+        Mockito.verify(dsbeMock).removeMapping(Mockito.any());
+    }
+
     /**
      * Tests {@link MappingSystem#addAuthenticationKey} method.
      */
@@ -572,6 +796,28 @@ public class MappingSystemTest {
         return new MappingData(mappingRecord, System.currentTimeMillis());
     }
 
+    private static Mapping getMapping(MappingOrigin origin, MappingRecord record) {
+        return new MappingBuilder()
+                .withKey(new MappingKey(new EidUri(LispAddressStringifier.getURIString(record.getEid())), origin))
+                .setOrigin(origin)
+                .setMappingRecord(record).build();
+    }
+
+    /*
+     * Returns a virtual network with the given mapping, and an authentication key for the EID of the mapping.
+     */
+    private static VirtualNetworkIdentifier getVirtualNetwork(long vni, Mapping mapping) {
+        final Eid eid = mapping.getMappingRecord().getEid();
+        final AuthenticationKey authenticationKey = new AuthenticationKeyBuilder()
+                .withKey(new AuthenticationKeyKey(new EidUri(LispAddressStringifier.getURIString(eid))))
+                .setMappingAuthkey(MAPPING_AUTHKEY_BUILDER.build())
+                .setEid(eid).build();
+        return new VirtualNetworkIdentifierBuilder()
+                .setVni(new VniUri(String.valueOf(vni)))
+                .setMapping(Map.of(mapping.key(), mapping))
+                .setAuthenticationKey(Map.of(authenticationKey.key(), authenticationKey)).build();
+    }
+
     private static MappingRecordBuilder getDefaultMappingRecordBuilder() {
         return new MappingRecordBuilder()
                 .setSiteId(SITE_ID)
@@ -10,6 +10,7 @@ package org.opendaylight.lispflowmapping.implementation.lisp;
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import org.junit.Before;
@@ -145,7 +146,9 @@ public class MapResolverTest {
                 .setMappingRecord(mappingRecordBuilder.build()).build());
 
         mapResolver.handleMapRequest(mapRequestBuilder.build());
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        // The stored record is sent unmodified, so its cached serialization is passed along with it
+        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build(),
+                List.of(mappingData.getSerializedRecord()));
     }
 
     /**
@@ -172,7 +175,7 @@ public class MapResolverTest {
                 .setMappingRecord(mappingRecordBuilder.build()).build());
 
         mapResolver.handleMapRequest(mapRequestBuilder.build());
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        Mockito.verify(lispMappingServiceMock).handleMapReply(Mockito.eq(mapReplyBuilder.build()), Mockito.anyList());
     }
 
     /**
@@ -199,7 +202,7 @@ public class MapResolverTest {
                 .setMappingRecord(mappingRecordBuilder.build()).build());
 
         mapResolver.handleMapRequest(mapRequestBuilder.build());
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        Mockito.verify(lispMappingServiceMock).handleMapReply(Mockito.eq(mapReplyBuilder.build()), Mockito.anyList());
         Mockito.verify(subscriberSetMock, Mockito.never()).remove(Mockito.any(Subscriber.class));
     }
 
@@ -330,7 +333,7 @@ public class MapResolverTest {
         mapResolver.handleMapRequest(mapRequestBuilder.build());
         Mockito.verify(subscriberSetMock).remove(subscriberMock);
         Mockito.verify(subscriberSetMock).add(subscriberMock);
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        Mockito.verify(lispMappingServiceMock).handleMapReply(Mockito.eq(mapReplyBuilder.build()), Mockito.anyList());
         Mockito.verify(mapServiceMock).addData(MappingOrigin.Southbound, IPV4_PREFIX_EID_1,
                 SubKeys.SUBSCRIBERS, subscriberSetMock);
 
@@ -399,7 +402,8 @@ public class MapResolverTest {
 
         // invocation
         mapResolver.handleMapRequest(mrb.build());
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        // The locators were rewritten, so the record is encoded instead of copying the stored record's bytes
+        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build(), Collections.singletonList(null));
     }
 
     /**
@@ -452,7 +456,7 @@ public class MapResolverTest {
 
         // invocation
         mapResolver.handleMapRequest(mrb.build());
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        Mockito.verify(lispMappingServiceMock).handleMapReply(Mockito.eq(mapReplyBuilder.build()), Mockito.anyList());
     }
 
     /**
@@ -494,7 +498,7 @@ public class MapResolverTest {
                         .setMappingRecord(mappingRecordBuilder_2.build()).build());
 
         mapResolver.handleMapRequest(mapRequestBuilder.build());
-        Mockito.verify(lispMappingServiceMock).handleMapReply(mapReplyBuilder.build());
+        Mockito.verify(lispMappingServiceMock).handleMapReply(Mockito.eq(mapReplyBuilder.build()), Mockito.anyList());
     }
 
     private static ItrRloc newItrRloc(final LispAddressFamily clazz, final Address address) {
@@ -8,8 +8,12 @@
 package org.opendaylight.lispflowmapping.implementation.lisp;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableSet;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
@@ -25,9 +29,11 @@ import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.opendaylight.lispflowmapping.config.ConfigIni;
+import org.opendaylight.lispflowmapping.implementation.util.MSNotificationInputUtil;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
 import org.opendaylight.lispflowmapping.interfaces.dao.Subscriber;
 import org.opendaylight.lispflowmapping.interfaces.lisp.IMapNotifyHandler;
+import org.opendaylight.lispflowmapping.interfaces.lisp.SmrEvent;
 import org.opendaylight.lispflowmapping.interfaces.mappingservice.IMappingService;
 import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
@@ -53,10 +59,11 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkeyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapregistermessage.MapRegisterBuilder;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestnotification.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddressBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingChange;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.MappingOrigin;
 import org.opendaylight.yangtools.yang.common.Uint16;
 
@@ -326,23 +333,88 @@ public class MapServerTest {
         // result
         mapServer.handleMapRegister(mapRegisterSrcDstBuilder.build());
 
-        // for SrcDstKey mapping
-        final ArgumentCaptor<MapRequest> captor_1 = ArgumentCaptor.forClass(MapRequest.class);
-        Mockito.verify(notifyHandler, Mockito.times(1)).handleSMR(captor_1.capture(), Mockito.eq(RLOC_2));
-        final Eid resultEid_1 = captor_1.getValue().getEidItem().iterator().next().getEid();
-        assertEquals(IPV4_SOURCE_EID_2, resultEid_1);
+        // for SrcDstKey mapping, the SMR's EID record is set to the subscriber's source EID
+        Mockito.verify(notifyHandler, Mockito.times(1)).handleSmrs(
+                Mockito.argThat(smrs -> containsSubscriber(smrs, SUBSCRIBER_RLOC_2)));
 
         // for SrcDst destination mapping
-        final ArgumentCaptor<MapRequest> captor_2 = ArgumentCaptor.forClass(MapRequest.class);
-        Mockito.verify(notifyHandler, Mockito.times(1)).handleSMR(captor_2.capture(), Mockito.eq(RLOC_4));
-        final Eid resultEid_2 = captor_2.getValue().getEidItem().iterator().next().getEid();
-        assertEquals(IPV4_SOURCE_EID_4, resultEid_2);
+        Mockito.verify(notifyHandler, Mockito.times(1)).handleSmrs(
+                Mockito.argThat(smrs -> containsSubscriber(smrs, SUBSCRIBER_RLOC_4)));
 
         // for Ipv4 mapping
-        final ArgumentCaptor<MapRequest> captor_3 = ArgumentCaptor.forClass(MapRequest.class);
-        Mockito.verify(notifyHandler, Mockito.times(2)).handleSMR(captor_3.capture(), Mockito.eq(RLOC_6));
-        final Eid resultEid_3 = captor_3.getValue().getEidItem().iterator().next().getEid();
-        assertEquals(IPV4_SOURCE_EID_6, resultEid_3);
+        Mockito.verify(notifyHandler, Mockito.times(2)).handleSmrs(
+                Mockito.argThat(smrs -> containsSubscriber(smrs, SUBSCRIBER_RLOC_6)));
+    }
+
+    /**
+     * Tests that SMRs use the configured IPv4 and IPv6 source addresses as ITR-RLOCs, which the southbound keeps.
+     */
+    @Test
+    public void onNotificationTest_configuredSmrSourceAddress() throws UnknownHostException {
+        final InetAddress smrSourceIpv4Address = InetAddress.getByAddress(new byte[] {10, 0, 0, 9});
+        final InetAddress smrSourceIpv6Address = InetAddress.getByName("1::9");
+        config.setSmrSourceIpv4Address(smrSourceIpv4Address);
+        config.setSmrSourceIpv6Address(smrSourceIpv6Address);
+        final MapServer smrMapServer = new MapServer(mapService, config, notifyHandler, notificationService);
+        Mockito.when(mapService.isMaster()).thenReturn(true);
+
+        smrMapServer.onNotification(MSNotificationInputUtil.toMappingChanged(null, IPV4_EID_1,
+                Set.of(SUBSCRIBER_RLOC_2), null, MappingChange.Updated));
+
+        final ArgumentCaptor<SendSmrsInput> captor = ArgumentCaptor.forClass(SendSmrsInput.class);
+        Mockito.verify(notifyHandler, Mockito.timeout(5000).atLeastOnce()).handleSmrs(captor.capture());
+        final SendSmrsInput smrs = captor.getValue();
+        assertEquals(Boolean.TRUE, smrs.getKeepItrRloc());
+        assertEquals(2, smrs.getMapRequest().getItrRloc().size());
+        assertEquals(LispAddressUtil.toRloc(smrSourceIpv4Address), smrs.getMapRequest().getItrRloc().get(0).getRloc());
+        assertEquals(LispAddressUtil.toRloc(smrSourceIpv6Address), smrs.getMapRequest().getItrRloc().get(1).getRloc());
+        assertTrue(containsSubscriber(smrs, SUBSCRIBER_RLOC_2));
+    }
+
+    /**
+     * Tests that the southbound may replace the ITR-RLOC of SMRs if no source address is configured.
+     */
+    @Test
+    public void onNotificationTest_discoveredSmrSourceAddress() {
+        Mockito.when(mapService.isMaster()).thenReturn(true);
+
+        mapServer.onNotification(MSNotificationInputUtil.toMappingChanged(null, IPV4_EID_1,
+                Set.of(SUBSCRIBER_RLOC_2), null, MappingChange.Updated));
+
+        Mockito.verify(notifyHandler, Mockito.timeout(5000).atLeastOnce()).handleSmrs(Mockito.argThat(smrs ->
+                Boolean.FALSE.equals(smrs.getKeepItrRloc()) && smrs.getMapRequest().getItrRloc().size() == 1));
+    }
+
+    /**
+     * Tests that the SMRs to the pending subscribers of an EID are only built again when some of them answered.
+     */
+    @Test
+    public void onSmrInvokedReceivedTest() {
+        config.setSmrTimeout(50);
+        config.setSmrRetryCount(100);
+        Mockito.when(mapService.isMaster()).thenReturn(true);
+
+        mapServer.onNotification(MSNotificationInputUtil.toMappingChanged(null, IPV4_EID_1,
+                Set.of(SUBSCRIBER_RLOC_2, SUBSCRIBER_RLOC_4), null, MappingChange.Updated));
+
+        final ArgumentCaptor<SendSmrsInput> captor = ArgumentCaptor.forClass(SendSmrsInput.class);
+        Mockito.verify(notifyHandler, Mockito.timeout(5000).atLeast(2)).handleSmrs(captor.capture());
+        assertSame(captor.getAllValues().get(0), captor.getAllValues().get(1));
+        assertEquals(2, captor.getValue().nonnullSmrSubscriber().size());
+
+        mapServer.onSmrInvokedReceived(new SmrEvent(List.of(SUBSCRIBER_RLOC_2), IPV4_EID_1, 0L));
+        Mockito.verify(notifyHandler, Mockito.timeout(5000).atLeastOnce()).handleSmrs(Mockito.argThat(smrs ->
+                smrs.nonnullSmrSubscriber().size() == 1 && containsSubscriber(smrs, SUBSCRIBER_RLOC_4)));
+
+        // no more SMRs once all subscribers answered
+        mapServer.onSmrInvokedReceived(new SmrEvent(List.of(SUBSCRIBER_RLOC_4), IPV4_EID_1, 0L));
+        Mockito.clearInvocations(notifyHandler);
+        Mockito.verify(notifyHandler, Mockito.after(200).atMost(1)).handleSmrs(Mockito.any());
+    }
+
+    private static boolean containsSubscriber(SendSmrsInput smrs, Subscriber subscriber) {
+        return smrs.nonnullSmrSubscriber().stream()
+                .anyMatch(smrSubscriber -> smrSubscriber.getEid().equals(subscriber.getSrcEid()));
     }
 
     private static MapRegisterBuilder getDefaultMapRegisterBuilder() {
@@ -7,10 +7,8 @@
  */
 package org.opendaylight.lispflowmapping.implementation.timebucket;
 
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,15 +16,8 @@ import org.mockito.Mockito;
 import org.opendaylight.lispflowmapping.implementation.MappingSystem;
 import org.opendaylight.lispflowmapping.implementation.timebucket.containers.TimeBucket;
 import org.opendaylight.lispflowmapping.implementation.timebucket.containers.TimeBucketWheel;
-import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.Ipv4AddressBinary;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
-import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -49,19 +40,13 @@ public class TimeBucketWheelUnitTest {
     private static final Eid IPV4_EID_3 = LispAddressUtil.asIpv4Eid(IPV4_STRING_3);
     private static final Eid IPV4_EID_4 = LispAddressUtil.asIpv4Eid(IPV4_STRING_4);
     private static final Eid IPV4_EID_5 = LispAddressUtil.asIpv4Eid(IPV4_STRING_5);
-    private static final IpAddressBinary IPV4_SOURCE_RLOC_1 = new IpAddressBinary(
-            new Ipv4AddressBinary(new byte[] {1, 1, 1, 1}));
 
     private static final int NUMBER_OF_BUCKETS = 4;
 
-    private static final XtrId XTR_ID_1 = new XtrId(new byte[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
-
-    private static final SiteId SITE_ID_1 = new SiteId(new byte[]{1, 1, 1, 1, 1, 1, 1, 1});
-
-    private static MappingSystem mappingSystem = Mockito.mock(MappingSystem.class);
+    private final MappingSystem mappingSystem = Mockito.mock(MappingSystem.class);
 
     /**
-     * Tests {@link TimeBucketWheel#add(Eid, MappingData, long)} method for general case.
+     * Tests {@link TimeBucketWheel#add(Eid, long)} method for general case.
      */
     @Test
     public void mappingAddedInTheProperBucketGeneralTest() {
@@ -72,32 +57,27 @@ public class TimeBucketWheelUnitTest {
 
         TimeBucketWheel timeBucketWheel = getDefaultTimeBucketWheel();
 
-        final int bucketId1 = timeBucketWheel.add(IPV4_EID_1, getDefaultMappingData(IPV4_EID_1),
-                System.currentTimeMillis());
+        final int bucketId1 = timeBucketWheel.add(IPV4_EID_1, System.currentTimeMillis());
 
         frozenTimeStamp += 1000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-        final int bucketId2 = timeBucketWheel.add(IPV4_EID_2, getDefaultMappingData(IPV4_EID_2),
-                System.currentTimeMillis());
+        final int bucketId2 = timeBucketWheel.add(IPV4_EID_2, System.currentTimeMillis());
 
         frozenTimeStamp += 1000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-        final int bucketId3 = timeBucketWheel.add(IPV4_EID_3, getDefaultMappingData(IPV4_EID_3),
-                System.currentTimeMillis());
+        final int bucketId3 = timeBucketWheel.add(IPV4_EID_3, System.currentTimeMillis());
 
         frozenTimeStamp += 1000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-        final int bucketId4 = timeBucketWheel.add(IPV4_EID_4, getDefaultMappingData(IPV4_EID_4),
-                System.currentTimeMillis());
+        final int bucketId4 = timeBucketWheel.add(IPV4_EID_4, System.currentTimeMillis());
 
         frozenTimeStamp += 1000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-        final int bucketId5 = timeBucketWheel.add(IPV4_EID_5, getDefaultMappingData(IPV4_EID_5),
-                System.currentTimeMillis());
+        final int bucketId5 = timeBucketWheel.add(IPV4_EID_5, System.currentTimeMillis());
 
         Assert.assertEquals((bucketId1 - 1 + NUMBER_OF_BUCKETS) % NUMBER_OF_BUCKETS, bucketId2);
         Assert.assertEquals((bucketId2 - 1 + NUMBER_OF_BUCKETS) % NUMBER_OF_BUCKETS, bucketId3);
@@ -106,7 +86,7 @@ public class TimeBucketWheelUnitTest {
     }
 
     /**
-     * Tests {@link TimeBucketWheel#add(Eid, MappingData, long)} method for add in some bucket in the middle.
+     * Tests {@link TimeBucketWheel#add(Eid, long)} method for add in some bucket in the middle.
      */
     @Test
     public void mappingAddedInTheProperBucketAddInMiddleTest() throws Exception {
@@ -127,8 +107,7 @@ public class TimeBucketWheelUnitTest {
         long frozenTimeStamp = System.currentTimeMillis() - 10000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-        int bucketId = timeBucketWheel.add(IPV4_EID_1, getDefaultMappingData(IPV4_EID_1),
-                System.currentTimeMillis());
+        int bucketId = timeBucketWheel.add(IPV4_EID_1, System.currentTimeMillis());
 
         int idOfLastBucketInBucketWheel = Whitebox.invokeMethod(timeBucketWheel,
                 "getLastBucketId");
@@ -143,13 +122,9 @@ public class TimeBucketWheelUnitTest {
     private void checkOlderThanCurrentCase(TimeBucketWheel timeBucketWheel) {
         long frozenTimeStamp = System.currentTimeMillis();
 
-        int bucketId1 = timeBucketWheel.add(IPV4_EID_1, getDefaultMappingData(IPV4_EID_1),
-                frozenTimeStamp);
-
-        MappingData toBeExpiredMappingData = getDefaultMappingData(IPV4_EID_2);
+        int bucketId1 = timeBucketWheel.add(IPV4_EID_1, frozenTimeStamp);
 
-        int bucketId2 = timeBucketWheel.add(IPV4_EID_2, toBeExpiredMappingData,
-                frozenTimeStamp - 1000);
+        int bucketId2 = timeBucketWheel.add(IPV4_EID_2, frozenTimeStamp - 1000);
 
         Assert.assertEquals((bucketId1 + 1) % NUMBER_OF_BUCKETS, bucketId2);
 
@@ -159,12 +134,12 @@ public class TimeBucketWheelUnitTest {
 
         timeBucketWheel.clearExpiredMappingAndRotate();
 
-        Mockito.verify(mappingSystem).handleSbExpiredMapping(IPV4_EID_2, null, toBeExpiredMappingData);
+        Mockito.verify(mappingSystem).expireSbMapping(IPV4_EID_2);
     }
 
 
     /**
-     * Tests {@link TimeBucketWheel#refreshMappping(Eid, MappingData, long, int)} method.
+     * Tests {@link TimeBucketWheel#refreshMappping(Eid, long, int)} method.
      * {@link ClassCastException} can be thrown.
      */
     @Test
@@ -176,30 +151,22 @@ public class TimeBucketWheelUnitTest {
 
         TimeBucketWheel timeBucketWheel = getDefaultTimeBucketWheel();
 
-        final int bucketId1 = timeBucketWheel.add(IPV4_EID_1, getDefaultMappingData(IPV4_EID_1),
-                System.currentTimeMillis());
+        final int bucketId1 = timeBucketWheel.add(IPV4_EID_1, System.currentTimeMillis());
 
         frozenTimeStamp += 2000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-        MappingData newMappingData = getDefaultMappingData(IPV4_EID_1);
-
-        int currentBucketId = timeBucketWheel.refreshMappping(IPV4_EID_1, newMappingData,
-                System.currentTimeMillis(), bucketId1);
+        int currentBucketId = timeBucketWheel.refreshMappping(IPV4_EID_1, System.currentTimeMillis(), bucketId1);
 
         List<TimeBucket> bucketList = extractBucketList(timeBucketWheel);
 
         TimeBucket pastTimeBucket = bucketList.get(bucketId1);
 
-        MappingData oldStoredMappingData = getMappingDataFromTimeBucket(pastTimeBucket, IPV4_EID_1);
-
-        Assert.assertNull(oldStoredMappingData);
+        Assert.assertFalse(getKeysFromTimeBucket(pastTimeBucket).contains(IPV4_EID_1));
 
         TimeBucket presentTimeBucket = bucketList.get(currentBucketId);
 
-        MappingData newStoredMappingData = getMappingDataFromTimeBucket(presentTimeBucket, IPV4_EID_1);
-
-        Assert.assertEquals(newMappingData, newStoredMappingData);
+        Assert.assertTrue(getKeysFromTimeBucket(presentTimeBucket).contains(IPV4_EID_1));
     }
 
     private List<TimeBucket> extractBucketList(TimeBucketWheel timeBucketWheel) {
@@ -212,17 +179,16 @@ public class TimeBucketWheelUnitTest {
         return bucketList;
     }
 
-    private MappingData getMappingDataFromTimeBucket(TimeBucket timeBucket, Eid eid) {
-        ConcurrentHashMap<Eid, MappingData> bucketElements;
+    private Set<Eid> getKeysFromTimeBucket(TimeBucket timeBucket) {
+        Set<Eid> bucketElements;
 
         try {
-            bucketElements = (ConcurrentHashMap<Eid, MappingData>) Whitebox.getInternalState(timeBucket,
-                    "bucketElements");
+            bucketElements = (Set<Eid>) Whitebox.getInternalState(timeBucket, "bucketElements");
         } catch (ClassCastException e) {
             throw e;
         }
 
-        return bucketElements.get(eid);
+        return bucketElements;
     }
 
     /**
@@ -238,53 +204,51 @@ public class TimeBucketWheelUnitTest {
 
         TimeBucketWheel timeBucketWheel = getDefaultTimeBucketWheel();
 
-        MappingData mappingData = getDefaultMappingData(IPV4_EID_1);
-        timeBucketWheel.add(IPV4_EID_1, mappingData,
-                System.currentTimeMillis());
+        timeBucketWheel.add(IPV4_EID_1, System.currentTimeMillis());
 
         frozenTimeStamp = System.currentTimeMillis() + 4000;
         PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
         timeBucketWheel.clearExpiredMappingAndRotate(frozenTimeStamp);
 
-        Mockito.verify(mappingSystem).handleSbExpiredMapping(IPV4_EID_1, null, mappingData);
+        Mockito.verify(mappingSystem).expireSbMapping(IPV4_EID_1);
     }
 
+    /**
+     * Tests that adding mappings only moves expired mappings to the backlog, which is expired by
+     * {@link TimeBucketWheel#expireMappings(int)} in batches.
+     */
+    @Test
+    public void expiredMappingBacklogTest() {
+        PowerMockito.mockStatic(System.class);
 
-    private MappingData getDefaultMappingDataWithProperTimestamp(Eid eid, long timeStamp) {
-        MappingData mappingData = getDefaultMappingData(eid);
-        Date date = new Date();
-        date.setTime(timeStamp);
-        mappingData.setTimestamp(date);
-        return mappingData;
-    }
-
-    private static TimeBucketWheel getDefaultTimeBucketWheel() {
-        return new TimeBucketWheel(4, 3000, mappingSystem);
-    }
+        long frozenTimeStamp = System.currentTimeMillis();
+        PowerMockito.when(System.currentTimeMillis()).thenReturn(frozenTimeStamp);
 
-    private static MappingData getDefaultMappingData(Eid eid) {
-        return getDefaultMappingData(eid,null);
+        TimeBucketWheel timeBucketWheel = getDefaultTimeBucketWheel();
+        timeBucketWheel.add(IPV4_EID_1, frozenTimeStamp);
+        timeBucketWheel.add(IPV4_EID_2, frozenTimeStamp);
+        timeBucketWheel.add(IPV4_EID_3, frozenTimeStamp);
+
+        // the bucket of the mappings above expires on the fourth rotation
+        timeBucketWheel.add(IPV4_EID_4, frozenTimeStamp + 4000);
+        Mockito.verify(mappingSystem, Mockito.never()).expireSbMapping(Mockito.any());
+        Assert.assertEquals(3, timeBucketWheel.getBacklog());
+        Assert.assertEquals(1000, timeBucketWheel.getLag(frozenTimeStamp + 5000));
+
+        Assert.assertEquals(2, timeBucketWheel.expireMappings(2));
+        Assert.assertEquals(1, timeBucketWheel.getBacklog());
+        Assert.assertEquals(1, timeBucketWheel.expireMappings(2));
+        Assert.assertEquals(0, timeBucketWheel.getBacklog());
+        Assert.assertEquals(0, timeBucketWheel.getLag(frozenTimeStamp + 5000));
+        Assert.assertEquals(3, timeBucketWheel.getExpiredCount());
+        Mockito.verify(mappingSystem).expireSbMapping(IPV4_EID_1);
+        Mockito.verify(mappingSystem).expireSbMapping(IPV4_EID_2);
+        Mockito.verify(mappingSystem).expireSbMapping(IPV4_EID_3);
     }
 
-    private static MappingData getDefaultMappingData(Eid eid, MappingRecord mappingRecord) {
-        if (mappingRecord == null) {
-            mappingRecord = getDefaultMappingRecordBuilder(eid).build();
-        }
-        return new MappingData(mappingRecord, System.currentTimeMillis());
-    }
 
-    private static MappingRecordBuilder getDefaultMappingRecordBuilder(Eid eid) {
-        return new MappingRecordBuilder()
-                .setEid(eid)
-                .setLocatorRecord(new ArrayList<>())
-                .setRecordTtl(2)
-                .setAction(MappingRecord.Action.NativelyForward)
-                .setAuthoritative(true)
-                .setMapVersion((short) 1)
-                .setSiteId(SITE_ID_1)
-                .setSourceRloc(IPV4_SOURCE_RLOC_1)
-                .setTimestamp(new Date().getTime())
-                .setXtrId(XTR_ID_1);
+    private TimeBucketWheel getDefaultTimeBucketWheel() {
+        return new TimeBucketWheel(4, 3000, mappingSystem);
     }
 }
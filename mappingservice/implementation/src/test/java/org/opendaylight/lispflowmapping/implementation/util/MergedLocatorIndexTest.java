@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.implementation.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.opendaylight.yangtools.yang.common.UintConversions.fromJava;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.Ipv4Address;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.Ipv4AddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecordBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+
+public class MergedLocatorIndexTest {
+    private static final Eid IPV4_PREFIX_EID = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.0/24");
+    private static final long VALIDITY = 10000L;
+    private static final SiteId SITE_ID = new SiteId(new byte[] {1, 1, 1, 1, 1, 1, 1, 1});
+    private static final XtrId XTR_ID_1 = new XtrId(new byte[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+    private static final XtrId XTR_ID_2 = new XtrId(new byte[] {2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2});
+    private static final XtrId XTR_ID_3 = new XtrId(new byte[] {3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3, 3});
+
+    /**
+     * Tests that the merged mapping is the same as the one from {@link MappingMergeUtil#mergeXtrIdMappings}, also
+     * after an xTR-ID changed its locators. Changed mappings are merged last.
+     */
+    @Test
+    public void mergeTest_sameAsFullMerge() {
+        final long now = System.currentTimeMillis();
+        final List<Object> mappings = new ArrayList<>();
+        mappings.add(getMappingData(XTR_ID_1, 10, now - 3000, 1, 3));
+        mappings.add(getMappingData(XTR_ID_2, 5, now - 2000, 2, 3));
+        mappings.add(getMappingData(XTR_ID_3, 7, now - 1000, 4));
+        final MergedLocatorIndex index = MergedLocatorIndex.of(mappings);
+        assertMergeEquals(mappings, index);
+
+        final MappingData refreshed = getMappingData(XTR_ID_2, 5, now, 2, 5);
+        mappings.remove(1);
+        mappings.add(refreshed);
+        index.update(XTR_ID_2, refreshed);
+        assertMergeEquals(mappings, index);
+        assertEquals(5, mergeIndex(index).getRecord().getLocatorRecord().size());
+
+        // Conflicting records for locator 5, registered in the order of the list
+        final MappingData conflicting = getMappingData(XTR_ID_3, 7, now, List.of(getLocator(4), getLocator(5, 2)));
+        mappings.remove(1);
+        mappings.add(conflicting);
+        index.update(XTR_ID_3, conflicting);
+        assertMergeEquals(mappings, index);
+        assertEquals(getLocator(5, 2), mergeIndex(index).getRecord().getLocatorRecord().get(4));
+    }
+
+    /**
+     * Tests that the merged mapping is the same as the one from {@link MappingMergeUtil#mergeXtrIdMappings} for
+     * unsorted locator sets, and for locators with the same address but of different address types.
+     */
+    @Test
+    public void mergeTest_unsortedAndMixedTypes() {
+        final long now = System.currentTimeMillis();
+        final LocatorRecord ipv4Locator = new LocatorRecordBuilder(getLocator(2))
+                .setRloc(LispAddressUtil.toRloc(new Ipv4Address("10.0.0.2"))).build();
+        final List<Object> mappings = new ArrayList<>();
+        mappings.add(getMappingData(XTR_ID_1, 10, now - 3000, 3, 1));
+        mappings.add(getMappingData(XTR_ID_2, 5, now - 2000, List.of(getLocator(4), ipv4Locator, getLocator(2))));
+        mappings.add(getMappingData(XTR_ID_3, 7, now - 1000, 5, 2, 3));
+        final MergedLocatorIndex index = MergedLocatorIndex.of(mappings);
+        assertMergeEquals(mappings, index);
+
+        final MappingData changed = getMappingData(XTR_ID_1, 10, now, 6, 1, 3);
+        mappings.remove(0);
+        mappings.add(changed);
+        index.update(XTR_ID_1, changed);
+        assertMergeEquals(mappings, index);
+
+        // A refresh with the same locators keeps the merge order
+        final MappingData refreshed = getMappingData(XTR_ID_2, 5, now, List.of(getLocator(4), ipv4Locator,
+                getLocator(2)));
+        mappings.set(0, refreshed);
+        index.update(XTR_ID_2, refreshed);
+        assertMergeEquals(mappings, index);
+    }
+
+    /**
+     * Tests that conflicting locator records are merged in the order the xTR-IDs last changed them.
+     */
+    @Test
+    public void mergeTest_conflictingLocators() {
+        final long now = System.currentTimeMillis();
+        final MergedLocatorIndex index = MergedLocatorIndex.of(List.of(
+                getMappingData(XTR_ID_1, 10, now, List.of(getLocator(1, 1))),
+                getMappingData(XTR_ID_2, 10, now, List.of(getLocator(1, 2)))));
+        assertEquals(List.of(getLocator(1, 2)), mergeIndex(index).getRecord().getLocatorRecord());
+
+        // A refresh with the same record doesn't change the order
+        index.update(XTR_ID_1, getMappingData(XTR_ID_1, 10, now, List.of(getLocator(1, 1))));
+        assertEquals(List.of(getLocator(1, 2)), mergeIndex(index).getRecord().getLocatorRecord());
+
+        // A changed record takes precedence
+        index.update(XTR_ID_1, getMappingData(XTR_ID_1, 10, now, List.of(getLocator(1, 3))));
+        assertEquals(List.of(getLocator(1, 3)), mergeIndex(index).getRecord().getLocatorRecord());
+
+        // Except over a local locator
+        final LocatorRecord local = new LocatorRecordBuilder(getLocator(1, 4)).setLocalLocator(true).build();
+        index.update(XTR_ID_2, getMappingData(XTR_ID_2, 10, now, List.of(local)));
+        index.update(XTR_ID_1, getMappingData(XTR_ID_1, 10, now, List.of(getLocator(1, 5))));
+        assertEquals(List.of(local), mergeIndex(index).getRecord().getLocatorRecord());
+    }
+
+    /**
+     * Tests that expired and removed xTR-ID mappings don't contribute their locators anymore.
+     */
+    @Test
+    public void mergeTest_expiredAndRemoved() {
+        final long now = System.currentTimeMillis();
+        final MappingData expired = getMappingData(XTR_ID_1, 10, now - VALIDITY - 1000, 1, 3);
+        final List<Object> mappings = new ArrayList<>();
+        mappings.add(expired);
+        mappings.add(getMappingData(XTR_ID_2, 5, now - 2000, 2, 3));
+        mappings.add(getMappingData(XTR_ID_3, 7, now - 1000, 4));
+        final MergedLocatorIndex index = MergedLocatorIndex.of(mappings);
+
+        final List<MappingData> expiredMappings = new ArrayList<>();
+        final MappingData merged = index.merge(expiredMappings, new HashSet<>(), VALIDITY);
+        assertEquals(List.of(expired), expiredMappings);
+        assertEquals(List.of(getLocator(2), getLocator(3), getLocator(4)), merged.getRecord().getLocatorRecord());
+        assertEquals(XTR_ID_2, merged.getXtrId());
+
+        index.remove(XTR_ID_3);
+        assertEquals(List.of(getLocator(2), getLocator(3)), mergeIndex(index).getRecord().getLocatorRecord());
+
+        index.remove(XTR_ID_2);
+        assertNull(mergeIndex(index));
+    }
+
+    private static void assertMergeEquals(List<Object> mappings, MergedLocatorIndex index) {
+        final Set<IpAddressBinary> expectedSourceRlocs = new HashSet<>();
+        final MappingData expected = MappingMergeUtil.mergeXtrIdMappings(mappings, new ArrayList<>(),
+                expectedSourceRlocs, VALIDITY);
+        final Set<IpAddressBinary> sourceRlocs = new HashSet<>();
+        final MappingData merged = index.merge(new ArrayList<>(), sourceRlocs, VALIDITY);
+
+        assertEquals(expected.getRecord(), merged.getRecord());
+        assertEquals(expected.getTimestamp(), merged.getTimestamp());
+        assertEquals(expectedSourceRlocs, sourceRlocs);
+    }
+
+    private static MappingData mergeIndex(MergedLocatorIndex index) {
+        return index.merge(new ArrayList<>(), new HashSet<>(), VALIDITY);
+    }
+
+    private static MappingData getMappingData(XtrId xtrId, int ttl, long timestamp, int... locators) {
+        final List<LocatorRecord> locatorRecords = new ArrayList<>();
+        for (int locator : locators) {
+            locatorRecords.add(getLocator(locator));
+        }
+        return getMappingData(xtrId, ttl, timestamp, locatorRecords);
+    }
+
+    private static MappingData getMappingData(XtrId xtrId, int ttl, long timestamp,
+            List<LocatorRecord> locatorRecords) {
+        final MappingRecord record = new MappingRecordBuilder()
+                .setEid(IPV4_PREFIX_EID)
+                .setRecordTtl(ttl)
+                .setAction(MappingRecord.Action.NoAction)
+                .setAuthoritative(true)
+                .setMapVersion((short) 0)
+                .setLocatorRecord(locatorRecords)
+                .setXtrId(xtrId)
+                .setSiteId(SITE_ID)
+                .setSourceRloc(new IpAddressBinary(new Ipv4AddressBinary(new byte[] {1, 1, 1, xtrId.getValue()[0]})))
+                .setTimestamp(timestamp)
+                .build();
+        final MappingData mappingData = new MappingData(record, new Date(timestamp));
+        mappingData.setXtrId(xtrId);
+        mappingData.setMergeEnabled(true);
+        return mappingData;
+    }
+
+    private static LocatorRecord getLocator(int locator) {
+        return getLocator(locator, 1);
+    }
+
+    private static LocatorRecord getLocator(int locator, int priority) {
+        return new LocatorRecordBuilder()
+                .setLocatorId("locator-" + locator)
+                .setPriority(fromJava((short) priority))
+                .setWeight(fromJava((short) 1))
+                .setMulticastPriority(fromJava((short) 255))
+                .setMulticastWeight(fromJava((short) 0))
+                .setLocalLocator(false)
+                .setRlocProbed(false)
+                .setRouted(true)
+                .setRloc(LispAddressUtil.asIpv4Rloc("10.0.0." + locator))
+                .build();
+    }
+}
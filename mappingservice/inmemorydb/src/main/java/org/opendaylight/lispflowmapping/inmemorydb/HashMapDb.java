@@ -142,6 +142,37 @@ public class HashMapDb implements ILispDAO, AutoCloseable {
         return null;
     }
 
+    @Override
+    public Eid getNextPrefix(Eid key, boolean inclusive) {
+        RadixTrie<Object>.TrieNode node;
+        if (key == null) {
+            node = ip4Trie.lookupFirst();
+        } else if (key.getAddress() instanceof Ipv4PrefixBinary) {
+            Ipv4PrefixBinary prefix = (Ipv4PrefixBinary) key.getAddress();
+            node = lookupNext(ip4Trie, prefix.getIpv4AddressBinary().getValue(), prefix.getIpv4MaskLength().toJava(),
+                    inclusive);
+        } else if (key.getAddress() instanceof Ipv6PrefixBinary) {
+            Ipv6PrefixBinary prefix = (Ipv6PrefixBinary) key.getAddress();
+            return nodeToKey(lookupNext(ip6Trie, prefix.getIpv6AddressBinary().getValue(),
+                    prefix.getIpv6MaskLength().toJava(), inclusive));
+        } else {
+            return null;
+        }
+
+        // IPv6 prefixes follow the IPv4 ones
+        return node != null ? nodeToKey(node) : nodeToKey(ip6Trie.lookupFirst());
+    }
+
+    private static RadixTrie<Object>.TrieNode lookupNext(RadixTrie<Object> trie, byte[] prefix, int preflen,
+            boolean inclusive) {
+        RadixTrie<Object>.TrieNode node = inclusive ? trie.lookupExact(prefix, preflen) : null;
+        return node != null ? node : trie.lookupNext(prefix, preflen);
+    }
+
+    private static Eid nodeToKey(RadixTrie<Object>.TrieNode node) {
+        return node == null ? null : (Eid) node.data();
+    }
+
     @Override
     public void getAll(IRowVisitor visitor) {
         for (ConcurrentMap.Entry<Object, ConcurrentMap<String, Object>> keyEntry : data.entrySet()) {
@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.inmemorydb;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.opendaylight.lispflowmapping.inmemorydb.radixtrie.PackedRadixTrie;
+import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
+import org.opendaylight.lispflowmapping.interfaces.dao.IRowVisitor;
+import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.lisp.address.types.rev151105.InstanceIdType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv4PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DAO which keeps binary IPv4 and IPv6 prefix keys in {@link PackedRadixTrie}s, with their values, instead of in a
+ * hash map next to a radix trie as {@link HashMapDb} does. Prefix keys are not kept as {@link Eid} objects, they are
+ * rebuilt when returned, with the virtual network of the first prefix added to the table. All other keys, including
+ * prefixes of other virtual networks, are kept in a {@link HashMapDb}.
+ *
+ * <p>The values of a prefix key are kept in an immutable map which is replaced on every change, so the maps returned
+ * for prefix keys are snapshots. Nested tables are instances of this class as well.
+ *
+ * <p>Registered with the "type=packed" service property. The mapping service uses the "type=default" DAO unless its
+ * "dao.target" configuration property selects this one.
+ */
+@Component(service = ILispDAO.class, property = "type=packed")
+public class PackedTrieDb implements ILispDAO, AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(PackedTrieDb.class);
+    private static final Object TABLES = "tables";
+
+    @FunctionalInterface
+    private interface TrieOperation<R> {
+        R apply(PackedRadixTrie<Map<String, Object>> trie, long high, long low, int preflen);
+    }
+
+    private final PackedRadixTrie<Map<String, Object>> ip4Trie = new PackedRadixTrie<>(32, true);
+    private final PackedRadixTrie<Map<String, Object>> ip6Trie = new PackedRadixTrie<>(128, true);
+
+    // Modifications are serialized on this. Readers check vniKnown before using vni.
+    private volatile HashMapDb others;
+    private volatile boolean vniKnown;
+    private InstanceIdType vni;
+
+    @Activate
+    public PackedTrieDb() {
+
+    }
+
+    @Deactivate
+    @Override
+    public void close() {
+        removeAll();
+    }
+
+    // Returns true if the key is a prefix of the virtual network of the tries
+    private boolean isPacked(Object key) {
+        if (!(key instanceof Eid)) {
+            return false;
+        }
+        Eid eid = (Eid) key;
+        return (eid.getAddress() instanceof Ipv4PrefixBinary || eid.getAddress() instanceof Ipv6PrefixBinary)
+                && vniKnown && Objects.equals(vni, eid.getVirtualNetworkId());
+    }
+
+    // Runs the operation on the trie of the address family of the prefix
+    private <R> R apply(Eid eid, TrieOperation<R> operation) {
+        if (eid.getAddress() instanceof Ipv4PrefixBinary) {
+            Ipv4PrefixBinary prefix = (Ipv4PrefixBinary) eid.getAddress();
+            return operation.apply(ip4Trie, toLong(prefix.getIpv4AddressBinary().getValue(), 0, 4) << 32, 0,
+                    prefix.getIpv4MaskLength().toJava());
+        }
+        Ipv6PrefixBinary prefix = (Ipv6PrefixBinary) eid.getAddress();
+        byte[] address = prefix.getIpv6AddressBinary().getValue();
+        return operation.apply(ip6Trie, toLong(address, 0, 8), toLong(address, 8, 8),
+                prefix.getIpv6MaskLength().toJava());
+    }
+
+    private static long toLong(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void toBytes(long value, byte[] bytes, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            bytes[offset + i] = (byte) (value >>> (56 - 8 * i));
+        }
+    }
+
+    private Eid toEid(boolean ipv6, PackedRadixTrie.Entry<?> entry) {
+        if (entry == null) {
+            return null;
+        }
+        if (ipv6) {
+            byte[] address = new byte[16];
+            toBytes(entry.high(), address, 0, 8);
+            toBytes(entry.low(), address, 8, 8);
+            return LispAddressUtil.asIpv6PrefixBinaryEid(vni, address, (short) entry.length());
+        }
+        byte[] address = new byte[4];
+        toBytes(entry.high(), address, 0, 4);
+        return LispAddressUtil.asIpv4PrefixBinaryEid(vni, address, (short) entry.length());
+    }
+
+    private Eid toEid(Eid key, PackedRadixTrie.Entry<?> entry) {
+        return toEid(key.getAddress() instanceof Ipv6PrefixBinary, entry);
+    }
+
+    private synchronized HashMapDb others() {
+        if (others == null) {
+            others = new HashMapDb();
+        }
+        return others;
+    }
+
+    @Override
+    public synchronized void put(Object key, MappingEntry<?>... values) {
+        if (!vniKnown && key instanceof Eid && (((Eid) key).getAddress() instanceof Ipv4PrefixBinary
+                || ((Eid) key).getAddress() instanceof Ipv6PrefixBinary)) {
+            vni = ((Eid) key).getVirtualNetworkId();
+            vniKnown = true;
+        }
+        if (!isPacked(key)) {
+            others().put(key, values);
+            return;
+        }
+
+        Eid eid = (Eid) key;
+        Map<String, Object> existing = apply(eid, PackedRadixTrie::lookupExact);
+        Map<String, Object> merged = existing == null ? new HashMap<>() : new HashMap<>(existing);
+        for (MappingEntry<?> entry : values) {
+            merged.put(entry.getKey(), entry.getValue());
+        }
+        Map<String, Object> value = Map.copyOf(merged);
+        apply(eid, (trie, high, low, preflen) -> trie.insert(high, low, preflen, value));
+    }
+
+    @Override
+    public Object getSpecific(Object key, String valueKey) {
+        Map<String, Object> keyToValues = get(key);
+        if (keyToValues == null) {
+            return null;
+        }
+        return keyToValues.get(valueKey);
+    }
+
+    @Override
+    public Map<String, Object> get(Object key) {
+        if (isPacked(key)) {
+            return apply((Eid) key, PackedRadixTrie::lookupExact);
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.get(key);
+    }
+
+    @Override
+    public Map<String, Object> getBest(Object key) {
+        if (isPacked(key)) {
+            return apply((Eid) key, PackedRadixTrie::lookupBest);
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getBest(key);
+    }
+
+    @Override
+    public SimpleImmutableEntry<Eid, Map<String, ?>> getBestPair(Object key) {
+        if (isPacked(key)) {
+            PackedRadixTrie.Entry<Map<String, Object>> entry = apply((Eid) key, PackedRadixTrie::lookupBestEntry);
+            return entry == null ? null : new SimpleImmutableEntry<>(toEid((Eid) key, entry), entry.data());
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getBestPair(key);
+    }
+
+    @Override
+    public Eid getCoveringLessSpecific(Eid key) {
+        if (isPacked(key)) {
+            return toEid(key, apply(key, PackedRadixTrie::lookupCoveringLessSpecific));
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getCoveringLessSpecific(key);
+    }
+
+    @Override
+    public Eid getParentPrefix(Eid key) {
+        if (isPacked(key)) {
+            return toEid(key, apply(key, PackedRadixTrie::lookupParent));
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getParentPrefix(key);
+    }
+
+    @Override
+    public Eid getSiblingPrefix(Eid key) {
+        if (isPacked(key)) {
+            return toEid(key, apply(key, PackedRadixTrie::lookupSibling));
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getSiblingPrefix(key);
+    }
+
+    @Override
+    public Eid getVirtualParentSiblingPrefix(Eid key) {
+        if (isPacked(key)) {
+            return toEid(key, apply(key, PackedRadixTrie::lookupVirtualParentSibling));
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getVirtualParentSiblingPrefix(key);
+    }
+
+    @Override
+    public Eid getWidestNegativePrefix(Eid key) {
+        if (isPacked(key)) {
+            return toEid(key, apply(key, PackedRadixTrie::lookupWidestNegative));
+        }
+        HashMapDb table = others;
+        return table == null ? null : table.getWidestNegativePrefix(key);
+    }
+
+    @Override
+    public Set<Eid> getSubtree(Eid key) {
+        if (isPacked(key)) {
+            List<PackedRadixTrie.Entry<Map<String, Object>>> entries = apply(key, PackedRadixTrie::lookupSubtree);
+            if (entries.isEmpty()) {
+                return Set.of();
+            }
+            Set<Eid> children = new HashSet<>();
+            for (PackedRadixTrie.Entry<Map<String, Object>> entry : entries) {
+                children.add(toEid(key, entry));
+            }
+            return children;
+        }
+        HashMapDb table = others;
+        return table == null ? Set.of() : table.getSubtree(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only walks the prefixes of the virtual network of the table, prefixes of other virtual networks are not
+     * expected in the same table.
+     */
+    @Override
+    public Eid getNextPrefix(Eid key, boolean inclusive) {
+        if (key == null) {
+            PackedRadixTrie.Entry<?> first = ip4Trie.lookupFirst();
+            return first != null ? toEid(false, first) : toEid(true, ip6Trie.lookupFirst());
+        }
+        if (!isPacked(key)) {
+            HashMapDb table = others;
+            return table == null ? null : table.getNextPrefix(key, inclusive);
+        }
+
+        if (inclusive && apply(key, PackedRadixTrie::lookupExact) != null) {
+            return key;
+        }
+        PackedRadixTrie.Entry<?> next = apply(key, PackedRadixTrie::lookupNext);
+        if (next != null) {
+            return toEid(key, next);
+        }
+        // IPv6 prefixes follow the IPv4 ones
+        return key.getAddress() instanceof Ipv4PrefixBinary ? toEid(true, ip6Trie.lookupFirst()) : null;
+    }
+
+    @Override
+    public void getAll(IRowVisitor visitor) {
+        // Walk one prefix at a time, so that the visitor can modify the table
+        Eid key = getNextPrefix(null, false);
+        while (key != null) {
+            Map<String, Object> values = get(key);
+            if (values != null) {
+                for (Map.Entry<String, Object> valueEntry : values.entrySet()) {
+                    visitor.visitRow(key, valueEntry.getKey(), valueEntry.getValue());
+                }
+            }
+            key = getNextPrefix(key, false);
+        }
+
+        HashMapDb table = others;
+        if (table != null) {
+            table.getAll(visitor);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Object key) {
+        if (isPacked(key)) {
+            apply((Eid) key, PackedRadixTrie::remove);
+        } else if (others != null) {
+            others.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized void removeSpecific(Object key, String valueKey) {
+        if (!isPacked(key)) {
+            if (others != null) {
+                others.removeSpecific(key, valueKey);
+            }
+            return;
+        }
+
+        Eid eid = (Eid) key;
+        Map<String, Object> existing = apply(eid, PackedRadixTrie::lookupExact);
+        if (existing == null || !existing.containsKey(valueKey)) {
+            return;
+        }
+        if (existing.size() == 1) {
+            remove(key);
+            return;
+        }
+        Map<String, Object> remaining = new HashMap<>(existing);
+        remaining.remove(valueKey);
+        Map<String, Object> value = Map.copyOf(remaining);
+        apply(eid, (trie, high, low, preflen) -> trie.insert(high, low, preflen, value));
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        ip4Trie.removeAll();
+        ip6Trie.removeAll();
+        if (others != null) {
+            others.removeAll();
+        }
+        vniKnown = false;
+        vni = null;
+    }
+
+    @Override
+    public synchronized ILispDAO putNestedTable(Object key, String valueKey) {
+        ILispDAO nestedTable = (ILispDAO) getSpecific(key, valueKey);
+        if (nestedTable != null) {
+            LOG.warn("Trying to add nested table that already exists. Aborting!");
+            return nestedTable;
+        }
+        nestedTable = new PackedTrieDb();
+        put(key, new MappingEntry<>(valueKey, nestedTable));
+        return nestedTable;
+    }
+
+    @Override
+    public synchronized ILispDAO putTable(String key) {
+        ILispDAO table = (ILispDAO) getSpecific(TABLES, key);
+        if (table != null) {
+            LOG.warn("Trying to add table that already exists. Aborting!");
+            return table;
+        }
+        table = new PackedTrieDb();
+        put(TABLES, new MappingEntry<>(key, table));
+        return table;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        HashMapDb table = others;
+        return ip4Trie.getSize() == 0 && ip6Trie.getSize() == 0 && (table == null || table.isEmpty());
+    }
+}
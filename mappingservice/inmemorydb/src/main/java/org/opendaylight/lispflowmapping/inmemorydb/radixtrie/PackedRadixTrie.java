@@ -0,0 +1,810 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.inmemorydb.radixtrie;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Radix trie for prefixes of up to 128 bits, stored in primitive arrays. It has the same structure as
+ * {@link RadixTrie} and its lookups return the same prefixes, but a node is an index into parallel arrays instead of
+ * an object, and its prefix is packed into one or two longs instead of a byte array.
+ *
+ * <p>Prefixes are passed as the high and low 64 bits of a big endian address, so an IPv4 address goes into the upper
+ * 32 bits of the high word and the low word is zero. Bits beyond the prefix length are ignored. Virtual nodes keep
+ * the bits they have in common with all prefixes below them, and have no data.
+ *
+ * <p>Modifications are serialized by a write lock. Exact and longest prefix match lookups run without locking and
+ * are only repeated under the read lock if the trie was modified in the meantime. All other lookups take the read
+ * lock.
+ *
+ * @param <T> Data type stored with each prefix
+ */
+public final class PackedRadixTrie<T> {
+    /**
+     * A prefix and its data, as returned by lookups.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param length Prefix length
+     * @param data Data stored with the prefix, null for a prefix which is not in the trie
+     * @param <D> Data type
+     */
+    public record Entry<D>(long high, long low, int length, D data) {
+    }
+
+    // Index 0 is never allocated, so that zeroed links mean no node
+    private static final int NONE = 0;
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int maxBits;
+    private final boolean rootZero;
+    private final StampedLock lock = new StampedLock();
+
+    // All guarded by lock, nodes and root are also read optimistically
+    private Nodes nodes;
+    private int root;
+    private int nextFree;
+    private int freeList;
+    private long size;
+
+    /**
+     * Radix trie constructor.
+     *
+     * @param bits Maximum prefix length supported, at most 128
+     * @param rootZero Flag that decides if 0/0 should be inserted as a non-prefix root node or not
+     */
+    public PackedRadixTrie(int bits, boolean rootZero) {
+        if (bits < 1 || bits > 128) {
+            throw new IllegalArgumentException("Unsupported prefix length " + bits);
+        }
+        this.maxBits = bits;
+        this.rootZero = rootZero;
+        clear();
+    }
+
+    public int getMaxbits() {
+        return maxBits;
+    }
+
+    public long getSize() {
+        final long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Insert a prefix, or replace the data of an existing one.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @param data Data to be stored with the prefix
+     * @return The data previously stored with the prefix, or null
+     */
+    public T insert(long high, long low, int preflen, T data) {
+        requireNonNull(data);
+        checkLength(preflen);
+        final long stamp = lock.writeLock();
+        try {
+            return insertLocked(maskHigh(high, preflen), maskLow(low, preflen), preflen, data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a prefix.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return The data stored with the prefix, or null if it was not in the trie
+     */
+    public T remove(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.writeLock();
+        try {
+            final int node = findExact(nodes, root, maskHigh(high, preflen), maskLow(low, preflen), preflen);
+            if (node == NONE) {
+                return null;
+            }
+            final T data = data(nodes, node);
+            eraseNode(node);
+            return data;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove all prefixes and release the memory used by them.
+     */
+    public void removeAll() {
+        final long stamp = lock.writeLock();
+        try {
+            clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Exact prefix match of high/low/preflen.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Data stored with the prefix, or null if it is not in the trie
+     */
+    public T lookupExact(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long maskedHigh = maskHigh(high, preflen);
+        final long maskedLow = maskLow(low, preflen);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            final Nodes n = nodes;
+            final int start = root;
+            // a root allocated after the arrays grew is not in the ones we have
+            final int node = start < n.data.length ? findExact(n, start, maskedHigh, maskedLow, preflen) : NONE;
+            final Object data = node == NONE ? null : n.data[node];
+            if (lock.validate(stamp)) {
+                return cast(data);
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            final int node = findExact(nodes, root, maskedHigh, maskedLow, preflen);
+            return node == NONE ? null : data(nodes, node);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Longest prefix match of high/low/preflen.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Data stored with the longest matching prefix, or null if nothing is found
+     */
+    public T lookupBest(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long maskedHigh = maskHigh(high, preflen);
+        final long maskedLow = maskLow(low, preflen);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            final Nodes n = nodes;
+            final int start = root;
+            // a root allocated after the arrays grew is not in the ones we have
+            final int node = start < n.data.length ? findBest(n, start, maskedHigh, maskedLow, preflen) : NONE;
+            final Object data = node == NONE ? null : n.data[node];
+            if (lock.validate(stamp)) {
+                return cast(data);
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            final int node = findBest(nodes, root, maskedHigh, maskedLow, preflen);
+            return node == NONE ? null : data(nodes, node);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Longest prefix match of high/low/preflen, returning the matching prefix as well.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Longest matching prefix, or null if nothing is found
+     */
+    public Entry<T> lookupBestEntry(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.readLock();
+        try {
+            return entry(findBest(nodes, root, maskHigh(high, preflen), maskLow(low, preflen), preflen));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Look up the covering prefix for the argument, but exclude the argument itself, so the result is always less
+     * specific than the lookup key. See {@link RadixTrie#lookupCoveringLessSpecific(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Covering prefix, or null
+     */
+    public Entry<T> lookupCoveringLessSpecific(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.readLock();
+        try {
+            final Nodes n = nodes;
+            if (root == NONE) {
+                return null;
+            }
+            int node = findClosest(n, root, maskHigh(high, preflen), maskLow(low, preflen), preflen, true);
+            if (bit(n, node) < preflen && isReal(n, node)) {
+                return entry(node);
+            }
+            return entry(realParent(n, node));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Given a prefix, look up the longest prefix match, then return its parent. See
+     * {@link RadixTrie#lookupParent(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Parent prefix of the longest prefix match, or null
+     */
+    public Entry<T> lookupParent(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.readLock();
+        try {
+            final int node = findBest(nodes, root, maskHigh(high, preflen), maskLow(low, preflen), preflen);
+            return node == NONE ? null : entry(realParent(nodes, node));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Given a prefix, look up the longest prefix match, then return its sibling. See
+     * {@link RadixTrie#lookupSibling(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Sibling prefix of the longest prefix match, or null if there is none or it is virtual
+     */
+    public Entry<T> lookupSibling(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.readLock();
+        try {
+            final int node = findBest(nodes, root, maskHigh(high, preflen), maskLow(low, preflen), preflen);
+            return node == NONE ? null : realEntry(sibling(nodes, node));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Given a prefix, look up the longest prefix match, then return the sibling of its direct parent, if the parent
+     * is virtual. See {@link RadixTrie#lookupVirtualParentSibling(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Sibling prefix of the virtual parent, or null if there is none or it is virtual
+     */
+    public Entry<T> lookupVirtualParentSibling(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.readLock();
+        try {
+            final Nodes n = nodes;
+            final int node = findBest(n, root, maskHigh(high, preflen), maskLow(low, preflen), preflen);
+            final int parent = node == NONE ? NONE : n.up[node];
+            if (parent == NONE || isReal(n, parent)) {
+                return null;
+            }
+            return realEntry(sibling(n, parent));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Look up the widest negative (i.e., overlapping but not present in trie) prefix. See
+     * {@link RadixTrie#lookupWidestNegative(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return The widest negative prefix, without data, or null if the argument is covered by a prefix in the trie
+     */
+    public Entry<T> lookupWidestNegative(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long maskedHigh = maskHigh(high, preflen);
+        final long maskedLow = maskLow(low, preflen);
+        final long stamp = lock.readLock();
+        try {
+            final Nodes n = nodes;
+            if (root == NONE) {
+                return null;
+            }
+            final int node = findClosest(n, root, maskedHigh, maskedLow, preflen, false);
+            if (isReal(n, node) && bit(n, node) <= preflen && matches(n, node, maskedHigh, maskedLow)) {
+                return null;
+            }
+            final int diffbit = firstDifferentBit(n, node, maskedHigh, maskedLow, Math.min(bit(n, node), preflen));
+            final int length = Math.min(diffbit + 1, maxBits);
+            return new Entry<>(maskHigh(maskedHigh, length), maskLow(maskedLow, length), length, null);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Return the subtree for a prefix, including the prefix itself if present, excluding virtual nodes. See
+     * {@link RadixTrie#lookupSubtree(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Prefixes in the subtree
+     */
+    public List<Entry<T>> lookupSubtree(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long stamp = lock.readLock();
+        try {
+            final Nodes n = nodes;
+            if (root == NONE) {
+                return List.of();
+            }
+            final int top = findClosest(n, root, maskHigh(high, preflen), maskLow(low, preflen), preflen, true);
+
+            // pre-order walk of the subtree, following parent links back up
+            final List<Entry<T>> result = new ArrayList<>();
+            int node = top;
+            while (node != NONE) {
+                if (isReal(n, node) && bit(n, node) >= preflen) {
+                    result.add(entry(node));
+                }
+                node = nextInPreOrder(n, node, top);
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Look up the first prefix in the trie, in the pre-order of {@link RadixTrie#lookupFirst()}.
+     *
+     * @return First prefix, or null if the trie is empty
+     */
+    public Entry<T> lookupFirst() {
+        final long stamp = lock.readLock();
+        try {
+            return entry(firstInPreOrder(nodes, root));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Look up the prefix that follows high/low/preflen in pre-order. The argument does not need to be present in the
+     * trie. See {@link RadixTrie#lookupNext(byte[], int)}.
+     *
+     * @param high Upper 64 bits of the prefix
+     * @param low Lower 64 bits of the prefix
+     * @param preflen Prefix length
+     * @return Next prefix, or null if there is none
+     */
+    public Entry<T> lookupNext(long high, long low, int preflen) {
+        checkLength(preflen);
+        final long maskedHigh = maskHigh(high, preflen);
+        final long maskedLow = maskLow(low, preflen);
+        final long stamp = lock.readLock();
+        try {
+            final Nodes n = nodes;
+            int node = root;
+            int after = NONE;
+
+            while (node != NONE) {
+                final int first = firstInPreOrder(n, node);
+                if (first == NONE) {
+                    break;
+                }
+
+                final int common = Math.min(bit(n, node), preflen);
+                final int diffbit = firstDifferentBit(n, first, maskedHigh, maskedLow, common);
+                if (diffbit < common) {
+                    if (testBit(n.high[first], low(n, first), diffbit)) {
+                        return entry(first);
+                    }
+                    break;
+                }
+
+                if (preflen < bit(n, node)) {
+                    return entry(first);
+                }
+
+                final int left = n.left[node];
+                final int right = n.right[node];
+                if (preflen == bit(n, node)) {
+                    final int child = left != NONE ? left : right;
+                    return entry(child != NONE ? firstInPreOrder(n, child) : firstInPreOrder(n, after));
+                }
+
+                if (testBit(maskedHigh, maskedLow, bit(n, node))) {
+                    node = right;
+                } else {
+                    if (right != NONE) {
+                        after = right;
+                    }
+                    node = left;
+                }
+            }
+            return entry(firstInPreOrder(n, after));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private T insertLocked(long high, long low, int preflen, T data) {
+        // make sure the new prefix and a common parent fit without growing in the middle of linking them
+        ensureCapacity(2);
+        final Nodes n = nodes;
+
+        if (root == NONE) {
+            root = allocate(n, high, low, preflen, data);
+            size++;
+            return null;
+        }
+
+        final int closest = findClosest(n, root, high, low, preflen, false);
+        final int diffbit = firstDifferentBit(n, closest, high, low, Math.min(bit(n, closest), preflen));
+        final int node = parentWithBitLessThan(n, closest, diffbit);
+        final int nodeBit = bit(n, node);
+
+        // same node, either overwrite the data or turn a virtual node into a prefix
+        if (diffbit == preflen && nodeBit == preflen) {
+            final T previous = data(n, node);
+            if (previous == null) {
+                n.high[node] = high;
+                if (n.low != null) {
+                    n.low[node] = low;
+                }
+                size++;
+            }
+            n.data[node] = data;
+            return previous;
+        }
+
+        final int newNode = allocate(n, high, low, preflen, data);
+        if (preflen == diffbit) {
+            // node is more specific, add new prefix as parent
+            if (testBit(n.high[node], low(n, node), preflen)) {
+                n.right[newNode] = node;
+            } else {
+                n.left[newNode] = node;
+            }
+            n.up[newNode] = n.up[node];
+            linkFromParent(n, node, newNode);
+            n.up[node] = newNode;
+        } else if (nodeBit == diffbit) {
+            // new prefix is more specific than node, add as child
+            n.up[newNode] = node;
+            if (testBit(high, low, nodeBit)) {
+                n.right[node] = newNode;
+            } else {
+                n.left[node] = newNode;
+            }
+        } else {
+            // new prefix is on a different branch from node, add common parent
+            final int parent = allocate(n, maskHigh(high, diffbit), maskLow(low, diffbit), diffbit, null);
+            n.up[parent] = n.up[node];
+            if (testBit(high, low, diffbit)) {
+                n.right[parent] = newNode;
+                n.left[parent] = node;
+            } else {
+                n.right[parent] = node;
+                n.left[parent] = newNode;
+            }
+            n.up[newNode] = parent;
+            linkFromParent(n, node, parent);
+            n.up[node] = parent;
+        }
+        size++;
+        return null;
+    }
+
+    // Make the parent of node point to replacement instead
+    private void linkFromParent(Nodes n, int node, int replacement) {
+        final int parent = n.up[node];
+        if (parent == NONE) {
+            root = replacement;
+        } else if (n.right[parent] == node) {
+            n.right[parent] = replacement;
+        } else {
+            n.left[parent] = replacement;
+        }
+    }
+
+    private void eraseNode(int node) {
+        final Nodes n = nodes;
+        size--;
+
+        // still needed as a branching point or as the zero root, keep it as a virtual node
+        if (n.left[node] != NONE && n.right[node] != NONE || n.up[node] == NONE && rootZero) {
+            n.data[node] = null;
+            return;
+        }
+
+        // link the parent to the only child, then do the same for virtual parents which are left with a single child
+        int cur = node;
+        do {
+            final int parent = n.up[cur];
+            final int child = n.left[cur] != NONE ? n.left[cur] : n.right[cur];
+            if (child != NONE) {
+                n.up[child] = parent;
+            }
+            linkFromParent(n, cur, child);
+            release(n, cur);
+            cur = parent;
+        } while (cur != NONE && !isReal(n, cur) && (n.left[cur] == NONE || n.right[cur] == NONE)
+                && !(n.up[cur] == NONE && rootZero));
+    }
+
+    private void clear() {
+        nodes = new Nodes(INITIAL_CAPACITY, maxBits > 64);
+        nextFree = 1;
+        freeList = NONE;
+        size = 0;
+        root = rootZero ? allocate(nodes, 0, 0, 0, null) : NONE;
+    }
+
+    private void ensureCapacity(int count) {
+        int available = nodes.data.length - nextFree;
+        for (int node = freeList; node != NONE && available < count; node = nodes.left[node]) {
+            available++;
+        }
+        if (available < count) {
+            // lookups running without the lock keep using the old arrays, which are no longer modified
+            nodes = nodes.copyOf(Math.max(nodes.data.length * 2, nextFree + count));
+        }
+    }
+
+    private int allocate(Nodes n, long high, long low, int preflen, Object data) {
+        final int node;
+        if (freeList != NONE) {
+            node = freeList;
+            freeList = n.left[node];
+            n.left[node] = NONE;
+        } else {
+            node = nextFree++;
+        }
+        n.high[node] = high;
+        if (n.low != null) {
+            n.low[node] = low;
+        }
+        n.bit[node] = (byte) preflen;
+        n.data[node] = data;
+        return node;
+    }
+
+    private void release(Nodes n, int node) {
+        n.data[node] = null;
+        n.right[node] = NONE;
+        n.up[node] = NONE;
+        n.left[node] = freeList;
+        freeList = node;
+    }
+
+    /*
+     * The lookups below may run without the lock, in which case they can see the arrays in the middle of a
+     * modification. They then only have to terminate without throwing, the result is discarded. Indices are always
+     * within the arrays, as these are replaced, not modified, when growing, and prefix lengths strictly increase on
+     * the way down in a consistent trie, which bounds the loops.
+     */
+
+    private static int findClosest(Nodes n, int start, long high, long low, int preflen, boolean virtual) {
+        int node = start;
+        while (!virtual && !isReal(n, node) || bit(n, node) < preflen) {
+            final int next = testBit(high, low, bit(n, node)) ? n.right[node] : n.left[node];
+            if (next == NONE || bit(n, next) <= bit(n, node)) {
+                break;
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    private static int findExact(Nodes n, int start, long high, long low, int preflen) {
+        if (start == NONE) {
+            return NONE;
+        }
+        final int node = findClosest(n, start, high, low, preflen, false);
+        return isReal(n, node) && bit(n, node) == preflen && matches(n, node, high, low) ? node : NONE;
+    }
+
+    // All prefixes in a subtree share the prefix of the subtree root, so stop at the first one which does not match
+    private static int findBest(Nodes n, int start, long high, long low, int preflen) {
+        int node = start;
+        int best = NONE;
+        while (node != NONE && bit(n, node) < preflen) {
+            if (isReal(n, node)) {
+                if (!matches(n, node, high, low)) {
+                    return best;
+                }
+                best = node;
+            }
+            final int next = testBit(high, low, bit(n, node)) ? n.right[node] : n.left[node];
+            if (next != NONE && bit(n, next) <= bit(n, node)) {
+                return NONE;
+            }
+            node = next;
+        }
+
+        if (node != NONE && isReal(n, node) && matches(n, node, high, low)) {
+            return node;
+        }
+        return best;
+    }
+
+    private static int parentWithBitLessThan(Nodes n, int start, int bitlen) {
+        int node = start;
+        int parent = n.up[node];
+        while (parent != NONE && bit(n, parent) >= bitlen) {
+            node = parent;
+            parent = n.up[node];
+        }
+        return node;
+    }
+
+    private static int realParent(Nodes n, int start) {
+        int node = n.up[start];
+        while (node != NONE && !isReal(n, node)) {
+            node = n.up[node];
+        }
+        return node;
+    }
+
+    private static int sibling(Nodes n, int node) {
+        final int parent = n.up[node];
+        if (parent == NONE) {
+            return NONE;
+        }
+        return n.left[parent] == node ? n.right[parent] : n.left[parent];
+    }
+
+    private static int firstInPreOrder(Nodes n, int start) {
+        int node = start;
+        while (node != NONE && !isReal(n, node)) {
+            node = n.left[node] != NONE ? n.left[node] : n.right[node];
+        }
+        return node;
+    }
+
+    // Next node in pre-order within the subtree of top, virtual nodes included
+    private static int nextInPreOrder(Nodes n, int start, int top) {
+        if (n.left[start] != NONE) {
+            return n.left[start];
+        }
+        if (n.right[start] != NONE) {
+            return n.right[start];
+        }
+        int node = start;
+        while (node != top) {
+            final int parent = n.up[node];
+            if (n.left[parent] == node && n.right[parent] != NONE) {
+                return n.right[parent];
+            }
+            node = parent;
+        }
+        return NONE;
+    }
+
+    // Compare the prefix of the node with the argument, on the length of the node
+    private static boolean matches(Nodes n, int node, long high, long low) {
+        final int length = bit(n, node);
+        return maskHigh(n.high[node] ^ high, length) == 0 && maskLow(low(n, node) ^ low, length) == 0;
+    }
+
+    private static int firstDifferentBit(Nodes n, int node, long high, long low, int maxbit) {
+        final long diffHigh = n.high[node] ^ high;
+        final int diffbit = diffHigh != 0 ? Long.numberOfLeadingZeros(diffHigh)
+                : 64 + Long.numberOfLeadingZeros(low(n, node) ^ low);
+        return Math.min(diffbit, maxbit);
+    }
+
+    private static boolean testBit(long high, long low, int bitPosition) {
+        return bitPosition < 64 ? (high << bitPosition) < 0 : (low << (bitPosition - 64)) < 0;
+    }
+
+    private static long maskHigh(long high, int length) {
+        return length >= 64 ? high : length == 0 ? 0 : high & (-1L << (64 - length));
+    }
+
+    private static long maskLow(long low, int length) {
+        return length >= 128 ? low : length <= 64 ? 0 : low & (-1L << (128 - length));
+    }
+
+    private static int bit(Nodes n, int node) {
+        return n.bit[node] & 0xFF;
+    }
+
+    private static long low(Nodes n, int node) {
+        return n.low == null ? 0 : n.low[node];
+    }
+
+    private static boolean isReal(Nodes n, int node) {
+        return n.data[node] != null;
+    }
+
+    private void checkLength(int preflen) {
+        if (preflen < 0 || preflen > maxBits) {
+            throw new IllegalArgumentException("Prefix length " + preflen + " out of range 0-" + maxBits);
+        }
+    }
+
+    private T data(Nodes n, int node) {
+        return cast(n.data[node]);
+    }
+
+    private Entry<T> entry(int node) {
+        final Nodes n = nodes;
+        return node == NONE ? null : new Entry<>(n.high[node], low(n, node), bit(n, node), data(n, node));
+    }
+
+    private Entry<T> realEntry(int node) {
+        return node != NONE && isReal(nodes, node) ? entry(node) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T cast(Object data) {
+        return (T) data;
+    }
+
+    /**
+     * Node storage, one array per field. A node is an index into the arrays. Virtual nodes have no data.
+     */
+    private static final class Nodes {
+        final long[] high;
+        final long[] low;
+        // unsigned, prefix lengths go up to 128
+        final byte[] bit;
+        final int[] left;
+        final int[] right;
+        final int[] up;
+        final Object[] data;
+
+        Nodes(int capacity, boolean wide) {
+            this(new long[capacity], wide ? new long[capacity] : null, new byte[capacity], new int[capacity],
+                    new int[capacity], new int[capacity], new Object[capacity]);
+        }
+
+        private Nodes(long[] high, long[] low, byte[] bit, int[] left, int[] right, int[] up, Object[] data) {
+            this.high = high;
+            this.low = low;
+            this.bit = bit;
+            this.left = left;
+            this.right = right;
+            this.up = up;
+            this.data = data;
+        }
+
+        Nodes copyOf(int capacity) {
+            return new Nodes(Arrays.copyOf(high, capacity), low == null ? null : Arrays.copyOf(low, capacity),
+                    Arrays.copyOf(bit, capacity), Arrays.copyOf(left, capacity), Arrays.copyOf(right, capacity),
+                    Arrays.copyOf(up, capacity), Arrays.copyOf(data, capacity));
+        }
+    }
+}
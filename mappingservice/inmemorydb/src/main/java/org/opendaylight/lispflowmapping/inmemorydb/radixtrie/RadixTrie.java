@@ -11,14 +11,13 @@ package org.opendaylight.lispflowmapping.inmemorydb.radixtrie;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.ListIterator;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Radix trie/tree (also known as Patricia tree) implementation. Supports CRD operations for
@@ -26,15 +25,22 @@ import java.util.Set;
  * post order iteration over the entries in the tree and can lookup widest negative prefixes (i.e.,
  * shortest overlapping prefix not registered in the tree).
  *
+ * <p>The trie is safe for concurrent use. Lookups never block and always see the trie either before or after each
+ * modification, never in between. The prefix and data of a node never change: when a node has to gain or lose its
+ * prefix, a copy with the same links takes its place. A modification is then made visible to lookups by a single
+ * write of a child link (or of the root), after the new nodes are completely set up, and removed nodes keep their
+ * links, so a lookup which already reached one still finds its way down. Modifications are serialized on the trie.
+ * Lookups following parent links, and iterators, may see nodes which were removed concurrently.
+ *
  * @author Florin Coras
  *
  * @param <T> Data type stored in each tree node
  */
 public class RadixTrie<T> {
-    private int maxBits;
-    private TrieNode root;
-    private long nbActiveNodes;
-    private boolean rootZero;
+    private final int maxBits;
+    private final AtomicLong nbActiveNodes = new AtomicLong();
+    private final boolean rootZero;
+    private volatile TrieNode root;
 
     /**
      * RadixTrie constructor.
@@ -42,9 +48,7 @@ public class RadixTrie<T> {
      * @param bits Maximum prefix length supported.
      */
     public RadixTrie(int bits) {
-        maxBits = bits;
-        root = null;
-        nbActiveNodes = 0;
+        this(bits, false);
     }
 
     /**
@@ -56,7 +60,6 @@ public class RadixTrie<T> {
     public RadixTrie(int bits, boolean rootZero) {
         maxBits = bits;
         root = rootZero ? new TrieNode(null, 0, null) : null;
-        nbActiveNodes = 0;
         this.rootZero = rootZero;
     }
 
@@ -73,7 +76,7 @@ public class RadixTrie<T> {
     }
 
     public long getSize() {
-        return nbActiveNodes;
+        return nbActiveNodes.get();
     }
 
     /**
@@ -114,7 +117,7 @@ public class RadixTrie<T> {
      * @param data Data to be stored in the tree
      * @return Newly inserted TrieNode
      */
-    public TrieNode insert(byte[] prefix, int preflen, T data) {
+    public synchronized TrieNode insert(byte[] prefix, int preflen, T data) {
         if (preflen > maxBits) {
             return null;
         }
@@ -122,6 +125,7 @@ public class RadixTrie<T> {
         // trie is empty
         if (root == null) {
             root = new TrieNode(prefix, preflen, data);
+            nbActiveNodes.incrementAndGet();
             return root;
         }
 
@@ -141,21 +145,26 @@ public class RadixTrie<T> {
     /**
      * Longest prefix match of prefix/preflen.
      *
+     * <p>All prefixes in a subtree share the prefix of the subtree root, so the descent can stop at the first node
+     * that does not match, and only the last matching node needs to be remembered.
+     *
      * @param prefix Big endian byte array representation of the prefix to be looked up.
      * @param preflen Prefix length
      * @return Node with longest prefix match or null if nothing is found.
      */
     public TrieNode lookupBest(byte[] prefix, int preflen) {
-        if (root == null || preflen > maxBits) {
+        TrieNode node = root;
+        if (node == null || preflen > maxBits) {
             return null;
         }
 
-        TrieNode node = root;
-        ArrayList<TrieNode> candidates = new ArrayList<>();
-
+        TrieNode best = null;
         while (node != null && node.bit < preflen) {
             if (node.prefix != null) {
-                candidates.add(node);
+                if (!node.comparePrefix(prefix)) {
+                    return best;
+                }
+                best = node;
             }
 
             if (testBitInPrefixByte(prefix, node.bit)) {
@@ -165,19 +174,10 @@ public class RadixTrie<T> {
             }
         }
 
-        if (node != null && node.prefix != null) {
-            candidates.add(node);
-        }
-
-        ListIterator<TrieNode> it = candidates.listIterator(candidates.size());
-        while (it.hasPrevious()) {
-            node = it.previous();
-            if (node.comparePrefix(prefix)) {
-                return node;
-            }
+        if (node != null && node.prefix != null && node.comparePrefix(prefix)) {
+            return node;
         }
-
-        return null;
+        return best;
     }
 
     /**
@@ -189,11 +189,12 @@ public class RadixTrie<T> {
      * @return Covering node
      */
     public TrieNode lookupCoveringLessSpecific(byte[] prefix, int preflen) {
-        if (root == null || preflen > maxBits) {
+        TrieNode node = root;
+        if (node == null || preflen > maxBits) {
             return null;
         }
 
-        TrieNode node = root.findClosest(prefix, preflen, true);
+        node = node.findClosest(prefix, preflen, true);
 
         if (node == null) {
             return null;
@@ -244,6 +245,9 @@ public class RadixTrie<T> {
      */
     public TrieNode lookupSibling(byte[] prefix, int preflen) {
         TrieNode node = lookupBest(prefix, preflen);
+        if (node == null) {
+            return null;
+        }
         TrieNode sibling = node.sibling();
 
         if (sibling != null && sibling.prefix != null) {
@@ -263,17 +267,18 @@ public class RadixTrie<T> {
      */
     public TrieNode lookupVirtualParentSibling(byte[] prefix, int preflen) {
         TrieNode node = lookupBest(prefix, preflen);
+        TrieNode parent = node == null ? null : node.up;
 
-        if (node == null || node.up == null) {
+        if (parent == null) {
             return null;
         }
 
         // Parent is not a virtual node
-        if (node.up.prefix != null) {
+        if (parent.prefix != null) {
             return null;
         }
 
-        return node.up.sibling();
+        return parent.sibling();
     }
 
     /**
@@ -284,11 +289,12 @@ public class RadixTrie<T> {
      * @return Node containing the widest negative prefix.
      */
     public TrieNode lookupWidestNegative(byte [] prefix, int preflen) {
-        if (root == null || preflen > maxBits) {
+        TrieNode node = root;
+        if (node == null || preflen > maxBits) {
             return null;
         }
 
-        TrieNode node = root.findClosest(prefix, preflen, false);
+        node = node.findClosest(prefix, preflen, false);
 
         // not a negative match
         if (node.prefix != null && node.prefixLength() <= preflen && node.comparePrefix(prefix)) {
@@ -306,11 +312,12 @@ public class RadixTrie<T> {
      * @return Node with exact prefix match or null
      */
     public TrieNode lookupExact(byte[] prefix, int preflen) {
-        if (root == null || preflen > maxBits) {
+        TrieNode node = root;
+        if (node == null || preflen > maxBits) {
             return null;
         }
 
-        TrieNode node = root.findClosest(prefix, preflen, false);
+        node = node.findClosest(prefix, preflen, false);
 
         // if no node is found or if node not a prefix or if mask is not the same
         if (node == null || node.prefix == null || node.bit != preflen) {
@@ -333,11 +340,12 @@ public class RadixTrie<T> {
      * @return Subtree from the prefix
      */
     public Set<TrieNode> lookupSubtree(byte[] prefix, int preflen) {
-        if (root == null || preflen > maxBits) {
+        TrieNode node = root;
+        if (node == null || preflen > maxBits) {
             return Collections.emptySet();
         }
 
-        TrieNode node = root.findClosest(prefix, preflen, true);
+        node = node.findClosest(prefix, preflen, true);
 
         Set<TrieNode> children = new HashSet<>();
         if (node.prefix != null && node.bit >= preflen) {
@@ -354,28 +362,181 @@ public class RadixTrie<T> {
         return children;
     }
 
+    /**
+     * Look up the first prefix in the trie. Together with {@link #lookupNext(byte[], int)} this allows walking the trie
+     * in pre-order, i.e., ordered by address bits and, for the same bits, less specific prefixes first.
+     *
+     * @return First non-virtual node in pre-order or null if the trie is empty.
+     */
+    public TrieNode lookupFirst() {
+        return firstInPreOrder(root);
+    }
+
+    /**
+     * Look up the prefix that follows prefix/preflen in pre-order. The argument does not need to be present in the
+     * trie, so a walk can be resumed even if the last prefix returned was removed in the meantime. Each call is
+     * bounded by the depth of the trie.
+     *
+     * @param prefix Big endian byte array representation of the prefix after which to look.
+     * @param preflen Prefix length
+     * @return First non-virtual node after prefix/preflen in pre-order or null if there is none.
+     */
+    public TrieNode lookupNext(byte[] prefix, int preflen) {
+        TrieNode node = root;
+        if (node == null || preflen > maxBits) {
+            return null;
+        }
+
+        // closest subtree which is known to sort entirely after the argument
+        TrieNode after = null;
+
+        while (node != null) {
+            TrieNode first = firstInPreOrder(node);
+            if (first == null) {
+                // empty zero root
+                break;
+            }
+
+            // all prefixes in the subtree of node share the first node.bit bits
+            int common = Math.min(node.bit, preflen);
+            int diffbit = firstDifferentBit(first.prefix, prefix, common);
+            if (diffbit < common) {
+                if (testBitInPrefixByte(first.prefix, diffbit)) {
+                    return first;
+                }
+                break;
+            }
+
+            // argument covers the subtree, which therefore sorts entirely after it
+            if (preflen < node.bit) {
+                return first;
+            }
+
+            // node itself sorts before the argument or is equal to it, but all its children sort after
+            TrieNode left = node.left;
+            TrieNode right = node.right;
+            if (preflen == node.bit) {
+                TrieNode child = left != null ? left : right;
+                return child != null ? firstInPreOrder(child) : firstInPreOrder(after);
+            }
+
+            if (testBitInPrefixByte(prefix, node.bit)) {
+                node = right;
+            } else {
+                if (right != null) {
+                    after = right;
+                }
+                node = left;
+            }
+        }
+
+        return firstInPreOrder(after);
+    }
+
+    private TrieNode firstInPreOrder(TrieNode node) {
+        while (node != null && node.prefix == null) {
+            TrieNode left = node.left;
+            node = left != null ? left : node.right;
+        }
+        return node;
+    }
+
+    private static int firstDifferentBit(byte[] pref1, byte[] pref2, int maxbit) {
+        for (int i = 0; i * 8 < maxbit; i++) {
+            int bitxor = (pref1[i] ^ pref2[i]) & 0xFF;
+            if (bitxor != 0) {
+                return Math.min(maxbit, i * 8 + Integer.numberOfLeadingZeros(bitxor) - 24);
+            }
+        }
+        return maxbit;
+    }
+
     /**
      * Remove prefix from radix trie.
      *
      * @param prefix Big endian byte array representation of the prefix to be removed.
      * @param preflen Prefix length.
      */
-    public void remove(byte[] prefix, int preflen) {
+    public synchronized void remove(byte[] prefix, int preflen) {
         TrieNode node = lookupExact(prefix, preflen);
         if (node != null) {
-            node.erase();
+            eraseNode(node);
         }
     }
 
+    /**
+     * Remove a node from the trie. Must be called with the trie lock held.
+     *
+     * @param node Non-virtual node to be removed
+     */
+    private void eraseNode(TrieNode node) {
+        nbActiveNodes.decrementAndGet();
+
+        // still needed as a branching point or as the zero root, keep a virtual copy
+        if (node.left != null && node.right != null || node.up == null && rootZero) {
+            replace(node, new TrieNode(null, node.bit, null));
+            return;
+        }
+
+        // link the parent to the only child, then do the same for virtual parents which are left with a single child
+        TrieNode cur = node;
+        do {
+            TrieNode parent = cur.up;
+            TrieNode child = cur.left != null ? cur.left : cur.right;
+            if (child != null) {
+                child.up = parent;
+            }
+            if (parent == null) {
+                setRoot(child);
+            } else if (parent.left == cur) {
+                parent.left = child;
+            } else {
+                parent.right = child;
+            }
+            cur = parent;
+        } while (cur != null && cur.prefix == null && (cur.left == null || cur.right == null)
+                && !(cur.up == null && rootZero));
+    }
+
     /**
      * Remove all entries in the trie.
      */
-    public void removeAll() {
-        Iterator<TrieNode> it = root.iterator();
-        while (it.hasNext()) {
-            TrieNode node = it.next();
-            node.erase();
+    public synchronized void removeAll() {
+        setRoot(rootZero ? new TrieNode(null, 0, null) : null);
+        nbActiveNodes.set(0);
+    }
+
+    /**
+     * Put a copy of a node in its place, with the same links. Lookups which already reached the old node can still
+     * use it. Must be called with the trie lock held.
+     *
+     * @param node Node to be replaced
+     * @param copy New node, with the same prefix length
+     * @return The new node
+     */
+    private TrieNode replace(TrieNode node, TrieNode copy) {
+        final TrieNode parent = node.up;
+        final TrieNode left = node.left;
+        final TrieNode right = node.right;
+        copy.left = left;
+        copy.right = right;
+        copy.up = parent;
+
+        if (parent == null) {
+            setRoot(copy);
+        } else if (parent.left == node) {
+            parent.left = copy;
+        } else {
+            parent.right = copy;
+        }
+
+        if (left != null) {
+            left.up = copy;
         }
+        if (right != null) {
+            right.up = copy;
+        }
+        return copy;
     }
 
     /**
@@ -383,19 +544,17 @@ public class RadixTrie<T> {
      */
     public class TrieNode implements Iterable<TrieNode> {
         // since bits are counted from 0, bit and prefix length are equal
-        int bit;
-        byte[] prefix;
-        TrieNode left;
-        TrieNode right;
-        TrieNode up;
-        T data;
+        final int bit;
+        final byte[] prefix;
+        final T data;
+        volatile TrieNode left;
+        volatile TrieNode right;
+        volatile TrieNode up;
 
         TrieNode(byte[] prefix, int prefixlen, T data) {
             this.bit = prefixlen;
             this.prefix = prefix;
             this.data = data;
-            left = null;
-            right = null;
         }
 
         public byte[] prefix() {
@@ -422,17 +581,11 @@ public class RadixTrie<T> {
             TrieNode node = this;
 
             while ((!virtual && node.prefix == null) || node.bit < preflen) {
-                if (testBitInPrefixByte(pref, node.bit)) {
-                    if (node.right == null) {
-                        break;
-                    }
-                    node = node.right;
-                } else {
-                    if (node.left == null) {
-                        break;
-                    }
-                    node = node.left;
+                TrieNode next = testBitInPrefixByte(pref, node.bit) ? node.right : node.left;
+                if (next == null) {
+                    break;
                 }
+                node = next;
             }
             return node;
         }
@@ -492,18 +645,16 @@ public class RadixTrie<T> {
          * @return Sibling node, if there is a parent, else null
          */
         public TrieNode sibling() {
-            TrieNode node = this;
-            if (node == null || node.up == null) {
+            TrieNode parent = up;
+            if (parent == null) {
                 return null;
             }
 
-            TrieNode sibling = null;
-            if (node.up.left == node) {
-                sibling = node.up.right;
-            } else {
-                sibling = node.up.left;
+            TrieNode left = parent.left;
+            if (left == this) {
+                return parent.right;
             }
-            return sibling;
+            return left;
         }
 
         /**
@@ -516,6 +667,12 @@ public class RadixTrie<T> {
          * @return The trie node created or current node if it's an overwrite.
          */
         public TrieNode insert(byte[] pref, int preflen, int diffbit, T prefdata, byte[] closest) {
+            synchronized (RadixTrie.this) {
+                return insertLocked(pref, preflen, diffbit, prefdata, closest);
+            }
+        }
+
+        private TrieNode insertLocked(byte[] pref, int preflen, int diffbit, T prefdata, byte[] closest) {
             TrieNode parent;
 
             // same node, check if prefix needs saving
@@ -523,14 +680,13 @@ public class RadixTrie<T> {
                 if (prefix != null) {
                     return this;
                 }
-                this.prefix = pref;
-                this.data = prefdata;
-                nbActiveNodes++;
-                return this;
+                nbActiveNodes.incrementAndGet();
+                return replace(this, new TrieNode(pref, preflen, prefdata));
             }
 
             TrieNode newNode = new TrieNode(pref, preflen, prefdata);
 
+            // Each case sets up the new nodes completely before linking them into the trie
             // node is more specific, add new prefix as parent
             if (preflen == diffbit) {
                 if (prefix == null ? testBitInPrefixByte(closest, preflen) : testBitInPrefixByte(prefix, preflen)) {
@@ -539,15 +695,7 @@ public class RadixTrie<T> {
                     newNode.left = this;
                 }
                 newNode.up = up;
-
-                if (up == null) {
-                    setRoot(newNode);
-                } else if (this.equals(up.right)) {
-                    up.right = newNode;
-                } else {
-                    up.left = newNode;
-                }
-
+                linkFromParent(newNode);
                 up = newNode;
             // new prefix is more specific than node, add as child
             } else if (bit == diffbit) {
@@ -569,77 +717,33 @@ public class RadixTrie<T> {
                     parent.left = newNode;
                 }
                 newNode.up = parent;
-                if (up == null) {
-                    setRoot(parent);
-                } else if (this.equals(up.right)) {
-                    up.right = parent;
-                } else {
-                    up.left = parent;
-                }
+                linkFromParent(parent);
                 up = parent;
             }
-            nbActiveNodes++;
+            nbActiveNodes.incrementAndGet();
             return newNode;
         }
 
-        /**
-         * Erase node.
-         */
-        public void erase() {
-            TrieNode cur = this;
-            boolean isRoot = false;
-
-            if (this.equals(root)) {
-                isRoot = true;
-            }
-
-            if (prefix != null) {
-                resetData();
-            }
-
-            // as long as one of the children is null and this is an intermediary node
-            // link parent to child. If parent null, child becomes the root.
-            while (cur != null && cur.prefix == null && (cur.left == null || cur.right == null)) {
-                TrieNode parent = cur.up;
-                TrieNode child = cur.left != null ? cur.left : cur.right;
-
-                if (parent == null) {
-                    if (child != null) {
-                        if (!rootZero) {
-                            child.up = null;
-                            setRoot(child);
-                        }
-                    } else {
-                        isRoot = true;
-                    }
-                } else {
-                    if (parent.left != null && parent.left.equals(cur)) {
-                        parent.left = child;
-                    } else {
-                        parent.right = child;
-                    }
-                    if (child != null) {
-                        child.up = parent;
-                    }
-                }
-
-                cur.resetData();
-                cur = parent;
-            }
-
-            if (isRoot) {
-                setRoot((rootZero ? new TrieNode(null, 0, null) : null));
+        // Make the parent of this node point to node instead
+        private void linkFromParent(TrieNode node) {
+            if (up == null) {
+                setRoot(node);
+            } else if (this == up.right) {
+                up.right = node;
+            } else {
+                up.left = node;
             }
-
-            nbActiveNodes--;
         }
 
         /**
-         * Clear node data.
+         * Erase node. Does nothing if the node is virtual or no longer part of the trie.
          */
-        public void resetData() {
-            prefix = null;
-            data = null;
+        public void erase() {
+            synchronized (RadixTrie.this) {
+                if (prefix != null && lookupExact(prefix, bit) == this) {
+                    eraseNode(this);
+                }
+            }
         }
 
         /**
@@ -749,7 +853,8 @@ public class RadixTrie<T> {
                 Iterator<TrieNode> it = stack.iterator();
                 while (it.hasNext()) {
                     peekNode = it.next();
-                    if (peekNode.right != null && !peekNode.right.equals(last)) {
+                    TrieNode right = peekNode.right;
+                    if (right != null && !right.equals(last)) {
                         return true;
                     }
 
@@ -771,8 +876,9 @@ public class RadixTrie<T> {
                         next = next.left;
                     } else {
                         peekNode = stack.peek();
-                        if (peekNode.right != null && !peekNode.right.equals(lastNodeVisited)) {
-                            next = peekNode.right;
+                        TrieNode right = peekNode.right;
+                        if (right != null && !right.equals(lastNodeVisited)) {
+                            next = right;
                         } else {
                             lastNodeVisited = stack.pop();
                             if (peekNode.prefix != null) {
@@ -312,4 +312,35 @@ public class HashMapDbTest {
         Assert.assertEquals(mapValue1, map.putTable(mapKey1));
         Assert.assertEquals(mapValue1, map.getSpecific(dbEntryKey, mapKey1));
     }
+
+    /**
+     * Test ordered walk over IPv4 and IPv6 prefixes with {@link HashMapDb#getNextPrefix}.
+     */
+    @Test
+    public void testGetNextPrefix() throws Exception {
+        final Eid ipv4PrefixEid1 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.0.0" + "/16");
+        final Eid ipv4PrefixEid2 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.1.0" + "/24");
+        final Eid ipv4PrefixEid3 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.2.0" + "/24");
+        final Eid ipv6PrefixEid = LispAddressUtil.asIpv6PrefixBinaryEid("2001:db8::" + "/32");
+        final MappingEntry<Object> mapEntry = new MappingEntry<>("mapSubKey", "mapValue");
+
+        Assert.assertNull(map.getNextPrefix(null, false));
+
+        map.put(ipv6PrefixEid, mapEntry);
+        map.put(ipv4PrefixEid3, mapEntry);
+        map.put(ipv4PrefixEid1, mapEntry);
+        map.put(ipv4PrefixEid2, mapEntry);
+
+        Assert.assertEquals(ipv4PrefixEid1, map.getNextPrefix(null, false));
+        Assert.assertEquals(ipv4PrefixEid2, map.getNextPrefix(ipv4PrefixEid1, false));
+        Assert.assertEquals(ipv4PrefixEid2, map.getNextPrefix(ipv4PrefixEid2, true));
+        Assert.assertEquals(ipv4PrefixEid3, map.getNextPrefix(ipv4PrefixEid2, false));
+        Assert.assertEquals(ipv6PrefixEid, map.getNextPrefix(ipv4PrefixEid3, false));
+        Assert.assertNull(map.getNextPrefix(ipv6PrefixEid, false));
+
+        // The walk continues after a removed prefix
+        map.remove(ipv4PrefixEid2);
+        Assert.assertEquals(ipv4PrefixEid3, map.getNextPrefix(ipv4PrefixEid2, false));
+        Assert.assertNull(map.getNextPrefix(LispAddressUtil.asMacEid("01:02:03:04:05:06"), false));
+    }
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.inmemorydb;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
+import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+
+/**
+ * Test for {@link PackedTrieDb} class.
+ */
+public class PackedTrieDbTest {
+    private static final Eid IPV4_PREFIX_EID_1 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.0.0" + "/16");
+    private static final Eid IPV4_PREFIX_EID_2 = LispAddressUtil.asIpv4PrefixBinaryEid("192.169.0.0" + "/16");
+    private static final Eid IPV4_PREFIX_EID_3 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.1.1" + "/32");
+    private static final Eid IPV6_PREFIX_EID = LispAddressUtil.asIpv6PrefixBinaryEid("2001:db8::" + "/32");
+    private static final Eid MAC_EID = LispAddressUtil.asMacEid("01:02:03:04:05:06");
+    private static final MappingEntry<Object> MAP_ENTRY_1 = new MappingEntry<>("mapSubKey1", "mapValue1");
+    private static final MappingEntry<Object> MAP_ENTRY_2 = new MappingEntry<>("mapSubKey2", "mapValue2");
+
+    private PackedTrieDb map;
+
+    @Before
+    public void setUp() throws Exception {
+        map = new PackedTrieDb();
+    }
+
+    /**
+     * Test merging of values for a prefix key.
+     */
+    @Test
+    public void testPutGet_withIpPrefix() throws Exception {
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1);
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_2);
+
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("mapSubKey1", "mapValue1");
+        resultMap.put("mapSubKey2", "mapValue2");
+        Assert.assertEquals(resultMap, map.get(IPV4_PREFIX_EID_1));
+        Assert.assertEquals("mapValue2", map.getSpecific(IPV4_PREFIX_EID_1, "mapSubKey2"));
+        Assert.assertNull(map.get(IPV4_PREFIX_EID_2));
+    }
+
+    /**
+     * Test that keys which are not prefixes are kept as well.
+     */
+    @Test
+    public void testPutGet_withNonIpPrefix() throws Exception {
+        map.put("dbEntryKey", MAP_ENTRY_1);
+        map.put(MAC_EID, MAP_ENTRY_2);
+
+        Assert.assertEquals("mapValue1", map.getSpecific("dbEntryKey", "mapSubKey1"));
+        Assert.assertEquals(Collections.<String, Object>singletonMap("mapSubKey2", "mapValue2"), map.getBest(MAC_EID));
+        Assert.assertEquals(MAC_EID, map.getBestPair(MAC_EID).getKey());
+    }
+
+    /**
+     * Test that prefixes of a different virtual network are not mixed with the ones in the tries.
+     */
+    @Test
+    public void testPutGet_withOtherVni() throws Exception {
+        final Eid otherVniEid = LispAddressUtil.asIpv4PrefixBinaryEid(5L, "192.168.0.0" + "/16");
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1);
+        map.put(otherVniEid, MAP_ENTRY_2);
+
+        Assert.assertEquals(Collections.<String, Object>singletonMap("mapSubKey1", "mapValue1"),
+                map.getBest(IPV4_PREFIX_EID_3));
+        Assert.assertEquals(Collections.<String, Object>singletonMap("mapSubKey2", "mapValue2"),
+                map.get(otherVniEid));
+    }
+
+    /**
+     * Test {@link PackedTrieDb#getBest} and {@link PackedTrieDb#getBestPair} with IP prefix.
+     */
+    @Test
+    public void testGetBest_withIpPrefix() throws Exception {
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1);
+        map.put(IPV4_PREFIX_EID_2, MAP_ENTRY_2);
+
+        Assert.assertEquals(Collections.<String, Object>singletonMap("mapSubKey1", "mapValue1"),
+                map.getBest(IPV4_PREFIX_EID_3));
+        SimpleImmutableEntry<Eid, Map<String, ?>> res = map.getBestPair(IPV4_PREFIX_EID_3);
+        Assert.assertEquals(IPV4_PREFIX_EID_1, res.getKey());
+        Assert.assertEquals(Collections.<String, Object>singletonMap("mapSubKey1", "mapValue1"), res.getValue());
+        Assert.assertNull(map.getBest(LispAddressUtil.asIpv4PrefixBinaryEid("10.0.0.0" + "/8")));
+    }
+
+    /**
+     * Test that the prefix lookups return the same prefixes as {@link HashMapDb}.
+     */
+    @Test
+    public void testPrefixLookups_sameAsHashMapDb() throws Exception {
+        final HashMapDb expected = new HashMapDb();
+        final List<Eid> prefixes = List.of(IPV4_PREFIX_EID_1, IPV4_PREFIX_EID_2,
+                LispAddressUtil.asIpv4PrefixBinaryEid("192.168.1.0" + "/24"),
+                LispAddressUtil.asIpv4PrefixBinaryEid("192.168.2.0" + "/24"),
+                LispAddressUtil.asIpv4PrefixBinaryEid("10.0.0.0" + "/8"), IPV6_PREFIX_EID,
+                LispAddressUtil.asIpv6PrefixBinaryEid("2001:db8:1::" + "/48"));
+        for (Eid prefix : prefixes) {
+            expected.put(prefix, MAP_ENTRY_1);
+            map.put(prefix, MAP_ENTRY_1);
+        }
+
+        final List<Eid> keys = new ArrayList<>(prefixes);
+        keys.add(IPV4_PREFIX_EID_3);
+        keys.add(LispAddressUtil.asIpv4PrefixBinaryEid("192.168.3.0" + "/24"));
+        keys.add(LispAddressUtil.asIpv4PrefixBinaryEid("172.16.0.0" + "/12"));
+        keys.add(LispAddressUtil.asIpv6PrefixBinaryEid("2001:db8:1:2::" + "/64"));
+        for (Eid key : keys) {
+            Assert.assertEquals(expected.getCoveringLessSpecific(key), map.getCoveringLessSpecific(key));
+            Assert.assertEquals(expected.getParentPrefix(key), map.getParentPrefix(key));
+            Assert.assertEquals(expected.getSiblingPrefix(key), map.getSiblingPrefix(key));
+            Assert.assertEquals(expected.getVirtualParentSiblingPrefix(key), map.getVirtualParentSiblingPrefix(key));
+            Assert.assertEquals(expected.getWidestNegativePrefix(key), map.getWidestNegativePrefix(key));
+            Assert.assertEquals(expected.getSubtree(key), map.getSubtree(key));
+            Assert.assertEquals(expected.getNextPrefix(key, false), map.getNextPrefix(key, false));
+        }
+    }
+
+    @Test
+    public void testGetAll() throws Exception {
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1, MAP_ENTRY_2);
+        map.put(IPV6_PREFIX_EID, MAP_ENTRY_1);
+        map.put("dbEntryKey", MAP_ENTRY_2);
+
+        final List<String> rows = new ArrayList<>();
+        map.getAll((keyId, valueKey, value) -> rows.add(keyId + "|" + valueKey + "|" + value));
+        Assert.assertEquals(4, rows.size());
+        Assert.assertTrue(rows.contains(IPV6_PREFIX_EID + "|mapSubKey1|mapValue1"));
+        Assert.assertTrue(rows.contains("dbEntryKey|mapSubKey2|mapValue2"));
+    }
+
+    /**
+     * Test that the visitor of {@link PackedTrieDb#getAll} can remove the prefix it is called for.
+     */
+    @Test
+    public void testGetAll_withRemoval() throws Exception {
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1);
+        map.put(IPV4_PREFIX_EID_2, MAP_ENTRY_1);
+        map.put(IPV4_PREFIX_EID_3, MAP_ENTRY_1);
+
+        map.getAll((keyId, valueKey, value) -> map.remove(keyId));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testRemoveSpecific() throws Exception {
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1, MAP_ENTRY_2);
+
+        map.removeSpecific(IPV4_PREFIX_EID_1, "mapSubKey1");
+        Assert.assertNull(map.getSpecific(IPV4_PREFIX_EID_1, "mapSubKey1"));
+        Assert.assertEquals("mapValue2", map.getSpecific(IPV4_PREFIX_EID_1, "mapSubKey2"));
+
+        map.removeSpecific(IPV4_PREFIX_EID_1, "mapSubKey2");
+        Assert.assertNull("MapEntry should not be present after removal the last entry", map.get(IPV4_PREFIX_EID_1));
+        Assert.assertNull(map.getBest(IPV4_PREFIX_EID_3));
+    }
+
+    @Test
+    public void testRemoveAll() throws Exception {
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1);
+        map.put(IPV6_PREFIX_EID, MAP_ENTRY_1);
+        map.put("dbEntryKey", MAP_ENTRY_1);
+        Assert.assertFalse(map.isEmpty());
+
+        map.removeAll();
+        Assert.assertTrue(map.isEmpty());
+        map.getAll((keyId, valueKey, value) -> Assert.fail("DB should be empty"));
+    }
+
+    @Test
+    public void testPutNestedTable() throws Exception {
+        final ILispDAO table = map.putTable("mapKey1");
+        Assert.assertTrue(table instanceof PackedTrieDb);
+        Assert.assertEquals(table, map.putTable("mapKey1"));
+
+        final ILispDAO nestedTable = table.putNestedTable(IPV4_PREFIX_EID_1, "mapKey2");
+        Assert.assertTrue(nestedTable instanceof PackedTrieDb);
+        Assert.assertEquals(nestedTable, table.getSpecific(IPV4_PREFIX_EID_1, "mapKey2"));
+    }
+
+    /**
+     * Test ordered walk over IPv4 and IPv6 prefixes with {@link PackedTrieDb#getNextPrefix}.
+     */
+    @Test
+    public void testGetNextPrefix() throws Exception {
+        final Eid ipv4PrefixEid2 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.1.0" + "/24");
+        final Eid ipv4PrefixEid3 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.2.0" + "/24");
+
+        Assert.assertNull(map.getNextPrefix(null, false));
+
+        map.put(IPV6_PREFIX_EID, MAP_ENTRY_1);
+        map.put(ipv4PrefixEid3, MAP_ENTRY_1);
+        map.put(IPV4_PREFIX_EID_1, MAP_ENTRY_1);
+        map.put(ipv4PrefixEid2, MAP_ENTRY_1);
+
+        Assert.assertEquals(IPV4_PREFIX_EID_1, map.getNextPrefix(null, false));
+        Assert.assertEquals(ipv4PrefixEid2, map.getNextPrefix(IPV4_PREFIX_EID_1, false));
+        Assert.assertEquals(ipv4PrefixEid2, map.getNextPrefix(ipv4PrefixEid2, true));
+        Assert.assertEquals(ipv4PrefixEid3, map.getNextPrefix(ipv4PrefixEid2, false));
+        Assert.assertEquals(IPV6_PREFIX_EID, map.getNextPrefix(ipv4PrefixEid3, false));
+        Assert.assertNull(map.getNextPrefix(IPV6_PREFIX_EID, false));
+
+        map.remove(ipv4PrefixEid2);
+        Assert.assertEquals(ipv4PrefixEid3, map.getNextPrefix(ipv4PrefixEid2, false));
+        Assert.assertEquals(Set.of(ipv4PrefixEid3), map.getSubtree(ipv4PrefixEid3));
+        Assert.assertNull(map.getNextPrefix(MAC_EID, false));
+    }
+}
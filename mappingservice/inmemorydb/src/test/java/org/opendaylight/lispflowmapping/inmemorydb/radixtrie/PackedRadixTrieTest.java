@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.inmemorydb.radixtrie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class PackedRadixTrieTest {
+    private static final long IP4_10_0_0_0 = 0x0A000000L << 32;
+
+    @Test
+    public void testInsertLookupRemove() {
+        PackedRadixTrie<Integer> trie = new PackedRadixTrie<>(32, true);
+        assertNull(trie.insert(IP4_10_0_0_0, 0, 8, 8));
+        assertNull(trie.insert(IP4_10_0_0_0 | 0x00010000L << 32, 0, 16, 16));
+        assertEquals(Integer.valueOf(16), trie.insert(IP4_10_0_0_0 | 0x00010000L << 32, 0, 16, 17));
+        assertEquals(2, trie.getSize());
+
+        assertEquals(Integer.valueOf(17), trie.lookupBest(IP4_10_0_0_0 | 0x00010203L << 32, 0, 32));
+        assertEquals(Integer.valueOf(8), trie.lookupBest(IP4_10_0_0_0 | 0x00020203L << 32, 0, 32));
+        assertNull(trie.lookupBest(0x0B000000L << 32, 0, 32));
+        assertEquals(Integer.valueOf(8), trie.lookupExact(IP4_10_0_0_0, 0, 8));
+        assertNull(trie.lookupExact(IP4_10_0_0_0, 0, 9));
+
+        assertEquals(Integer.valueOf(8), trie.remove(IP4_10_0_0_0, 0, 8));
+        assertNull(trie.remove(IP4_10_0_0_0, 0, 8));
+        assertEquals(1, trie.getSize());
+        assertNull(trie.lookupBest(IP4_10_0_0_0 | 0x00020203L << 32, 0, 32));
+
+        trie.removeAll();
+        assertEquals(0, trie.getSize());
+        assertNull(trie.lookupFirst());
+    }
+
+    /**
+     * Tests that random inserts and removes give the same results as {@link RadixTrie} for all lookups.
+     */
+    @Test
+    public void testSameResultsAsRadixTrie() {
+        final Random random = new Random(7);
+        for (boolean rootZero : new boolean[] {false, true}) {
+            compareWithRadixTrie(random, 32, rootZero);
+            compareWithRadixTrie(random, 128, rootZero);
+        }
+    }
+
+    private static void compareWithRadixTrie(Random random, int bits, boolean rootZero) {
+        final RadixTrie<Integer> expected = new RadixTrie<>(bits, rootZero);
+        final PackedRadixTrie<Integer> actual = new PackedRadixTrie<>(bits, rootZero);
+
+        for (int i = 0; i < 20000; i++) {
+            final byte[] prefix = randomPrefix(random, bits);
+            final int preflen = randomLength(random, bits);
+            mask(prefix, preflen);
+            if (random.nextInt(3) > 0) {
+                expected.insert(prefix, preflen, preflen);
+                actual.insert(high(prefix), low(prefix), preflen, preflen);
+            } else {
+                expected.remove(prefix, preflen);
+                actual.remove(high(prefix), low(prefix), preflen);
+            }
+            assertEquals(expected.getSize(), actual.getSize());
+
+            final byte[] key = randomPrefix(random, bits);
+            final int keylen = random.nextInt(4) == 0 ? randomLength(random, bits) : bits;
+            mask(key, keylen);
+            final long high = high(key);
+            final long low = low(key);
+
+            assertData(expected.lookupExact(key, keylen), actual.lookupExact(high, low, keylen));
+            assertData(expected.lookupBest(key, keylen), actual.lookupBest(high, low, keylen));
+            assertSame(expected.lookupBest(key, keylen), actual.lookupBestEntry(high, low, keylen));
+            assertSame(expected.lookupCoveringLessSpecific(key, keylen),
+                    actual.lookupCoveringLessSpecific(high, low, keylen));
+            assertSame(expected.lookupParent(key, keylen), actual.lookupParent(high, low, keylen));
+            assertSame(expected.lookupSibling(key, keylen), actual.lookupSibling(high, low, keylen));
+            assertSame(real(expected.lookupVirtualParentSibling(key, keylen)),
+                    actual.lookupVirtualParentSibling(high, low, keylen));
+            if (keylen < bits) {
+                assertSame(expected.lookupWidestNegative(key, keylen),
+                        actual.lookupWidestNegative(high, low, keylen));
+            }
+            assertSubtree(expected.lookupSubtree(key, keylen), actual.lookupSubtree(high, low, keylen));
+            assertSame(expected.lookupNext(key, keylen), actual.lookupNext(high, low, keylen));
+        }
+
+        // full walk in the same order
+        RadixTrie<Integer>.TrieNode node = expected.lookupFirst();
+        PackedRadixTrie.Entry<Integer> entry = actual.lookupFirst();
+        while (node != null) {
+            assertSame(node, entry);
+            node = expected.lookupNext(node.prefix(), node.prefixLength());
+            entry = actual.lookupNext(entry.high(), entry.low(), entry.length());
+        }
+        assertNull(entry);
+    }
+
+    /**
+     * Tests that longest prefix match lookups running without the lock are not disturbed by concurrent inserts and
+     * removes, including those which grow the node arrays.
+     */
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final PackedRadixTrie<Integer> trie = new PackedRadixTrie<>(32, true);
+        trie.insert(IP4_10_0_0_0, 0, 8, 8);
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final Random random = new Random(i);
+            final Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        final long address = IP4_10_0_0_0 | (random.nextInt() & 0x00FFFFFFL) << 32;
+                        final Integer best = trie.lookupBest(address, 0, 32);
+                        assertTrue(best != null && best >= 8);
+                        assertEquals(Integer.valueOf(8), trie.lookupExact(IP4_10_0_0_0, 0, 8));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            final int preflen = 9 + random.nextInt(24);
+            final long address = IP4_10_0_0_0 | (random.nextInt() & 0x00FFFFFFL & (-1L << (32 - preflen))) << 32;
+            if (random.nextBoolean()) {
+                trie.insert(address, 0, preflen, preflen);
+            } else {
+                trie.remove(address, 0, preflen);
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
+    private static byte[] randomPrefix(Random random, int bits) {
+        // few distinct bits, so that prefixes often share parents
+        final byte[] prefix = new byte[bits / 8];
+        for (int i = 0; i < prefix.length; i += 4) {
+            prefix[i] = (byte) (random.nextInt(4) << 6);
+        }
+        prefix[random.nextInt(prefix.length)] |= (byte) random.nextInt(4);
+        return prefix;
+    }
+
+    private static int randomLength(Random random, int bits) {
+        return random.nextInt(bits + 1);
+    }
+
+    private static void mask(byte[] prefix, int preflen) {
+        for (int i = 0; i < prefix.length; i++) {
+            final int keep = Math.max(0, Math.min(8, preflen - i * 8));
+            prefix[i] &= (byte) (0xFF00 >> keep);
+        }
+    }
+
+    private static long high(byte[] prefix) {
+        final ByteBuffer buffer = ByteBuffer.wrap(prefix);
+        return prefix.length == 4 ? (long) buffer.getInt() << 32 : buffer.getLong();
+    }
+
+    private static long low(byte[] prefix) {
+        return prefix.length == 4 ? 0 : ByteBuffer.wrap(prefix).getLong(8);
+    }
+
+    private static RadixTrie<Integer>.TrieNode real(RadixTrie<Integer>.TrieNode node) {
+        return node == null || node.prefix() == null ? null : node;
+    }
+
+    private static void assertData(RadixTrie<Integer>.TrieNode expected, Integer actual) {
+        assertEquals(expected == null ? null : expected.data(), actual);
+    }
+
+    private static void assertSame(RadixTrie<Integer>.TrieNode expected, PackedRadixTrie.Entry<Integer> actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(toString(expected), toString(actual));
+        assertEquals(expected.data(), actual.data());
+    }
+
+    private static void assertSubtree(Set<RadixTrie<Integer>.TrieNode> expected,
+            List<PackedRadixTrie.Entry<Integer>> actual) {
+        final Set<String> expectedPrefixes = new HashSet<>();
+        for (RadixTrie<Integer>.TrieNode node : expected) {
+            expectedPrefixes.add(toString(node));
+        }
+        final Set<String> actualPrefixes = new HashSet<>();
+        for (PackedRadixTrie.Entry<Integer> entry : actual) {
+            actualPrefixes.add(toString(entry));
+        }
+        assertEquals(expectedPrefixes, actualPrefixes);
+        assertEquals(actual.size(), actualPrefixes.size());
+    }
+
+    private static String toString(RadixTrie<Integer>.TrieNode node) {
+        final byte[] prefix = node.prefix().clone();
+        mask(prefix, node.prefixLength());
+        return Long.toHexString(high(prefix)) + ":" + Long.toHexString(low(prefix)) + "/" + node.prefixLength();
+    }
+
+    private static String toString(PackedRadixTrie.Entry<Integer> entry) {
+        return Long.toHexString(entry.high()) + ":" + Long.toHexString(entry.low()) + "/" + entry.length();
+    }
+}
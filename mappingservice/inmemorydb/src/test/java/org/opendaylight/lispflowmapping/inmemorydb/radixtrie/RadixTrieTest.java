@@ -9,15 +9,24 @@
 package org.opendaylight.lispflowmapping.inmemorydb.radixtrie;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -415,6 +424,110 @@ public class RadixTrieTest {
         Assert.assertEquals(0, radixTrie4.getSize());
     }
 
+    /**
+     * Tests random inserts and removals against a brute force longest prefix match.
+     */
+    @Test
+    public void testRandomInsertRemove() {
+        final Random random = new Random(42);
+        for (boolean rootZero : new boolean[] {false, true}) {
+            radixTrie4 = new RadixTrie<>(32, rootZero);
+            final Map<Integer, Set<Integer>> model = new HashMap<>();
+            int size = 0;
+
+            for (int i = 0; i < 20000; i++) {
+                final int preflen = random.nextInt(9);
+                final int address = maskAddress(random.nextInt(16) << 28 | random.nextInt(4) << 24, preflen);
+                final Set<Integer> addresses = model.computeIfAbsent(preflen, len -> new HashSet<>());
+                if (random.nextBoolean()) {
+                    radixTrie4.insert(toBytes(address), preflen, preflen);
+                    size += addresses.add(address) ? 1 : 0;
+                } else {
+                    radixTrie4.remove(toBytes(address), preflen);
+                    size -= addresses.remove(address) ? 1 : 0;
+                }
+                assertEquals(size, radixTrie4.getSize());
+
+                final int lookup = random.nextInt();
+                int expected = -1;
+                for (int len = 8; len >= 0 && expected < 0; len--) {
+                    if (model.getOrDefault(len, Set.of()).contains(maskAddress(lookup, len))) {
+                        expected = len;
+                    }
+                }
+                final RadixTrie<Integer>.TrieNode res = radixTrie4.lookupBest(toBytes(lookup), 32);
+                assertEquals(expected, res == null ? -1 : res.prefixLength());
+            }
+        }
+    }
+
+    /**
+     * Tests that lookups concurrent with inserts and removals always find a complete, covering prefix.
+     */
+    @Test
+    public void testConcurrentLookups() throws InterruptedException {
+        final RadixTrie<Integer> trie = new RadixTrie<>(32, true);
+        // 10.0.0.0/8 is never removed, so every lookup in it must succeed
+        trie.insert(toBytes(0x0A000000), 8, 8);
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread writer = new Thread(() -> {
+            final Random random = new Random(1);
+            for (int i = 0; i < 200000; i++) {
+                final int preflen = 9 + random.nextInt(24);
+                final byte[] prefix = toBytes(maskAddress(0x0A000000 | random.nextInt(1 << 24), preflen));
+                if (random.nextBoolean()) {
+                    trie.insert(prefix, preflen, preflen);
+                } else {
+                    trie.remove(prefix, preflen);
+                }
+            }
+            done.set(true);
+        });
+
+        final List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            final int seed = r;
+            readers.add(new Thread(() -> {
+                final Random random = new Random(100 + seed);
+                try {
+                    while (!done.get()) {
+                        final byte[] address = toBytes(0x0A000000 | random.nextInt(1 << 24));
+                        final RadixTrie<Integer>.TrieNode res = trie.lookupBest(address, 32);
+                        assertNotNull("No match for " + InetAddress.getByAddress(address), res);
+                        assertEquals(res.prefixLength(), (int) res.data());
+                        assertTrue(res.prefixLength() >= 8 && res.comparePrefix(address));
+                        assertNotNull(trie.lookupExact(toBytes(0x0A000000), 8));
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        readers.forEach(Thread::start);
+        writer.start();
+        writer.join(60000);
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join(10000);
+        }
+
+        if (failure.get() != null) {
+            throw new AssertionError("Concurrent lookup failed", failure.get());
+        }
+        assertTrue(!writer.isAlive());
+    }
+
+    private static int maskAddress(int address, int preflen) {
+        return preflen == 0 ? 0 : address & -1 << 32 - preflen;
+    }
+
+    private static byte[] toBytes(int address) {
+        return ByteBuffer.allocate(4).putInt(address).array();
+    }
+
     private void addIp4Addresses(RadixTrie<Integer> trie) {
         // 192.168.1.1/32
         trie.insert(IP4_BYTES7, 32, 7);
@@ -510,6 +623,38 @@ public class RadixTrieTest {
         assertTrue("Lookup for 192.168.0.0 is NULL", res2 != null);
     }
 
+    /**
+     * Tests ordered walk with lookupFirst and lookupNext.
+     */
+    @Test
+    public void testLookupNext() throws UnknownHostException {
+        RadixTrie<String> stringRadixTrie4 = new RadixTrie<>(32);
+        assertNull(stringRadixTrie4.lookupFirst());
+
+        stringRadixTrie4.insert(IP4_BYTES3, 16, "192.169.0.0/16");
+        stringRadixTrie4.insert(IP4_BYTES5, 24, "192.168.2.0/24");
+        stringRadixTrie4.insert(IP4_BYTES7, 32, "192.168.1.1/32");
+        stringRadixTrie4.insert(IP4_BYTES1, 16, "192.168.0.0/16");
+        stringRadixTrie4.insert(IP4_BYTES24, 32, "10.10.10.10/32");
+        stringRadixTrie4.insert(IP4_BYTES4, 24, "192.168.1.0/24");
+
+        final ArrayList<String> walk = new ArrayList<>();
+        RadixTrie<String>.TrieNode res = stringRadixTrie4.lookupFirst();
+        while (res != null) {
+            walk.add(res.data());
+            res = stringRadixTrie4.lookupNext(res.prefix(), res.prefixLength());
+        }
+        assertEquals(Arrays.asList("10.10.10.10/32", "192.168.0.0/16", "192.168.1.0/24", "192.168.1.1/32",
+                "192.168.2.0/24", "192.169.0.0/16"), walk);
+
+        // The walk can be resumed from a prefix which is not in the trie
+        res = stringRadixTrie4.lookupNext(InetAddress.getByName("192.168.1.128").getAddress(), 25);
+        assertEquals("192.168.2.0/24", res.data());
+        res = stringRadixTrie4.lookupNext(IP4_DEFAULT, 0);
+        assertEquals("10.10.10.10/32", res.data());
+        assertNull(stringRadixTrie4.lookupNext(InetAddress.getByName("200.0.0.0").getAddress(), 8));
+    }
+
     @Test
     public void testIPv6PrefLastByteComp() {
         radixTrie6 = new RadixTrie<>(128);
@@ -11,6 +11,8 @@ import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import org.slf4j.Logger;
@@ -20,9 +22,13 @@ public class LispMACAuthentication implements ILispAuthentication {
 
     protected static final Logger LOG = LoggerFactory.getLogger(LispMACAuthentication.class);
 
+    // Maximum number of keys for which each thread keeps an initialized Mac instance
+    private static final int MAX_CACHED_KEYS = 64;
+
     protected String algorithm;
     private byte[] tempAuthenticationData;
     private int authenticationLength;
+    private volatile ThreadLocal<MacCache> macCache = ThreadLocal.withInitial(MacCache::new);
 
     public LispMACAuthentication(String algorithm) {
         this.algorithm = algorithm;
@@ -47,24 +53,12 @@ public class LispMACAuthentication implements ILispAuthentication {
         mapRegisterBuffer.position(ILispAuthentication.MAP_REGISTER_AND_NOTIFY_AUTHENTICATION_POSITION);
         mapRegisterBuffer.put(tempAuthenticationData);
         mapRegisterBuffer.position(0);
-        byte[] mapRegisterArray;
-        if (mapRegisterBuffer.hasArray()) {
-            mapRegisterArray = mapRegisterBuffer.array();
-        } else {
-            mapRegisterArray = new byte[mapRegisterBuffer.remaining()];
-            mapRegisterBuffer.get(mapRegisterArray);
-        }
-        return Arrays.equals(getAuthenticationData(mapRegisterArray, key), expectedAuthData);
+        return Arrays.equals(getAuthenticationData(mapRegisterBuffer, key), expectedAuthData);
     }
 
     protected byte[] getAuthenticationData(byte[] data, String key) {
         try {
-            byte[] keyBytes = key.getBytes();
-            SecretKeySpec signingKey = new SecretKeySpec(keyBytes, algorithm);
-            Mac mac = Mac.getInstance(algorithm);
-            mac.init(signingKey);
-
-            return mac.doFinal(data);
+            return getMac(key).doFinal(data);
         } catch (InvalidKeyException e) {
             LOG.warn("Invalid password {}", key, e);
         } catch (NoSuchAlgorithmException e) {
@@ -73,17 +67,45 @@ public class LispMACAuthentication implements ILispAuthentication {
         return null;
     }
 
+    /**
+     * Computes the MAC over the buffer contents from offset 0 up to its limit. The data is read directly from the
+     * buffer, so direct (off-heap) buffers are not copied to a temporary array first. The position of the buffer
+     * is not modified.
+     *
+     * @param buffer the message, with the authentication data field already zeroed
+     * @param key the authentication key
+     * @return the MAC, or null if it could not be computed
+     */
+    @Override
     public byte[] getAuthenticationData(final ByteBuffer buffer, final String key) {
-        byte[] bufferAsArray;
-        if (buffer.hasArray()) {
-            bufferAsArray = buffer.array();
-        } else {
-            buffer.position(0);
-            bufferAsArray = new byte[buffer.limit()];
-            buffer.get(bufferAsArray);
+        final ByteBuffer data = buffer.duplicate();
+        data.position(0);
+        try {
+            final Mac mac = getMac(key);
+            mac.update(data);
+            return mac.doFinal();
+        } catch (InvalidKeyException e) {
+            LOG.warn("Invalid password {}", key, e);
+        } catch (NoSuchAlgorithmException e) {
+            LOG.warn("No such MAC algorithm {}", algorithm, e);
         }
+        return null;
+    }
 
-        return getAuthenticationData(bufferAsArray, key);
+    /**
+     * Returns a Mac instance owned by the calling thread and already initialized with the given key. Creating and
+     * initializing a Mac is far more expensive than computing the MAC of a single Map-Register, so instances are
+     * reused for the most recently used keys. A Mac is reset after doFinal(), keeping its key.
+     */
+    private Mac getMac(final String key) throws NoSuchAlgorithmException, InvalidKeyException {
+        final MacCache macs = macCache.get();
+        Mac mac = macs.get(key);
+        if (mac == null) {
+            mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(key.getBytes(), algorithm));
+            macs.put(key, mac);
+        }
+        return mac;
     }
 
     public int getAuthenticationLength() {
@@ -96,5 +118,20 @@ public class LispMACAuthentication implements ILispAuthentication {
 
     public void setAlgorithm(String algorithm) {
         this.algorithm = algorithm;
+        // Drop Mac instances created for the previous algorithm
+        this.macCache = ThreadLocal.withInitial(MacCache::new);
+    }
+
+    private static final class MacCache extends LinkedHashMap<String, Mac> {
+        private static final long serialVersionUID = 1L;
+
+        MacCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Mac> eldest) {
+            return size() > MAX_CACHED_KEYS;
+        }
     }
 }
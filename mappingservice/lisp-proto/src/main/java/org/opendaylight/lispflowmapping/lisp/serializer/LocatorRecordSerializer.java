@@ -51,7 +51,7 @@ public final class LocatorRecordSerializer {
         replyBuffer.put((byte) NumberUtil.asShort(record.getWeight()));
         replyBuffer.put((byte) NumberUtil.asShort(record.getMulticastPriority()));
         replyBuffer.put((byte) NumberUtil.asShort(record.getMulticastWeight()));
-        replyBuffer.position(replyBuffer.position() + Length.UNUSED_FLAGS);
+        replyBuffer.put((byte) 0);
         replyBuffer.put((byte) (ByteUtil.boolToBit(BooleanUtils.isTrue(record.getLocalLocator()), Flags.LOCAL_LOCATOR)
                 | ByteUtil.boolToBit(BooleanUtils.isTrue(record.getRlocProbed()), Flags.RLOC_PROBED)
                 | ByteUtil.boolToBit(BooleanUtils.isTrue(record.getRouted()), Flags.ROUTED)));
@@ -71,6 +71,5 @@ public final class LocatorRecordSerializer {
 
     private interface Length {
         int HEADER_SIZE = 6;
-        int UNUSED_FLAGS = 1;
     }
 }
@@ -40,6 +40,13 @@ public final class MapNotifySerializer {
     }
 
     public ByteBuffer serialize(MapNotify mapNotify) {
+        ByteBuffer replyBuffer = ByteBuffer.allocate(getSerializationSize(mapNotify));
+        serialize(replyBuffer, mapNotify);
+        replyBuffer.clear();
+        return replyBuffer;
+    }
+
+    public int getSerializationSize(MapNotify mapNotify) {
         int size = Length.HEADER_SIZE;
         if (mapNotify.getAuthenticationData() != null) {
             size += mapNotify.getAuthenticationData().length;
@@ -51,11 +58,20 @@ public final class MapNotifySerializer {
         for (MappingRecordItem mappingRecord : mapNotify.getMappingRecordItem()) {
             size += MappingRecordSerializer.getInstance().getSerializationSize(mappingRecord.getMappingRecord());
         }
+        return size;
+    }
 
-        ByteBuffer replyBuffer = ByteBuffer.allocate(size);
+    /**
+     * Serialize the Map-Notify into the given buffer, starting at its current position. The buffer doesn't need to be
+     * zeroed and must have at least {@link #getSerializationSize(MapNotify)} bytes remaining.
+     *
+     * @param replyBuffer the buffer to write to
+     * @param mapNotify the Map-Notify
+     */
+    public void serialize(ByteBuffer replyBuffer, MapNotify mapNotify) {
         replyBuffer.put((byte) ((byte) (MessageType.MapNotify.getIntValue() << 4)
                 | ByteUtil.boolToBit(BooleanUtils.isTrue(mapNotify.getXtrSiteIdPresent()), Flags.XTRSITEID)));
-        replyBuffer.position(replyBuffer.position() + Length.RES);
+        replyBuffer.put((byte) 0);
         replyBuffer.put(ByteUtil.boolToBit(BooleanUtils.isTrue(mapNotify.getMergeEnabled()), Flags.MERGE_ENABLED));
         if (mapNotify.getMappingRecordItem() != null) {
             replyBuffer.put((byte) mapNotify.getMappingRecordItem().size());
@@ -81,8 +97,6 @@ public final class MapNotifySerializer {
             replyBuffer.put(mapNotify.getXtrId().getValue());
             replyBuffer.put(mapNotify.getSiteId().getValue());
         }
-        replyBuffer.clear();
-        return replyBuffer;
     }
 
     @SuppressWarnings("checkstyle:IllegalCatch")
@@ -9,6 +9,7 @@ package org.opendaylight.lispflowmapping.lisp.serializer;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.List;
 import org.apache.commons.lang3.BooleanUtils;
 import org.opendaylight.lispflowmapping.lisp.serializer.exception.LispSerializationException;
 import org.opendaylight.lispflowmapping.lisp.util.ByteUtil;
@@ -36,31 +37,76 @@ public final class MapReplySerializer {
     }
 
     public ByteBuffer serialize(MapReply mapReply) {
+        ByteBuffer replyBuffer = ByteBuffer.allocate(getSerializationSize(mapReply));
+        serialize(replyBuffer, mapReply);
+        return replyBuffer;
+    }
+
+    public int getSerializationSize(MapReply mapReply) {
+        return getSerializationSize(mapReply, List.of());
+    }
+
+    /**
+     * Get the size of the Map-Reply when serialized with {@link #serialize(ByteBuffer, MapReply, List)}.
+     *
+     * @param mapReply the Map-Reply
+     * @param serializedRecords the already serialized records, see {@link #serialize(ByteBuffer, MapReply, List)}
+     * @return the size in bytes
+     */
+    public int getSerializationSize(MapReply mapReply, List<ByteBuffer> serializedRecords) {
         int size = Length.HEADER_SIZE;
-        for (MappingRecordItem eidToLocatorRecord : mapReply.nonnullMappingRecordItem()) {
-            size += MappingRecordSerializer.getInstance().getSerializationSize(eidToLocatorRecord.getMappingRecord());
+        final List<MappingRecordItem> items = mapReply.nonnullMappingRecordItem();
+        for (int i = 0; i < items.size(); i++) {
+            final ByteBuffer serializedRecord = getSerializedRecord(serializedRecords, i);
+            size += serializedRecord != null ? serializedRecord.remaining()
+                    : MappingRecordSerializer.getInstance().getSerializationSize(items.get(i).getMappingRecord());
         }
+        return size;
+    }
 
-        ByteBuffer replyBuffer = ByteBuffer.allocate(size);
+    /**
+     * Serialize the Map-Reply into the given buffer, starting at its current position. The buffer doesn't need to be
+     * zeroed and must have at least {@link #getSerializationSize(MapReply)} bytes remaining.
+     *
+     * @param replyBuffer the buffer to write to
+     * @param mapReply the Map-Reply
+     */
+    public void serialize(ByteBuffer replyBuffer, MapReply mapReply) {
+        serialize(replyBuffer, mapReply, List.of());
+    }
 
+    /**
+     * Serialize the Map-Reply into the given buffer, copying the records which are already serialized instead of
+     * encoding them. The buffer must have at least {@link #getSerializationSize(MapReply, List)} bytes remaining.
+     *
+     * @param replyBuffer the buffer to write to
+     * @param mapReply the Map-Reply
+     * @param serializedRecords the serialized form of the mapping record at the same index in the Map-Reply, or null
+     *            for records that need to be encoded. Missing trailing elements are treated as null.
+     */
+    public void serialize(ByteBuffer replyBuffer, MapReply mapReply, List<ByteBuffer> serializedRecords) {
+        final List<MappingRecordItem> items = mapReply.nonnullMappingRecordItem();
         replyBuffer.put((byte) (MessageType.MapReply.getIntValue() << 4
                 | (BooleanUtils.isTrue(mapReply.getProbe()) ? Flags.PROBE : 0x00)
                 | (BooleanUtils.isTrue(mapReply.getEchoNonceEnabled()) ? Flags.ECHO_NONCE_ENABLED : 0x00)));
 
-        replyBuffer.position(replyBuffer.position() + Length.RES);
-        if (mapReply.getMappingRecordItem() != null) {
-            replyBuffer.put((byte) mapReply.getMappingRecordItem().size());
-        } else {
-            replyBuffer.put((byte) 0);
-
-        }
+        replyBuffer.putShort((short) 0);
+        replyBuffer.put((byte) items.size());
         replyBuffer.putLong(NumberUtil.asLong(mapReply.getNonce()));
-        if (mapReply.getMappingRecordItem() != null) {
-            for (MappingRecordItem eidToLocatorRecord : mapReply.nonnullMappingRecordItem()) {
-                MappingRecordSerializer.getInstance().serialize(replyBuffer, eidToLocatorRecord.getMappingRecord());
+        for (int i = 0; i < items.size(); i++) {
+            final ByteBuffer serializedRecord = getSerializedRecord(serializedRecords, i);
+            if (serializedRecord != null) {
+                replyBuffer.put(serializedRecord);
+            } else {
+                MappingRecordSerializer.getInstance().serialize(replyBuffer, items.get(i).getMappingRecord());
             }
         }
-        return replyBuffer;
+    }
+
+    private static ByteBuffer getSerializedRecord(List<ByteBuffer> serializedRecords, int index) {
+        // Duplicated so that copying it doesn't move the position of the caller's buffer
+        return index < serializedRecords.size() && serializedRecords.get(index) != null
+                ? serializedRecords.get(index).duplicate() : null;
     }
 
     public MapReply deserialize(ByteBuffer replyBuffer) {
@@ -89,7 +135,6 @@ public final class MapReplySerializer {
     }
 
     private interface Length {
-        int RES = 2;
         int HEADER_SIZE = 12;
     }
 
@@ -51,6 +51,84 @@ public final class MapRequestSerializer {
     }
 
     public ByteBuffer serialize(MapRequest mapRequest) {
+        ByteBuffer requestBuffer = ByteBuffer.allocate(getSerializationSize(mapRequest));
+        serialize(requestBuffer, mapRequest);
+        return requestBuffer;
+    }
+
+    public int getSerializationSize(MapRequest mapRequest) {
+        int size = getHeaderSize(mapRequest);
+        if (mapRequest.getEidItem() != null) {
+            for (EidItem record : mapRequest.getEidItem()) {
+                size += 2 + LispAddressSerializer.getInstance().getAddressSize(record.getEid());
+            }
+        }
+        if (mapRequest.getMapReply() != null) {
+            size += MappingRecordSerializer.getInstance().getSerializationSize(
+                    mapRequest.getMapReply().getMappingRecord());
+        }
+        return size;
+    }
+
+    /**
+     * Serialize the Map-Request, including the piggybacked Map-Reply record if present, into the given buffer,
+     * starting at its current position. The buffer doesn't need to be zeroed and must have at least
+     * {@link #getSerializationSize(MapRequest)} bytes remaining.
+     *
+     * @param requestBuffer the buffer to write to
+     * @param mapRequest the Map-Request
+     */
+    public void serialize(ByteBuffer requestBuffer, MapRequest mapRequest) {
+        serializeHeader(requestBuffer, mapRequest,
+                mapRequest.getEidItem() != null ? mapRequest.getEidItem().size() : 0);
+        if (mapRequest.getEidItem() != null) {
+            for (EidItem record : mapRequest.getEidItem()) {
+                requestBuffer.put((byte) 0);
+                requestBuffer.put((byte) MaskUtil.getMaskForAddress(record.getEid().getAddress()));
+                LispAddressSerializer.getInstance().serialize(requestBuffer, record.getEid());
+            }
+        }
+        if (mapRequest.getMapReply() != null) {
+            MappingRecordSerializer.getInstance().serialize(requestBuffer, mapRequest.getMapReply().getMappingRecord());
+        }
+    }
+
+    /**
+     * Serialize everything but the EID record of a Map-Request with a single EID record, i.e. the header, the source
+     * EID and the ITR-RLOCs. The EID records and the Map-Reply record of the Map-Request, if any, are ignored. The
+     * result can be used to build Map-Requests which only differ in their EID record, like the SMRs sent to all
+     * subscribers of a mapping, with {@link #serializeSingleRecord(ByteBuffer, byte[], Eid)}.
+     *
+     * @param mapRequest the Map-Request
+     * @return the serialized Map-Request template
+     */
+    public byte[] serializeSingleRecordTemplate(MapRequest mapRequest) {
+        ByteBuffer templateBuffer = ByteBuffer.allocate(getHeaderSize(mapRequest));
+        serializeHeader(templateBuffer, mapRequest, 1);
+        return templateBuffer.array();
+    }
+
+    public int getSingleRecordSerializationSize(byte[] template, Eid eid) {
+        return template.length + 2 + LispAddressSerializer.getInstance().getAddressSize(eid);
+    }
+
+    /**
+     * Serialize a Map-Request from a template returned by {@link #serializeSingleRecordTemplate(MapRequest)} and an
+     * EID record, into the given buffer, starting at its current position. The buffer must have at least
+     * {@link #getSingleRecordSerializationSize(byte[], Eid)} bytes remaining.
+     *
+     * @param requestBuffer the buffer to write to
+     * @param template the serialized Map-Request template
+     * @param eid the EID of the EID record
+     */
+    public void serializeSingleRecord(ByteBuffer requestBuffer, byte[] template, Eid eid) {
+        requestBuffer.put(template);
+        requestBuffer.put((byte) 0);
+        requestBuffer.put((byte) MaskUtil.getMaskForAddress(eid.getAddress()));
+        LispAddressSerializer.getInstance().serialize(requestBuffer, eid);
+    }
+
+    private static int getHeaderSize(MapRequest mapRequest) {
         int size = Length.HEADER_SIZE;
         if (mapRequest.getSourceEid() != null && mapRequest.getSourceEid().getEid() != null) {
             size += LispAddressSerializer.getInstance().getAddressSize(mapRequest.getSourceEid().getEid());
@@ -62,12 +140,10 @@ public final class MapRequestSerializer {
                 size += LispAddressSerializer.getInstance().getAddressSize(address.getRloc());
             }
         }
-        if (mapRequest.getEidItem() != null) {
-            for (EidItem record : mapRequest.getEidItem()) {
-                size += 2 + LispAddressSerializer.getInstance().getAddressSize(record.getEid());
-            }
-        }
-        ByteBuffer requestBuffer = ByteBuffer.allocate(size);
+        return size;
+    }
+
+    private static void serializeHeader(ByteBuffer requestBuffer, MapRequest mapRequest, int recordCount) {
         requestBuffer.put((byte) ((byte) (MessageType.MapRequest.getIntValue() << 4)
                 | ByteUtil.boolToBit(BooleanUtils.isTrue(mapRequest.getAuthoritative()), Flags.AUTHORITATIVE)
                 | ByteUtil.boolToBit(BooleanUtils.isTrue(mapRequest.getMapDataPresent()), Flags.MAP_DATA_PRESENT)
@@ -85,12 +161,7 @@ public final class MapRequestSerializer {
             requestBuffer.put((byte) 0);
 
         }
-        if (mapRequest.getEidItem() != null) {
-            requestBuffer.put((byte) mapRequest.getEidItem().size());
-        } else {
-            requestBuffer.put((byte) 0);
-
-        }
+        requestBuffer.put((byte) recordCount);
         requestBuffer.putLong(NumberUtil.asLong(mapRequest.getNonce()));
         if (mapRequest.getSourceEid() != null && mapRequest.getSourceEid().getEid() != null) {
             LispAddressSerializer.getInstance().serialize(requestBuffer, mapRequest.getSourceEid().getEid());
@@ -102,23 +173,6 @@ public final class MapRequestSerializer {
                 LispAddressSerializer.getInstance().serialize(requestBuffer, address.getRloc());
             }
         }
-        if (mapRequest.getEidItem() != null) {
-            for (EidItem record : mapRequest.getEidItem()) {
-                requestBuffer.put((byte) 0);
-                requestBuffer.put((byte) MaskUtil.getMaskForAddress(record.getEid().getAddress()));
-                LispAddressSerializer.getInstance().serialize(requestBuffer, record.getEid());
-            }
-        }
-        if (mapRequest.getMapReply() != null) {
-            ByteBuffer replyBuffer = ByteBuffer.allocate(MappingRecordSerializer.getInstance()
-                    .getSerializationSize(mapRequest.getMapReply().getMappingRecord()));
-            MappingRecordSerializer.getInstance().serialize(replyBuffer, mapRequest.getMapReply().getMappingRecord());
-            ByteBuffer combinedBuffer = ByteBuffer.allocate(requestBuffer.capacity() + replyBuffer.capacity());
-            combinedBuffer.put(requestBuffer.array());
-            combinedBuffer.put(replyBuffer.array());
-            return combinedBuffer;
-        }
-        return requestBuffer;
     }
 
     @SuppressWarnings("checkstyle:IllegalCatch")
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.lisp.serializer;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestSerializer.Flags;
+import org.opendaylight.lispflowmapping.lisp.serializer.address.LispAddressSerializer;
+import org.opendaylight.lispflowmapping.lisp.serializer.address.LispAddressSerializerContext;
+import org.opendaylight.lispflowmapping.lisp.serializer.exception.LispSerializationException;
+import org.opendaylight.lispflowmapping.lisp.util.ByteUtil;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.iana.afn.safi.rev130704.AddressFamily;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MessageType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRloc;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRlocBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRlocKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.MapReplyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.SourceEidBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestnotification.MapRequestBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Flyweight view of a serialized Map-Request. Creating the view only checks the message type and locates the
+ * ITR-RLOCs and EID records, without allocating anything but the view itself. The flags and the nonce are read from
+ * the buffer, addresses are deserialized each time they are asked for.
+ *
+ * <p>The view reads from the buffer it was created from, which must not be modified while the view is in use.
+ */
+public final class MapRequestView {
+    private static final Logger LOG = LoggerFactory.getLogger(MapRequestView.class);
+
+    private static final short AFI_NO_ADDRESS = 0;
+    private static final short AFI_IPV4 = (short) AddressFamily.IpV4.getIntValue();
+    private static final short AFI_IPV6 = (short) AddressFamily.IpV6.getIntValue();
+    private static final short AFI_DISTINGUISHED_NAME = (short) AddressFamily.DistinguishedName.getIntValue();
+    private static final short AFI_LCAF = (short) AddressFamily.LispCanonicalAddressFormat.getIntValue();
+    private static final short AFI_MAC = (short) AddressFamily._48BitMac.getIntValue();
+
+    private final ByteBuffer buffer;
+    private final int start;
+    private final int itrRlocCount;
+    private final int eidRecordCount;
+    private final int sourceEidPosition;
+    private final int itrRlocPosition;
+    private final int eidRecordPosition;
+    private final int mapReplyPosition;
+
+    /**
+     * Create a view of the Map-Request starting at the current position of the buffer. The position of the buffer is
+     * not changed.
+     *
+     * @param buffer the buffer holding the Map-Request
+     * @throws LispSerializationException if the buffer doesn't hold a well-formed Map-Request
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    public MapRequestView(ByteBuffer buffer) {
+        this.buffer = buffer;
+        start = buffer.position();
+        try {
+            final int type = ByteUtil.getUnsignedByte(buffer, start) >> 4;
+            if (MessageType.forValue(type) != MessageType.MapRequest) {
+                throw new LispSerializationException("Expected Map-Request packet (type 1), but was type " + type);
+            }
+            itrRlocCount = ByteUtil.getUnsignedByte(buffer, start + Position.ITR_RLOC_COUNT) + 1;
+            eidRecordCount = ByteUtil.getUnsignedByte(buffer, start + Position.RECORD_COUNT);
+
+            sourceEidPosition = start + Length.HEADER_SIZE;
+            itrRlocPosition = skipAddress(sourceEidPosition);
+            int position = itrRlocPosition;
+            for (int i = 0; i < itrRlocCount; i++) {
+                position = skipAddress(position);
+            }
+            eidRecordPosition = position;
+            for (int i = 0; i < eidRecordCount; i++) {
+                position = skipAddress(position + Length.EID_RECORD_HEADER);
+            }
+            mapReplyPosition = position;
+        } catch (LispSerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new LispSerializationException("Couldn't deserialize Map-Request (len="
+                    + buffer.capacity() + ")", e);
+        }
+    }
+
+    // Returns the position right after the address at the given position
+    private int skipAddress(int position) {
+        final short afi = buffer.getShort(position);
+        final int dataPosition = position + Length.AFI;
+        final int end;
+        if (afi == AFI_NO_ADDRESS) {
+            end = dataPosition;
+        } else if (afi == AFI_IPV4) {
+            end = dataPosition + Length.IPV4;
+        } else if (afi == AFI_IPV6) {
+            end = dataPosition + Length.IPV6;
+        } else if (afi == AFI_MAC) {
+            end = dataPosition + Length.MAC;
+        } else if (afi == AFI_LCAF) {
+            end = dataPosition + Length.LCAF_HEADER
+                    + ByteUtil.getUnsignedShort(buffer, dataPosition + Position.LCAF_LENGTH);
+        } else if (afi == AFI_DISTINGUISHED_NAME) {
+            int nul = dataPosition;
+            while (buffer.get(nul) != 0) {
+                nul++;
+            }
+            end = nul + 1;
+        } else {
+            throw new LispSerializationException("Unknown AFI: " + afi);
+        }
+        if (end > buffer.limit()) {
+            throw new LispSerializationException("Address at position " + position + " is truncated");
+        }
+        return end;
+    }
+
+    private ByteBuffer bufferAt(int position) {
+        return buffer.duplicate().position(position);
+    }
+
+    private int getItrRlocPosition(int index) {
+        if (index < 0 || index >= itrRlocCount) {
+            throw new IndexOutOfBoundsException("ITR-RLOC " + index + " of " + itrRlocCount);
+        }
+        int position = itrRlocPosition;
+        for (int i = 0; i < index; i++) {
+            position = skipAddress(position);
+        }
+        return position;
+    }
+
+    private int getEidRecordPosition(int index) {
+        if (index < 0 || index >= eidRecordCount) {
+            throw new IndexOutOfBoundsException("EID record " + index + " of " + eidRecordCount);
+        }
+        int position = eidRecordPosition;
+        for (int i = 0; i < index; i++) {
+            position = skipAddress(position + Length.EID_RECORD_HEADER);
+        }
+        return position;
+    }
+
+    private boolean getFlag(int position, byte flag) {
+        return ByteUtil.extractBit(buffer.get(start + position), flag);
+    }
+
+    public boolean isAuthoritative() {
+        return getFlag(Position.FLAGS, Flags.AUTHORITATIVE);
+    }
+
+    public boolean isMapDataPresent() {
+        return getFlag(Position.FLAGS, Flags.MAP_DATA_PRESENT);
+    }
+
+    public boolean isProbe() {
+        return getFlag(Position.FLAGS, Flags.PROBE);
+    }
+
+    public boolean isSmr() {
+        return getFlag(Position.FLAGS, Flags.SMR);
+    }
+
+    public boolean isPitr() {
+        return getFlag(Position.MORE_FLAGS, Flags.PITR);
+    }
+
+    public boolean isSmrInvoked() {
+        return getFlag(Position.MORE_FLAGS, Flags.SMR_INVOKED);
+    }
+
+    public long getNonce() {
+        return buffer.getLong(start + Position.NONCE);
+    }
+
+    public int getItrRlocCount() {
+        return itrRlocCount;
+    }
+
+    public int getEidRecordCount() {
+        return eidRecordCount;
+    }
+
+    public Eid getSourceEid() {
+        return LispAddressSerializer.getInstance().deserializeEid(bufferAt(sourceEidPosition),
+                new LispAddressSerializerContext(LispAddressSerializerContext.MASK_LEN_MISSING));
+    }
+
+    public Rloc getItrRloc(int index) {
+        return LispAddressSerializer.getInstance().deserializeRloc(bufferAt(getItrRlocPosition(index)));
+    }
+
+    public Eid getEid(int index) {
+        return EidRecordSerializer.getInstance().deserialize(bufferAt(getEidRecordPosition(index)));
+    }
+
+    /**
+     * Select the ITR-RLOC the Map-Reply is sent to, the same way {@code MapRequestUtil.selectItrRloc()} does for a
+     * deserialized Map-Request: the first IPv4 or IPv6 ITR-RLOC.
+     *
+     * @return the address of the selected ITR-RLOC, or null if there is no IPv4 or IPv6 ITR-RLOC
+     */
+    public InetAddress selectItrRloc() {
+        int position = itrRlocPosition;
+        for (int i = 0; i < itrRlocCount; i++) {
+            final short afi = buffer.getShort(position);
+            if (afi == AFI_IPV4 || afi == AFI_IPV6) {
+                final byte[] address = new byte[afi == AFI_IPV4 ? Length.IPV4 : Length.IPV6];
+                bufferAt(position + Length.AFI).get(address);
+                try {
+                    return InetAddress.getByAddress(address);
+                } catch (UnknownHostException e) {
+                    LOG.debug("Cannot convert ITR-RLOC to InetAddress", e);
+                    return null;
+                }
+            }
+            position = skipAddress(position);
+        }
+        return null;
+    }
+
+    /**
+     * Build a Map-Request object holding everything in the message, like
+     * {@link MapRequestSerializer#deserialize(ByteBuffer, InetAddress)} does. Unlike the latter, list entries are
+     * keyed by their index in the message rather than the string representation of their address, which is enough
+     * for processing the Map-Request locally.
+     *
+     * @param sourceRloc the source address of the message
+     * @return the Map-Request
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    public MapRequest toMapRequest(InetAddress sourceRloc) {
+        try {
+            final MapRequestBuilder builder = new MapRequestBuilder()
+                    .setAuthoritative(isAuthoritative())
+                    .setMapDataPresent(isMapDataPresent())
+                    .setProbe(isProbe())
+                    .setSmr(isSmr())
+                    .setPitr(isPitr())
+                    .setSmrInvoked(isSmrInvoked())
+                    .setNonce(getNonce())
+                    .setSourceEid(new SourceEidBuilder().setEid(getSourceEid()).build());
+
+            final ByteBuffer readBuffer = bufferAt(itrRlocPosition);
+            final List<ItrRloc> itrRlocs = new ArrayList<>(itrRlocCount);
+            for (int i = 0; i < itrRlocCount; i++) {
+                itrRlocs.add(new ItrRlocBuilder()
+                        .withKey(new ItrRlocKey(Integer.toString(i)))
+                        .setRloc(LispAddressSerializer.getInstance().deserializeRloc(readBuffer)).build());
+            }
+            builder.setItrRloc(itrRlocs);
+
+            final List<EidItem> eidItems = new ArrayList<>(eidRecordCount);
+            for (int i = 0; i < eidRecordCount; i++) {
+                eidItems.add(new EidItemBuilder()
+                        .withKey(new EidItemKey(Integer.toString(i)))
+                        .setEid(EidRecordSerializer.getInstance().deserialize(readBuffer)).build());
+            }
+            builder.setEidItem(eidItems);
+
+            if (isMapDataPresent() && mapReplyPosition < buffer.limit()) {
+                try {
+                    builder.setMapReply(new MapReplyBuilder().setMappingRecord(
+                            MappingRecordSerializer.getInstance().deserialize(bufferAt(mapReplyPosition))).build());
+                } catch (RuntimeException re) {
+                    LOG.warn("Couldn't deserialize Map-Reply encapsulated in Map-Request", re);
+                }
+            }
+            builder.setSourceRloc(LispAddressUtil.addressBinaryFromInet(sourceRloc));
+            return builder.build();
+        } catch (RuntimeException re) {
+            throw new LispSerializationException("Couldn't deserialize Map-Request (len="
+                    + buffer.capacity() + ")", re);
+        }
+    }
+
+    private interface Position {
+        int FLAGS = 0;
+        int MORE_FLAGS = 1;
+        int ITR_RLOC_COUNT = 2;
+        int RECORD_COUNT = 3;
+        int NONCE = 4;
+        // Relative to the end of the AFI
+        int LCAF_LENGTH = 4;
+    }
+
+    private interface Length {
+        int HEADER_SIZE = 12;
+        int AFI = 2;
+        int IPV4 = 4;
+        int IPV6 = 16;
+        int MAC = 6;
+        int LCAF_HEADER = 6;
+        int EID_RECORD_HEADER = 2;
+    }
+}
@@ -79,7 +79,7 @@ public final class MappingRecordSerializer {
         }
         replyBuffer.put((byte) (act.getIntValue() << 5
                 | ByteUtil.boolToBit(BooleanUtils.isTrue(record.getAuthoritative()), Flags.AUTHORITATIVE)));
-        replyBuffer.position(replyBuffer.position() + Length.RESERVED);
+        replyBuffer.put((byte) 0);
         replyBuffer.putShort(NumberUtil.asShort(record.getMapVersion()));
         if (record.getEid() != null && record.getEid().getAddress() != null) {
             LispAddressSerializer.getInstance().serialize(replyBuffer, record.getEid());
@@ -92,6 +92,20 @@ public final class MappingRecordSerializer {
         }
     }
 
+    /**
+     * Serialize the record into a buffer of its own, so that it can be copied into Map-Replies by
+     * {@link MapReplySerializer} instead of being encoded again for each of them.
+     *
+     * @param record the mapping record
+     * @return a read-only buffer with the serialized record, positioned at its start
+     */
+    public ByteBuffer serialize(MappingRecord record) {
+        ByteBuffer buffer = ByteBuffer.allocate(getSerializationSize(record));
+        serialize(buffer, record);
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
     public int getSerializationSize(MappingRecord record) {
         int size = Length.HEADER_SIZE;
         if (record.getEid() != null) {
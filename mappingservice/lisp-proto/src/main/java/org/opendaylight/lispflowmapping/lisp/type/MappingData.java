@@ -7,8 +7,10 @@
  */
 package org.opendaylight.lispflowmapping.lisp.type;
 
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.Optional;
+import org.opendaylight.lispflowmapping.lisp.serializer.MappingRecordSerializer;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
 import org.opendaylight.lispflowmapping.lisp.util.MappingRecordUtil;
 import org.opendaylight.lispflowmapping.lisp.util.Stringifier;
@@ -26,6 +28,7 @@ public class MappingData {
     private Date timestamp = null;
     private XtrId xtrId = null;
     private boolean mergeEnabled = false;
+    private ByteBuffer serializedRecord = null;
 
     public MappingData(MappingRecord record, Long timestamp) {
         this(record, new Date(timestamp));
@@ -46,6 +49,24 @@ public class MappingData {
 
     public synchronized void setRecord(MappingRecord record) {
         this.record = record;
+        this.serializedRecord = null;
+    }
+
+    /**
+     * Get the wire format of the mapping record, serialized the first time it is needed after the record is set.
+     * While the record is not replaced, Map-Replies containing it can pass these bytes to
+     * {@link org.opendaylight.lispflowmapping.lisp.serializer.MapReplySerializer} instead of encoding it again.
+     *
+     * @return a read-only buffer with the serialized record, or null if there is no record
+     */
+    public synchronized ByteBuffer getSerializedRecord() {
+        if (record == null) {
+            return null;
+        }
+        if (serializedRecord == null) {
+            serializedRecord = MappingRecordSerializer.getInstance().serialize(record);
+        }
+        return serializedRecord.duplicate();
     }
 
     public synchronized Date getTimestamp() {
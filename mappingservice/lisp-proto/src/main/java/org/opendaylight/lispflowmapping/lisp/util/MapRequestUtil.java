@@ -11,6 +11,7 @@ import com.google.common.net.InetAddresses;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.lisp.address.types.rev151105.lisp.address.Address;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.lisp.address.types.rev151105.lisp.address.address.Ipv4;
@@ -70,6 +71,10 @@ public final class MapRequestUtil {
     }
 
     public static MapRequestBuilder prepareSMR(Eid srcEid, Rloc itrRloc) {
+        return prepareSMR(srcEid, List.of(itrRloc));
+    }
+
+    public static MapRequestBuilder prepareSMR(Eid srcEid, List<Rloc> itrRlocs) {
         MapRequestBuilder builder = new MapRequestBuilder();
         builder.setAuthoritative(false);
         builder.setMapDataPresent(false);
@@ -80,9 +85,11 @@ public final class MapRequestUtil {
 
         builder.setSourceEid(new SourceEidBuilder().setEid(srcEid).build());
         builder.setItrRloc(new ArrayList<ItrRloc>());
-        builder.getItrRloc().add(new ItrRlocBuilder()
-                .setItrRlocId(LispAddressStringifier.getString(itrRloc))
-                .setRloc(itrRloc).build());
+        for (Rloc itrRloc : itrRlocs) {
+            builder.getItrRloc().add(new ItrRlocBuilder()
+                    .setItrRlocId(LispAddressStringifier.getString(itrRloc))
+                    .setRloc(itrRloc).build());
+        }
         builder.setMapReply(null);
         builder.setNonce(new Random().nextLong());
 
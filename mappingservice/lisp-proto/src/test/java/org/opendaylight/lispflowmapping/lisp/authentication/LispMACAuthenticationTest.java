@@ -9,10 +9,12 @@ package org.opendaylight.lispflowmapping.lisp.authentication;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import org.junit.Before;
@@ -106,6 +108,39 @@ public class LispMACAuthenticationTest {
         assertArrayEquals(expectedResutl, result);
     }
 
+    /**
+     * Tests {@link LispMACAuthentication#getAuthenticationData} method with a direct buffer.
+     */
+    @Test
+    public void getAuthenticationDataTest_withDirectBuffer() throws InvalidKeyException, NoSuchAlgorithmException {
+        final byte[] expectedResult = getExpectedAuthData(byteBuffer);
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(byteBuffer.capacity());
+        directBuffer.put(byteBuffer.array());
+
+        assertArrayEquals(expectedResult, lispMACAuthentication.getAuthenticationData(directBuffer, KEY));
+        // buffer position is left untouched
+        assertEquals(byteBuffer.capacity(), directBuffer.position());
+    }
+
+    /**
+     * Tests {@link LispMACAuthentication#getAuthenticationData} method with alternating keys, which exercises the
+     * reuse of per-thread Mac instances.
+     */
+    @Test
+    public void getAuthenticationDataTest_withMultipleKeys() throws InvalidKeyException, NoSuchAlgorithmException {
+        final byte[] expectedResult = getExpectedAuthData(byteBuffer);
+        final byte[] otherKeyResult = lispMACAuthentication.getAuthenticationData(
+                ByteBuffer.wrap(byteBuffer.array()), "other");
+
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(expectedResult, lispMACAuthentication.getAuthenticationData(
+                    ByteBuffer.wrap(byteBuffer.array()), KEY));
+            assertArrayEquals(otherKeyResult, lispMACAuthentication.getAuthenticationData(
+                    ByteBuffer.wrap(byteBuffer.array()), "other"));
+        }
+        assertFalse(Arrays.equals(expectedResult, otherKeyResult));
+    }
+
     private static byte[] toBytePacket(String packetString) {
         final String[] tokens = packetString.split("\\s+");
         final ByteBuffer buffer = ByteBuffer.allocate(tokens.length);
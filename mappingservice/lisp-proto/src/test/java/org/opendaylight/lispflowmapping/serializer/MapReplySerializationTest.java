@@ -9,15 +9,18 @@ package org.opendaylight.lispflowmapping.serializer;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.opendaylight.lispflowmapping.TestUtils.assertHexEquals;
 import static org.opendaylight.lispflowmapping.TestUtils.hexToByteBuffer;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.List;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapReplySerializer;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
 import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv4Binary;
@@ -26,6 +29,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.typ
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecordBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord.Action;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItem;
@@ -325,4 +329,46 @@ public class MapReplySerializationTest {
         packet.position(packet.position() + 1);
         assertHexEquals((byte) 0x00, packet.get());
     }
+
+    @Test
+    public void serialize__CachedRecord() throws Exception {
+        MappingRecordBuilder recordBuilder = new MappingRecordBuilder();
+        recordBuilder.setEid(LispAddressUtil.asIpv4PrefixEid("0.0.0.1/32"));
+        recordBuilder.setRecordTtl(7);
+        recordBuilder.setLocatorRecord(new ArrayList<LocatorRecord>());
+        recordBuilder.getLocatorRecord().add(new LocatorRecordBuilder()
+                .setPriority(Uint8.valueOf(1))
+                .setWeight(Uint8.valueOf(1))
+                .setRloc(LispAddressUtil.asIpv4Rloc("0.0.0.2"))
+                .setLocatorId("someId")
+                .build());
+        MappingRecord record = recordBuilder.build();
+
+        MapReplyBuilder mrBuilder = new MapReplyBuilder();
+        mrBuilder.setNonce(5L);
+        mrBuilder.setMappingRecordItem(new ArrayList<MappingRecordItem>());
+        mrBuilder.getMappingRecordItem().add(
+                new MappingRecordItemBuilder().setMappingRecord(record).setMappingRecordItemId("xyzzy").build());
+        MapReply mapReply = mrBuilder.build();
+        ByteBuffer expected = MapReplySerializer.getInstance().serialize(mapReply);
+
+        MappingData mappingData = new MappingData(record);
+        ByteBuffer serializedRecord = mappingData.getSerializedRecord();
+        assertTrue(serializedRecord.isReadOnly());
+        assertEquals(expected.capacity() - 12, serializedRecord.remaining());
+        assertEquals(serializedRecord, mappingData.getSerializedRecord());
+
+        List<ByteBuffer> serializedRecords = List.of(serializedRecord);
+        ByteBuffer packet = ByteBuffer.allocate(
+                MapReplySerializer.getInstance().getSerializationSize(mapReply, serializedRecords));
+        MapReplySerializer.getInstance().serialize(packet, mapReply, serializedRecords);
+        assertArrayEquals(expected.array(), packet.array());
+        assertEquals(0, serializedRecord.position());
+
+        // A new record invalidates the cached bytes, and the bytes passed in are copied instead of the record
+        mappingData.setRecord(recordBuilder.setRecordTtl(8).build());
+        packet.clear();
+        MapReplySerializer.getInstance().serialize(packet, mapReply, List.of(mappingData.getSerializedRecord()));
+        assertEquals(8, packet.getInt(12));
+    }
 }
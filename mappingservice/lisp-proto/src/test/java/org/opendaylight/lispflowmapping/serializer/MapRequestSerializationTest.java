@@ -23,6 +23,7 @@ import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.lisp.addres
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv4Binary;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6Binary;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecord;
@@ -348,4 +349,36 @@ public class MapRequestSerializationTest {
         assertArrayEquals(expected.array(),
                 MapRequestSerializer.getInstance().serialize(mapRequestBuilder.build()).array());
     }
+
+    /**
+     * Tests that a Map-Request serialized from a template has the same bytes as the Map-Request with the same EID
+     * record serialized in full, and that the EID records and Map-Reply of the template are ignored.
+     */
+    @Test
+    public void serializeSingleRecord__SameAsFullMapRequest() throws Exception {
+        final MapRequestBuilder mrBuilder = new MapRequestBuilder()
+                .setSmr(true)
+                .setNonce(13L)
+                .setSourceEid(new SourceEidBuilder().setEid(LispAddressUtil.asIpv4Eid("10.0.0.1")).build());
+        mrBuilder.setItrRloc(new ArrayList<ItrRloc>());
+        mrBuilder.getItrRloc().add(new ItrRlocBuilder().setRloc(LispAddressUtil.asIpv4Rloc("1.2.3.4"))
+                .setItrRlocId("foo").build());
+        mrBuilder.setEidItem(new ArrayList<EidItem>());
+        mrBuilder.getEidItem().add(new EidItemBuilder().setEid(LispAddressUtil.asIpv4PrefixEid("5.6.7.0/24"))
+                .setEidItemId("bar").build());
+        mrBuilder.getEidItem().add(new EidItemBuilder().setEid(LispAddressUtil.asIpv6PrefixEid("1:2::/64"))
+                .setEidItemId("baz").build());
+        final byte[] template = MapRequestSerializer.getInstance().serializeSingleRecordTemplate(mrBuilder.build());
+
+        final Eid eid = LispAddressUtil.asIpv6PrefixEid("1:2:3::/48");
+        mrBuilder.setEidItem(new ArrayList<EidItem>());
+        mrBuilder.getEidItem().add(new EidItemBuilder().setEid(eid).setEidItemId("qux").build());
+        final ByteBuffer expected = MapRequestSerializer.getInstance().serialize(mrBuilder.build());
+
+        final int size = MapRequestSerializer.getInstance().getSingleRecordSerializationSize(template, eid);
+        assertEquals(expected.capacity(), size);
+        final ByteBuffer actual = ByteBuffer.allocate(size);
+        MapRequestSerializer.getInstance().serializeSingleRecord(actual, template, eid);
+        assertArrayEquals(expected.array(), actual.array());
+    }
 }
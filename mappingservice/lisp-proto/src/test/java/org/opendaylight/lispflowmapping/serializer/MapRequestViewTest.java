@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.lispflowmapping.TestUtils.hexToByteBuffer;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestSerializer;
+import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestView;
+import org.opendaylight.lispflowmapping.lisp.serializer.exception.LispSerializationException;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.lisp.address.types.rev151105.SimpleAddress;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.yang.types.rev130715.MacAddress;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItem;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRloc;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRlocBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.SourceEidBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestnotification.MapRequestBuilder;
+
+public class MapRequestViewTest {
+    private static final SimpleAddress MAC = new SimpleAddress(new MacAddress("aa:bb:cc:dd:ee:ff"));
+
+    /**
+     * Tests that the view of a Map-Request with all kinds of address lengths returns the same data as
+     * {@link MapRequestSerializer#deserialize}.
+     */
+    @Test
+    public void view__MixedAddresses() throws Exception {
+        final List<ItrRloc> itrRlocs = new ArrayList<>();
+        itrRlocs.add(new ItrRlocBuilder().setItrRlocId("lcaf")
+                .setRloc(LispAddressUtil.asKeyValueAddressRloc(MAC, MAC)).build());
+        itrRlocs.add(new ItrRlocBuilder().setItrRlocId("ipv6").setRloc(LispAddressUtil.asIpv6Rloc("::1")).build());
+        itrRlocs.add(new ItrRlocBuilder().setItrRlocId("ipv4").setRloc(LispAddressUtil.asIpv4Rloc("1.2.3.4")).build());
+        final List<EidItem> eidItems = new ArrayList<>();
+        eidItems.add(new EidItemBuilder().setEidItemId("iid")
+                .setEid(LispAddressUtil.asIpv4PrefixBinaryEid(100L, "10.0.0.0/8")).build());
+        eidItems.add(new EidItemBuilder().setEidItemId("dn")
+                .setEid(LispAddressUtil.asDistinguishedNameEid("foo")).build());
+        eidItems.add(new EidItemBuilder().setEidItemId("mac")
+                .setEid(LispAddressUtil.asMacEid("aa:bb:cc:dd:ee:ff")).build());
+        final ByteBuffer buffer = MapRequestSerializer.getInstance().serialize(new MapRequestBuilder()
+                .setSmrInvoked(true)
+                .setNonce(13L)
+                .setSourceEid(new SourceEidBuilder().setEid(LispAddressUtil.asIpv4Eid("10.0.0.1")).build())
+                .setItrRloc(itrRlocs)
+                .setEidItem(eidItems)
+                .build());
+        buffer.flip();
+
+        final MapRequestView view = new MapRequestView(buffer);
+        assertEquals(0, buffer.position());
+        final MapRequest mr = MapRequestSerializer.getInstance().deserialize(buffer.duplicate(), null);
+
+        assertFalse(view.isAuthoritative());
+        assertFalse(view.isSmr());
+        assertTrue(view.isSmrInvoked());
+        assertEquals(13L, view.getNonce());
+        assertEquals(mr.getSourceEid().getEid(), view.getSourceEid());
+        assertEquals(3, view.getItrRlocCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(mr.getItrRloc().get(i).getRloc(), view.getItrRloc(i));
+        }
+        assertEquals(3, view.getEidRecordCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(mr.getEidItem().get(i).getEid(), view.getEid(i));
+        }
+        // The LCAF ITR-RLOC is skipped
+        assertEquals(InetAddress.getByName("::1"), view.selectItrRloc());
+
+        final MapRequest request = view.toMapRequest(null);
+        assertEquals(mr.getNonce(), request.getNonce());
+        assertEquals(mr.getSmrInvoked(), request.getSmrInvoked());
+        assertEquals(mr.getSourceEid(), request.getSourceEid());
+        assertEquals(mr.getEidItem().get(2).getEid(), request.getEidItem().get(2).getEid());
+        assertEquals(mr.getItrRloc().get(2).getRloc(), request.getItrRloc().get(2).getRloc());
+    }
+
+    /**
+     * Tests the view of an encapsulated Map-Request, which doesn't start at the beginning of the buffer, with a
+     * Map-Reply record.
+     */
+    @Test
+    public void view__ContainsMapReply() throws Exception {
+        final ByteBuffer buffer = hexToByteBuffer("ff ff 16 80 00 "
+                + "01 " // single record
+                + "3d 8d 2a cd 39 c8 d6 08 00 00 00 01 c0 a8 88 0a "
+                + "00 20 00 01 01 02 03 04 "// end of map request
+                + "00 00 "
+                + "00 02 01 20 00 00 00 00 "
+                + "00 01 01 02 03 04 01 02 "
+                + "03 04 00 06 00 01 0a 0a "
+                + "0a 0a");
+        buffer.position(2);
+
+        final MapRequestView view = new MapRequestView(buffer);
+        assertTrue(view.isMapDataPresent());
+        assertTrue(view.isProbe());
+        assertTrue(view.isPitr());
+        assertEquals(0x3d8d2acd39c8d608L, view.getNonce());
+        assertEquals(InetAddress.getByName("192.168.136.10"), view.selectItrRloc());
+        assertEquals(LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.4/32"), view.getEid(0));
+
+        final MapRequest mr = view.toMapRequest(InetAddress.getByName("10.0.0.1"));
+        assertEquals(LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.4/32"), mr.getMapReply().getMappingRecord().getEid());
+        assertEquals(LispAddressUtil.addressBinaryFromInet(InetAddress.getByName("10.0.0.1")), mr.getSourceRloc());
+    }
+
+    /**
+     * Tests that there is no ITR-RLOC to select if none is IPv4 or IPv6.
+     */
+    @Test
+    public void selectItrRloc__NoIpItrRloc() throws Exception {
+        final List<ItrRloc> itrRlocs = new ArrayList<>();
+        itrRlocs.add(new ItrRlocBuilder().setItrRlocId("lcaf")
+                .setRloc(LispAddressUtil.asKeyValueAddressRloc(MAC, MAC)).build());
+        final ByteBuffer buffer = MapRequestSerializer.getInstance().serialize(new MapRequestBuilder()
+                .setNonce(1L)
+                .setItrRloc(itrRlocs)
+                .build());
+        buffer.flip();
+
+        assertNull(new MapRequestView(buffer).selectItrRloc());
+    }
+
+    @Test(expected = LispSerializationException.class)
+    public void view__WrongType() throws Exception {
+        new MapRequestView(hexToByteBuffer("20 00 00 01 3d 8d 2a cd 39 c8 d6 08 00 00 00 01 c0 a8 88 0a"));
+    }
+
+    @Test(expected = LispSerializationException.class)
+    public void view__Truncated() throws Exception {
+        new MapRequestView(hexToByteBuffer("10 00 00 01 3d 8d 2a cd 39 c8 d6 08 00 00 00 01 c0 a8 88 0a "
+                + "00 20 00 01 01 02"));
+    }
+}
@@ -8,6 +8,8 @@
 
 package org.opendaylight.lispflowmapping.mapcache;
 
+import java.util.Map;
+import java.util.function.BiPredicate;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
@@ -15,6 +17,8 @@ import org.opendaylight.lispflowmapping.interfaces.mapcache.IAuthKeyDb;
 import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
 import org.opendaylight.lispflowmapping.mapcache.lisp.LispMapCacheStringifier;
 import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.lisp.address.types.rev151105.lisp.address.address.SourceDestKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv4PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6PrefixBinary;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.slf4j.Logger;
@@ -67,7 +71,23 @@ public class AuthKeyDb implements IAuthKeyDb {
         table.put(key, new MappingEntry<>(SubKeys.AUTH_KEY, authKey));
     }
 
+    /*
+     * Binary IP prefixes are indexed in the radix tries of the VNI table, so the longest prefix match is a single
+     * lookup. Other maskable addresses fall back to trying every mask length in turn.
+     */
     private MappingAuthkey getAuthKeyLpm(Eid prefix, ILispDAO db) {
+        if (prefix.getAddress() instanceof Ipv4PrefixBinary || prefix.getAddress() instanceof Ipv6PrefixBinary) {
+            Map<String, Object> entry = db.getBest(MaskUtil.normalize(prefix));
+            if (entry == null) {
+                return null;
+            }
+            Object password = entry.get(SubKeys.AUTH_KEY);
+            return password instanceof MappingAuthkey ? (MappingAuthkey) password : null;
+        }
+        return getAuthKeyLpmByMaskLength(prefix, db);
+    }
+
+    private MappingAuthkey getAuthKeyLpmByMaskLength(Eid prefix, ILispDAO db) {
         short maskLength = MaskUtil.getMaskForAddress(prefix.getAddress());
         while (maskLength >= 0) {
             Eid key = MaskUtil.normalize(prefix, maskLength);
@@ -117,6 +137,12 @@ public class AuthKeyDb implements IAuthKeyDb {
         }
     }
 
+    @Override
+    public void walkAuthenticationKeys(Long vni, Eid prefix, Eid after, BiPredicate<Eid, MappingAuthkey> visitor) {
+        VniTableWalker.walk(dao, SubKeys.AUTH_KEY, vni, prefix, after,
+            (eid, value) -> !(value instanceof MappingAuthkey) || visitor.test(eid, (MappingAuthkey) value));
+    }
+
     @Override
     public String printKeys() {
         return LispMapCacheStringifier.printKeys(dao);
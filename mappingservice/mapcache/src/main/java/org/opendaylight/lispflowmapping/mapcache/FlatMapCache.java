@@ -10,6 +10,7 @@ package org.opendaylight.lispflowmapping.mapcache;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
@@ -82,6 +83,16 @@ public class FlatMapCache implements IMapCache {
         dao.removeSpecific(key, subKey);
     }
 
+    /**
+     * Not supported, since keys are not ordered in a flat table, so a walk could not be resumed after a prefix.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void walkMappings(Long vni, Eid prefix, Eid after, BiPredicate<Eid, Object> visitor) {
+        throw new UnsupportedOperationException("Flat map-cache keys are not ordered, mappings cannot be walked");
+    }
+
     @Override
     public String printMappings() {
         return LispMapCacheStringifier.printFMCMappings(dao);
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.lispflowmapping.mapcache;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
+import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
+import org.opendaylight.lispflowmapping.interfaces.mapcache.ILispMapCache;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.lispflowmapping.mapcache.lisp.LispMapCacheStringifier;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+
+/**
+ * Map-cache which works like {@link SimpleMapCache}, but keeps its mappings off-heap, in a {@link MappedRecordLog}
+ * in the given directory. The prefix index is kept in the DAO and only holds handles to the log entries, mapping
+ * records are deserialized from the log each time they are looked up. Mappings in the log are loaded into the index
+ * when the map-cache is created, so they survive a restart. All other data, such as source RLOCs, is only kept in
+ * the DAO.
+ *
+ * <p>Values stored in this map-cache must be {@link MappingData} objects.
+ *
+ * <p>The log locks itself for appends, removals and compaction, and the index is updated by the DAO, so changes to
+ * different keys don't block each other. Like with {@link SimpleMapCache}, changes to the same key must not run
+ * concurrently: the entry replaced by one of them could be left live in the log until the next restart.
+ */
+public class MappedMapCache implements ILispMapCache, AutoCloseable {
+    private final ILispDAO dao;
+    private final SimpleMapCache index;
+    private final MappedRecordLog log;
+
+    public MappedMapCache(ILispDAO dao, Path directory) {
+        this(dao, directory, MappedRecordLog.DEFAULT_SEGMENT_SIZE);
+    }
+
+    MappedMapCache(ILispDAO dao, Path directory, int segmentSize) {
+        this.dao = dao;
+        index = new SimpleMapCache(dao);
+        log = new MappedRecordLog(directory, segmentSize);
+        log.open(this::recoverEntry);
+    }
+
+    // Entries are recovered in the order they were appended, so a later entry for the same key replaces the earlier
+    // one, which could only be left live by a crash
+    private void recoverEntry(MappedRecordLog.Entry entry, Eid key, XtrId xtrId) {
+        if (xtrId != null) {
+            removeEntry(getXtrIdEntry(key, xtrId));
+            index.addMapping(key, xtrId, entry);
+        } else {
+            removeEntry(index.getData(key, SubKeys.RECORD));
+            index.addMapping(key, entry);
+        }
+    }
+
+    private Object getXtrIdEntry(Eid key, XtrId xtrId) {
+        ILispDAO xtrIdTable = (ILispDAO) index.getData(key, SubKeys.XTRID_RECORDS);
+        return xtrIdTable != null ? xtrIdTable.getSpecific(xtrId, SubKeys.RECORD) : null;
+    }
+
+    private List<Object> getXtrIdEntries(Eid key) {
+        final List<Object> entries = new ArrayList<>();
+        ILispDAO xtrIdTable = (ILispDAO) index.getData(key, SubKeys.XTRID_RECORDS);
+        if (xtrIdTable != null) {
+            xtrIdTable.getAll((keyId, valueKey, value) -> {
+                if (valueKey.equals(SubKeys.RECORD)) {
+                    entries.add(value);
+                }
+            });
+        }
+        return entries;
+    }
+
+    private void removeEntry(Object entry) {
+        if (entry != null) {
+            log.remove((MappedRecordLog.Entry) entry);
+        }
+    }
+
+    private Object read(Object entry) {
+        return entry != null ? log.read((MappedRecordLog.Entry) entry) : null;
+    }
+
+    private static MappingData toMappingData(Object value) {
+        if (value instanceof MappingData mappingData) {
+            return mappingData;
+        }
+        throw new IllegalArgumentException("Only MappingData values can be stored, got " + value);
+    }
+
+    @Override
+    public void addMapping(Eid key, Object value) {
+        addMapping(key, value, null);
+    }
+
+    @Override
+    public void addMapping(Eid key, Object value, Set<IpAddressBinary> sourceRlocs) {
+        final MappedRecordLog.Entry entry = log.append(key, null, toMappingData(value));
+        final Object oldEntry = index.getData(key, SubKeys.RECORD);
+        index.addMapping(key, entry, sourceRlocs);
+        removeEntry(oldEntry);
+    }
+
+    @Override
+    public void addMapping(Eid key, XtrId xtrId, Object value) {
+        final MappedRecordLog.Entry entry = log.append(key, xtrId, toMappingData(value));
+        final Object oldEntry = getXtrIdEntry(key, xtrId);
+        index.addMapping(key, xtrId, entry);
+        removeEntry(oldEntry);
+    }
+
+    @Override
+    public Object getMapping(Eid srcKey, Eid dstKey) {
+        return read(index.getMapping(srcKey, dstKey));
+    }
+
+    @Override
+    public Object getMapping(Eid key, XtrId xtrId) {
+        return read(index.getMapping(key, xtrId));
+    }
+
+    @Override
+    public List<Object> getAllXtrIdMappings(Eid key) {
+        final List<Object> entries = index.getAllXtrIdMappings(key);
+        if (entries == null) {
+            return null;
+        }
+        final List<Object> mappings = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            mappings.add(read(entry));
+        }
+        return mappings;
+    }
+
+    @Override
+    public Eid getWidestNegativeMapping(Eid key) {
+        return index.getWidestNegativeMapping(key);
+    }
+
+    @Override
+    public Eid getCoveringLessSpecific(Eid key) {
+        return index.getCoveringLessSpecific(key);
+    }
+
+    @Override
+    public Eid getParentPrefix(Eid key) {
+        return index.getParentPrefix(key);
+    }
+
+    @Override
+    public Eid getSiblingPrefix(Eid key) {
+        return index.getSiblingPrefix(key);
+    }
+
+    @Override
+    public Eid getVirtualParentSiblingPrefix(Eid key) {
+        return index.getVirtualParentSiblingPrefix(key);
+    }
+
+    @Override
+    public Set<Eid> getSubtree(Eid key) {
+        return index.getSubtree(key);
+    }
+
+    @Override
+    public void removeMapping(Eid key) {
+        final Object entry = index.getData(key, SubKeys.RECORD);
+        final List<Object> xtrIdEntries = getXtrIdEntries(key);
+        index.removeMapping(key);
+        removeEntry(entry);
+        xtrIdEntries.forEach(this::removeEntry);
+    }
+
+    @Override
+    public void removeMapping(Eid key, XtrId xtrId) {
+        removeXtrIdMappings(key, Arrays.asList(xtrId));
+    }
+
+    @Override
+    public void removeXtrIdMappings(Eid key, List<XtrId> xtrIds) {
+        final List<Object> entries = new ArrayList<>(xtrIds.size());
+        for (XtrId xtrId : xtrIds) {
+            entries.add(getXtrIdEntry(key, xtrId));
+        }
+        index.removeXtrIdMappings(key, xtrIds);
+        entries.forEach(this::removeEntry);
+    }
+
+    @Override
+    public void addData(Eid key, String subKey, Object data) {
+        if (SubKeys.RECORD.equals(subKey)) {
+            addMapping(key, data);
+        } else {
+            index.addData(key, subKey, data);
+        }
+    }
+
+    @Override
+    public Object getData(Eid key, String subKey) {
+        final Object data = index.getData(key, subKey);
+        return SubKeys.RECORD.equals(subKey) ? read(data) : data;
+    }
+
+    @Override
+    public void removeData(Eid key, String subKey) {
+        final List<Object> entries;
+        if (SubKeys.RECORD.equals(subKey)) {
+            entries = new ArrayList<>();
+            entries.add(index.getData(key, SubKeys.RECORD));
+        } else if (SubKeys.XTRID_RECORDS.equals(subKey)) {
+            entries = getXtrIdEntries(key);
+        } else {
+            entries = List.of();
+        }
+        index.removeData(key, subKey);
+        entries.forEach(this::removeEntry);
+    }
+
+    @Override
+    public void walkMappings(Long vni, Eid prefix, Eid after, BiPredicate<Eid, Object> visitor) {
+        index.walkMappings(vni, prefix, after, (eid, entry) -> visitor.test(eid, read(entry)));
+    }
+
+    /**
+     * Remove all mappings, from both the DAO and the log.
+     */
+    public void removeAll() {
+        dao.removeAll();
+        log.removeAll();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    int getLogSegmentCount() {
+        return log.getSegmentCount();
+    }
+
+    @Override
+    public String printMappings() {
+        return LispMapCacheStringifier.printSMCMappings(dao, this::read);
+    }
+
+    @Override
+    public String prettyPrintMappings() {
+        return LispMapCacheStringifier.prettyPrintSMCMappings(dao, this::read);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.lispflowmapping.mapcache;
+
+import java.util.Date;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
+
+/**
+ * Mapping read from a {@link MappedRecordLog}. Registrations are refreshed by updating the timestamp of the mapping
+ * returned by the map-cache, so the timestamp is written back to the log.
+ */
+final class MappedMappingData extends MappingData {
+    private final MappedRecordLog log;
+    private final MappedRecordLog.Entry entry;
+
+    MappedMappingData(MappingRecord record, Date timestamp, MappedRecordLog log, MappedRecordLog.Entry entry) {
+        super(record, timestamp);
+        this.log = log;
+        this.entry = entry;
+    }
+
+    @Override
+    public synchronized void setTimestamp(Date timestamp) {
+        super.setTimestamp(timestamp);
+        // Also called by the constructor of the superclass, before the entry is set
+        if (entry != null) {
+            log.setTimestamp(entry, timestamp);
+        }
+    }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.lispflowmapping.mapcache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeMap;
+import org.opendaylight.lispflowmapping.lisp.serializer.MappingRecordSerializer;
+import org.opendaylight.lispflowmapping.lisp.serializer.address.LispAddressSerializer;
+import org.opendaylight.lispflowmapping.lisp.serializer.address.LispAddressSerializerContext;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.Ipv4AddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.Ipv6AddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of mappings, stored in memory-mapped segment files. Mapping records are kept in the wire format
+ * produced by {@link MappingRecordSerializer}, followed by the metadata which is not part of the wire format, so
+ * they take no space on the Java heap and survive a restart of the process. Each entry has the following layout:
+ *
+ * <pre>
+ *  0 int    length of the entry, written last
+ *  4 byte   state, live or dead
+ *  5 byte   flags, telling which of the optional fields are present
+ *  6 byte   mask length of the key, 0xFF if the key has none
+ *  7 byte   length of the source RLOC of the record, 0 if it has none
+ *  8 long   timestamp of the mapping
+ * 16        optional fields: xTR-ID the entry is keyed by, xTR-ID of the mapping, xTR-ID, site ID and timestamp of
+ *           the record, source RLOC of the record
+ *    short  length of the key
+ *           key, serialized by {@link LispAddressSerializer}
+ *           record, serialized by {@link MappingRecordSerializer}
+ * </pre>
+ *
+ * <p>Entries are never modified, except for their state and timestamp. Replaced and removed entries are marked dead,
+ * and segments with few live entries left are compacted into the active segment. Entries are read without locking,
+ * a reader which raced with compaction still reads the previous copy, which stays mapped until it is no longer
+ * referenced.
+ */
+final class MappedRecordLog implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(MappedRecordLog.class);
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int SEGMENT_MAGIC = 0x4C464D31;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+
+    private static final int ENTRY_HEADER_SIZE = 16;
+    private static final int STATE_OFFSET = 4;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final byte DEAD = 0;
+    private static final byte LIVE = 1;
+    private static final byte NO_MASK = (byte) 0xFF;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int MERGE_ENABLED = 0x01;
+    private static final int KEYED_BY_XTR_ID = 0x02;
+    private static final int HAS_XTR_ID = 0x04;
+    private static final int HAS_RECORD_XTR_ID = 0x08;
+    private static final int HAS_RECORD_SITE_ID = 0x10;
+    private static final int HAS_RECORD_TIMESTAMP = 0x20;
+
+    private static final int XTR_ID_SIZE = 16;
+    private static final int SITE_ID_SIZE = 8;
+
+    // Segments other than the active one are compacted when less than a quarter of their bytes are live
+    private static final int COMPACTION_RATIO = 4;
+
+    /**
+     * Handle to an entry of the log. The handle stays valid when the entry is moved by compaction.
+     */
+    static final class Entry {
+        private volatile Location location;
+
+        private Entry(Location location) {
+            this.location = location;
+        }
+    }
+
+    /**
+     * Called for each live entry found in the log when it is opened.
+     */
+    interface RecoveryVisitor {
+        void visitEntry(Entry entry, Eid key, XtrId xtrId);
+    }
+
+    private record Location(Segment segment, int offset) {
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final List<Entry> entries = new ArrayList<>();
+        private int end = SEGMENT_HEADER_SIZE;
+        private long liveBytes;
+
+        Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private long nextSegmentId;
+    private boolean recovered;
+
+    MappedRecordLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Map the existing segments of the log, and visit their live entries in the order they were appended.
+     *
+     * @param visitor called for each live entry
+     */
+    synchronized void open(RecoveryVisitor visitor) {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path path : stream) {
+                    final long id = getSegmentId(path);
+                    if (id < 0) {
+                        LOG.warn("Ignoring file {} which is not a mapping log segment", path);
+                        continue;
+                    }
+                    segments.put(id, mapSegment(id, path, Files.size(path)));
+                    nextSegmentId = Math.max(nextSegmentId, id + 1);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open mapping log in " + directory, e);
+        }
+
+        long entryCount = 0;
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment.buffer.capacity() < SEGMENT_HEADER_SIZE || segment.buffer.getInt(0) != SEGMENT_MAGIC) {
+                LOG.warn("Ignoring mapping log segment {} with unknown format", segment.path);
+                segments.remove(segment.id);
+                continue;
+            }
+            entryCount += recoverSegment(segment, visitor);
+            active = segment;
+        }
+        recovered = true;
+        LOG.info("Recovered {} mappings from {} segments of mapping log in {}", entryCount, segments.size(),
+                directory);
+
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            if (segment != active && isSparse(segment)) {
+                compact(segment);
+            }
+        }
+    }
+
+    /*
+     * Returns the id of the segment from the name of its file, or -1 if it is not the name of a segment.
+     */
+    private static long getSegmentId(Path path) {
+        final String name = path.getFileName().toString();
+        final String id = name.substring(0, name.length() - SEGMENT_SUFFIX.length());
+        if (id.isEmpty() || !id.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            // Too many digits
+            return -1;
+        }
+    }
+
+    private long recoverSegment(Segment segment, RecoveryVisitor visitor) {
+        final ByteBuffer buffer = segment.buffer.duplicate();
+        long count = 0;
+        int offset = SEGMENT_HEADER_SIZE;
+        while (offset + ENTRY_HEADER_SIZE <= buffer.capacity()) {
+            final int length = buffer.getInt(offset);
+            if (length < ENTRY_HEADER_SIZE || offset + length > buffer.capacity()) {
+                // Unused space, or an entry which was not completely written
+                break;
+            }
+            if (buffer.get(offset + STATE_OFFSET) == LIVE) {
+                final Entry entry = new Entry(new Location(segment, offset));
+                segment.entries.add(entry);
+                segment.liveBytes += length;
+                buffer.position(offset + ENTRY_HEADER_SIZE);
+                final byte flags = buffer.get(offset + 5);
+                final XtrId xtrId = (flags & KEYED_BY_XTR_ID) != 0 ? readXtrId(buffer) : null;
+                visitor.visitEntry(entry, readKey(buffer, offset, flags), xtrId);
+                count++;
+            }
+            offset = align(offset + length);
+        }
+        segment.end = offset;
+        return count;
+    }
+
+    /**
+     * Append a mapping to the log.
+     *
+     * @param key the key the mapping is stored with
+     * @param xtrId the xTR-ID the mapping is stored with, null if it's not an xTR-ID specific mapping
+     * @param mappingData the mapping
+     * @return the handle of the new entry
+     */
+    synchronized Entry append(Eid key, XtrId xtrId, MappingData mappingData) {
+        final MappingRecord record = mappingData.getRecord();
+        final byte[] sourceRloc = getSourceRloc(record.getSourceRloc());
+        int flags = mappingData.isMergeEnabled() ? MERGE_ENABLED : 0;
+        int length = ENTRY_HEADER_SIZE;
+        if (xtrId != null) {
+            flags |= KEYED_BY_XTR_ID;
+            length += XTR_ID_SIZE;
+        }
+        if (mappingData.getXtrId() != null) {
+            flags |= HAS_XTR_ID;
+            length += XTR_ID_SIZE;
+        }
+        if (record.getXtrId() != null) {
+            flags |= HAS_RECORD_XTR_ID;
+            length += XTR_ID_SIZE;
+        }
+        if (record.getSiteId() != null) {
+            flags |= HAS_RECORD_SITE_ID;
+            length += SITE_ID_SIZE;
+        }
+        if (record.getTimestamp() != null) {
+            flags |= HAS_RECORD_TIMESTAMP;
+            length += Long.BYTES;
+        }
+        final int keyLength = LispAddressSerializer.getInstance().getAddressSize(key);
+        length += sourceRloc.length + Short.BYTES + keyLength
+                + MappingRecordSerializer.getInstance().getSerializationSize(record);
+
+        final Location location = allocate(length);
+        final ByteBuffer buffer = location.segment.buffer.duplicate();
+        final short mask = MaskUtil.getMaskForAddress(key.getAddress());
+        final Date timestamp = mappingData.getTimestamp();
+        buffer.position(location.offset + STATE_OFFSET);
+        buffer.put(LIVE);
+        buffer.put((byte) flags);
+        buffer.put(mask < 0 ? NO_MASK : (byte) mask);
+        buffer.put((byte) sourceRloc.length);
+        buffer.putLong(timestamp != null ? timestamp.getTime() : NO_TIMESTAMP);
+        if (xtrId != null) {
+            buffer.put(xtrId.getValue());
+        }
+        if (mappingData.getXtrId() != null) {
+            buffer.put(mappingData.getXtrId().getValue());
+        }
+        if (record.getXtrId() != null) {
+            buffer.put(record.getXtrId().getValue());
+        }
+        if (record.getSiteId() != null) {
+            buffer.put(record.getSiteId().getValue());
+        }
+        if (record.getTimestamp() != null) {
+            buffer.putLong(record.getTimestamp());
+        }
+        buffer.put(sourceRloc);
+        buffer.putShort((short) keyLength);
+        LispAddressSerializer.getInstance().serialize(buffer, key);
+        MappingRecordSerializer.getInstance().serialize(buffer, record);
+
+        final Entry entry = new Entry(location);
+        commit(location, length, entry);
+        return entry;
+    }
+
+    /**
+     * Read a mapping from the log. The returned object is deserialized on each call, changes to its timestamp are
+     * written back to the log.
+     *
+     * @param entry the handle of the entry
+     * @return the mapping
+     */
+    MappingData read(Entry entry) {
+        final Location location = entry.location;
+        final ByteBuffer buffer = location.segment.buffer.duplicate();
+        final int offset = location.offset;
+        final byte flags = buffer.get(offset + 5);
+        final int sourceRlocLength = Byte.toUnsignedInt(buffer.get(offset + 7));
+        final long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET);
+
+        buffer.position(offset + ENTRY_HEADER_SIZE);
+        if ((flags & KEYED_BY_XTR_ID) != 0) {
+            buffer.position(buffer.position() + XTR_ID_SIZE);
+        }
+        final XtrId xtrId = (flags & HAS_XTR_ID) != 0 ? readXtrId(buffer) : null;
+        final XtrId recordXtrId = (flags & HAS_RECORD_XTR_ID) != 0 ? readXtrId(buffer) : null;
+        SiteId siteId = null;
+        if ((flags & HAS_RECORD_SITE_ID) != 0) {
+            final byte[] value = new byte[SITE_ID_SIZE];
+            buffer.get(value);
+            siteId = new SiteId(value);
+        }
+        final Long recordTimestamp = (flags & HAS_RECORD_TIMESTAMP) != 0 ? buffer.getLong() : null;
+        IpAddressBinary sourceRloc = null;
+        if (sourceRlocLength > 0) {
+            final byte[] value = new byte[sourceRlocLength];
+            buffer.get(value);
+            sourceRloc = sourceRlocLength == 4 ? new IpAddressBinary(new Ipv4AddressBinary(value))
+                    : new IpAddressBinary(new Ipv6AddressBinary(value));
+        }
+        buffer.position(buffer.position() + Short.BYTES + buffer.getShort(buffer.position()));
+
+        final MappingRecordBuilder builder = MappingRecordSerializer.getInstance().deserializeToBuilder(buffer);
+        builder.setXtrId(recordXtrId);
+        builder.setSiteId(siteId);
+        builder.setTimestamp(recordTimestamp);
+        builder.setSourceRloc(sourceRloc);
+
+        final MappedMappingData mappingData = new MappedMappingData(builder.build(),
+                timestamp != NO_TIMESTAMP ? new Date(timestamp) : null, this, entry);
+        mappingData.setXtrId(xtrId);
+        mappingData.setMergeEnabled((flags & MERGE_ENABLED) != 0);
+        return mappingData;
+    }
+
+    /**
+     * Update the timestamp of an entry in place.
+     *
+     * @param entry the handle of the entry
+     * @param timestamp the new timestamp, may be null
+     */
+    synchronized void setTimestamp(Entry entry, Date timestamp) {
+        final Location location = entry.location;
+        location.segment.buffer.putLong(location.offset + TIMESTAMP_OFFSET,
+                timestamp != null ? timestamp.getTime() : NO_TIMESTAMP);
+    }
+
+    /**
+     * Mark an entry as dead. Segments which are left with few live entries are compacted.
+     *
+     * @param entry the handle of the entry
+     */
+    synchronized void remove(Entry entry) {
+        final Location location = entry.location;
+        final Segment segment = location.segment;
+        if (segment.buffer.get(location.offset + STATE_OFFSET) != LIVE) {
+            return;
+        }
+        segment.buffer.put(location.offset + STATE_OFFSET, DEAD);
+        segment.liveBytes -= segment.buffer.getInt(location.offset);
+
+        // Segments are only compacted once all of them were scanned, replaced entries are removed while scanning
+        if (recovered && segment != active && isSparse(segment)) {
+            compact(segment);
+        }
+    }
+
+    /**
+     * Remove all entries, deleting all segments of the log.
+     */
+    synchronized void removeAll() {
+        for (Segment segment : new ArrayList<>(segments.values())) {
+            deleteSegment(segment);
+        }
+        active = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    private static boolean isSparse(Segment segment) {
+        return segment.liveBytes * COMPACTION_RATIO < segment.end;
+    }
+
+    private void compact(Segment segment) {
+        LOG.debug("Compacting mapping log segment {}, {} of {} bytes live", segment.path, segment.liveBytes,
+                segment.end);
+        for (Entry entry : segment.entries) {
+            final Location location = entry.location;
+            if (location.segment != segment || segment.buffer.get(location.offset + STATE_OFFSET) != LIVE) {
+                continue;
+            }
+            final int length = segment.buffer.getInt(location.offset);
+            final Location target = allocate(length);
+            final ByteBuffer source = segment.buffer.duplicate();
+            source.position(location.offset + Integer.BYTES).limit(location.offset + length);
+            final ByteBuffer destination = target.segment.buffer.duplicate();
+            destination.position(target.offset + Integer.BYTES);
+            destination.put(source);
+            commit(target, length, entry);
+            entry.location = target;
+        }
+        deleteSegment(segment);
+    }
+
+    private static void commit(Location location, int length, Entry entry) {
+        final Segment segment = location.segment;
+        segment.end = align(location.offset + length);
+        // The end of the segment is marked before the length of the entry is written, so that an entry cut short by
+        // a crash, and whatever was left behind it by a previous crash, are never scanned
+        if (segment.end + Integer.BYTES <= segment.buffer.capacity()) {
+            segment.buffer.putInt(segment.end, 0);
+        }
+        segment.buffer.putInt(location.offset, length);
+        segment.liveBytes += length;
+        segment.entries.add(entry);
+    }
+
+    private Location allocate(int length) {
+        if (length > segmentSize - SEGMENT_HEADER_SIZE) {
+            throw new IllegalArgumentException("Mapping of " + length + " bytes does not fit in a log segment");
+        }
+        if (active == null || active.end + length > active.buffer.capacity()) {
+            if (active != null && active.liveBytes == 0) {
+                deleteSegment(active);
+            }
+            active = createSegment(nextSegmentId++);
+        }
+        return new Location(active, active.end);
+    }
+
+    private Segment createSegment(long id) {
+        final Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+        final Segment segment;
+        try {
+            Files.createDirectories(directory);
+            segment = mapSegment(id, path, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create mapping log segment " + path, e);
+        }
+        segment.buffer.putInt(0, SEGMENT_MAGIC);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment.id);
+        segment.entries.clear();
+        // The mapping itself is released when the buffer is no longer referenced by concurrent readers
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete mapping log segment {}", segment.path, e);
+        }
+    }
+
+    private static Segment mapSegment(long id, Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new Segment(id, path, channel.map(MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    private static Eid readKey(ByteBuffer buffer, int offset, byte flags) {
+        final int sourceRlocLength = Byte.toUnsignedInt(buffer.get(offset + 7));
+        int skip = sourceRlocLength;
+        skip += (flags & HAS_XTR_ID) != 0 ? XTR_ID_SIZE : 0;
+        skip += (flags & HAS_RECORD_XTR_ID) != 0 ? XTR_ID_SIZE : 0;
+        skip += (flags & HAS_RECORD_SITE_ID) != 0 ? SITE_ID_SIZE : 0;
+        skip += (flags & HAS_RECORD_TIMESTAMP) != 0 ? Long.BYTES : 0;
+        buffer.position(buffer.position() + skip + Short.BYTES);
+
+        final byte mask = buffer.get(offset + 6);
+        return LispAddressSerializer.getInstance().deserializeEid(buffer,
+                new LispAddressSerializerContext(mask == NO_MASK ? LispAddressSerializerContext.MASK_LEN_MISSING
+                        : (short) Byte.toUnsignedInt(mask)));
+    }
+
+    private static XtrId readXtrId(ByteBuffer buffer) {
+        final byte[] value = new byte[XTR_ID_SIZE];
+        buffer.get(value);
+        return new XtrId(value);
+    }
+
+    private static byte[] getSourceRloc(IpAddressBinary sourceRloc) {
+        if (sourceRloc == null) {
+            return new byte[0];
+        } else if (sourceRloc.getIpv4AddressBinary() != null) {
+            return sourceRloc.getIpv4AddressBinary().getValue();
+        } else {
+            return sourceRloc.getIpv6AddressBinary().getValue();
+        }
+    }
+
+    // Entries start at 8 byte boundaries, so that their timestamps are aligned
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+}
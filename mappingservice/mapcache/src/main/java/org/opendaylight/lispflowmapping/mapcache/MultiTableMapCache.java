@@ -10,6 +10,7 @@ package org.opendaylight.lispflowmapping.mapcache;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
@@ -245,6 +246,11 @@ public class MultiTableMapCache implements IMapCache {
         }
     }
 
+    @Override
+    public void walkMappings(Long vni, Eid prefix, Eid after, BiPredicate<Eid, Object> visitor) {
+        VniTableWalker.walk(dao, SubKeys.RECORD, vni, prefix, after, visitor);
+    }
+
     @Override
     public String printMappings() {
         return LispMapCacheStringifier.printMTMCMappings(dao);
@@ -8,13 +8,13 @@
 
 package org.opendaylight.lispflowmapping.mapcache;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiPredicate;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.IRowVisitor;
 import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
@@ -100,15 +100,15 @@ public class SimpleMapCache implements ILispMapCache {
     // Returns the mapping corresponding to the longest prefix match for eid. eid must be a simple (maskable or not)
     // address
     private Object getMappingLpmEid(Eid eid, XtrId xtrId, ILispDAO lispDAO) {
-        SimpleImmutableEntry<Eid, Map<String, ?>> daoEntry = lispDAO.getBestPair(MaskUtil.normalize(eid));
+        Map<String, ?> daoEntry = lispDAO.getBest(MaskUtil.normalize(eid));
         if (daoEntry != null) {
             if (xtrId != null) {
-                ILispDAO xtrIdTable = (ILispDAO) daoEntry.getValue().get(SubKeys.XTRID_RECORDS);
+                ILispDAO xtrIdTable = (ILispDAO) daoEntry.get(SubKeys.XTRID_RECORDS);
                 if (xtrIdTable != null) {
                     return xtrIdTable.getSpecific(xtrId, SubKeys.RECORD);
                 }
             } else {
-                return daoEntry.getValue().get(SubKeys.RECORD);
+                return daoEntry.get(SubKeys.RECORD);
             }
         }
         return null;
@@ -291,6 +291,11 @@ public class SimpleMapCache implements ILispMapCache {
         }
     }
 
+    @Override
+    public void walkMappings(Long vni, Eid prefix, Eid after, BiPredicate<Eid, Object> visitor) {
+        VniTableWalker.walk(dao, SubKeys.RECORD, vni, prefix, after, visitor);
+    }
+
     @Override
     public String printMappings() {
         return LispMapCacheStringifier.printSMCMappings(dao);
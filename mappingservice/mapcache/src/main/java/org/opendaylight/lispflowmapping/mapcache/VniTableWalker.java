@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.opendaylight.lispflowmapping.mapcache;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
+import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
+import org.opendaylight.lispflowmapping.lisp.util.MaskUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv4PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.augmented.lisp.address.address.Ipv6PrefixBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+
+/**
+ * Ordered walk over the IP prefixes stored in the per virtual network tables of a map-cache. Virtual networks are
+ * visited in increasing order of their instance ID, and the prefixes of each table in the order defined by
+ * {@link ILispDAO#getNextPrefix(Eid, boolean)}. The walk looks up one prefix at a time, so it can be resumed from
+ * the last visited prefix without copying the table, even if the table was modified in the meantime.
+ */
+final class VniTableWalker {
+
+    private VniTableWalker() {
+        // Utility class, should not be instantiated
+    }
+
+    /**
+     * Visit the data stored under subKey for the prefixes in dao, in order.
+     *
+     * @param dao the top level table, keyed by virtual network
+     * @param subKey the subKey of the data to be visited, entries without it are skipped
+     * @param vni only visit this virtual network, all of them if null. Ignored when prefix is set.
+     * @param prefix only visit the prefixes covered by this one (including itself), all of them if null
+     * @param after start after this prefix, from the beginning if null
+     * @param visitor called with each prefix and its data, the walk stops when it returns false
+     */
+    static void walk(ILispDAO dao, String subKey, Long vni, Eid prefix, Eid after,
+            BiPredicate<Eid, Object> visitor) {
+        final Eid normalizedPrefix = prefix == null ? null : MaskUtil.normalize(prefix);
+        final Long onlyVni = normalizedPrefix == null ? vni : Long.valueOf(getVni(normalizedPrefix));
+        final long afterVni = after == null ? -1 : getVni(after);
+
+        for (Long tableVni : getVnis(dao)) {
+            if (onlyVni != null && !onlyVni.equals(tableVni) || tableVni < afterVni) {
+                continue;
+            }
+            ILispDAO table = (ILispDAO) dao.getSpecific(tableVni, SubKeys.VNI);
+            if (table == null) {
+                continue;
+            }
+
+            Eid key;
+            if (tableVni == afterVni) {
+                key = table.getNextPrefix(after, false);
+            } else {
+                key = table.getNextPrefix(normalizedPrefix, true);
+            }
+
+            while (key != null) {
+                // Prefixes covered by the filter are contiguous in the walk order, stop at the first one outside
+                if (normalizedPrefix != null && !covers(normalizedPrefix, key)) {
+                    break;
+                }
+                Object value = table.getSpecific(key, subKey);
+                if (value != null && !visitor.test(key, value)) {
+                    return;
+                }
+                key = table.getNextPrefix(key, false);
+            }
+        }
+    }
+
+    private static long getVni(Eid eid) {
+        if (eid.getVirtualNetworkId() == null) {
+            return 0;
+        } else {
+            return eid.getVirtualNetworkId().getValue().toJava();
+        }
+    }
+
+    private static NavigableSet<Long> getVnis(ILispDAO dao) {
+        final NavigableSet<Long> vnis = new TreeSet<>();
+        dao.getAll((keyId, valueKey, value) -> {
+            if (SubKeys.VNI.equals(valueKey) && keyId instanceof Long) {
+                vnis.add((Long) keyId);
+            }
+        });
+        return vnis;
+    }
+
+    /*
+     * Only the addresses are compared, the virtual network of the prefix selected the table already. Keys may be
+     * stored without an instance ID in virtual network 0, so comparing it could fail for a prefix which has one.
+     */
+    private static boolean covers(Eid prefix, Eid key) {
+        if (prefix.getAddress() instanceof Ipv4PrefixBinary && !(key.getAddress() instanceof Ipv4PrefixBinary)
+                || prefix.getAddress() instanceof Ipv6PrefixBinary && !(key.getAddress() instanceof Ipv6PrefixBinary)) {
+            return false;
+        }
+        short mask = MaskUtil.getMaskForAddress(prefix.getAddress());
+        return MaskUtil.getMaskForAddress(key.getAddress()) >= mask
+                && MaskUtil.normalize(key, mask).getAddress().equals(prefix.getAddress());
+    }
+}
@@ -8,6 +8,7 @@
 package org.opendaylight.lispflowmapping.mapcache.lisp;
 
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
 import org.opendaylight.lispflowmapping.interfaces.dao.IRowVisitor;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
@@ -245,6 +246,17 @@ public final class LispMapCacheStringifier {
     }
 
     public static String printSMCMappings(ILispDAO dao) {
+        return printSMCMappings(dao, UnaryOperator.identity());
+    }
+
+    /**
+     * Print the mappings of a simple map-cache which does not store its records in the DAO directly.
+     *
+     * @param dao the DAO of the map-cache
+     * @param recordReader returns the record for the value stored under {@link SubKeys#RECORD}
+     * @return the formatted String
+     */
+    public static String printSMCMappings(ILispDAO dao, UnaryOperator<Object> recordReader) {
         final StringBuilder sb = new StringBuilder();
         sb.append("Keys\tValues\n");
 
@@ -256,6 +268,9 @@ public final class LispMapCacheStringifier {
                 if (!lastKey.equals(key)) {
                     sb.append("\n" + key + "\t");
                 }
+                if (valueKey.equals(SubKeys.RECORD)) {
+                    value = recordReader.apply(value);
+                }
                 sb.append(valueKey + "=" + value + "\t");
                 lastKey = key;
             }
@@ -283,15 +298,26 @@ public final class LispMapCacheStringifier {
         return sb.toString();
     }
 
-    @SuppressWarnings("unchecked")
     public static String prettyPrintSMCMappings(ILispDAO dao) {
+        return prettyPrintSMCMappings(dao, UnaryOperator.identity());
+    }
+
+    /**
+     * Pretty print the mappings of a simple map-cache which does not store its records in the DAO directly.
+     *
+     * @param dao the DAO of the map-cache
+     * @param recordReader returns the record for the value stored under {@link SubKeys#RECORD}
+     * @return the formatted String
+     */
+    @SuppressWarnings("unchecked")
+    public static String prettyPrintSMCMappings(ILispDAO dao, UnaryOperator<Object> recordReader) {
         final StringBuilder sb = new StringBuilder();
 
         final IRowVisitor mappingVisitor = (new IRowVisitor() {
             public void visitRow(Object keyId, String valueKey, Object value) {
                 switch (valueKey) {
                     case SubKeys.RECORD:
-                        MappingData md = (MappingData) value;
+                        MappingData md = (MappingData) recordReader.apply(value);
                         sb.append(Stringifier.getString(md.getRecord(), 2));
                         sb.append("\n");
                         break;
@@ -10,6 +10,7 @@ package org.opendaylight.lispflowmapping.mapcache;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -40,6 +41,8 @@ public class AuthKeyDbTest {
     private static final Eid EID_IPV4_PREFIX_1_VNI = LispAddressUtil
             .asIpv4PrefixEid(IPV4_STRING_1 + IPV4_PREFIX_STRING, new InstanceIdType(VNI_100));
     private static final Eid EID_IPV4 = LispAddressUtil.asIpv4Eid(IPV4_STRING_1);
+    private static final Eid EID_IPV4_PREFIX_BINARY = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.4/32");
+    private static final Eid EID_IPV6_PREFIX_BINARY = LispAddressUtil.asIpv6PrefixBinaryEid("1:2:3:4::1/128");
     private static final Eid NORMALIZED_EID_IPV4 = MaskUtil.normalize(EID_IPV4);
     private static final MappingAuthkey MAPPING_AUTHKEY = new MappingAuthkeyBuilder()
             .setKeyString("pass")
@@ -76,6 +79,34 @@ public class AuthKeyDbTest {
         assertEquals(MAPPING_AUTHKEY, authKeyDb.getAuthenticationKey(EID_IPV4_PREFIX_1_VNI));
     }
 
+    /**
+     * Tests {@link AuthKeyDb#getAuthenticationKey} method with binary IPv4 prefix, which is resolved with a single
+     * longest prefix match lookup.
+     */
+    @Test
+    public void getAuthenticationKeyTest_withIpv4PrefixBinary() {
+        Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
+        Mockito.when(tableMock.getBest(MaskUtil.normalize(EID_IPV4_PREFIX_BINARY)))
+                .thenReturn(Map.<String, Object>of(SubKeys.AUTH_KEY, MAPPING_AUTHKEY));
+
+        assertEquals(MAPPING_AUTHKEY, authKeyDb.getAuthenticationKey(EID_IPV4_PREFIX_BINARY));
+        Mockito.verify(tableMock).getBest(Mockito.any());
+        Mockito.verify(tableMock, Mockito.never()).getSpecific(Mockito.any(), Mockito.anyString());
+    }
+
+    /**
+     * Tests {@link AuthKeyDb#getAuthenticationKey} method with binary IPv6 prefix and no covering key.
+     */
+    @Test
+    public void getAuthenticationKeyTest_withIpv6PrefixBinaryNoMatch() {
+        Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
+        Mockito.when(tableMock.getBest(MaskUtil.normalize(EID_IPV6_PREFIX_BINARY))).thenReturn(null);
+
+        assertNull(authKeyDb.getAuthenticationKey(EID_IPV6_PREFIX_BINARY));
+        Mockito.verify(tableMock).getBest(Mockito.any());
+        Mockito.verify(tableMock, Mockito.never()).getSpecific(Mockito.any(), Mockito.anyString());
+    }
+
     /**
      * Tests {@link AuthKeyDb#getAuthenticationKey} method with non maskable address.
      */
@@ -98,4 +98,12 @@ public class FlatMapCacheTest {
         flatMapCache.removeData(EID_TEST, SubKeys.RECORD);
         verify(daoMock).removeSpecific(NORMALIZED_EID, SubKeys.RECORD);
     }
+
+    /**
+     * Tests that {@link FlatMapCache#walkMappings} is not supported.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void walkMappingsTest() {
+        flatMapCache.walkMappings(null, null, null, (eid, value) -> true);
+    }
 }
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.mapcache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.opendaylight.yangtools.yang.common.UintConversions.fromJava;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opendaylight.lispflowmapping.inmemorydb.HashMapDb;
+import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
+import org.opendaylight.lispflowmapping.lisp.serializer.MappingRecordSerializer;
+import org.opendaylight.lispflowmapping.lisp.type.MappingData;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.Ipv4AddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.SiteId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.locatorrecords.LocatorRecordBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecord.Action;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
+
+public class MappedMapCacheTest {
+    private static final int SEGMENT_SIZE = 4096;
+    private static final Eid EID_IPV4_PREFIX = LispAddressUtil.asIpv4PrefixBinaryEid(100L, "1.2.3.0/24");
+    private static final Eid EID_IPV4 = LispAddressUtil.asIpv4PrefixBinaryEid(100L, "1.2.3.4/32");
+    private static final Eid EID_IPV4_OTHER_VNI = LispAddressUtil.asIpv4PrefixBinaryEid(200L, "1.2.3.4/32");
+    private static final XtrId XTR_ID_1 = new XtrId(new byte[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+    private static final XtrId XTR_ID_2 = new XtrId(new byte[] {2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2, 2});
+    private static final SiteId SITE_ID = new SiteId(new byte[] {3, 3, 3, 3, 3, 3, 3, 3});
+    private static final IpAddressBinary SOURCE_RLOC = new IpAddressBinary(
+            new Ipv4AddressBinary(new byte[] {10, 0, 0, 1}));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private MappedMapCache mapCache;
+
+    @Before
+    public void init() throws IOException {
+        directory = folder.newFolder().toPath();
+        mapCache = new MappedMapCache(new HashMapDb(), directory, SEGMENT_SIZE);
+    }
+
+    @After
+    public void cleanup() {
+        mapCache.close();
+    }
+
+    private void restart() {
+        mapCache.close();
+        mapCache = new MappedMapCache(new HashMapDb(), directory, SEGMENT_SIZE);
+    }
+
+    /**
+     * Tests that mappings, including the fields which are not part of the wire format, are looked up the same way as
+     * in {@link SimpleMapCache}, before and after a restart.
+     */
+    @Test
+    public void addMappingTest() {
+        final MappingData mappingData = getMappingData(EID_IPV4_PREFIX, 10, 1000L);
+        mappingData.setXtrId(XTR_ID_1);
+        mappingData.setMergeEnabled(true);
+        mapCache.addMapping(EID_IPV4_PREFIX, mappingData);
+        mapCache.addMapping(EID_IPV4_PREFIX, XTR_ID_1, mappingData);
+        mapCache.addData(EID_IPV4_PREFIX, SubKeys.TIME_BUCKET_ID, 5);
+
+        assertMappingData(mappingData, mapCache.getMapping(null, EID_IPV4));
+        assertMappingData(mappingData, mapCache.getMapping(EID_IPV4, XTR_ID_1));
+        assertMappingData(mappingData, mapCache.getData(EID_IPV4_PREFIX, SubKeys.RECORD));
+        assertNull(mapCache.getMapping(null, EID_IPV4_OTHER_VNI));
+        assertNull(mapCache.getMapping(EID_IPV4, XTR_ID_2));
+        assertEquals(5, mapCache.getData(EID_IPV4_PREFIX, SubKeys.TIME_BUCKET_ID));
+
+        restart();
+        assertMappingData(mappingData, mapCache.getMapping(null, EID_IPV4));
+        assertMappingData(mappingData, mapCache.getMapping(EID_IPV4, XTR_ID_1));
+        assertEquals(1, mapCache.getAllXtrIdMappings(EID_IPV4).size());
+        // Only the mappings are kept in the log
+        assertNull(mapCache.getData(EID_IPV4_PREFIX, SubKeys.TIME_BUCKET_ID));
+    }
+
+    /**
+     * Tests that refreshing the timestamp of a mapping returned by the map-cache is written back to the log.
+     */
+    @Test
+    public void refreshTimestampTest() {
+        mapCache.addMapping(EID_IPV4_PREFIX, getMappingData(EID_IPV4_PREFIX, 10, 1000L));
+        ((MappingData) mapCache.getMapping(null, EID_IPV4)).setTimestamp(new Date(2000L));
+        assertEquals(new Date(2000L), ((MappingData) mapCache.getMapping(null, EID_IPV4)).getTimestamp());
+
+        restart();
+        assertEquals(new Date(2000L), ((MappingData) mapCache.getMapping(null, EID_IPV4)).getTimestamp());
+    }
+
+    /**
+     * Tests that replaced and removed mappings stay that way after a restart.
+     */
+    @Test
+    public void replaceAndRemoveMappingTest() {
+        final MappingData mappingData = getMappingData(EID_IPV4_PREFIX, 20, 1000L);
+        mapCache.addMapping(EID_IPV4_PREFIX, getMappingData(EID_IPV4_PREFIX, 10, 1000L));
+        mapCache.addMapping(EID_IPV4_PREFIX, mappingData);
+        mapCache.addMapping(EID_IPV4_PREFIX, XTR_ID_1, mappingData);
+        mapCache.addMapping(EID_IPV4_PREFIX, XTR_ID_2, mappingData);
+        mapCache.addMapping(EID_IPV4_OTHER_VNI, getMappingData(EID_IPV4_OTHER_VNI, 30, 1000L));
+        mapCache.removeMapping(EID_IPV4_PREFIX, XTR_ID_2);
+
+        restart();
+        assertMappingData(mappingData, mapCache.getMapping(null, EID_IPV4));
+        assertEquals(1, mapCache.getAllXtrIdMappings(EID_IPV4).size());
+        assertNull(mapCache.getMapping(EID_IPV4, XTR_ID_2));
+
+        mapCache.removeMapping(EID_IPV4_PREFIX);
+        restart();
+        assertNull(mapCache.getMapping(null, EID_IPV4));
+        assertNull(mapCache.getMapping(EID_IPV4, XTR_ID_1));
+        assertEquals(30, ((MappingData) mapCache.getMapping(null, EID_IPV4_OTHER_VNI)).getRecord()
+                .getRecordTtl().intValue());
+
+        mapCache.removeAll();
+        restart();
+        assertNull(mapCache.getMapping(null, EID_IPV4_OTHER_VNI));
+    }
+
+    /**
+     * Tests that segments left with few live mappings are compacted, without losing any of them.
+     */
+    @Test
+    public void compactionTest() {
+        final List<Eid> eids = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            eids.add(LispAddressUtil.asIpv4PrefixBinaryEid("10.0." + i + ".0/24"));
+        }
+        for (int round = 0; round < 200; round++) {
+            for (Eid eid : eids) {
+                mapCache.addMapping(eid, getMappingData(eid, round, 1000L));
+            }
+        }
+        // 16 mappings fit in a single segment, so with compaction only a few of them are left
+        assertTrue(mapCache.getLogSegmentCount() < 5);
+
+        restart();
+        for (Eid eid : eids) {
+            assertEquals(199, ((MappingData) mapCache.getMapping(null, eid)).getRecord().getRecordTtl().intValue());
+        }
+        final List<Eid> walked = new ArrayList<>();
+        mapCache.walkMappings(null, null, null, (eid, value) -> walked.add(eid));
+        assertEquals(eids.size(), walked.size());
+        assertFalse(mapCache.printMappings().isEmpty());
+    }
+
+    /**
+     * Tests that different keys are changed concurrently without losing any mapping, also when the changes trigger
+     * compaction.
+     */
+    @Test(timeout = 30000)
+    public void concurrentChangesTest() throws InterruptedException {
+        // The VNI table is created by the first mapping, before the threads start
+        final Eid firstEid = LispAddressUtil.asIpv4PrefixBinaryEid("10.1.0.0/24");
+        mapCache.addMapping(firstEid, getMappingData(firstEid, 10, 1000L));
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Eid eid = LispAddressUtil.asIpv4PrefixBinaryEid("10.0." + t + ".0/24");
+            threads.add(new Thread(() -> {
+                for (int round = 0; round < 200; round++) {
+                    mapCache.addMapping(eid, getMappingData(eid, round, 1000L));
+                    mapCache.addMapping(eid, XTR_ID_1, getMappingData(eid, round, 1000L));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        restart();
+        for (int t = 0; t < 4; t++) {
+            final Eid eid = LispAddressUtil.asIpv4PrefixBinaryEid("10.0." + t + ".0/24");
+            assertEquals(199, ((MappingData) mapCache.getMapping(null, eid)).getRecord().getRecordTtl().intValue());
+            assertEquals(1, mapCache.getAllXtrIdMappings(eid).size());
+        }
+        assertTrue(mapCache.getLogSegmentCount() < 5);
+    }
+
+    /**
+     * Tests that files in the log directory which only look like segments are ignored.
+     */
+    @Test
+    public void foreignSegmentFileTest() throws IOException {
+        mapCache.addMapping(EID_IPV4_PREFIX, getMappingData(EID_IPV4_PREFIX, 10, 1000L));
+        Files.write(directory.resolve("backup.segment"), new byte[] {1, 2, 3});
+        Files.write(directory.resolve(".segment"), new byte[0]);
+
+        restart();
+        assertEquals(10, ((MappingData) mapCache.getMapping(null, EID_IPV4)).getRecord().getRecordTtl().intValue());
+    }
+
+    private static MappingData getMappingData(Eid eid, int ttl, long timestamp) {
+        final LocatorRecord locatorRecord = new LocatorRecordBuilder()
+                .setLocatorId("locator")
+                .setPriority(fromJava((short) 1))
+                .setWeight(fromJava((short) 1))
+                .setMulticastPriority(fromJava((short) 255))
+                .setMulticastWeight(fromJava((short) 0))
+                .setLocalLocator(true)
+                .setRlocProbed(false)
+                .setRouted(true)
+                .setRloc(LispAddressUtil.asIpv4Rloc("192.168.1.1"))
+                .build();
+        final List<LocatorRecord> locatorRecords = new ArrayList<>();
+        locatorRecords.add(locatorRecord);
+        final MappingRecord record = new MappingRecordBuilder()
+                .setEid(eid)
+                .setRecordTtl(ttl)
+                .setAction(Action.NoAction)
+                .setAuthoritative(true)
+                .setMapVersion((short) 0)
+                .setLocatorRecord(locatorRecords)
+                .setXtrId(XTR_ID_2)
+                .setSiteId(SITE_ID)
+                .setSourceRloc(SOURCE_RLOC)
+                .setTimestamp(timestamp)
+                .build();
+        return new MappingData(record, timestamp);
+    }
+
+    private static void assertMappingData(MappingData expected, Object actual) {
+        final MappingData mappingData = (MappingData) actual;
+        assertEquals(expected.getTimestamp(), mappingData.getTimestamp());
+        assertEquals(expected.getXtrId(), mappingData.getXtrId());
+        assertEquals(expected.isMergeEnabled(), mappingData.isMergeEnabled());
+
+        // Compare with the record as it would be received on the wire, with the metadata added back
+        final MappingRecord record = expected.getRecord();
+        final ByteBuffer buffer = ByteBuffer.allocate(MappingRecordSerializer.getInstance()
+                .getSerializationSize(record));
+        MappingRecordSerializer.getInstance().serialize(buffer, record);
+        buffer.flip();
+        final MappingRecord expectedRecord = MappingRecordSerializer.getInstance().deserializeToBuilder(buffer)
+                .setXtrId(record.getXtrId())
+                .setSiteId(record.getSiteId())
+                .setSourceRloc(record.getSourceRloc())
+                .setTimestamp(record.getTimestamp())
+                .build();
+        assertEquals(expectedRecord, mappingData.getRecord());
+    }
+}
@@ -10,14 +10,15 @@ package org.opendaylight.lispflowmapping.mapcache;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
-import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.opendaylight.lispflowmapping.interfaces.dao.ILispDAO;
+import org.opendaylight.lispflowmapping.interfaces.dao.IRowVisitor;
 import org.opendaylight.lispflowmapping.interfaces.dao.MappingEntry;
 import org.opendaylight.lispflowmapping.interfaces.dao.SubKeys;
 import org.opendaylight.lispflowmapping.lisp.type.MappingData;
@@ -183,12 +184,10 @@ public class SimpleMapCacheTest {
     @SuppressWarnings("unchecked")
     public void getMappingLpmEidTest() throws Exception {
         final Map<String, Object> mapMock = Mockito.mock(Map.class);
-        final SimpleImmutableEntry<Eid, Map<String, ?>> mapPair = new SimpleImmutableEntry<>(
-                NORMALIZED_EID_IPV4_PREFIX_DST, mapMock);
         final MappingData mappingData = new MappingData(getDefaultMappingRecordBuilder().build());
 
         Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
-        Mockito.when(tableMock.getBestPair(NORMALIZED_EID_IPV4_PREFIX_DST)).thenReturn(mapPair);
+        Mockito.when(tableMock.getBest(NORMALIZED_EID_IPV4_PREFIX_DST)).thenReturn(mapMock);
         Mockito.when(mapMock.get(SubKeys.XTRID_RECORDS)).thenReturn(xtrIdDaoMock);
         // second invocation
         Mockito.when(xtrIdDaoMock.getSpecific(XTR_ID, SubKeys.RECORD)).thenReturn(mappingData);
@@ -204,13 +203,11 @@ public class SimpleMapCacheTest {
     @SuppressWarnings("unchecked")
     public void getMappingLpmEidTest_withNullXtrId() throws Exception {
         final Map<String, Object> mapMock = Mockito.mock(Map.class);
-        final SimpleImmutableEntry<Eid, Map<String, ?>> mapPair = new SimpleImmutableEntry<>(
-                NORMALIZED_EID_IPV4_PREFIX_DST, mapMock);
         Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
-        Mockito.when(tableMock.getBestPair(MaskUtil.normalize(EID_IPV4_PREFIX_DST, (short) 24))).thenReturn(mapPair);
+        Mockito.when(tableMock.getBest(MaskUtil.normalize(EID_IPV4_PREFIX_DST, (short) 24))).thenReturn(mapMock);
 
         simpleMapCache.getMapping(EID_IPV4_PREFIX_DST, (XtrId) null);
-        Mockito.verify(tableMock).getBestPair(NORMALIZED_EID_IPV4_PREFIX_DST);
+        Mockito.verify(tableMock).getBest(NORMALIZED_EID_IPV4_PREFIX_DST);
         Mockito.verify(mapMock).get(SubKeys.RECORD);
     }
 
@@ -222,11 +219,9 @@ public class SimpleMapCacheTest {
     public void getMappingTest_withMaskableEid() {
         final Eid ipv4PrefixEid = LispAddressUtil.asIpv4PrefixEid("192.168.0.225" + "/32");
         final Map<String, Object> entryMock = Mockito.mock(Map.class);
-        final SimpleImmutableEntry<Eid, Map<String, ?>> mapPair = new SimpleImmutableEntry<>(
-                NORMALIZED_EID_IPV4_PREFIX_DST, entryMock);
 
         Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
-        Mockito.when(tableMock.getBestPair(ipv4PrefixEid)).thenReturn(mapPair);
+        Mockito.when(tableMock.getBest(ipv4PrefixEid)).thenReturn(entryMock);
         Mockito.when(entryMock.get(SubKeys.XTRID_RECORDS)).thenReturn(xtrIdDaoMock);
         Mockito.when(xtrIdDaoMock.getSpecific(NORMALIZED_EID_IPV4_PREFIX_DST, SubKeys.XTRID_RECORDS)).thenReturn(null);
 
@@ -252,11 +247,9 @@ public class SimpleMapCacheTest {
     @SuppressWarnings("unchecked")
     public void getMappingTest_withNonMaskableEid() {
         final Map<String, Object> entryMock = Mockito.mock(Map.class);
-        final SimpleImmutableEntry<Eid, Map<String, ?>> mapPair = new SimpleImmutableEntry<>(
-                NORMALIZED_EID_IPV4_PREFIX_DST, entryMock);
 
         Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
-        Mockito.when(tableMock.getBestPair(NORMALIZED_EID_IPV4)).thenReturn(mapPair);
+        Mockito.when(tableMock.getBest(NORMALIZED_EID_IPV4)).thenReturn(entryMock);
         Mockito.when(entryMock.get(SubKeys.XTRID_RECORDS)).thenReturn(xtrIdDaoMock);
 
         simpleMapCache.getMapping(EID_IPV4, XTR_ID);
@@ -410,6 +403,68 @@ public class SimpleMapCacheTest {
         Mockito.verify(daoMock).putNestedTable(VNI_100, SubKeys.VNI);
     }
 
+    /**
+     * Tests {@link SimpleMapCache#walkMappings} method with a prefix filter and with resuming after a prefix.
+     */
+    @Test
+    public void walkMappingsTest() {
+        final ILispDAO table100Mock = Mockito.mock(ILispDAO.class);
+        final Eid prefix1 = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.0/24");
+        final Eid prefix2 = LispAddressUtil.asIpv4PrefixBinaryEid("192.168.0.0/24");
+        final Eid prefix3 = LispAddressUtil.asIpv4PrefixBinaryEid(VNI_100, "1.2.3.0/24");
+        final Eid filter = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.0.0/16");
+        Mockito.doAnswer(invocation -> {
+            final IRowVisitor visitor = invocation.getArgument(0);
+            visitor.visitRow(VNI_100, SubKeys.VNI, table100Mock);
+            visitor.visitRow(VNI_0, SubKeys.VNI, tableMock);
+            return null;
+        }).when(daoMock).getAll(Mockito.any(IRowVisitor.class));
+        Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
+        Mockito.when(daoMock.getSpecific(VNI_100, SubKeys.VNI)).thenReturn(table100Mock);
+        Mockito.when(tableMock.getNextPrefix(filter, true)).thenReturn(prefix1);
+        Mockito.when(tableMock.getNextPrefix(prefix1, false)).thenReturn(prefix2);
+        Mockito.when(tableMock.getSpecific(prefix1, SubKeys.RECORD)).thenReturn(mappingDataMock);
+        Mockito.when(table100Mock.getNextPrefix(null, true)).thenReturn(prefix3);
+        Mockito.when(table100Mock.getSpecific(prefix3, SubKeys.RECORD)).thenReturn(mappingDataMock);
+
+        // Stops at the first prefix not covered by the filter and does not look at other virtual networks
+        final List<Eid> visited = new ArrayList<>();
+        simpleMapCache.walkMappings(null, filter, null, (eid, value) -> visited.add(eid));
+        assertEquals(List.of(prefix1), visited);
+        Mockito.verify(table100Mock, Mockito.never()).getNextPrefix(Mockito.any(), Mockito.anyBoolean());
+
+        // Resumes after prefix1, skips prefix2 which has no mapping, and stops in virtual network 100 when told to
+        visited.clear();
+        simpleMapCache.walkMappings(null, null, prefix1, (eid, value) -> {
+            visited.add(eid);
+            return false;
+        });
+        assertEquals(List.of(prefix3), visited);
+        Mockito.verify(table100Mock, Mockito.never()).getNextPrefix(prefix3, false);
+    }
+
+    /**
+     * Tests {@link SimpleMapCache#walkMappings} method with a prefix filter in virtual network 0 given explicitly,
+     * covering prefixes stored without an instance ID.
+     */
+    @Test
+    public void walkMappingsTest_explicitVniZero() {
+        final Eid prefix = LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.0/24");
+        final Eid filter = LispAddressUtil.asIpv4PrefixBinaryEid(VNI_0, "1.2.0.0/16");
+        Mockito.doAnswer(invocation -> {
+            final IRowVisitor visitor = invocation.getArgument(0);
+            visitor.visitRow(VNI_0, SubKeys.VNI, tableMock);
+            return null;
+        }).when(daoMock).getAll(Mockito.any(IRowVisitor.class));
+        Mockito.when(daoMock.getSpecific(VNI_0, SubKeys.VNI)).thenReturn(tableMock);
+        Mockito.when(tableMock.getNextPrefix(filter, true)).thenReturn(prefix);
+        Mockito.when(tableMock.getSpecific(prefix, SubKeys.RECORD)).thenReturn(mappingDataMock);
+
+        final List<Eid> visited = new ArrayList<>();
+        simpleMapCache.walkMappings(null, filter, null, (eid, value) -> visited.add(eid));
+        assertEquals(List.of(prefix), visited);
+    }
+
     private static MappingRecordBuilder getDefaultMappingRecordBuilder() {
         return new MappingRecordBuilder()
                 .setEid(EID_IPV4)
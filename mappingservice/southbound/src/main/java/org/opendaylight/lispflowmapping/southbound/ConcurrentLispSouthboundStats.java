@@ -7,85 +7,198 @@
  */
 package org.opendaylight.lispflowmapping.southbound;
 
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MessageType;
 
 /**
  * Object to hold statistics about LISP southbound events.
  *
+ * <p>Counters are updated from all southbound event loops concurrently, so they are based on {@link LongAdder},
+ * which keeps a per-thread cell under contention instead of serializing the writers. Resetting does not touch the
+ * counters themselves, it records a baseline which is subtracted when reading, so no increment is lost while a
+ * reset is in progress. Values wrap around to 0 after reaching {@link Long#MAX_VALUE}.
+ *
  * @author Lorand Jakab
  *
  */
 public class ConcurrentLispSouthboundStats {
     public static final int MAX_LISP_TYPES = getMaxMessageTypeValue();
 
-    private long[] rx = new long[MAX_LISP_TYPES + 1];
-    private long[] tx = new long[MAX_LISP_TYPES + 1];
-    private long rxUnknown = 0;
-    private long txErrors = 0;
-    private long cacheHits = 0;
-    private long cacheMisses = 0;
+    private final LongAdder[] rx = newCounters();
+    private final LongAdder[] tx = newCounters();
+    private final LongAdder[] rxBytes = newCounters();
+    private final LongAdder[] txBytes = newCounters();
+    private final LongAdder[] rxDropped = newCounters();
+    private final LongAdder rxUnknown = new LongAdder();
+    private final LongAdder txErrors = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder notificationsPublished = new LongAdder();
+    private final LongAdder notificationsRejected = new LongAdder();
+    private volatile LongSupplier rxKernelDroppedCounter = () -> 0;
+
+    private volatile Snapshot baseline;
 
     public ConcurrentLispSouthboundStats() {
         resetStats();
     }
 
     public synchronized void resetStats() {
-        for (int i = 0; i <= MAX_LISP_TYPES; i++) {
-            rx[i] = 0;
-            tx[i] = 0;
-        }
+        baseline = new Snapshot(this, null);
+    }
+
+    /**
+     * Read all counters in a single pass.
+     *
+     * @return the values of all counters since the last reset
+     */
+    public Snapshot getSnapshot() {
+        return new Snapshot(this, baseline);
+    }
+
+    public long[] getRx() {
+        return getSnapshot().getRx();
+    }
+
+    public void incrementRx(int type) {
+        rx[type].increment();
     }
 
-    public synchronized long[] getRx() {
-        return rx;
+    public void incrementRx(int type, int bytes) {
+        rx[type].increment();
+        rxBytes[type].add(bytes);
     }
 
-    public synchronized void incrementRx(int type) {
-        this.rx[type] = incrementWithWrap(rx[type]);
+    public long[] getTx() {
+        return getSnapshot().getTx();
     }
 
-    public synchronized long[] getTx() {
-        return tx;
+    public void incrementTx(int type) {
+        tx[type].increment();
     }
 
-    public synchronized void incrementTx(int type) {
-        this.tx[type] = incrementWithWrap(tx[type]);
+    public void incrementTx(int type, int bytes) {
+        tx[type].increment();
+        txBytes[type].add(bytes);
     }
 
-    public synchronized long getRxUnknown() {
-        return rxUnknown;
+    public long[] getRxBytes() {
+        return getSnapshot().getRxBytes();
     }
 
-    public synchronized void incrementRxUnknown() {
-        this.rxUnknown = incrementWithWrap(rxUnknown);
+    public long[] getTxBytes() {
+        return getSnapshot().getTxBytes();
     }
 
-    public synchronized long getTxErrors() {
-        return txErrors;
+    public long[] getRxDropped() {
+        return getSnapshot().getRxDropped();
     }
 
-    public synchronized void incrementTxErrors() {
-        this.txErrors = incrementWithWrap(txErrors);
+    /**
+     * Count a received message of a known type which was discarded, either because it was malformed or because it
+     * failed authentication.
+     *
+     * @param type the LISP message type
+     */
+    public void incrementRxDropped(int type) {
+        rxDropped[type].increment();
+    }
+
+    public long getRxUnknown() {
+        return getSnapshot().getRxUnknown();
+    }
+
+    public void incrementRxUnknown() {
+        rxUnknown.increment();
+    }
+
+    /**
+     * Number of datagrams dropped by the kernel before they could be read, usually because the socket receive buffer
+     * was full.
+     *
+     * @return the kernel drop count
+     */
+    public long getRxKernelDropped() {
+        return getSnapshot().getRxKernelDropped();
+    }
+
+    /**
+     * Set the source of the kernel drop count, which is read each time the counters are read. The count of a socket
+     * starts from 0 again when it is bound again, so a count lower than the previous one is taken as the new base
+     * instead of a negative number of drops.
+     *
+     * @param counter the kernel drop counter
+     */
+    public synchronized void setRxKernelDroppedCounter(LongSupplier counter) {
+        rxKernelDroppedCounter = new MonotonicCounter(counter);
+        resetStats();
     }
 
-    public synchronized long getCacheHits() {
-        return cacheHits;
+    public long getTxErrors() {
+        return getSnapshot().getTxErrors();
     }
 
-    public synchronized void incrementCacheHits() {
-        this.cacheHits = incrementWithWrap(cacheHits);
+    public void incrementTxErrors() {
+        txErrors.increment();
     }
 
-    public synchronized long getCacheMisses() {
-        return cacheMisses;
+    public long getCacheHits() {
+        return getSnapshot().getCacheHits();
     }
 
-    public synchronized void incrementCacheMisses() {
-        this.cacheMisses = incrementWithWrap(cacheMisses);
+    public void incrementCacheHits() {
+        cacheHits.increment();
     }
 
-    private static long incrementWithWrap(long value) {
-        return value == Long.MAX_VALUE ? 0 : value + 1;
+    public long getCacheMisses() {
+        return getSnapshot().getCacheMisses();
+    }
+
+    public void incrementCacheMisses() {
+        cacheMisses.increment();
+    }
+
+    public long getNotificationsPublished() {
+        return getSnapshot().getNotificationsPublished();
+    }
+
+    public void incrementNotificationsPublished() {
+        notificationsPublished.increment();
+    }
+
+    /**
+     * Number of notifications which could not be queued for publishing without blocking the receiving event loop.
+     *
+     * @return the backpressure event count
+     */
+    public long getNotificationsRejected() {
+        return getSnapshot().getNotificationsRejected();
+    }
+
+    public void incrementNotificationsRejected() {
+        notificationsRejected.increment();
+    }
+
+    private static LongAdder[] newCounters() {
+        final LongAdder[] counters = new LongAdder[MAX_LISP_TYPES + 1];
+        for (int i = 0; i <= MAX_LISP_TYPES; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static long sum(LongAdder counter, long base) {
+        // Masking the sign bit makes the counter wrap around from Long.MAX_VALUE to 0
+        return (counter.sum() - base) & Long.MAX_VALUE;
+    }
+
+    private static long[] sum(LongAdder[] counters, long[] base) {
+        final long[] values = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            values[i] = sum(counters[i], base == null ? 0 : base[i]);
+        }
+        return values;
     }
 
     // TODO move this method to the appropriate helper class if we start using MessageType in other places
@@ -98,4 +211,113 @@ public class ConcurrentLispSouthboundStats {
         }
         return max;
     }
+
+    /**
+     * Kernel drop count which never goes backwards, even if the underlying counter does.
+     */
+    private static final class MonotonicCounter implements LongSupplier {
+        private final LongSupplier counter;
+        private long last;
+        private long total;
+
+        MonotonicCounter(LongSupplier counter) {
+            this.counter = counter;
+            last = counter.getAsLong();
+            total = last;
+        }
+
+        @Override
+        public synchronized long getAsLong() {
+            final long value = counter.getAsLong();
+            // A lower value means the socket was bound again, the drops of the old socket are already counted
+            if (value > last) {
+                total += value - last;
+            }
+            last = value;
+            return total;
+        }
+    }
+
+    /**
+     * Immutable copy of all southbound counters, read in a single pass.
+     */
+    public static final class Snapshot {
+        private final long[] rx;
+        private final long[] tx;
+        private final long[] rxBytes;
+        private final long[] txBytes;
+        private final long[] rxDropped;
+        private final long rxUnknown;
+        private final long rxKernelDropped;
+        private final long txErrors;
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final long notificationsPublished;
+        private final long notificationsRejected;
+
+        private Snapshot(final ConcurrentLispSouthboundStats stats, final Snapshot base) {
+            final boolean hasBase = base != null;
+            rx = sum(stats.rx, hasBase ? base.rx : null);
+            tx = sum(stats.tx, hasBase ? base.tx : null);
+            rxBytes = sum(stats.rxBytes, hasBase ? base.rxBytes : null);
+            txBytes = sum(stats.txBytes, hasBase ? base.txBytes : null);
+            rxDropped = sum(stats.rxDropped, hasBase ? base.rxDropped : null);
+            rxUnknown = sum(stats.rxUnknown, hasBase ? base.rxUnknown : 0);
+            rxKernelDropped = Math.max(stats.rxKernelDroppedCounter.getAsLong()
+                    - (hasBase ? base.rxKernelDropped : 0), 0);
+            txErrors = sum(stats.txErrors, hasBase ? base.txErrors : 0);
+            cacheHits = sum(stats.cacheHits, hasBase ? base.cacheHits : 0);
+            cacheMisses = sum(stats.cacheMisses, hasBase ? base.cacheMisses : 0);
+            notificationsPublished = sum(stats.notificationsPublished, hasBase ? base.notificationsPublished : 0);
+            notificationsRejected = sum(stats.notificationsRejected, hasBase ? base.notificationsRejected : 0);
+        }
+
+        public long[] getRx() {
+            return rx.clone();
+        }
+
+        public long[] getTx() {
+            return tx.clone();
+        }
+
+        public long[] getRxBytes() {
+            return rxBytes.clone();
+        }
+
+        public long[] getTxBytes() {
+            return txBytes.clone();
+        }
+
+        public long[] getRxDropped() {
+            return rxDropped.clone();
+        }
+
+        public long getRxUnknown() {
+            return rxUnknown;
+        }
+
+        public long getRxKernelDropped() {
+            return rxKernelDropped;
+        }
+
+        public long getTxErrors() {
+            return txErrors;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        public long getNotificationsPublished() {
+            return notificationsPublished;
+        }
+
+        public long getNotificationsRejected() {
+            return notificationsRejected;
+        }
+    }
 }
@@ -10,6 +10,8 @@ package org.opendaylight.lispflowmapping.southbound;
 import static io.netty.buffer.Unpooled.wrappedBuffer;
 import static java.util.Objects.requireNonNull;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.bootstrap.Bootstrap;
@@ -17,8 +19,10 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.epoll.EpollDatagramChannel;
@@ -27,19 +31,22 @@ import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
-import java.util.List;
+import java.util.Collection;
 import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.opendaylight.lispflowmapping.dsbackend.DataStoreBackEnd;
 import org.opendaylight.lispflowmapping.inmemorydb.HashMapDb;
+import org.opendaylight.lispflowmapping.interfaces.lisp.IFlowMapping;
 import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
 import org.opendaylight.lispflowmapping.mapcache.AuthKeyDb;
@@ -47,9 +54,11 @@ import org.opendaylight.lispflowmapping.southbound.lisp.AuthenticationKeyDataLis
 import org.opendaylight.lispflowmapping.southbound.lisp.LispSouthboundHandler;
 import org.opendaylight.lispflowmapping.southbound.lisp.LispXtrSouthboundHandler;
 import org.opendaylight.lispflowmapping.southbound.lisp.cache.MapRegisterCache;
+import org.opendaylight.lispflowmapping.southbound.util.UdpDropCounter;
 import org.opendaylight.lispflowmapping.type.sbplugin.IConfigLispSouthboundPlugin;
 import org.opendaylight.mdsal.binding.api.DataBroker;
 import org.opendaylight.mdsal.binding.api.NotificationPublishService;
+import org.opendaylight.mdsal.common.api.LogicalDatastoreType;
 import org.opendaylight.mdsal.singleton.api.ClusterSingletonService;
 import org.opendaylight.mdsal.singleton.api.ClusterSingletonServiceProvider;
 import org.opendaylight.mdsal.singleton.api.ServiceGroupIdentifier;
@@ -59,12 +68,15 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ei
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.db.instance.AuthenticationKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.mappingservice.rev150906.mapping.database.VirtualNetworkIdentifier;
 import org.opendaylight.yangtools.binding.Notification;
 import org.opendaylight.yangtools.concepts.Registration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.Designate;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
@@ -87,8 +99,54 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
         @AttributeDefinition
         long mapRegisterCacheTimeout() default DEFAULT_MAP_REGISTER_CACHE_TIMEOUT;
 
+        @AttributeDefinition
+        long mapRegisterCacheMaxSize() default MapRegisterCache.DEFAULT_MAX_SIZE;
+
         @AttributeDefinition
         boolean authenticationEnabled() default true;
+
+        @AttributeDefinition
+        boolean directMapRequestEnabled() default false;
+
+        @AttributeDefinition(description = "Receive buffer size of the UDP sockets in bytes, 0 for the OS default")
+        int receiveBufferSize() default 0;
+
+        @AttributeDefinition(description = "Send buffer size of the UDP sockets in bytes, 0 for the OS default")
+        int sendBufferSize() default 0;
+
+        @AttributeDefinition(description = "Maximum number of reads per socket before yielding to other channels")
+        int maxMessagesPerRead() default SocketOptions.DEFAULT_MAX_MESSAGES_PER_READ;
+
+        @AttributeDefinition(description = "Maximum size of received datagrams when receiving them in batches "
+                + "(recvmmsg, Epoll only), 0 to receive them one at a time. Larger datagrams are truncated.")
+        int maxDatagramPayloadSize() default 0;
+
+        @AttributeDefinition(description = "Number of datagrams received at once when receiving them in batches")
+        int receiveBatchSize() default SocketOptions.DEFAULT_RECEIVE_BATCH_SIZE;
+    }
+
+    /**
+     * Options of the southbound UDP sockets.
+     *
+     * @param receiveBufferSize SO_RCVBUF in bytes, 0 for the OS default
+     * @param sendBufferSize SO_SNDBUF in bytes, 0 for the OS default
+     * @param maxMessagesPerRead maximum number of reads per socket before yielding to other channels
+     * @param maxDatagramPayloadSize maximum size of datagrams received in batches, 0 to disable batching
+     * @param receiveBatchSize number of datagrams received at once when batching
+     */
+    public record SocketOptions(int receiveBufferSize, int sendBufferSize, int maxMessagesPerRead,
+            int maxDatagramPayloadSize, int receiveBatchSize) {
+        static final int DEFAULT_MAX_MESSAGES_PER_READ = 16;
+        static final int DEFAULT_RECEIVE_BATCH_SIZE = 16;
+        public static final SocketOptions DEFAULT = new SocketOptions(0, 0, DEFAULT_MAX_MESSAGES_PER_READ, 0,
+                DEFAULT_RECEIVE_BATCH_SIZE);
+
+        public SocketOptions {
+            if (receiveBufferSize < 0 || sendBufferSize < 0 || maxMessagesPerRead < 1 || maxDatagramPayloadSize < 0
+                    || receiveBatchSize < 1) {
+                throw new IllegalArgumentException("Invalid southbound socket options");
+            }
+        }
     }
 
     protected static final Logger LOG = LoggerFactory.getLogger(LispSouthboundPlugin.class);
@@ -98,14 +156,25 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
 
     private static final String DEFAULT_BINDING_ADDRESS = "0.0.0.0";
     private static final long DEFAULT_MAP_REGISTER_CACHE_TIMEOUT = 90000;
+    // Maximum number of writes waiting for a consolidated flush
+    private static final int MAX_CONSOLIDATED_FLUSHES = 64;
+    // Size of the receive buffers when datagrams are received one at a time, which fits any LISP control message
+    private static final int RECEIVE_BUFFER_SIZE = 2048;
+    // Maximum number of peers for which the channel which received their last request is remembered
+    private static final long MAX_REPLY_CHANNELS = 100000;
 
     private volatile boolean isMaster = false;
     private volatile String bindingAddress;
     private AuthKeyDb akdb;
-    private final MapRegisterCache mapRegisterCache = new MapRegisterCache();
+    private final MapRegisterCache mapRegisterCache;
     private final boolean mapRegisterCacheEnabled;
     private final long mapRegisterCacheTimeout;
     private final boolean authenticationEnabled;
+    private final boolean directMapRequestEnabled;
+    private final SocketOptions socketOptions;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile IFlowMapping flowMapping;
 
     private static Object startLock = new Object();
 
@@ -116,10 +185,14 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
     private LispSouthboundHandler lispSouthboundHandler;
     private int numChannels = 1;
     private final Channel[] channel;
-    private Channel xtrChannel;
+    private volatile Channel xtrChannel;
     private volatile int xtrPort = LispMessage.XTR_PORT_NUM;
     private volatile boolean listenOnXtrPort = false;
     private final ConcurrentLispSouthboundStats statistics = new ConcurrentLispSouthboundStats();
+    // Channel which received the last request of each peer, replies sent through the RPCs go out on the same
+    // SO_REUSEPORT socket and event loop
+    private final Cache<InetSocketAddress, Channel> replyChannels =
+            CacheBuilder.newBuilder().maximumSize(MAX_REPLY_CHANNELS).build();
     private final Bootstrap bootstrap = new Bootstrap();
     private final Bootstrap xtrBootstrap = new Bootstrap();
     private final ThreadFactory threadFactory = new DefaultThreadFactory("lisp-sb");
@@ -143,7 +216,10 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
             final Configuration configuration) {
         this(dataBroker, notificationPublishService, clusterSingletonService, configuration.bindingAddress(),
             configuration.mapRegisterCacheEnabled(), configuration.mapRegisterCacheTimeout(),
-            configuration.authenticationEnabled());
+            configuration.authenticationEnabled(), configuration.directMapRequestEnabled(),
+            configuration.mapRegisterCacheMaxSize(), new SocketOptions(configuration.receiveBufferSize(),
+                configuration.sendBufferSize(), configuration.maxMessagesPerRead(),
+                configuration.maxDatagramPayloadSize(), configuration.receiveBatchSize()));
         init();
     }
 
@@ -152,6 +228,27 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
             final ClusterSingletonServiceProvider clusterSingletonService,
             final String bindingAddress, final boolean mapRegisterCacheEnabled, final long mapRegisterCacheTimeout,
             final boolean authenticationEnabled) {
+        this(dataBroker, notificationPublishService, clusterSingletonService, bindingAddress, mapRegisterCacheEnabled,
+            mapRegisterCacheTimeout, authenticationEnabled, false, MapRegisterCache.DEFAULT_MAX_SIZE);
+    }
+
+    public LispSouthboundPlugin(final DataBroker dataBroker,
+            final NotificationPublishService notificationPublishService,
+            final ClusterSingletonServiceProvider clusterSingletonService,
+            final String bindingAddress, final boolean mapRegisterCacheEnabled, final long mapRegisterCacheTimeout,
+            final boolean authenticationEnabled, final boolean directMapRequestEnabled,
+            final long mapRegisterCacheMaxSize) {
+        this(dataBroker, notificationPublishService, clusterSingletonService, bindingAddress, mapRegisterCacheEnabled,
+            mapRegisterCacheTimeout, authenticationEnabled, directMapRequestEnabled, mapRegisterCacheMaxSize,
+            SocketOptions.DEFAULT);
+    }
+
+    public LispSouthboundPlugin(final DataBroker dataBroker,
+            final NotificationPublishService notificationPublishService,
+            final ClusterSingletonServiceProvider clusterSingletonService,
+            final String bindingAddress, final boolean mapRegisterCacheEnabled, final long mapRegisterCacheTimeout,
+            final boolean authenticationEnabled, final boolean directMapRequestEnabled,
+            final long mapRegisterCacheMaxSize, final SocketOptions socketOptions) {
         LOG.info("LISP (RFC6830) Southbound Plugin is initializing...");
         this.dataBroker = dataBroker;
         this.notificationPublishService = notificationPublishService;
@@ -159,7 +256,10 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
         this.bindingAddress = bindingAddress;
         this.mapRegisterCacheEnabled = mapRegisterCacheEnabled;
         this.mapRegisterCacheTimeout = mapRegisterCacheTimeout;
+        this.mapRegisterCache = new MapRegisterCache(mapRegisterCacheMaxSize, mapRegisterCacheTimeout);
         this.authenticationEnabled = authenticationEnabled;
+        this.directMapRequestEnabled = directMapRequestEnabled;
+        this.socketOptions = requireNonNull(socketOptions);
 
         if (Epoll.isAvailable()) {
             // When lispflowmapping is under heavy load, there are usually two threads nearing 100% CPU core
@@ -179,10 +279,11 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
             restoreDaoFromDatastore();
 
             final Class<? extends DatagramChannel> channelType;
+            // Outbound messages are serialized directly into buffers from the allocator
+            bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
             if (Epoll.isAvailable()) {
                 eventLoopGroup = new EpollEventLoopGroup(numChannels, threadFactory);
                 channelType = EpollDatagramChannel.class;
-                bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
                 bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
                 LOG.debug("Using Netty Epoll for UDP sockets");
             } else {
@@ -191,10 +292,22 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
                 LOG.debug("Using Netty I/O (non-Epoll) for UDP sockets");
             }
 
+            applySocketOptions(bootstrap);
+            applySocketOptions(xtrBootstrap);
+            statistics.setRxKernelDroppedCounter(new UdpDropCounter(this::isBoundPort));
+
             bootstrap.group(eventLoopGroup);
             bootstrap.channel(channelType);
             lispSouthboundHandler = new LispSouthboundHandler(this, authenticationEnabled);
-            bootstrap.handler(lispSouthboundHandler);
+            bootstrap.handler(new ChannelInitializer<DatagramChannel>() {
+                @Override
+                protected void initChannel(DatagramChannel ch) {
+                    // Flushes are done once per read loop or event loop run, so that the datagrams written in the
+                    // meantime are sent in a batch (sendmmsg with Epoll)
+                    ch.pipeline().addLast(new FlushConsolidationHandler(MAX_CONSOLIDATED_FLUSHES, true),
+                            lispSouthboundHandler);
+                }
+            });
 
             xtrBootstrap.group(eventLoopGroup);
             xtrBootstrap.channel(channelType);
@@ -209,6 +322,24 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
         LOG.info("LISP (RFC6830) Southbound Plugin is up!");
     }
 
+    private void applySocketOptions(Bootstrap bs) {
+        if (socketOptions.receiveBufferSize() > 0) {
+            bs.option(ChannelOption.SO_RCVBUF, socketOptions.receiveBufferSize());
+        }
+        if (socketOptions.sendBufferSize() > 0) {
+            bs.option(ChannelOption.SO_SNDBUF, socketOptions.sendBufferSize());
+        }
+        int bufferSize = RECEIVE_BUFFER_SIZE;
+        if (Epoll.isAvailable() && socketOptions.maxDatagramPayloadSize() > 0) {
+            // With a maximum payload size set, Epoll receives as many datagrams as fit in the buffer with a single
+            // recvmmsg call
+            bs.option(EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE, socketOptions.maxDatagramPayloadSize());
+            bufferSize = socketOptions.maxDatagramPayloadSize() * socketOptions.receiveBatchSize();
+        }
+        bs.option(ChannelOption.RCVBUF_ALLOCATOR,
+                new FixedRecvByteBufAllocator(bufferSize).maxMessagesPerRead(socketOptions.maxMessagesPerRead()));
+    }
+
     @SuppressWarnings("checkstyle:IllegalCatch")
     private void start() {
         try {
@@ -235,6 +366,7 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
 
     @SuppressWarnings("checkstyle:IllegalCatch")
     private void stop() {
+        replyChannels.invalidateAll();
         try {
             for (int i = 0; i < numChannels; ++i) {
                 channel[i].close().sync();
@@ -257,6 +389,11 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
         }
     }
 
+    // Datagrams dropped by the kernel are counted on all the ports the plugin listens on
+    private boolean isBoundPort(int port) {
+        return port == LispMessage.PORT_NUM || (xtrChannel != null && port == xtrPort);
+    }
+
     private void restart() {
         LOG.info("Reloading");
         stop();
@@ -282,47 +419,107 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
      * Restore all keys from MDSAL datastore.
      */
     public void restoreDaoFromDatastore() {
-        final List<AuthenticationKey> authKeys = dsbe.getAllAuthenticationKeys();
-        LOG.info("Restoring {} keys from datastore into southbound DAO", authKeys.size());
-
-        for (AuthenticationKey authKey : authKeys) {
-            final Eid key = authKey.getEid();
-            final MappingAuthkey mappingAuthkey = authKey.getMappingAuthkey();
-            LOG.debug("Adding authentication key '{}' with key-ID {} for {}", mappingAuthkey.getKeyString(),
-                    mappingAuthkey.getKeyType(),
-                    LispAddressStringifier.getString(key));
-            akdb.addAuthenticationKey(key, mappingAuthkey);
+        // Keys are restored one virtual network at a time, without copying them all into a list first
+        final Collection<VirtualNetworkIdentifier> vnis =
+                dsbe.getAllVirtualNetworks(LogicalDatastoreType.CONFIGURATION);
+        int count = 0;
+        for (VirtualNetworkIdentifier vni : vnis) {
+            for (AuthenticationKey authKey : vni.nonnullAuthenticationKey().values()) {
+                final Eid key = authKey.getEid();
+                final MappingAuthkey mappingAuthkey = authKey.getMappingAuthkey();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Adding authentication key '{}' with key-ID {} for {}", mappingAuthkey.getKeyString(),
+                            mappingAuthkey.getKeyType(), LispAddressStringifier.getString(key));
+                }
+                akdb.addAuthenticationKey(key, mappingAuthkey);
+                count++;
+            }
         }
+        LOG.info("Restored {} keys in {} virtual networks from datastore into southbound DAO", count, vnis.size());
     }
 
     public void handleSerializedLispBuffer(final TransportAddress address, final ByteBuffer outBuffer,
                                            final MessageType packetType) {
         InetAddress ip = getInetAddress(address);
-        handleSerializedLispBuffer(ip, outBuffer, packetType, address.getPort().getValue().toJava(), null);
+        int port = address.getPort().getValue().toJava();
+        handleSerializedLispBuffer(ip, outBuffer, packetType, port, getReplyChannel(ip, port));
     }
 
     public void handleSerializedLispBuffer(final InetAddress address, final ByteBuffer outBuffer,
             final MessageType packetType, final int portNumber, Channel senderChannel) {
-        if (senderChannel == null) {
-            senderChannel = channel[0];
+        outBuffer.position(0);
+        sendLispBuffer(address, wrappedBuffer(outBuffer), packetType, portNumber, senderChannel);
+    }
+
+    public void handleLispMessage(final TransportAddress address, final int size,
+                                  final Consumer<ByteBuffer> serializer, final MessageType packetType) {
+        InetAddress ip = getInetAddress(address);
+        int port = address.getPort().getValue().toJava();
+        handleLispMessage(ip, size, serializer, packetType, port, getReplyChannel(ip, port));
+    }
+
+    /**
+     * Remembers the channel which received a request from a peer, so that the reply sent through the RPCs goes out on
+     * the same channel.
+     *
+     * @param address the address the reply will be sent to
+     * @param port the port the reply will be sent to
+     * @param receiverChannel the channel which received the request, or null if not known
+     */
+    public void setReplyChannel(final InetAddress address, final int port, final Channel receiverChannel) {
+        if (receiverChannel != null) {
+            replyChannels.put(new InetSocketAddress(address, port), receiverChannel);
+        }
+    }
+
+    private Channel getReplyChannel(final InetAddress address, final int port) {
+        return address != null ? replyChannels.getIfPresent(new InetSocketAddress(address, port)) : null;
+    }
+
+    private Channel getSenderChannel(final Channel senderChannel) {
+        // Channels are closed when the binding address changes
+        return senderChannel != null && senderChannel.isActive() ? senderChannel : channel[0];
+    }
+
+    /**
+     * Sends a LISP message which is serialized directly into a direct buffer from the pooled allocator of the sending
+     * channel, without going through an intermediate heap buffer.
+     *
+     * @param address the recipient
+     * @param size the serialized size of the message
+     * @param serializer writes the message into the buffer it is given, which has exactly size bytes remaining
+     * @param packetType the message type, used for statistics
+     * @param portNumber the recipient port
+     * @param senderChannel the channel to send on, or null for the default channel
+     */
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    public void handleLispMessage(final InetAddress address, final int size, final Consumer<ByteBuffer> serializer,
+            final MessageType packetType, final int portNumber, Channel senderChannel) {
+        senderChannel = getSenderChannel(senderChannel);
+        final ByteBuf data = senderChannel.alloc().directBuffer(size, size);
+        try {
+            serializer.accept(data.nioBuffer(0, size));
+        } catch (RuntimeException e) {
+            data.release();
+            throw e;
         }
+        data.writerIndex(size);
+        sendLispBuffer(address, data, packetType, portNumber, senderChannel);
+    }
+
+    private void sendLispBuffer(final InetAddress address, final ByteBuf data, final MessageType packetType,
+            final int portNumber, Channel senderChannel) {
+        senderChannel = getSenderChannel(senderChannel);
         InetSocketAddress recipient = new InetSocketAddress(address, portNumber);
-        outBuffer.position(0);
-        ByteBuf data = wrappedBuffer(outBuffer);
         DatagramPacket packet = new DatagramPacket(data, recipient);
         LOG.debug("Sending {} on port {} to address: {}", packetType, portNumber, address);
         if (LOG.isTraceEnabled()) {
             LOG.trace("Buffer:\n{}", ByteBufUtil.prettyHexDump(data));
         }
-        senderChannel.write(packet).addListener(future -> {
-            if (future.isSuccess()) {
-                LOG.trace("Success");
-                statistics.incrementTx(packetType.getIntValue());
-            } else {
-                LOG.warn("Failed to send packet");
-                statistics.incrementTxErrors();
-            }
-        });
+        // Counted when handed to the channel, failed writes are counted by the handler as transmit errors
+        statistics.incrementTx(packetType.getIntValue(), data.readableBytes());
+        senderChannel.write(packet, senderChannel.voidPromise());
+        // Consolidated with other flushes by the FlushConsolidationHandler in the channel pipeline
         senderChannel.flush();
     }
 
@@ -410,15 +607,45 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
         return SERVICE_GROUP_IDENTIFIER;
     }
 
-    public synchronized void sendNotificationIfPossible(final Notification notification) throws InterruptedException {
+    /**
+     * Hand off a notification decoded by one of the southbound event loops to MD-SAL. This method is called
+     * concurrently from all event loops and therefore takes no lock: notifications are first offered to the
+     * (internally queued) publish service without blocking, and only when that queue is full does the calling
+     * event loop block in {@link NotificationPublishService#putNotification}. Such backpressure events are
+     * counted in the southbound statistics.
+     *
+     * @param notification the notification to publish
+     * @throws InterruptedException if interrupted while waiting for space in the publish queue
+     */
+    public void sendNotificationIfPossible(final Notification notification) throws InterruptedException {
         if (isMaster && notificationPublishService != null) {
-            notificationPublishService.putNotification(notification);
+            if (notificationPublishService.offerNotification(notification) == NotificationPublishService.REJECTED) {
+                statistics.incrementNotificationsRejected();
+                LOG.trace("Publish queue full, blocking until notification can be queued: {}", notification);
+                notificationPublishService.putNotification(notification);
+            }
+            statistics.incrementNotificationsPublished();
             LOG.trace("Publishing notification: {}", notification);
         } else if (notificationPublishService == null) {
             LOG.warn("Can't publish notification because no reference to publication service exists!");
         }
     }
 
+    /**
+     * Returns the mapping service Map-Requests should be handed to directly, bypassing the RequestMapping
+     * notification and the SendMapReply RPC. This is only possible when direct mode is enabled in the configuration
+     * and the mapping service runs in the same JVM as the southbound plugin.
+     *
+     * @return the co-located mapping service, or null if Map-Requests should be published as notifications
+     */
+    public IFlowMapping getDirectFlowMapping() {
+        return directMapRequestEnabled && isMaster ? flowMapping : null;
+    }
+
+    public void setFlowMapping(final IFlowMapping flowMapping) {
+        this.flowMapping = flowMapping;
+    }
+
     public AuthKeyDb getAkdb() {
         return akdb;
     }
@@ -446,4 +673,20 @@ public class LispSouthboundPlugin implements IConfigLispSouthboundPlugin, AutoCl
     public long getMapRegisterCacheTimeout() {
         return mapRegisterCacheTimeout;
     }
+
+    /**
+     * Returns the address the LISP socket is bound to, which is the source address of the messages sent on it.
+     *
+     * @return the address, null if the socket is not bound or bound to the wildcard address
+     */
+    public InetAddress getBoundAddress() {
+        final Channel mainChannel = channel[0];
+        if (mainChannel != null && mainChannel.localAddress() instanceof InetSocketAddress) {
+            final InetAddress address = ((InetSocketAddress) mainChannel.localAddress()).getAddress();
+            if (address != null && !address.isAnyLocalAddress()) {
+                return address;
+            }
+        }
+        return null;
+    }
 }
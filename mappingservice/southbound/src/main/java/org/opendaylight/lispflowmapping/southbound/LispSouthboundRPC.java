@@ -10,6 +10,7 @@ package org.opendaylight.lispflowmapping.southbound;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,8 +21,17 @@ import org.opendaylight.lispflowmapping.lisp.serializer.MapNotifySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapRegisterSerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapReplySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestSerializer;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.lispflowmapping.southbound.lisp.cache.MapRegisterCache;
 import org.opendaylight.mdsal.binding.api.RpcProviderService;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapNotify;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapReply;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MessageType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRlocBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.rloc.container.Rloc;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.GetStats;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.GetStatsInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.GetStatsOutput;
@@ -46,10 +56,17 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendM
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequestInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequestOutput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequestOutputBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrs;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsOutput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsOutputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.ctrl.msg.stats.ControlMessage;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.ctrl.msg.stats.ControlMessageBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.get.stats.output.ControlMessageStatsBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.get.stats.output.MapRegisterCacheStatsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.get.stats.output.NotificationDispatchStatsBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input.MapRequestBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input.SmrSubscriber;
 import org.opendaylight.yangtools.concepts.Registration;
 import org.opendaylight.yangtools.yang.common.ErrorTag;
 import org.opendaylight.yangtools.yang.common.ErrorType;
@@ -86,6 +103,7 @@ public class LispSouthboundRPC {
             (SendMapReply) this::sendMapReply,
             (SendMapRegister) this::sendMapRegister,
             (SendMapNotify) this::sendMapNotify,
+            (SendSmrs) this::sendSmrs,
             (GetStats) this::getStats,
             (ResetStats) this::resetStats);
     }
@@ -99,9 +117,10 @@ public class LispSouthboundRPC {
     public ListenableFuture<RpcResult<SendMapNotifyOutput>> sendMapNotify(final SendMapNotifyInput mapNotifyInput) {
         LOG.trace("sendMapNotify called!!");
         if (mapNotifyInput != null) {
-            ByteBuffer outBuffer = MapNotifySerializer.getInstance().serialize(mapNotifyInput.getMapNotify());
-            lispSbPlugin.handleSerializedLispBuffer(mapNotifyInput.getTransportAddress(), outBuffer,
-                    MessageType.MapNotify);
+            final MapNotify mapNotify = mapNotifyInput.getMapNotify();
+            lispSbPlugin.handleLispMessage(mapNotifyInput.getTransportAddress(),
+                    MapNotifySerializer.getInstance().getSerializationSize(mapNotify),
+                    buffer -> MapNotifySerializer.getInstance().serialize(buffer, mapNotify), MessageType.MapNotify);
         } else {
             LOG.warn("MapNotify was null");
             return Futures.immediateFuture(RpcResultBuilder.<SendMapNotifyOutput>failed().build());
@@ -113,9 +132,10 @@ public class LispSouthboundRPC {
     public ListenableFuture<RpcResult<SendMapReplyOutput>> sendMapReply(final SendMapReplyInput mapReplyInput) {
         LOG.trace("sendMapReply called!!");
         if (mapReplyInput != null) {
-            ByteBuffer outBuffer = MapReplySerializer.getInstance().serialize(mapReplyInput.getMapReply());
-            lispSbPlugin.handleSerializedLispBuffer(mapReplyInput.getTransportAddress(), outBuffer,
-                    MessageType.MapReply);
+            final MapReply mapReply = mapReplyInput.getMapReply();
+            lispSbPlugin.handleLispMessage(mapReplyInput.getTransportAddress(),
+                    MapReplySerializer.getInstance().getSerializationSize(mapReply),
+                    buffer -> MapReplySerializer.getInstance().serialize(buffer, mapReply), MessageType.MapReply);
         } else {
             LOG.warn("MapReply was null");
             return Futures.immediateFuture(RpcResultBuilder.<SendMapReplyOutput>failed().build());
@@ -127,9 +147,10 @@ public class LispSouthboundRPC {
     public ListenableFuture<RpcResult<SendMapRequestOutput>> sendMapRequest(final SendMapRequestInput mapRequestInput) {
         LOG.trace("sendMapRequest called!!");
         if (mapRequestInput != null) {
-            ByteBuffer outBuffer = MapRequestSerializer.getInstance().serialize(mapRequestInput.getMapRequest());
-            lispSbPlugin.handleSerializedLispBuffer(mapRequestInput.getTransportAddress(), outBuffer,
-                    MessageType.MapRequest);
+            final MapRequest mapRequest = mapRequestInput.getMapRequest();
+            lispSbPlugin.handleLispMessage(mapRequestInput.getTransportAddress(),
+                    MapRequestSerializer.getInstance().getSerializationSize(mapRequest),
+                    buffer -> MapRequestSerializer.getInstance().serialize(buffer, mapRequest), MessageType.MapRequest);
         } else {
             LOG.debug("MapRequest was null");
             return Futures.immediateFuture(RpcResultBuilder.<SendMapRequestOutput>failed().build());
@@ -138,6 +159,35 @@ public class LispSouthboundRPC {
                 new SendMapRequestOutputBuilder().build()).build());
     }
 
+    public ListenableFuture<RpcResult<SendSmrsOutput>> sendSmrs(final SendSmrsInput smrsInput) {
+        LOG.trace("sendSmrs called!!");
+        if (smrsInput != null && smrsInput.getMapRequest() != null) {
+            MapRequest smr = smrsInput.getMapRequest();
+            final InetAddress boundAddress = Boolean.TRUE.equals(smrsInput.getKeepItrRloc()) ? null
+                    : lispSbPlugin.getBoundAddress();
+            if (boundAddress != null) {
+                // The SMRs are sent from the bound address, so it is used as their ITR-RLOC too, unless the ITR-RLOCs
+                // were configured
+                final Rloc itrRloc = LispAddressUtil.toRloc(boundAddress);
+                smr = new MapRequestBuilder(smrsInput.getMapRequest()).setItrRloc(List.of(new ItrRlocBuilder()
+                        .setItrRlocId(LispAddressStringifier.getString(itrRloc)).setRloc(itrRloc).build())).build();
+            }
+            final MapRequestSerializer serializer = MapRequestSerializer.getInstance();
+            final byte[] template = serializer.serializeSingleRecordTemplate(smr);
+            for (SmrSubscriber subscriber : smrsInput.nonnullSmrSubscriber()) {
+                final Eid eid = subscriber.getEid();
+                lispSbPlugin.handleLispMessage(subscriber.getTransportAddress(),
+                        serializer.getSingleRecordSerializationSize(template, eid),
+                        buffer -> serializer.serializeSingleRecord(buffer, template, eid), MessageType.MapRequest);
+            }
+        } else {
+            LOG.debug("SMR Map-Request was null");
+            return Futures.immediateFuture(RpcResultBuilder.<SendSmrsOutput>failed().build());
+        }
+        return Futures.immediateFuture(RpcResultBuilder.<SendSmrsOutput>success(
+                new SendSmrsOutputBuilder().build()).build());
+    }
+
     @VisibleForTesting
     ListenableFuture<RpcResult<SendMapRegisterOutput>> sendMapRegister(
             final SendMapRegisterInput mapRegisterInput) {
@@ -165,7 +215,8 @@ public class LispSouthboundRPC {
             rpcResultBuilder = RpcResultBuilder.<GetStatsOutput>failed()
                     .withError(ErrorType.APPLICATION, ErrorTag.DATA_MISSING, "No stats found");
         } else {
-            rpcResultBuilder = RpcResultBuilder.success(createGetStatsOutput(stats));
+            rpcResultBuilder = RpcResultBuilder.success(createGetStatsOutput(stats,
+                    lispSbPlugin.getMapRegisterCache()));
         }
         return Futures.immediateFuture(rpcResultBuilder.build());
     }
@@ -186,13 +237,19 @@ public class LispSouthboundRPC {
         }
     }
 
-    private static GetStatsOutput createGetStatsOutput(final ConcurrentLispSouthboundStats stats) {
-        long[] rxStats = stats.getRx();
-        long[] txStats = stats.getTx();
+    private static GetStatsOutput createGetStatsOutput(final ConcurrentLispSouthboundStats stats,
+            final MapRegisterCache mapRegisterCache) {
+        final ConcurrentLispSouthboundStats.Snapshot snapshot = stats.getSnapshot();
+        long[] rxStats = snapshot.getRx();
+        long[] txStats = snapshot.getTx();
+        long[] rxBytesStats = snapshot.getRxBytes();
+        long[] txBytesStats = snapshot.getTxBytes();
+        long[] rxDroppedStats = snapshot.getRxDropped();
 
         ControlMessageStatsBuilder cmsb = new ControlMessageStatsBuilder();
-        cmsb.setRxUnknown(stats.getRxUnknown());
-        cmsb.setTxErrors(stats.getTxErrors());
+        cmsb.setRxUnknown(snapshot.getRxUnknown());
+        cmsb.setRxKernelDropped(snapshot.getRxKernelDropped());
+        cmsb.setTxErrors(snapshot.getTxErrors());
 
         List<ControlMessage> messages = new ArrayList<>();
         for (int i = 0; i <= ConcurrentLispSouthboundStats.MAX_LISP_TYPES; i++) {
@@ -202,6 +259,9 @@ public class LispSouthboundRPC {
                     .setMsgType(type)
                     .setRxCount(rxStats[i])
                     .setTxCount(txStats[i])
+                    .setRxBytes(rxBytesStats[i])
+                    .setTxBytes(txBytesStats[i])
+                    .setRxDropped(rxDroppedStats[i])
                     .build());
             }
         }
@@ -209,10 +269,21 @@ public class LispSouthboundRPC {
         cmsb.setControlMessage(messages);
 
         MapRegisterCacheStatsBuilder mrcsb = new MapRegisterCacheStatsBuilder();
-        mrcsb.setHits(stats.getCacheHits());
-        mrcsb.setMisses(stats.getCacheMisses());
+        mrcsb.setHits(snapshot.getCacheHits());
+        mrcsb.setMisses(snapshot.getCacheMisses());
+        if (mapRegisterCache != null) {
+            mrcsb.setLookupHits(mapRegisterCache.getHitCount());
+            mrcsb.setLookupMisses(mapRegisterCache.getMissCount());
+            mrcsb.setEvictions(mapRegisterCache.getEvictionCount());
+            mrcsb.setEntries((long) mapRegisterCache.cacheSize());
+        }
+
+        NotificationDispatchStatsBuilder ndsb = new NotificationDispatchStatsBuilder();
+        ndsb.setPublished(snapshot.getNotificationsPublished());
+        ndsb.setRejected(snapshot.getNotificationsRejected());
 
         return new GetStatsOutputBuilder().setControlMessageStats(cmsb.build())
-                .setMapRegisterCacheStats(mrcsb.build()).build();
+                .setMapRegisterCacheStats(mrcsb.build())
+                .setNotificationDispatchStats(ndsb.build()).build();
     }
 }
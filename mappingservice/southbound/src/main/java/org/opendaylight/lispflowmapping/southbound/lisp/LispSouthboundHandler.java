@@ -16,6 +16,7 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -23,12 +24,15 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import org.apache.commons.lang3.tuple.Pair;
+import org.opendaylight.lispflowmapping.interfaces.lisp.IFlowMapping;
 import org.opendaylight.lispflowmapping.lisp.authentication.ILispAuthentication;
 import org.opendaylight.lispflowmapping.lisp.authentication.LispAuthenticationUtil;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapNotifySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapRegisterSerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapReplySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestSerializer;
+import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestView;
 import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
 import org.opendaylight.lispflowmapping.lisp.util.ByteUtil;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressStringifier;
@@ -77,8 +81,6 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
     private final LispSouthboundPlugin lispSbPlugin;
     private final boolean isReadFromChannelEnabled = true;
 
-    private Channel channel;
-
     public LispSouthboundHandler(LispSouthboundPlugin lispSbPlugin, boolean authenticationEnabled) {
         this.lispSbPlugin = lispSbPlugin;
         this.authenticationEnabled = authenticationEnabled;
@@ -86,19 +88,39 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
 
     @Override
     public void handlePacket(DatagramPacket msg) {
+        handlePacket(msg, null);
+    }
+
+    /**
+     * Handles a received packet. Replies sent directly from here, and replies to requests forwarded to the mapping
+     * service, are sent on the channel which received the request.
+     *
+     * @param msg the received packet
+     * @param channel the channel which received the packet, or null for the default channel
+     */
+    public void handlePacket(DatagramPacket msg, Channel channel) {
         ByteBuffer inBuffer = msg.content().nioBuffer();
         int type = ByteUtil.getUnsignedByte(inBuffer, LispMessage.Pos.TYPE) >> 4;
-        handleStats(type);
+        handleStats(type, inBuffer.remaining());
+        try {
+            dispatchPacket(msg, inBuffer, type, channel);
+        } catch (LispMalformedPacketException e) {
+            handleDropStats(type);
+            throw e;
+        }
+    }
+
+    private void dispatchPacket(DatagramPacket msg, ByteBuffer inBuffer, int type, Channel channel) {
         Object lispType = MessageType.forValue(type);
         if (lispType == MessageType.EncapsulatedControlMessage) {
             LOG.trace("Received packet of type Encapsulated Control Message");
-            handleEncapsulatedControlMessage(inBuffer, msg.sender().getAddress());
+            handleEncapsulatedControlMessage(inBuffer, msg.sender().getAddress(), channel);
         } else if (lispType == MessageType.MapRequest) {
             LOG.trace("Received packet of type Map-Request");
-            handleMapRequest(inBuffer, msg.sender().getAddress(), msg.sender().getPort());
+            handleMapRequest(inBuffer, msg.sender().getAddress(), msg.sender().getPort(), channel);
         } else if (lispType == MessageType.MapRegister) {
             LOG.trace("Received packet of type Map-Register");
-            handleMapRegister(inBuffer, msg.sender().getAddress(), msg.sender().getPort());
+            handleMapRegister(inBuffer, msg.sender().getAddress(), msg.sender().getPort(), channel);
         } else if (lispType == MessageType.MapNotify) {
             LOG.trace("Received packet of type Map-Notify");
             handleMapNotify(inBuffer, msg.sender().getAddress(), msg.sender().getPort());
@@ -111,9 +133,9 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
     }
 
     @SuppressWarnings("checkstyle:IllegalCatch")
-    private void handleEncapsulatedControlMessage(ByteBuffer inBuffer, InetAddress sourceAddress) {
+    private void handleEncapsulatedControlMessage(ByteBuffer inBuffer, InetAddress sourceAddress, Channel channel) {
         try {
-            handleMapRequest(inBuffer, sourceAddress, extractEncapsulatedSourcePort(inBuffer));
+            handleMapRequest(inBuffer, sourceAddress, extractEncapsulatedSourcePort(inBuffer), channel);
         } catch (RuntimeException re) {
             throw new LispMalformedPacketException("Couldn't deserialize Map-Request (len="
                     + inBuffer.capacity() + ")", re);
@@ -121,14 +143,21 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
     }
 
     @SuppressWarnings("checkstyle:IllegalCatch")
-    private void handleMapRequest(ByteBuffer inBuffer, InetAddress sourceAddress, int port) {
+    private void handleMapRequest(ByteBuffer inBuffer, InetAddress sourceAddress, int port, Channel channel) {
         try {
+            final IFlowMapping flowMapping = lispSbPlugin.getDirectFlowMapping();
+            if (flowMapping != null) {
+                handleMapRequestDirectly(flowMapping, new MapRequestView(inBuffer), sourceAddress, port, channel);
+                return;
+            }
+
             MapRequest request = MapRequestSerializer.getInstance().deserialize(inBuffer, sourceAddress);
             InetAddress finalSourceAddress = MapRequestUtil.selectItrRloc(request);
             if (finalSourceAddress == null) {
                 throw new LispMalformedPacketException("Couldn't deserialize Map-Request, no ITR Rloc found!");
             }
 
+            lispSbPlugin.setReplyChannel(finalSourceAddress, port, channel);
             RequestMappingBuilder requestMappingBuilder = new RequestMappingBuilder();
             requestMappingBuilder.setMapRequest(LispNotificationHelper.convertMapRequest(request));
             TransportAddressBuilder transportAddressBuilder = new TransportAddressBuilder();
@@ -145,6 +174,36 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
         }
     }
 
+    /**
+     * Resolves the Map-Request synchronously on the receiving event loop using the co-located mapping service and
+     * sends the Map-Reply on the channel which received the request. Only the header of the Map-Request is decoded at
+     * first, the addresses are deserialized when needed.
+     */
+    private void handleMapRequestDirectly(IFlowMapping flowMapping, MapRequestView view, InetAddress sourceAddress,
+            int port, Channel channel) {
+        final InetAddress address = view.selectItrRloc();
+        if (address == null) {
+            throw new LispMalformedPacketException("Couldn't deserialize Map-Request, no ITR Rloc found!");
+        }
+        // The Map-Resolver ignores SMRs and RLOC probes, so they are dropped without deserializing anything else
+        if (view.isSmr() || view.isProbe()) {
+            LOG.debug("Ignoring SMR or RLOC probe Map-Request in direct mode");
+            return;
+        }
+        final Pair<MapReply, List<ByteBuffer>> reply = flowMapping.handleMapRequestSerialized(
+                view.toMapRequest(sourceAddress));
+        if (reply != null) {
+            final MapReply mapReply = reply.getLeft();
+            final List<ByteBuffer> serializedRecords = reply.getRight();
+            lispSbPlugin.handleLispMessage(address,
+                    MapReplySerializer.getInstance().getSerializationSize(mapReply, serializedRecords),
+                    buffer -> MapReplySerializer.getInstance().serialize(buffer, mapReply, serializedRecords),
+                    MessageType.MapReply, port, channel);
+        } else {
+            LOG.debug("handleMapRequest: Got null MapReply");
+        }
+    }
+
     @SuppressWarnings("checkstyle:IllegalCatch")
     private static int extractEncapsulatedSourcePort(ByteBuffer inBuffer) {
         try {
@@ -169,7 +228,7 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
     }
 
     @SuppressWarnings("checkstyle:IllegalCatch")
-    private void handleMapRegister(ByteBuffer inBuffer, InetAddress sourceAddress, int port) {
+    private void handleMapRegister(ByteBuffer inBuffer, InetAddress sourceAddress, int port, Channel channel) {
         try {
             Map.Entry<MapRegisterCacheKey, byte[]> artificialEntry = null;
             MapRegisterCacheKey cacheKey = null;
@@ -188,7 +247,7 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
                 if (cacheValue != null) {
                     lispSbPlugin.sendNotificationIfPossible(createMappingKeepAlive(cacheValue));
                     if (cacheValue.getMapRegisterCacheMetadata().getWantMapNotify()) {
-                        sendMapNotifyMsg(inBuffer, sourceAddress, port, cacheValue);
+                        sendMapNotifyMsg(inBuffer, sourceAddress, port, cacheValue, channel);
                     }
                 }
             } else {
@@ -199,6 +258,7 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
                 if (authenticationEnabled) {
                     mappingAuthkey = tryToAuthenticateMessage(mapRegister, inBuffer);
                     if (mappingAuthkey == null) {
+                        handleDropStats(MessageType.MapRegister.getIntValue());
                         return;
                     }
                 }
@@ -210,6 +270,7 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
                         sourceAddress));
                 transportAddressBuilder.setPort(new PortNumber(fromJava(port)));
                 addMappingBuilder.setTransportAddress(transportAddressBuilder.build());
+                lispSbPlugin.setReplyChannel(sourceAddress, port, channel);
                 lispSbPlugin.sendNotificationIfPossible(addMappingBuilder.build());
                 if (artificialEntry != null) {
                     final MapRegisterCacheMetadataBuilder cacheMetadataBldNew = new
@@ -315,7 +376,7 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
     }
 
     private void sendMapNotifyMsg(final ByteBuffer inBuffer, final InetAddress inetAddress, int portNumber,
-                                  MapRegisterCacheValue mapRegisterValue) {
+                                  MapRegisterCacheValue mapRegisterValue, Channel channel) {
         if (mapRegisterValue.getMappingAuthkey().getKeyType() != null) {
             ByteBuffer outBuffer = transformMapRegisterToMapNotify(inBuffer);
             if (mapRegisterValue.getMappingAuthkey().getKeyType().toJava() != 0) {
@@ -323,7 +384,7 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
             }
             outBuffer.position(0);
             lispSbPlugin.handleSerializedLispBuffer(inetAddress, outBuffer, MessageType.MapNotify, portNumber,
-                    this.channel);
+                    channel);
         } else {
             LOG.error("Map-Register Cache: authentication succeeded, but can't find auth key for sending Map-Notify");
         }
@@ -446,16 +507,22 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
         }
     }
 
-    private void handleStats(int type) {
+    private void handleStats(int type, int length) {
         if (lispSbPlugin.getStats() != null) {
             if (type <= ConcurrentLispSouthboundStats.MAX_LISP_TYPES) {
-                lispSbPlugin.getStats().incrementRx(type);
+                lispSbPlugin.getStats().incrementRx(type, length);
             } else {
                 lispSbPlugin.getStats().incrementRxUnknown();
             }
         }
     }
 
+    private void handleDropStats(int type) {
+        if (lispSbPlugin.getStats() != null && type <= ConcurrentLispSouthboundStats.MAX_LISP_TYPES) {
+            lispSbPlugin.getStats().incrementRxDropped(type);
+        }
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket msg) throws Exception {
         if (isReadFromChannelEnabled) {
@@ -463,18 +530,17 @@ public class LispSouthboundHandler extends SimpleChannelInboundHandler<DatagramP
                 LOG.trace("Received UDP packet from {}:{} with content:\n{}", msg.sender().getHostString(),
                         msg.sender().getPort(), ByteBufUtil.prettyHexDump(msg.content()));
             }
-            this.channel = ctx.channel();
-            handlePacket(msg);
+            handlePacket(msg, ctx.channel());
         }
     }
 
-    @Override
-    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
-        ctx.flush();
-    }
-
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        // Packets are written with a void promise, so failed writes end up here. Processing received packets
+        // doesn't throw IOExceptions.
+        if (cause instanceof IOException && lispSbPlugin.getStats() != null) {
+            lispSbPlugin.getStats().incrementTxErrors();
+        }
         LOG.error("Error on channel: " + cause, cause);
     }
 
@@ -7,20 +7,54 @@
  */
 package org.opendaylight.lispflowmapping.southbound.lisp.cache;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Ints;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.key.container.MapRegisterCacheKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.metadata.container.MapRegisterCacheMetadata;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.metadata.container.MapRegisterCacheMetadataBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.value.grouping.MapRegisterCacheValue;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.value.grouping.MapRegisterCacheValueBuilder;
 
+/**
+ * Cache of recently seen Map-Register messages.
+ *
+ * <p>The cache is bounded: once it holds the maximum number of entries, the least recently used ones are evicted.
+ * When a timeout is configured, entries which were not written (added or refreshed) within that time are expired.
+ * Both happen in constant time as part of normal cache operations, so stale entries no longer depend on the same
+ * key arriving again to be removed.
+ */
 public class MapRegisterCache {
+    public static final long DEFAULT_MAX_SIZE = 100000;
 
-    protected final Map<MapRegisterCacheKey, MapRegisterCacheValue> cache;
+    protected final Cache<MapRegisterCacheKey, MapRegisterCacheValue> cache;
 
     public MapRegisterCache() {
-        cache = new ConcurrentHashMap<>();
+        this(DEFAULT_MAX_SIZE, 0);
+    }
+
+    /**
+     * Create a bounded cache.
+     *
+     * @param maxSize maximum number of entries
+     * @param timeout time in milliseconds after which an entry which was not refreshed expires, 0 to disable
+     */
+    public MapRegisterCache(final long maxSize, final long timeout) {
+        this(maxSize, timeout, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    MapRegisterCache(final long maxSize, final long timeout, final Ticker ticker) {
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats()
+                .ticker(ticker);
+        if (timeout > 0) {
+            builder.expireAfterWrite(timeout, TimeUnit.MILLISECONDS);
+        }
+        cache = builder.build();
     }
 
     public void addEntry(final MapRegisterCacheKey mapRegisterCacheKey, final MapRegisterCacheValue
@@ -35,19 +69,29 @@ public class MapRegisterCache {
 
     public MapRegisterCacheValue getEntry(final MapRegisterCacheKey mapRegisterCacheKey) {
         if (mapRegisterCacheKey != null) {
-            return cache.get(mapRegisterCacheKey);
+            return cache.getIfPresent(mapRegisterCacheKey);
         }
         return null;
     }
 
     public void removeEntry(final MapRegisterCacheKey mapRegisterCacheKey) {
         if (mapRegisterCacheKey != null) {
-            cache.remove(mapRegisterCacheKey);
+            cache.invalidate(mapRegisterCacheKey);
         }
     }
 
-    public synchronized MapRegisterCacheValue refreshEntry(final MapRegisterCacheKey mapRegisterCacheKey) {
+    /**
+     * Creates a copy of the cached value with an updated timestamp. The cache itself is not modified, the caller is
+     * expected to store the returned value with {@link #addEntry(MapRegisterCacheKey, MapRegisterCacheValue)}.
+     *
+     * @param mapRegisterCacheKey the key of the entry to refresh
+     * @return the refreshed value, or null if there is no such entry (anymore)
+     */
+    public MapRegisterCacheValue refreshEntry(final MapRegisterCacheKey mapRegisterCacheKey) {
         final MapRegisterCacheValue mapRegisterCacheValueOld = getEntry(mapRegisterCacheKey);
+        if (mapRegisterCacheValueOld == null) {
+            return null;
+        }
         final MapRegisterCacheMetadata mapRegisterCacheMetadataOld = mapRegisterCacheValueOld
                 .getMapRegisterCacheMetadata();
 
@@ -64,6 +108,33 @@ public class MapRegisterCache {
     }
 
     public int cacheSize() {
-        return cache.size();
+        return Ints.saturatedCast(cache.size());
+    }
+
+    /**
+     * Number of lookups which found an entry, including the ones made by {@link #refreshEntry(MapRegisterCacheKey)}.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * Number of lookups which did not find an entry, including the ones for expired entries.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * Number of entries removed because the cache was full or because they expired.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
     }
 }
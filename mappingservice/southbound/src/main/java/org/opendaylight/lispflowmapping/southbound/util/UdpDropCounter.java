@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.southbound.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the number of datagrams dropped by the kernel for all UDP sockets bound to a set of local ports, from the
+ * drops column of /proc/net/udp and /proc/net/udp6. This covers all sockets sharing a port with SO_REUSEPORT. The
+ * ports are checked on each read, so that ports bound or released since are accounted for. Where these files are not
+ * available, e.g. on other operating systems than Linux, the count is always 0.
+ */
+public final class UdpDropCounter implements LongSupplier {
+    private static final Logger LOG = LoggerFactory.getLogger(UdpDropCounter.class);
+    private static final List<Path> PROC_FILES = List.of(Path.of("/proc/net/udp"), Path.of("/proc/net/udp6"));
+    private static final int LOCAL_ADDRESS_COLUMN = 1;
+    private static final int DROPS_COLUMN = 12;
+
+    private final IntPredicate ports;
+    private final List<Path> files;
+    private volatile boolean warned = false;
+
+    public UdpDropCounter(IntPredicate ports) {
+        this(ports, PROC_FILES);
+    }
+
+    UdpDropCounter(IntPredicate ports, List<Path> files) {
+        this.ports = ports;
+        this.files = files;
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:IllegalCatch")
+    public long getAsLong() {
+        long drops = 0;
+        for (Path file : files) {
+            if (!Files.isReadable(file)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+                drops += countDrops(reader, ports);
+            } catch (IOException | RuntimeException e) {
+                if (!warned) {
+                    LOG.warn("Failed to read UDP drop count from {}", file, e);
+                    warned = true;
+                }
+            }
+        }
+        return drops;
+    }
+
+    static long countDrops(BufferedReader reader, IntPredicate ports) throws IOException {
+        long drops = 0;
+        // Skip the header
+        reader.readLine();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final String[] columns = line.trim().split("\\s+");
+            if (columns.length <= DROPS_COLUMN) {
+                continue;
+            }
+            // The local address is hex encoded, followed by the port, e.g. 00000000:10F6
+            final String localAddress = columns[LOCAL_ADDRESS_COLUMN];
+            final int portIndex = localAddress.lastIndexOf(':');
+            if (portIndex >= 0 && ports.test(Integer.parseInt(localAddress.substring(portIndex + 1), 16))) {
+                drops += Long.parseLong(columns[DROPS_COLUMN]);
+            }
+        }
+        return drops;
+    }
+}
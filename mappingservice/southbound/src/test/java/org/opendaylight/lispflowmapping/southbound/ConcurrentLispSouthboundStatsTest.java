@@ -10,6 +10,8 @@ package org.opendaylight.lispflowmapping.southbound;
 import static org.junit.Assert.assertEquals;
 
 import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -132,21 +134,128 @@ public class ConcurrentLispSouthboundStatsTest {
         assertEquals(0, lispSouthboundStats.getTxErrors());
     }
 
+    /**
+     * Tests {@link ConcurrentLispSouthboundStats#incrementRx(int, int)} and
+     * {@link ConcurrentLispSouthboundStats#incrementTx(int, int)} methods.
+     */
+    @Test
+    public void incrementBytesTest() {
+        lispSouthboundStats.incrementRx(1, 100);
+        lispSouthboundStats.incrementRx(1, 50);
+        lispSouthboundStats.incrementTx(2, 80);
+
+        assertEquals(2, lispSouthboundStats.getRx()[1]);
+        assertEquals(150, lispSouthboundStats.getRxBytes()[1]);
+        assertEquals(1, lispSouthboundStats.getTx()[2]);
+        assertEquals(80, lispSouthboundStats.getTxBytes()[2]);
+        assertEquals(0, lispSouthboundStats.getRxBytes()[2]);
+    }
+
+    /**
+     * Tests {@link ConcurrentLispSouthboundStats#incrementRxDropped} method.
+     */
+    @Test
+    public void incrementRxDroppedTest() {
+        lispSouthboundStats.incrementRxDropped(3);
+        lispSouthboundStats.incrementRxDropped(3);
+
+        assertEquals(2, lispSouthboundStats.getRxDropped()[3]);
+        assertEquals(0, lispSouthboundStats.getRx()[3]);
+    }
+
+    /**
+     * Tests that {@link ConcurrentLispSouthboundStats#resetStats} only affects counts up to the reset.
+     */
+    @Test
+    public void resetStatsTest_countsAfterReset() {
+        lispSouthboundStats.incrementCacheHits();
+        lispSouthboundStats.incrementTxErrors();
+        lispSouthboundStats.resetStats();
+        lispSouthboundStats.incrementCacheHits();
+
+        final ConcurrentLispSouthboundStats.Snapshot snapshot = lispSouthboundStats.getSnapshot();
+        assertEquals(1, snapshot.getCacheHits());
+        assertEquals(0, snapshot.getTxErrors());
+    }
+
+    /**
+     * Tests that no increments are lost when counters are updated from several threads.
+     */
+    @Test
+    public void incrementRxTest_concurrent() throws InterruptedException {
+        final int threadCount = 4;
+        final int increments = 10000;
+        final Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < increments; j++) {
+                    lispSouthboundStats.incrementRx(1, 10);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threadCount * increments, lispSouthboundStats.getRx()[1]);
+        assertEquals(threadCount * increments * 10L, lispSouthboundStats.getRxBytes()[1]);
+    }
+
+    /**
+     * Tests that the kernel drop count starts from the count when the counter is set, and from the count at the last
+     * reset afterwards.
+     */
+    @Test
+    public void rxKernelDroppedTest() {
+        final AtomicLong kernelDrops = new AtomicLong(10);
+        lispSouthboundStats.setRxKernelDroppedCounter(kernelDrops::get);
+        assertEquals(0, lispSouthboundStats.getRxKernelDropped());
+
+        kernelDrops.addAndGet(5);
+        assertEquals(5, lispSouthboundStats.getRxKernelDropped());
+
+        lispSouthboundStats.resetStats();
+        kernelDrops.addAndGet(2);
+        assertEquals(2, lispSouthboundStats.getRxKernelDropped());
+    }
+
+    /**
+     * Tests that the kernel drop count doesn't go backwards when the counter of the socket restarts from 0 after the
+     * socket is bound again.
+     */
+    @Test
+    public void rxKernelDroppedTest_counterGoesBackwards() {
+        final AtomicLong kernelDrops = new AtomicLong(10);
+        lispSouthboundStats.setRxKernelDroppedCounter(kernelDrops::get);
+        kernelDrops.addAndGet(5);
+        assertEquals(5, lispSouthboundStats.getRxKernelDropped());
+
+        kernelDrops.set(0);
+        assertEquals(5, lispSouthboundStats.getRxKernelDropped());
+
+        kernelDrops.set(3);
+        assertEquals(8, lispSouthboundStats.getRxKernelDropped());
+    }
+
     private static void setRxField(long[] array) throws NoSuchFieldException, IllegalAccessException {
         Field rx = ConcurrentLispSouthboundStats.class.getDeclaredField("rx");
         rx.setAccessible(true);
-        rx.set(lispSouthboundStats, array);
+        LongAdder[] counters = (LongAdder[]) rx.get(lispSouthboundStats);
+        for (int i = 0; i < array.length; i++) {
+            counters[i].add(array[i]);
+        }
     }
 
     private static void setRxUnkownField(long value) throws NoSuchFieldException, IllegalAccessException {
         Field rxUnknown = ConcurrentLispSouthboundStats.class.getDeclaredField("rxUnknown");
         rxUnknown.setAccessible(true);
-        rxUnknown.set(lispSouthboundStats, value);
+        ((LongAdder) rxUnknown.get(lispSouthboundStats)).add(value);
     }
 
     private static void setTxErrorsField(long value) throws NoSuchFieldException, IllegalAccessException {
         Field txErrors = ConcurrentLispSouthboundStats.class.getDeclaredField("txErrors");
         txErrors.setAccessible(true);
-        txErrors.set(lispSouthboundStats, value);
+        ((LongAdder) txErrors.get(lispSouthboundStats)).add(value);
     }
 }
@@ -10,8 +10,12 @@ package org.opendaylight.lispflowmapping.southbound;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import com.google.common.util.concurrent.Futures;
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
@@ -39,11 +43,13 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev16
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MessageType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddressBuilder;
+import org.opendaylight.yangtools.binding.Notification;
 import org.opendaylight.yangtools.yang.common.Uint16;
 
 public class LispSouthboundPluginTest {
 
     private static NioDatagramChannel channel;
+    private static NotificationPublishService notificationPublishService;
     private static NioDatagramChannel xtrChannel;
     private static LispSouthboundPlugin lispSouthboundPlugin;
     private static final Bootstrap BOOTSTRAP_MOCK = Mockito.mock(Bootstrap.class);
@@ -67,9 +73,10 @@ public class LispSouthboundPluginTest {
 
     @Before
     public void init() throws NoSuchFieldException, IllegalAccessException, InterruptedException {
+        notificationPublishService = Mockito.mock(NotificationPublishService.class);
         lispSouthboundPlugin = new LispSouthboundPlugin(
                 Mockito.mock(DataBroker.class),
-                Mockito.mock(NotificationPublishService.class),
+                notificationPublishService,
                 Mockito.mock(ClusterSingletonServiceProvider.class),
                 ADDRESS_1, false, 0, true);
 
@@ -89,11 +96,8 @@ public class LispSouthboundPluginTest {
         final InetAddress address = InetAddress.getByAddress(IPV4_BINARY.getIpv4AddressBinary().getValue());
         final InetSocketAddress inetSocketAddress = new InetSocketAddress(address, PORT);
 
-        // Ensures that NPE is not thrown.
-        Mockito.when(channel.write(Mockito.any())).thenReturn(Mockito.mock(ChannelFuture.class));
-
         lispSouthboundPlugin.handleSerializedLispBuffer(TRANSPORT_ADDRESS_IPV4, PACKET, MessageType.MapRequest);
-        Mockito.verify(channel).write(captor.capture());
+        Mockito.verify(channel).write(captor.capture(), Mockito.any());
         Mockito.verify(channel).flush();
 
         final DatagramPacket result = captor.getValue();
@@ -111,11 +115,8 @@ public class LispSouthboundPluginTest {
         final InetAddress address = InetAddress.getByAddress(IPV6_BINARY.getIpv6AddressBinary().getValue());
         final InetSocketAddress inetSocketAddress = new InetSocketAddress(address, PORT);
 
-        // Ensures that NPE is not thrown.
-        Mockito.when(channel.write(Mockito.any())).thenReturn(Mockito.mock(ChannelFuture.class));
-
         lispSouthboundPlugin.handleSerializedLispBuffer(TRANSPORT_ADDRESS_IPV6, PACKET, MessageType.MapRequest);
-        Mockito.verify(channel).write(captor.capture());
+        Mockito.verify(channel).write(captor.capture(), Mockito.any());
         Mockito.verify(channel).flush();
 
         final DatagramPacket result = captor.getValue();
@@ -123,6 +124,93 @@ public class LispSouthboundPluginTest {
         assertEquals(inetSocketAddress, result.recipient());
     }
 
+    /**
+     * Tests that replies are sent on the channel which received the request from the peer.
+     */
+    @Test
+    public void handleSerializedLispBufferTest_withReplyChannel() throws UnknownHostException {
+        final InetAddress address = InetAddress.getByAddress(IPV4_BINARY.getIpv4AddressBinary().getValue());
+        final NioDatagramChannel replyChannel = Mockito.mock(NioDatagramChannel.class);
+        Mockito.when(replyChannel.isActive()).thenReturn(true);
+
+        lispSouthboundPlugin.setReplyChannel(address, PORT, replyChannel);
+        lispSouthboundPlugin.handleSerializedLispBuffer(TRANSPORT_ADDRESS_IPV4, PACKET, MessageType.MapReply);
+        Mockito.verify(replyChannel).write(Mockito.any(DatagramPacket.class), Mockito.any());
+        Mockito.verify(replyChannel).flush();
+
+        // No request was received from this peer
+        lispSouthboundPlugin.handleSerializedLispBuffer(TRANSPORT_ADDRESS_IPV6, PACKET, MessageType.MapReply);
+        Mockito.verify(channel).write(Mockito.any(DatagramPacket.class), Mockito.any());
+    }
+
+    /**
+     * Tests {@link LispSouthboundPlugin#handleLispMessage} method, message serialized into a pooled direct buffer.
+     */
+    @Test
+    public void handleLispMessageTest() throws UnknownHostException {
+        final ArgumentCaptor<DatagramPacket> captor = ArgumentCaptor.forClass(DatagramPacket.class);
+        final InetAddress address = InetAddress.getByAddress(IPV4_BINARY.getIpv4AddressBinary().getValue());
+        final byte[] packet = PACKET.array();
+
+        Mockito.when(channel.alloc()).thenReturn(PooledByteBufAllocator.DEFAULT);
+
+        lispSouthboundPlugin.handleLispMessage(TRANSPORT_ADDRESS_IPV4, packet.length, buffer -> buffer.put(packet),
+                MessageType.MapRequest);
+        Mockito.verify(channel).write(captor.capture(), Mockito.any());
+        Mockito.verify(channel).flush();
+
+        final DatagramPacket result = captor.getValue();
+        assertTrue(result.content().isDirect());
+        assertEquals(1L, lispSouthboundPlugin.getStats().getTx()[MessageType.MapRequest.getIntValue()]);
+        assertArrayEquals(packet, ByteBufUtil.getBytes(result.content()));
+        assertEquals(new InetSocketAddress(address, PORT), result.recipient());
+        result.release();
+    }
+
+    /**
+     * Tests {@link LispSouthboundPlugin#sendNotificationIfPossible} method, notification queued without blocking.
+     */
+    @Test
+    public void sendNotificationIfPossibleTest() throws InterruptedException {
+        final Notification notification = Mockito.mock(Notification.class);
+        Mockito.doReturn(Futures.immediateFuture(null)).when(notificationPublishService)
+                .offerNotification(notification);
+
+        lispSouthboundPlugin.instantiateServiceInstance();
+        lispSouthboundPlugin.sendNotificationIfPossible(notification);
+
+        Mockito.verify(notificationPublishService, Mockito.never()).putNotification(Mockito.any());
+        assertEquals(1L, lispSouthboundPlugin.getStats().getNotificationsPublished());
+        assertEquals(0L, lispSouthboundPlugin.getStats().getNotificationsRejected());
+    }
+
+    /**
+     * Tests {@link LispSouthboundPlugin#sendNotificationIfPossible} method, publish queue full.
+     */
+    @Test
+    public void sendNotificationIfPossibleTest_withBackpressure() throws InterruptedException {
+        final Notification notification = Mockito.mock(Notification.class);
+        Mockito.doReturn(NotificationPublishService.REJECTED).when(notificationPublishService)
+                .offerNotification(notification);
+
+        lispSouthboundPlugin.instantiateServiceInstance();
+        lispSouthboundPlugin.sendNotificationIfPossible(notification);
+
+        Mockito.verify(notificationPublishService).putNotification(notification);
+        assertEquals(1L, lispSouthboundPlugin.getStats().getNotificationsPublished());
+        assertEquals(1L, lispSouthboundPlugin.getStats().getNotificationsRejected());
+    }
+
+    /**
+     * Tests {@link LispSouthboundPlugin#sendNotificationIfPossible} method, not the cluster singleton owner.
+     */
+    @Test
+    public void sendNotificationIfPossibleTest_notMaster() throws InterruptedException {
+        lispSouthboundPlugin.sendNotificationIfPossible(Mockito.mock(Notification.class));
+
+        Mockito.verifyNoInteractions(notificationPublishService);
+    }
+
     /**
      * Tests {@link LispSouthboundPlugin#setLispAddress} method - binding address has changed.
      */
@@ -7,13 +7,20 @@
  */
 package org.opendaylight.lispflowmapping.southbound;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -22,8 +29,17 @@ import org.opendaylight.lispflowmapping.lisp.serializer.MapNotifySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapRegisterSerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapReplySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapRequestSerializer;
+import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
+import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
+import org.opendaylight.lispflowmapping.lisp.util.MapRequestUtil;
+import org.opendaylight.lispflowmapping.southbound.lisp.cache.MapRegisterCache;
 import org.opendaylight.mdsal.binding.api.RpcProviderService;
+import org.opendaylight.yang.gen.v1.urn.ietf.params.xml.ns.yang.ietf.inet.types.rev130715.PortNumber;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.IpAddressBinary;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.inet.binary.types.rev160303.Ipv4AddressBinary;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MessageType;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.list.EidItemBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapnotifymessage.MapNotify;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapnotifymessage.MapNotifyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
@@ -34,6 +50,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapregistermessage.MapRegisterBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapreplymessage.MapReply;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapreplymessage.MapReplyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequest.ItrRlocBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestmessage.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.maprequestmessage.MapRequestBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.transport.address.TransportAddress;
@@ -46,11 +63,16 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendM
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRegisterInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapReplyInput;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendMapRequestInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInput;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.SendSmrsInputBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.get.stats.output.ControlMessageStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.get.stats.output.MapRegisterCacheStats;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input.SmrSubscriberBuilder;
 import org.opendaylight.yangtools.yang.common.ErrorTag;
 import org.opendaylight.yangtools.yang.common.ErrorType;
 import org.opendaylight.yangtools.yang.common.RpcResult;
 import org.opendaylight.yangtools.yang.common.RpcResultBuilder;
+import org.opendaylight.yangtools.yang.common.Uint16;
 
 @RunWith(MockitoJUnitRunner.class)
 public class LispSouthboundRpcTest {
@@ -79,8 +101,8 @@ public class LispSouthboundRpcTest {
         assertEquals(RPC_RESULT_SUCCESS.isSuccessful(),
                 lispSouthboundRPC.sendMapNotify(sendMapNotifyInputMock).get().isSuccessful());
 
-        Mockito.verify(lispSouthboundPlugin).handleSerializedLispBuffer(transportAddress,
-                MapNotifySerializer.getInstance().serialize(mapNotify), MessageType.MapNotify);
+        assertArrayEquals(MapNotifySerializer.getInstance().serialize(mapNotify).array(),
+                verifyLispMessage(transportAddress, MessageType.MapNotify));
     }
 
     /**
@@ -109,8 +131,8 @@ public class LispSouthboundRpcTest {
         assertEquals(RPC_RESULT_SUCCESS.isSuccessful(),
                 lispSouthboundRPC.sendMapReply(sendMapReplyInputMock).get().isSuccessful());
 
-        Mockito.verify(lispSouthboundPlugin).handleSerializedLispBuffer(transportAddress,
-                MapReplySerializer.getInstance().serialize(mapReply), MessageType.MapReply);
+        assertArrayEquals(MapReplySerializer.getInstance().serialize(mapReply).array(),
+                verifyLispMessage(transportAddress, MessageType.MapReply));
     }
 
     /**
@@ -139,8 +161,8 @@ public class LispSouthboundRpcTest {
         assertEquals(RPC_RESULT_SUCCESS.isSuccessful(),
                 lispSouthboundRPC.sendMapRequest(sendMapRequestInputMock).get().isSuccessful());
 
-        Mockito.verify(lispSouthboundPlugin).handleSerializedLispBuffer(transportAddress,
-                MapRequestSerializer.getInstance().serialize(mapRequest), MessageType.MapRequest);
+        assertArrayEquals(MapRequestSerializer.getInstance().serialize(mapRequest).array(),
+                verifyLispMessage(transportAddress, MessageType.MapRequest));
     }
 
     /**
@@ -154,6 +176,99 @@ public class LispSouthboundRpcTest {
         Mockito.verifyNoInteractions(lispSouthboundPlugin);
     }
 
+    /**
+     * Tests {@link LispSouthboundRPC#sendSmrs} method.
+     */
+    @Test
+    public void sendSmrsTest() throws ExecutionException, InterruptedException {
+        final MapRequestBuilder smrBuilder = new MapRequestBuilder(MapRequestUtil.prepareSMR(
+                LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.0/24"), LispAddressUtil.asIpv4Rloc("10.0.0.1")).build());
+        final Eid eid1 = LispAddressUtil.asIpv4Eid("192.168.0.1");
+        final Eid eid2 = LispAddressUtil.asIpv6Eid("1::1");
+        final TransportAddress transportAddress1 = getTransportAddress(2);
+        final TransportAddress transportAddress2 = getTransportAddress(3);
+
+        final SendSmrsInput input = new SendSmrsInputBuilder()
+                .setMapRequest(new org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input
+                        .MapRequestBuilder(smrBuilder.build()).build())
+                .setSmrSubscriber(List.of(
+                        new SmrSubscriberBuilder().setEid(eid1).setTransportAddress(transportAddress1).build(),
+                        new SmrSubscriberBuilder().setEid(eid2).setTransportAddress(transportAddress2).build()))
+                .build();
+        assertEquals(RPC_RESULT_SUCCESS.isSuccessful(), lispSouthboundRPC.sendSmrs(input).get().isSuccessful());
+
+        smrBuilder.setEidItem(List.of(new EidItemBuilder().setEidItemId("eid1").setEid(eid1).build()));
+        assertArrayEquals(MapRequestSerializer.getInstance().serialize(smrBuilder.build()).array(),
+                verifyLispMessage(transportAddress1, MessageType.MapRequest));
+        smrBuilder.setEidItem(List.of(new EidItemBuilder().setEidItemId("eid2").setEid(eid2).build()));
+        assertArrayEquals(MapRequestSerializer.getInstance().serialize(smrBuilder.build()).array(),
+                verifyLispMessage(transportAddress2, MessageType.MapRequest));
+    }
+
+    /**
+     * Tests {@link LispSouthboundRPC#sendSmrs} method, when the socket is bound to a specific address.
+     */
+    @Test
+    public void sendSmrsTest_boundAddress() throws ExecutionException, InterruptedException, UnknownHostException {
+        final InetAddress boundAddress = InetAddress.getByAddress(new byte[] {10, 0, 0, 9});
+        final MapRequestBuilder smrBuilder = new MapRequestBuilder(MapRequestUtil.prepareSMR(
+                LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.0/24"), LispAddressUtil.asIpv4Rloc("10.0.0.1")).build());
+        final Eid eid = LispAddressUtil.asIpv4Eid("192.168.0.1");
+        final TransportAddress transportAddress = getTransportAddress(2);
+
+        Mockito.when(lispSouthboundPlugin.getBoundAddress()).thenReturn(boundAddress);
+        final SendSmrsInput input = new SendSmrsInputBuilder()
+                .setMapRequest(new org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input
+                        .MapRequestBuilder(smrBuilder.build()).build())
+                .setSmrSubscriber(List.of(
+                        new SmrSubscriberBuilder().setEid(eid).setTransportAddress(transportAddress).build()))
+                .build();
+        assertEquals(RPC_RESULT_SUCCESS.isSuccessful(), lispSouthboundRPC.sendSmrs(input).get().isSuccessful());
+
+        smrBuilder.setItrRloc(List.of(new ItrRlocBuilder().setItrRlocId("bound")
+                .setRloc(LispAddressUtil.toRloc(boundAddress)).build()));
+        smrBuilder.setEidItem(List.of(new EidItemBuilder().setEidItemId("eid").setEid(eid).build()));
+        assertArrayEquals(MapRequestSerializer.getInstance().serialize(smrBuilder.build()).array(),
+                verifyLispMessage(transportAddress, MessageType.MapRequest));
+    }
+
+    /**
+     * Tests {@link LispSouthboundRPC#sendSmrs} method, when the socket is bound to a specific address, but the
+     * ITR-RLOCs are to be kept.
+     */
+    @Test
+    public void sendSmrsTest_keepItrRloc() throws ExecutionException, InterruptedException {
+        final MapRequestBuilder smrBuilder = new MapRequestBuilder(MapRequestUtil.prepareSMR(
+                LispAddressUtil.asIpv4PrefixBinaryEid("1.2.3.0/24"), List.of(LispAddressUtil.asIpv4Rloc("10.0.0.1"),
+                        LispAddressUtil.asIpv6Rloc("1::1"))).build());
+        final Eid eid = LispAddressUtil.asIpv4Eid("192.168.0.1");
+        final TransportAddress transportAddress = getTransportAddress(2);
+
+        final SendSmrsInput input = new SendSmrsInputBuilder()
+                .setMapRequest(new org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.sb.rev150904.send.smrs.input
+                        .MapRequestBuilder(smrBuilder.build()).build())
+                .setKeepItrRloc(true)
+                .setSmrSubscriber(List.of(
+                        new SmrSubscriberBuilder().setEid(eid).setTransportAddress(transportAddress).build()))
+                .build();
+        assertEquals(RPC_RESULT_SUCCESS.isSuccessful(), lispSouthboundRPC.sendSmrs(input).get().isSuccessful());
+
+        smrBuilder.setEidItem(List.of(new EidItemBuilder().setEidItemId("eid").setEid(eid).build()));
+        assertArrayEquals(MapRequestSerializer.getInstance().serialize(smrBuilder.build()).array(),
+                verifyLispMessage(transportAddress, MessageType.MapRequest));
+        Mockito.verify(lispSouthboundPlugin, Mockito.never()).getBoundAddress();
+    }
+
+    /**
+     * Tests {@link LispSouthboundRPC#sendSmrs} method with null input.
+     */
+    @Test
+    public void sendSmrsTest_nullInput() throws ExecutionException, InterruptedException {
+        assertEquals(RPC_RESULT_FAILURE.isSuccessful(), lispSouthboundRPC.sendSmrs(null).get().isSuccessful());
+
+        Mockito.verifyNoInteractions(lispSouthboundPlugin);
+    }
+
     /**
      * Tests {@link LispSouthboundRPC#sendMapRegister} method.
      */
@@ -207,6 +322,28 @@ public class LispSouthboundRpcTest {
         assertEquals(stats.getRx()[8], (long) resultStats.getControlMessage().get(7).getRxCount());
     }
 
+    /**
+     * Tests that {@link LispSouthboundRPC#getStats} reports the lookup counters of the Map-Register cache.
+     */
+    @Test
+    public void getStatsTest_mapRegisterCache() throws ExecutionException, InterruptedException {
+        final MapRegisterCache mapRegisterCache = Mockito.mock(MapRegisterCache.class);
+        Mockito.when(mapRegisterCache.getHitCount()).thenReturn(3L);
+        Mockito.when(mapRegisterCache.getMissCount()).thenReturn(2L);
+        Mockito.when(mapRegisterCache.getEvictionCount()).thenReturn(1L);
+        Mockito.when(mapRegisterCache.cacheSize()).thenReturn(5);
+        Mockito.when(lispSouthboundPlugin.getStats()).thenReturn(new ConcurrentLispSouthboundStats());
+        Mockito.when(lispSouthboundPlugin.getMapRegisterCache()).thenReturn(mapRegisterCache);
+
+        final MapRegisterCacheStats resultStats = lispSouthboundRPC.getStats(
+                Mockito.mock(GetStatsInput.class)).get().getResult().getMapRegisterCacheStats();
+
+        assertEquals(3L, (long) resultStats.getLookupHits());
+        assertEquals(2L, (long) resultStats.getLookupMisses());
+        assertEquals(1L, (long) resultStats.getEvictions());
+        assertEquals(5L, (long) resultStats.getEntries());
+    }
+
     /**
      * Tests {@link LispSouthboundRPC#getStats} method with null stats.
      */
@@ -258,6 +395,30 @@ public class LispSouthboundRpcTest {
         assertEquals(expectedMsg, rpcResult.getErrors().iterator().next().getMessage());
     }
 
+    /**
+     * Verifies that a message was sent with {@link LispSouthboundPlugin#handleLispMessage} and returns its
+     * serialization.
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] verifyLispMessage(TransportAddress transportAddress, MessageType packetType) {
+        final ArgumentCaptor<Integer> sizeCaptor = ArgumentCaptor.forClass(Integer.class);
+        final ArgumentCaptor<Consumer<ByteBuffer>> serializerCaptor = ArgumentCaptor.forClass(Consumer.class);
+        Mockito.verify(lispSouthboundPlugin).handleLispMessage(Mockito.eq(transportAddress), sizeCaptor.capture(),
+                serializerCaptor.capture(), Mockito.eq(packetType));
+
+        final ByteBuffer buffer = ByteBuffer.allocate(sizeCaptor.getValue());
+        serializerCaptor.getValue().accept(buffer);
+        assertFalse(buffer.hasRemaining());
+        return buffer.array();
+    }
+
+    private static TransportAddress getTransportAddress(int lastOctet) {
+        return new TransportAddressBuilder()
+                .setIpAddress(new IpAddressBinary(new Ipv4AddressBinary(new byte[] {10, 0, 0, (byte) lastOctet})))
+                .setPort(new PortNumber(Uint16.valueOf(LispMessage.PORT_NUMBER)))
+                .build();
+    }
+
     private static MappingRecordItem getDefaultMappingRecordItem() {
         return new MappingRecordItemBuilder()
                 .withKey(new MappingRecordItemKey("foo"))
@@ -23,7 +23,9 @@ import static org.opendaylight.lispflowmapping.southbound.lisp.MapRegisterCacheT
 import static org.opendaylight.lispflowmapping.southbound.lisp.MapRegisterCacheTestUtil.XTR_ID;
 import static org.opendaylight.lispflowmapping.southbound.lisp.MapRegisterCacheTestUtil.joinArrays;
 
+import io.netty.channel.Channel;
 import io.netty.channel.socket.DatagramPacket;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
@@ -31,7 +33,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -44,8 +48,10 @@ import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.opendaylight.lispflowmapping.interfaces.lisp.IFlowMapping;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapNotifySerializer;
 import org.opendaylight.lispflowmapping.lisp.serializer.MapReplySerializer;
+import org.opendaylight.lispflowmapping.lisp.serializer.MappingRecordSerializer;
 import org.opendaylight.lispflowmapping.lisp.type.LispMessage;
 import org.opendaylight.lispflowmapping.lisp.util.ByteUtil;
 import org.opendaylight.lispflowmapping.lisp.util.LispAddressUtil;
@@ -61,6 +67,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.typ
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.Ipv4PrefixBinaryAfi;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.binary.address.types.rev160504.Ipv6PrefixBinaryAfi;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.AddMapping;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MapRequest;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.MessageType;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.RequestMapping;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.eid.container.Eid;
@@ -77,6 +84,7 @@ import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.ma
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.container.MappingRecordBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItem;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItemBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping._record.list.MappingRecordItemKey;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapping.authkey.container.MappingAuthkeyBuilder;
 import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.mapreplymessage.MapReplyBuilder;
 import org.opendaylight.yangtools.yang.common.Uint16;
@@ -975,6 +983,61 @@ public class LispSouthboundHandlerTest {
         Mockito.verify(mockLispSouthboundPlugin).sendNotificationIfPossible(Mockito.any(RequestMapping.class));
     }
 
+    @Test
+    public void mapRequest__DirectMode() throws Exception {
+        final IFlowMapping flowMapping = Mockito.mock(IFlowMapping.class);
+        Mockito.when(mockLispSouthboundPlugin.getDirectFlowMapping()).thenReturn(flowMapping);
+        mapReplyBuilder.getMappingRecordItem().add(new MappingRecordItemBuilder()
+                .withKey(new MappingRecordItemKey("0"))
+                .setMappingRecord(mappingRecordBuilder.build()).build());
+        // The record is passed already serialized, so the Map-Reply must copy it as it is
+        final ByteBuffer serializedRecord =
+                MappingRecordSerializer.getInstance().serialize(mappingRecordBuilder.build());
+        Mockito.when(flowMapping.handleMapRequestSerialized(Mockito.any(MapRequest.class)))
+                .thenReturn(Pair.of(mapReplyBuilder.build(), List.of(serializedRecord)));
+
+        handleMapRequestPacket(mapRequestPacket);
+
+        final ArgumentCaptor<Integer> sizeCaptor = ArgumentCaptor.forClass(Integer.class);
+        @SuppressWarnings("unchecked")
+        final ArgumentCaptor<Consumer<ByteBuffer>> serializerCaptor = ArgumentCaptor.forClass(Consumer.class);
+        Mockito.verify(mockLispSouthboundPlugin).handleLispMessage(
+                Mockito.eq(InetAddress.getByName("192.168.136.10")), sizeCaptor.capture(), serializerCaptor.capture(),
+                Mockito.eq(MessageType.MapReply), Mockito.eq(56756), Mockito.any());
+        Mockito.verify(mockLispSouthboundPlugin, Mockito.never()).sendNotificationIfPossible(Mockito.any());
+        final ByteBuffer buffer = ByteBuffer.allocate(sizeCaptor.getValue());
+        serializerCaptor.getValue().accept(buffer);
+        assertArrayEquals(MapReplySerializer.getInstance().serialize(mapReplyBuilder.build()).array(),
+                buffer.array());
+        assertEquals(0, serializedRecord.position());
+    }
+
+    @Test
+    public void mapRequest__DirectModeNoReply() throws Exception {
+        final IFlowMapping flowMapping = Mockito.mock(IFlowMapping.class);
+        Mockito.when(mockLispSouthboundPlugin.getDirectFlowMapping()).thenReturn(flowMapping);
+
+        handleMapRequestPacket(mapRequestPacket);
+
+        Mockito.verify(flowMapping).handleMapRequestSerialized(Mockito.any(MapRequest.class));
+        Mockito.verify(mockLispSouthboundPlugin, Mockito.never()).handleLispMessage(
+                Mockito.any(InetAddress.class), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.anyInt(),
+                Mockito.any());
+        Mockito.verify(mockLispSouthboundPlugin, Mockito.never()).sendNotificationIfPossible(Mockito.any());
+    }
+
+    @Test
+    public void mapRequest__ReplyChannel() throws Exception {
+        final Channel channel = Mockito.mock(Channel.class);
+
+        testedLispService.handlePacket(new DatagramPacket(wrappedBuffer(mapRequestPacket), new InetSocketAddress(0),
+                new InetSocketAddress(0)), channel);
+
+        Mockito.verify(mockLispSouthboundPlugin).setReplyChannel(
+                Mockito.eq(InetAddress.getByName("192.168.136.10")), Mockito.eq(56756), Mockito.same(channel));
+        Mockito.verify(mockLispSouthboundPlugin).sendNotificationIfPossible(Mockito.any(RequestMapping.class));
+    }
+
     private byte[] handleMapRequestAsByteArray(byte[] inPacket) {
         handleMapRequestPacket(inPacket);
         return lastMapReplyPacket().content().array();
@@ -1063,4 +1126,22 @@ public class LispSouthboundHandlerTest {
                 + "00 20 00 01 01 02 03 04").array();
         handleMapRequestPacket(mapRequestPacket);
     }
+
+    @Test(expected = LispMalformedPacketException.class)
+    public void mapRequest__DirectModeNoIpItrRloc() throws Exception {
+        final IFlowMapping flowMapping = Mockito.mock(IFlowMapping.class);
+        Mockito.when(mockLispSouthboundPlugin.getDirectFlowMapping()).thenReturn(flowMapping);
+        mapRequestPacket = hexToByteBuffer("10 00 "
+                // This means 3 ITR - RLOCs
+                + "02 "
+                + "01 3d 8d 2a cd 39 c8 d6 08 00 00 "
+                // MAC (ITR-RLOC #1 of 3)
+                + "40 05 c0 a8 88 0a 01 02 "
+                // MAC (ITR-RLOC #2 of 3)
+                + "40 05 00 00 00 00 00 00 "
+                // MAC (ITR-RLOC #3 of 3)
+                + "40 05 11 22 34 56 78 90 "
+                + "00 20 00 01 01 02 03 04").array();
+        handleMapRequestPacket(mapRequestPacket);
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.southbound.lisp.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Ticker;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.XtrId;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.key.container.MapRegisterCacheKey;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.key.container.MapRegisterCacheKeyBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.metadata.container.MapRegisterCacheMetadataBuilder;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.value.grouping.MapRegisterCacheValue;
+import org.opendaylight.yang.gen.v1.urn.opendaylight.lfm.lisp.proto.rev151105.map.register.cache.value.grouping.MapRegisterCacheValueBuilder;
+
+public class MapRegisterCacheTest {
+    private static final long TIMESTAMP = 1000L;
+
+    /**
+     * Tests that the number of entries never exceeds the configured maximum.
+     */
+    @Test
+    public void addEntryTest_maxSize() {
+        final MapRegisterCache mapRegisterCache = new MapRegisterCache(10, 0);
+        for (int i = 0; i < 100; i++) {
+            mapRegisterCache.addEntry(createKey(i), createValue());
+        }
+
+        assertTrue(mapRegisterCache.cacheSize() <= 10);
+        assertTrue(mapRegisterCache.getEvictionCount() >= 90);
+    }
+
+    /**
+     * Tests that entries which were not refreshed within the timeout expire.
+     */
+    @Test
+    public void getEntryTest_expired() {
+        final ManualTicker ticker = new ManualTicker();
+        final MapRegisterCache mapRegisterCache = new MapRegisterCache(10, 20, ticker);
+        mapRegisterCache.addEntry(createKey(0), createValue());
+
+        ticker.advance(19);
+        assertNotNull(mapRegisterCache.getEntry(createKey(0)));
+
+        ticker.advance(1);
+        assertNull(mapRegisterCache.getEntry(createKey(0)));
+        assertEquals(1, mapRegisterCache.getHitCount());
+        assertEquals(1, mapRegisterCache.getMissCount());
+    }
+
+    /**
+     * Tests {@link MapRegisterCache#getEntry} hit and miss accounting.
+     */
+    @Test
+    public void getEntryTest_hitsAndMisses() {
+        final MapRegisterCache mapRegisterCache = new MapRegisterCache();
+        mapRegisterCache.addEntry(createKey(0), createValue());
+
+        assertNotNull(mapRegisterCache.getEntry(createKey(0)));
+        assertNull(mapRegisterCache.getEntry(createKey(1)));
+        assertEquals(1, mapRegisterCache.getHitCount());
+        assertEquals(1, mapRegisterCache.getMissCount());
+    }
+
+    /**
+     * Tests {@link MapRegisterCache#refreshEntry} method.
+     */
+    @Test
+    public void refreshEntryTest() {
+        final MapRegisterCache mapRegisterCache = new MapRegisterCache();
+        mapRegisterCache.addEntry(createKey(0), createValue());
+
+        final MapRegisterCacheValue refreshed = mapRegisterCache.refreshEntry(createKey(0));
+        assertNotEquals(TIMESTAMP, (long) refreshed.getMapRegisterCacheMetadata().getTimestamp());
+        assertNull(mapRegisterCache.refreshEntry(createKey(1)));
+    }
+
+    private static MapRegisterCacheKey createKey(final int index) {
+        return new MapRegisterCacheKeyBuilder()
+                .setEidPrefix(new byte[] {10, 0, (byte) (index >> 8), (byte) index})
+                .setXtrId(new byte[16])
+                .setSiteId(new byte[8])
+                .build();
+    }
+
+    private static MapRegisterCacheValue createValue() {
+        return new MapRegisterCacheValueBuilder()
+                .setPacketData(new byte[] {0x33})
+                .setMapRegisterCacheMetadata(new MapRegisterCacheMetadataBuilder()
+                        .setXtrId(new XtrId(new byte[16]))
+                        .setTimestamp(TIMESTAMP)
+                        .build())
+                .build();
+    }
+
+    private static final class ManualTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(final long millis) {
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.lispflowmapping.southbound.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UdpDropCounterTest {
+    private static final String HEADER = "   sl  local_address rem_address   st tx_queue rx_queue tr tm->when "
+            + "retrnsmt   uid  timeout inode ref pointer drops\n";
+    private static final String UDP = HEADER
+            + "  512: 00000000:10F6 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 "
+            + "41211 2 0000000000000000 15\n"
+            + "  513: 00000000:10F6 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 "
+            + "41212 2 0000000000000000 7\n"
+            + "  600: 0100007F:0035 00000000:0000 07 00000000:00000000 00:00000000 00000000     0        0 "
+            + "40000 2 0000000000000000 100\n";
+    private static final String UDP6 = HEADER
+            + "  512: 00000000000000000000000000000000:10F6 00000000000000000000000000000000:0000 07 "
+            + "00000000:00000000 00:00000000 00000000     0        0 41213 2 0000000000000000 3\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the drops of all IPv4 and IPv6 sockets bound to the ports are added up.
+     */
+    @Test
+    public void getAsLongTest() throws IOException {
+        final Path udp = folder.newFile().toPath();
+        final Path udp6 = folder.newFile().toPath();
+        Files.writeString(udp, UDP, StandardCharsets.US_ASCII);
+        Files.writeString(udp6, UDP6, StandardCharsets.US_ASCII);
+
+        assertEquals(25L, new UdpDropCounter(port -> port == 4342, List.of(udp, udp6)).getAsLong());
+        assertEquals(100L, new UdpDropCounter(port -> port == 53, List.of(udp, udp6)).getAsLong());
+        assertEquals(0L, new UdpDropCounter(port -> port == 4341, List.of(udp, udp6)).getAsLong());
+        assertEquals(125L, new UdpDropCounter(port -> port == 4342 || port == 53, List.of(udp, udp6)).getAsLong());
+    }
+
+    /**
+     * Tests that missing files are ignored.
+     */
+    @Test
+    public void getAsLongTest_noFiles() {
+        assertEquals(0L, new UdpDropCounter(port -> port == 4342, List.of(folder.getRoot().toPath().resolve("udp")))
+                .getAsLong());
+    }
+}